@@ -0,0 +1,72 @@
+package benchmark;
+
+import data_access.StockDataAccessInterface;
+import entity.Stock;
+import entity.StockMarket;
+import utility.ViewManager;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Shared fixtures for the benchmarks
+ */
+final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * Create a ticker name for the given index, e.g. T000042
+     */
+    static String ticker(int index) {
+        return String.format("T%06d", index);
+    }
+
+    /**
+     * Create the ticker names for indices 0 to count - 1, so benchmarks do not format strings in the measured code
+     */
+    static String[] tickers(int count) {
+        String[] tickers = new String[count];
+        for (int i = 0; i < count; i++) {
+            tickers[i] = ticker(i);
+        }
+        return tickers;
+    }
+
+    /**
+     * Create a stock data access object with the given number of synthetic stocks.
+     * Every call to getStocks moves each price by a small random amount, like a market tick.
+     */
+    static StockDataAccessInterface syntheticStockDataAccess(int stockCount) {
+        Map<String, Stock> stocks = new HashMap<>();
+        for (int i = 0; i < stockCount; i++) {
+            String ticker = ticker(i);
+            stocks.put(ticker, new Stock(ticker, "Company " + i, "Industry " + (i % 10), 100.0 + i % 50));
+        }
+        return () -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (Stock stock : stocks.values()) {
+                stock.updatePrice(Math.max(1.0, stock.getPrice() + random.nextDouble(-0.5, 0.5)));
+            }
+            return new HashMap<>(stocks);
+        };
+    }
+
+    /**
+     * Initialize the StockMarket singleton with synthetic stocks and load them once.
+     * The periodic update thread is stopped so only the benchmark drives market updates.
+     * JMH forks a fresh JVM for every benchmark and parameter combination, so this runs once per fork.
+     */
+    static StockMarket initializeMarket(int stockCount) {
+        // a no-op component keeps ViewManager from logging unhandled broadcasts
+        ViewManager.Instance().registerComponent(event -> {
+        });
+        StockMarket market = StockMarket.Instance();
+        market.stopUpdatingStockPrices();
+        market.initialize(syntheticStockDataAccess(stockCount));
+        market.updateStocks();
+        return market;
+    }
+}
@@ -0,0 +1,44 @@
+package benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+
+/**
+ * Entry point of the benchmark jar.
+ * <p>
+ * Runs the selected benchmarks once per thread count listed in the system property bench.threads
+ * (default "1,4") and writes one JSON result file per thread count into bench.results (default "results").
+ * All standard JMH command line options are accepted and passed through, e.g. a benchmark regex or -p.
+ * Benchmarks using thread groups keep their own group layout.
+ * </p>
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        String[] threadCounts = System.getProperty("bench.threads", "1,4").split(",");
+        File resultDirectory = new File(System.getProperty("bench.results", "results"));
+        if (!resultDirectory.isDirectory() && !resultDirectory.mkdirs()) {
+            throw new IllegalStateException("Cannot create result directory " + resultDirectory);
+        }
+
+        for (String threadCount : threadCounts) {
+            int threads = Integer.parseInt(threadCount.trim());
+            File resultFile = new File(resultDirectory, "jmh-result-t" + threads + ".json");
+            Options options = new OptionsBuilder()
+                    .parent(commandLineOptions)
+                    .threads(threads)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(resultFile.getPath())
+                    .build();
+            new Runner(options).run();
+        }
+    }
+}
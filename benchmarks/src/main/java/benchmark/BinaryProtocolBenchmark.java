@@ -0,0 +1,221 @@
+package benchmark;
+
+import data_access.InMemoryUserDataAccessObject;
+import entity.User;
+import interface_adapter.binary.BinaryOrderServer;
+import interface_adapter.binary.BinaryProtocol;
+import interface_adapter.binary.LoginMessage;
+import interface_adapter.binary.LoginResultMessage;
+import interface_adapter.binary.OrderAckMessage;
+import interface_adapter.binary.OrderMessage;
+import interface_adapter.market_update.PriceFanOut;
+import org.openjdk.jmh.annotations.*;
+import use_case.login.LoginInteractor;
+import use_case.login.LoginPipeline;
+import utility.LatencyHistogram;
+import utility.PasswordHasher;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks BinaryOrderServer with bot clients pipelining orders over loopback: every operation is one order,
+ * alternating buys and sells of the same stock, spread over the connections with at most WINDOW orders of a
+ * connection unanswered. The round trips seen by the clients and the server's own order latencies are printed at
+ * the end of the trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+// the order path takes about 10 s to be compiled, so it warms up longer than the other benchmarks
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BinaryProtocolBenchmark {
+
+    private static final int STOCK_COUNT = 30;
+    private static final int ORDERS = 8192;
+    private static final int WINDOW = 256;
+
+    @Param({"1", "16"})
+    public int connections;
+
+    private LoginPipeline loginPipeline;
+    private BinaryOrderServer server;
+    private BotClient[] clients;
+    private final LatencyHistogram roundTrips = new LatencyHistogram();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        BenchmarkFixtures.initializeMarket(STOCK_COUNT);
+        String[] tickers = BenchmarkFixtures.tickers(STOCK_COUNT);
+        // the clients log in over the protocol once, LoginBenchmark measures password hashing
+        PasswordHasher.Instance().setIterations(1);
+
+        InMemoryUserDataAccessObject dataAccess = new InMemoryUserDataAccessObject(false);
+        for (int i = 0; i < connections; i++) {
+            User user = new User("bot-" + i, "password");
+            user.addBalance(Double.MAX_VALUE / 4);
+            dataAccess.addUser(user);
+        }
+        loginPipeline = new LoginPipeline(new LoginInteractor(dataAccess, null), null, 1, connections);
+        server = new BinaryOrderServer(new InetSocketAddress("localhost", 0), loginPipeline, dataAccess,
+                dataAccess, new PriceFanOut());
+        server.start();
+
+        long[] packedTickers = new long[STOCK_COUNT];
+        for (int i = 0; i < STOCK_COUNT; i++) {
+            packedTickers[i] = BinaryProtocol.packTicker(tickers[i]);
+        }
+        clients = new BotClient[connections];
+        for (int i = 0; i < connections; i++) {
+            clients[i] = new BotClient(server.getPort(), packedTickers, roundTrips);
+            clients[i].login("bot-" + i, "password");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        System.out.println();
+        System.out.println("client round trips: " + roundTrips.summary());
+        System.out.println("server order latency: " + server.getOrderLatency().summary());
+        for (BotClient client : clients) {
+            client.channel.close();
+        }
+        server.stop();
+        loginPipeline.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ORDERS)
+    public void orders() throws IOException {
+        int perClient = ORDERS / connections;
+        for (BotClient client : clients) {
+            client.start(perClient);
+        }
+        boolean done = false;
+        while (!done) {
+            done = true;
+            for (BotClient client : clients) {
+                client.send();
+            }
+            for (BotClient client : clients) {
+                done &= client.receive();
+            }
+        }
+    }
+
+    /**
+     * A bot on one connection, encoding its orders and decoding their answers in place with flyweights
+     */
+    private static class BotClient {
+
+        private final SocketChannel channel;
+        private final ByteBuffer out = ByteBuffer.allocateDirect(1 << 16);
+        private final ByteBuffer in = ByteBuffer.allocateDirect(1 << 16);
+        private final OrderMessage order = new OrderMessage();
+        private final OrderAckMessage ack = new OrderAckMessage();
+        private final long[] packedTickers;
+        private final long[] sentAt = new long[WINDOW];
+        private final LatencyHistogram roundTrips;
+        private long nextOrderId;
+        private long acked;
+        private long end;
+
+        BotClient(int port, long[] packedTickers, LatencyHistogram roundTrips) throws IOException {
+            channel = SocketChannel.open(new InetSocketAddress("localhost", port));
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            this.packedTickers = packedTickers;
+            this.roundTrips = roundTrips;
+        }
+
+        void login(String username, String password) throws IOException {
+            new LoginMessage().encode(out, username, password);
+            write();
+            LoginResultMessage result = new LoginResultMessage();
+            result.wrap(in, nextFrame());
+            if (result.status() != BinaryProtocol.LOGIN_ACCEPTED) {
+                throw new IllegalStateException("Benchmark login rejected.");
+            }
+            skipFrame();
+        }
+
+        void start(int orders) {
+            end = nextOrderId + orders;
+        }
+
+        // send orders until WINDOW of them are unanswered
+        void send() throws IOException {
+            long now = System.nanoTime();
+            while (nextOrderId < end && nextOrderId - acked < WINDOW) {
+                // a buy followed by a sell of the same stock, so the position never runs out
+                order.encode(out)
+                        .clientOrderId(nextOrderId)
+                        .side(nextOrderId % 2 == 0 ? BinaryProtocol.SIDE_BUY : BinaryProtocol.SIDE_SELL)
+                        .quantity(1)
+                        .ticker(packedTickers[(int) (nextOrderId / 2 % packedTickers.length)]);
+                sentAt[(int) (nextOrderId % WINDOW)] = now;
+                nextOrderId++;
+            }
+            write();
+        }
+
+        // read the answers that arrived, fills are skipped, and tell whether every order is answered
+        boolean receive() throws IOException {
+            if (acked == end) {
+                return true;
+            }
+            if (channel.read(in) < 0) {
+                throw new IllegalStateException("Benchmark connection closed.");
+            }
+            in.flip();
+            long now = System.nanoTime();
+            while (in.remaining() >= BinaryProtocol.HEADER_BYTES
+                    && in.remaining() >= BinaryProtocol.LENGTH_BYTES + in.getInt(in.position())) {
+                int start = in.position();
+                if (in.get(start + BinaryProtocol.LENGTH_BYTES) == OrderAckMessage.TYPE) {
+                    ack.wrap(in, start + BinaryProtocol.HEADER_BYTES);
+                    if (ack.status() != BinaryProtocol.ORDER_ACCEPTED) {
+                        throw new IllegalStateException("Benchmark order rejected with " + ack.status() + ".");
+                    }
+                    roundTrips.record(now - sentAt[(int) (ack.clientOrderId() % WINDOW)]);
+                    acked++;
+                }
+                in.position(start + BinaryProtocol.LENGTH_BYTES + in.getInt(start));
+            }
+            in.compact();
+            return acked == end;
+        }
+
+        private void write() throws IOException {
+            out.flip();
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+            out.clear();
+        }
+
+        // block until a whole frame is buffered, and get the index of its body
+        private int nextFrame() throws IOException {
+            in.flip();
+            while (in.remaining() < BinaryProtocol.HEADER_BYTES
+                    || in.remaining() < BinaryProtocol.LENGTH_BYTES + in.getInt(in.position())) {
+                in.compact();
+                if (channel.read(in) < 0) {
+                    throw new IllegalStateException("Benchmark connection closed.");
+                }
+                in.flip();
+            }
+            return in.position() + BinaryProtocol.HEADER_BYTES;
+        }
+
+        private void skipFrame() {
+            in.position(in.position() + BinaryProtocol.LENGTH_BYTES + in.getInt(in.position()));
+            in.compact();
+        }
+    }
+}
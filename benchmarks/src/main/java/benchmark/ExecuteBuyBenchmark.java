@@ -0,0 +1,106 @@
+package benchmark;
+
+import entity.LotReliefMethod;
+import entity.StockMarket;
+import entity.Transaction;
+import entity.User;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import use_case.execute_buy.*;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the throughput of ExecuteBuyInteractor.execute, each benchmark thread trades on its own account
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExecuteBuyBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Market {
+        @Param({"30", "1000"})
+        public int stockCount;
+
+        String[] tickers;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            BenchmarkFixtures.initializeMarket(stockCount);
+            tickers = BenchmarkFixtures.tickers(stockCount);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Account {
+        User user;
+        ExecuteBuyInteractor interactor;
+
+        @Setup(Level.Iteration)
+        public void setUp(Blackhole blackhole) {
+            // a fresh account per iteration keeps the transaction history from growing without bound
+            user = new User("bench-" + Thread.currentThread().threadId(), "password");
+            user.addBalance(Double.MAX_VALUE / 4);
+            // orders are not journaled, TradeJournalBenchmark measures the journal
+            ExecuteBuyDataAccessInterface dataAccess = new ExecuteBuyDataAccessInterface() {
+                @Override
+                public User getUserWithCredential(String credential) {
+                    return user;
+                }
+
+                @Override
+                public void recordFills(User user, double balanceDelta, List<Transaction> fills,
+                                        LotReliefMethod reliefMethod) {
+                }
+            };
+            interactor = new ExecuteBuyInteractor(dataAccess, new ExecuteBuyOutputBoundary() {
+                @Override
+                public void prepareSuccessView(ExecuteBuyOutputData outputData) {
+                    blackhole.consume(outputData);
+                }
+
+                @Override
+                public void prepareInsufficientBalanceExceptionView() {
+                    throw new IllegalStateException("Benchmark account ran out of balance.");
+                }
+
+                @Override
+                public void prepareStockNotFoundExceptionView() {
+                    throw new IllegalStateException("Benchmark ticker not found.");
+                }
+
+                @Override
+                public void prepareValidationExceptionView() {
+                    throw new IllegalStateException("Benchmark credential rejected.");
+                }
+
+                @Override
+                public void prepareStorageExceptionView() {
+                    throw new IllegalStateException("Benchmark order could not be recorded.");
+                }
+            });
+        }
+    }
+
+    @Benchmark
+    public void execute(Market market, Account account) {
+        String ticker = market.tickers[ThreadLocalRandom.current().nextInt(market.stockCount)];
+        account.interactor.execute(new ExecuteBuyInputData("credential", ticker, 1));
+    }
+
+    @Benchmark
+    public void executeUnderMarketUpdate(Market market, Account account) {
+        // every 1000th operation applies a market update, the way the scheduler would during trading
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextInt(1000) == 0) {
+            StockMarket.Instance().updateStocks();
+        }
+        String ticker = market.tickers[random.nextInt(market.stockCount)];
+        account.interactor.execute(new ExecuteBuyInputData("credential", ticker, 1));
+    }
+}
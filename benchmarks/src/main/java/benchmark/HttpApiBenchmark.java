@@ -0,0 +1,105 @@
+package benchmark;
+
+import data_access.InMemoryUserDataAccessObject;
+import entity.User;
+import interface_adapter.http.HttpApiServer;
+import interface_adapter.market_update.PriceFanOut;
+import org.openjdk.jmh.annotations.*;
+import use_case.login.LoginInteractor;
+import use_case.login.LoginPipeline;
+import utility.PasswordHasher;
+import utility.SessionManager;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks HttpApiServer with many concurrent clients: every operation is one buy order from each of 1000
+ * clients sent at the same time, served on one virtual thread per request
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HttpApiBenchmark {
+
+    private static final int STOCK_COUNT = 30;
+    private static final int CLIENTS = 1000;
+
+    private String[] tickers;
+    private String[] credentials;
+    private LoginPipeline loginPipeline;
+    private HttpApiServer server;
+    private HttpClient client;
+    private URI buyUri;
+    private URI marketUri;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        BenchmarkFixtures.initializeMarket(STOCK_COUNT);
+        tickers = BenchmarkFixtures.tickers(STOCK_COUNT);
+        // the users are created in the setup, LoginBenchmark measures password hashing
+        PasswordHasher.Instance().setIterations(1);
+
+        InMemoryUserDataAccessObject dataAccess = new InMemoryUserDataAccessObject(false);
+        credentials = new String[CLIENTS];
+        for (int i = 0; i < CLIENTS; i++) {
+            User user = new User("bench-" + i, "password");
+            user.addBalance(Double.MAX_VALUE / 4);
+            dataAccess.addUser(user);
+            credentials[i] = SessionManager.Instance().createSession(user.getUsername());
+        }
+        // logins are not measured, the pipeline's own presenter is never called
+        loginPipeline = new LoginPipeline(new LoginInteractor(dataAccess, null), null, 1, 1);
+        server = new HttpApiServer(new InetSocketAddress("localhost", 0), loginPipeline, dataAccess, dataAccess,
+                dataAccess, new PriceFanOut());
+        server.start();
+        client = HttpClient.newHttpClient();
+        buyUri = URI.create("http://localhost:" + server.getPort() + "/api/buy");
+        marketUri = URI.create("http://localhost:" + server.getPort() + "/api/market");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.close();
+        server.stop(0);
+        loginPipeline.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CLIENTS)
+    public void concurrentBuys() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<CompletableFuture<HttpResponse<Void>>> responses = new ArrayList<>(CLIENTS);
+        for (int i = 0; i < CLIENTS; i++) {
+            HttpRequest request = HttpRequest.newBuilder(buyUri)
+                    .header("Authorization", "Bearer " + credentials[i])
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            "{\"ticker\":\"" + tickers[random.nextInt(STOCK_COUNT)] + "\",\"quantity\":1}"))
+                    .build();
+            responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding()));
+        }
+        for (CompletableFuture<HttpResponse<Void>> response : responses) {
+            if (response.join().statusCode() != 200) {
+                throw new IllegalStateException("Benchmark order failed.");
+            }
+        }
+    }
+
+    @Benchmark
+    public int market() throws IOException, InterruptedException {
+        return client.send(HttpRequest.newBuilder(marketUri).build(), HttpResponse.BodyHandlers.ofString())
+                .body().length();
+    }
+}
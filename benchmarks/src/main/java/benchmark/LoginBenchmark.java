@@ -0,0 +1,126 @@
+package benchmark;
+
+import data_access.InMemoryUserDataAccessObject;
+import entity.User;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import use_case.execute_buy.*;
+import use_case.login.*;
+import utility.PasswordHasher;
+import utility.SessionManager;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Benchmarks the latency of ExecuteBuyInteractor.execute while bursts of logins go through a LoginPipeline.
+ * Every iteration submits a burst of logins with a correct password, and the login latency percentiles and the
+ * number of logins rejected as busy are printed after the trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoginBenchmark {
+
+    private static final int STOCK_COUNT = 30;
+    private static final int LOGIN_USERS = 100;
+    private static final int LOGIN_CONCURRENCY = 1;
+    private static final int LOGIN_QUEUE_CAPACITY = 1024;
+
+    @Param({"0", "10000"})
+    public int burst;
+
+    @Param({"10000"})
+    public int passwordIterations;
+
+    private String[] tickers;
+    private String credential;
+    private ExecuteBuyInteractor buyInteractor;
+    private LoginPipeline loginPipeline;
+    private final AtomicLong rejectedLogins = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp(Blackhole blackhole) {
+        BenchmarkFixtures.initializeMarket(STOCK_COUNT);
+        tickers = BenchmarkFixtures.tickers(STOCK_COUNT);
+        PasswordHasher.Instance().setIterations(passwordIterations);
+
+        InMemoryUserDataAccessObject dataAccess = new InMemoryUserDataAccessObject(false);
+        User trader = new User("trader", "password");
+        trader.addBalance(Double.MAX_VALUE / 4);
+        dataAccess.addUser(trader);
+        for (int i = 0; i < LOGIN_USERS; i++) {
+            dataAccess.addUser(new User("login-" + i, "password-" + i));
+        }
+        credential = SessionManager.Instance().createSession("trader");
+
+        buyInteractor = new ExecuteBuyInteractor(dataAccess, new ExecuteBuyOutputBoundary() {
+            @Override
+            public void prepareSuccessView(ExecuteBuyOutputData outputData) {
+                blackhole.consume(outputData);
+            }
+
+            @Override
+            public void prepareInsufficientBalanceExceptionView() {
+                throw new IllegalStateException("Benchmark account ran out of balance.");
+            }
+
+            @Override
+            public void prepareStockNotFoundExceptionView() {
+                throw new IllegalStateException("Benchmark ticker not found.");
+            }
+
+            @Override
+            public void prepareValidationExceptionView() {
+                throw new IllegalStateException("Benchmark credential rejected.");
+            }
+
+            @Override
+            public void prepareStorageExceptionView() {
+                throw new IllegalStateException("Benchmark order could not be recorded.");
+            }
+        });
+
+        LoginOutputBoundary loginPresenter = new LoginOutputBoundary() {
+            @Override
+            public void prepareSuccessView(LoginOutputData outputData) {
+            }
+
+            @Override
+            public void prepareValidationExceptionView() {
+                throw new IllegalStateException("Benchmark password rejected.");
+            }
+
+            @Override
+            public void prepareBusyExceptionView() {
+                rejectedLogins.incrementAndGet();
+            }
+        };
+        loginPipeline = new LoginPipeline(new LoginInteractor(dataAccess, loginPresenter), loginPresenter,
+                LOGIN_CONCURRENCY, LOGIN_QUEUE_CAPACITY);
+    }
+
+    @Setup(Level.Iteration)
+    public void submitBurst() {
+        for (int i = 0; i < burst; i++) {
+            int user = i % LOGIN_USERS;
+            loginPipeline.execute(new LoginInputData("login-" + user, "password-" + user));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        loginPipeline.shutdown();
+        System.out.println("Logins: " + loginPipeline.getLatency().summary() + " rejected=" + rejectedLogins.get());
+    }
+
+    @Benchmark
+    public void buy() {
+        String ticker = tickers[ThreadLocalRandom.current().nextInt(STOCK_COUNT)];
+        buyInteractor.execute(new ExecuteBuyInputData(credential, ticker, 1));
+    }
+}
@@ -0,0 +1,54 @@
+package benchmark;
+
+import entity.Portfolio;
+import entity.Stock;
+import entity.UserStock;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks Portfolio.getTotalValue for different numbers of positions
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PortfolioBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public int positions;
+
+    private Portfolio portfolio;
+    private Map<String, Double> tickUp;
+    private Map<String, Double> tickDown;
+    private boolean up;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        portfolio = new Portfolio();
+        for (int i = 0; i < positions; i++) {
+            String ticker = BenchmarkFixtures.ticker(i);
+            Stock stock = new Stock(ticker, "Company " + i, "Industry", 100.0 + i % 50);
+            portfolio.addStock(new UserStock(stock, 90.0, 10 + i % 100));
+        }
+        tickUp = Map.of(BenchmarkFixtures.ticker(0), 101.0);
+        tickDown = Map.of(BenchmarkFixtures.ticker(0), 100.0);
+    }
+
+    @Benchmark
+    public double getTotalValue() {
+        return portfolio.getTotalValue();
+    }
+
+    @Benchmark
+    public double applyPriceUpdateThenGetTotalValue() {
+        // alternate between two prices so every call changes the value of one position
+        up = !up;
+        portfolio.applyPriceUpdates(up ? tickUp : tickDown);
+        return portfolio.getTotalValue();
+    }
+}
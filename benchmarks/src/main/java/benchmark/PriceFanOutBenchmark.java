@@ -0,0 +1,77 @@
+package benchmark;
+
+import interface_adapter.market_update.PriceFanOut;
+import interface_adapter.market_update.PriceSubscription;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks PriceFanOut.onPricesUpdated for a market update of every ticker, with many clients subscribed to a
+ * random set of tickers each, and the same update followed by a flush of every client
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PriceFanOutBenchmark {
+
+    private static final int STOCK_COUNT = 30;
+
+    @Param({"1000", "10000"})
+    public int clients;
+
+    @Param({"10"})
+    public int tickersPerClient;
+
+    private String[] tickers;
+    private PriceFanOut priceFanOut;
+    private PriceSubscription[] subscriptions;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkFixtures.initializeMarket(STOCK_COUNT);
+        tickers = BenchmarkFixtures.tickers(STOCK_COUNT);
+        priceFanOut = new PriceFanOut();
+        subscriptions = new PriceSubscription[clients];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < clients; i++) {
+            Set<String> subscribed = new HashSet<>();
+            while (subscribed.size() < tickersPerClient) {
+                subscribed.add(tickers[random.nextInt(STOCK_COUNT)]);
+            }
+            subscriptions[i] = priceFanOut.subscribe(subscribed, PriceFanOut.MIN_FLUSH_INTERVAL_MILLIS);
+        }
+    }
+
+    @Benchmark
+    public void update() {
+        priceFanOut.onPricesUpdated(tick());
+    }
+
+    @Benchmark
+    public void updateAndFlush(Blackhole blackhole) {
+        priceFanOut.onPricesUpdated(tick());
+        for (PriceSubscription subscription : subscriptions) {
+            blackhole.consume(subscription.drain());
+        }
+    }
+
+    // a market update that changes the price of every ticker
+    private Map<String, Double> tick() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Map<String, Double> prices = new HashMap<>();
+        for (String ticker : tickers) {
+            prices.put(ticker, random.nextDouble(50, 150));
+        }
+        return prices;
+    }
+}
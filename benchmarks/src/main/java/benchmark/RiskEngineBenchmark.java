@@ -0,0 +1,73 @@
+package benchmark;
+
+import entity.PortfolioRisk;
+import entity.PriceHistory;
+import entity.RiskEngine;
+import entity.Stock;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks a full risk analysis of one portfolio, with a cold and a warm covariance cache
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RiskEngineBenchmark {
+
+    private static final int ROUNDS = 251;
+
+    @Param({"50", "500"})
+    public int positions;
+
+    @Param({"10000"})
+    public int scenarios;
+
+    private PriceHistory priceHistory;
+    private List<String> tickers;
+    private double[] values;
+    private RiskEngine warmEngine;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        priceHistory = new PriceHistory(ROUNDS - 1);
+        tickers = new ArrayList<>(Arrays.asList(BenchmarkFixtures.tickers(positions)));
+        values = new double[positions];
+        Arrays.fill(values, 1000.0);
+
+        // random walks for every stock
+        SplittableRandom random = new SplittableRandom(42);
+        double[] prices = new double[positions];
+        Arrays.fill(prices, 100.0);
+        for (int round = 0; round < ROUNDS; round++) {
+            List<Stock> stocks = new ArrayList<>(positions);
+            for (int i = 0; i < positions; i++) {
+                prices[i] *= 1 + random.nextGaussian() * 0.02;
+                stocks.add(new Stock(tickers.get(i), "Company " + i, "Industry", prices[i]));
+            }
+            priceHistory.record(stocks);
+        }
+
+        warmEngine = new RiskEngine(priceHistory);
+        warmEngine.analyze(tickers, values, 0.99, scenarios);
+    }
+
+    @Benchmark
+    public PortfolioRisk analyzeCold() {
+        return new RiskEngine(priceHistory).analyze(tickers, values, 0.99, scenarios);
+    }
+
+    @Benchmark
+    public PortfolioRisk analyzeWarm() {
+        // a second user holding the same tickers reuses the cached covariances
+        return warmEngine.analyze(tickers, values, 0.99, scenarios);
+    }
+}
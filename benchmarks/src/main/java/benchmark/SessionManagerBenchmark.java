@@ -0,0 +1,65 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import utility.SessionManager;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks SessionManager.getUsername of random live sessions, and creating and ending a session.
+ * Resolving a credential to a user id through the username and a second map is compared with the principal kept in
+ * the session.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SessionManagerBenchmark {
+
+    @Param({"1000", "1000000"})
+    public int sessionCount;
+
+    private SessionManager sessionManager;
+    private String[] credentials;
+    private Map<String, Integer> userIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // JMH forks a fresh JVM for every parameter, so the singleton only holds this trial's sessions
+        sessionManager = SessionManager.Instance();
+        credentials = new String[sessionCount];
+        userIds = new HashMap<>();
+        for (int i = 0; i < sessionCount; i++) {
+            credentials[i] = sessionManager.createSession("user-" + i);
+            userIds.put("user-" + i, i);
+        }
+    }
+
+    @Benchmark
+    public Optional<String> getUsername() {
+        return sessionManager.getUsername(credentials[ThreadLocalRandom.current().nextInt(sessionCount)]);
+    }
+
+    @Benchmark
+    public Integer resolveThroughUsername() {
+        String credential = credentials[ThreadLocalRandom.current().nextInt(sessionCount)];
+        return sessionManager.getUsername(credential).map(userIds::get).orElse(null);
+    }
+
+    @Benchmark
+    public Integer resolvePrincipal() {
+        String credential = credentials[ThreadLocalRandom.current().nextInt(sessionCount)];
+        return sessionManager.getPrincipal(credential, Integer.class, userIds::get);
+    }
+
+    @Benchmark
+    public void createAndEndSession() {
+        sessionManager.endSession(sessionManager.createSession("bench"));
+    }
+}
@@ -0,0 +1,73 @@
+package benchmark;
+
+import entity.Stock;
+import entity.StockMarket;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks StockMarket reads, alone and while a writer thread keeps applying market updates
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StockMarketBenchmark {
+
+    @Param({"30", "1000", "10000"})
+    public int stockCount;
+
+    private StockMarket market;
+    private String[] tickers;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        market = BenchmarkFixtures.initializeMarket(stockCount);
+        tickers = BenchmarkFixtures.tickers(stockCount);
+    }
+
+    @Benchmark
+    public Optional<Stock> getStock() {
+        return market.getStock(tickers[ThreadLocalRandom.current().nextInt(stockCount)]);
+    }
+
+    @Benchmark
+    public List<Stock> getStocks() {
+        return market.getStocks();
+    }
+
+    @Benchmark
+    @Group("getStockUnderUpdate")
+    @GroupThreads(3)
+    public Optional<Stock> getStockReader() {
+        return market.getStock(tickers[ThreadLocalRandom.current().nextInt(stockCount)]);
+    }
+
+    @Benchmark
+    @Group("getStockUnderUpdate")
+    @GroupThreads(1)
+    public void getStockWriter() {
+        market.updateStocks();
+    }
+
+    @Benchmark
+    @Group("getStocksUnderUpdate")
+    @GroupThreads(3)
+    public void getStocksReader(Blackhole blackhole) {
+        blackhole.consume(market.getStocks());
+    }
+
+    @Benchmark
+    @Group("getStocksUnderUpdate")
+    @GroupThreads(1)
+    public void getStocksWriter() {
+        market.updateStocks();
+    }
+}
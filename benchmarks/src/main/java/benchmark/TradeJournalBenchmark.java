@@ -0,0 +1,55 @@
+package benchmark;
+
+import data_access.JournalDurability;
+import data_access.JournalRecord;
+import data_access.TradeJournal;
+import entity.LotReliefMethod;
+import entity.Transaction;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks TradeJournal.append for every durability, with several threads appending so GROUP can share forces
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class TradeJournalBenchmark {
+
+    @Param({"SYNC", "GROUP", "ASYNC"})
+    public JournalDurability durability;
+
+    private Path file;
+    private TradeJournal journal;
+    private JournalRecord record;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = Files.createTempFile("trades", ".journal");
+        Files.delete(file);
+        journal = new TradeJournal(file, durability, 10);
+        record = new JournalRecord("bench", -100.0, LotReliefMethod.FIFO,
+                List.of(new Transaction(new Date(), BenchmarkFixtures.ticker(0), 1, 100.0, "buy")));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        journal.close();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public void append() throws IOException {
+        journal.append(record);
+    }
+}
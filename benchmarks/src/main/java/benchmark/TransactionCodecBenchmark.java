@@ -0,0 +1,78 @@
+package benchmark;
+
+import data_access.TransactionCodec;
+import entity.Transaction;
+import entity.TransactionHistory;
+import entity.TransactionSide;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks encoding and decoding a stream of transactions with TransactionCodec, reported per transaction
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@OperationsPerInvocation(TransactionCodecBenchmark.TRANSACTIONS)
+public class TransactionCodecBenchmark {
+
+    static final int TRANSACTIONS = 100_000;
+
+    private final List<Transaction> transactions = new ArrayList<>(TRANSACTIONS);
+    private final TransactionHistory history = new TransactionHistory();
+    private final ByteArrayOutputStream sink = new ByteArrayOutputStream(16 * TRANSACTIONS);
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        long start = System.currentTimeMillis() - TRANSACTIONS * 1000L;
+        for (int i = 0; i < TRANSACTIONS; i++) {
+            Transaction transaction = new Transaction(start + i * 1000L, BenchmarkFixtures.ticker(i % 30),
+                    1 + i % 100, 100.0 + (i % 5000) / 100.0, i % 3 == 0 ? TransactionSide.SELL : TransactionSide.BUY);
+            transactions.add(transaction);
+            history.addTransaction(transaction);
+        }
+        encoded = TransactionCodec.encode(transactions);
+    }
+
+    @Benchmark
+    public int encodeTransactions() throws IOException {
+        sink.reset();
+        try (TransactionCodec.Encoder encoder = new TransactionCodec.Encoder(sink)) {
+            for (Transaction transaction : transactions) {
+                encoder.write(transaction);
+            }
+        }
+        return sink.size();
+    }
+
+    @Benchmark
+    public int encodeHistoryColumns() throws IOException {
+        sink.reset();
+        try (TransactionCodec.Encoder encoder = new TransactionCodec.Encoder(sink)) {
+            encoder.write(history, 0, history.size());
+        }
+        return sink.size();
+    }
+
+    @Benchmark
+    public long decodeTransactions() throws IOException {
+        long quantity = 0;
+        try (TransactionCodec.Decoder decoder = new TransactionCodec.Decoder(new ByteArrayInputStream(encoded))) {
+            Transaction transaction;
+            while ((transaction = decoder.read()) != null) {
+                quantity += transaction.getQuantity();
+            }
+        }
+        return quantity;
+    }
+}
@@ -0,0 +1,62 @@
+package benchmark;
+
+import entity.Transaction;
+import entity.TransactionHistory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks reading the latest transactions of a TransactionHistory for different history and page sizes
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionHistoryBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int historySize;
+
+    @Param({"10", "100", "1000"})
+    public int count;
+
+    private TransactionHistory history;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        history = new TransactionHistory();
+        long start = System.currentTimeMillis() - historySize * 1000L;
+        for (int i = 0; i < historySize; i++) {
+            history.addTransaction(new Transaction(new Date(start + i * 1000L),
+                    BenchmarkFixtures.ticker(i % 30), 1 + i % 100, 100.0 + i % 50, "buy"));
+        }
+    }
+
+    @Benchmark
+    public List<Transaction> getRecentTransactions() {
+        return history.getRecentTransactions(count);
+    }
+
+    @Benchmark
+    public long readRecentTransactions() {
+        long quantity = 0;
+        for (Transaction transaction : history.getRecentTransactions(count)) {
+            quantity += transaction.getQuantity();
+        }
+        return quantity;
+    }
+
+    @Benchmark
+    public long scanQuantityColumn() {
+        long quantity = 0;
+        for (int i = Math.max(history.size() - count, 0); i < history.size(); i++) {
+            quantity += history.getQuantity(i);
+        }
+        return quantity;
+    }
+}
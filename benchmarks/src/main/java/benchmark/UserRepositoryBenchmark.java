@@ -0,0 +1,118 @@
+package benchmark;
+
+import data_access.ShardedUserDataAccessObject;
+import entity.User;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import use_case.execute_buy.*;
+import utility.PasswordHasher;
+import utility.SessionManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Benchmarks ExecuteBuyInteractor.execute on ShardedUserDataAccessObject with more users on disk than its memory
+ * budget keeps resident. Most orders come from a small set of active traders, like a real user base, and the cache
+ * hit rate and the load latency of evicted users are printed after every trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserRepositoryBenchmark {
+
+    private static final int STOCK_COUNT = 30;
+    private static final int SHARD_COUNT = 16;
+
+    @Param({"20000"})
+    public int userCount;
+
+    // the share of orders from the active traders, who are a tenth of the users
+    @Param({"0.9"})
+    public double activeShare;
+
+    @Param({"2000000", "20000000"})
+    public long maxResidentBytes;
+
+    private Path directory;
+    private ShardedUserDataAccessObject dataAccess;
+    private String[] tickers;
+    private String[] credentials;
+    private ExecuteBuyInteractor interactor;
+
+    @Setup(Level.Trial)
+    public void setUp(Blackhole blackhole) throws IOException {
+        BenchmarkFixtures.initializeMarket(STOCK_COUNT);
+        tickers = BenchmarkFixtures.tickers(STOCK_COUNT);
+        // the users are created in the setup, LoginBenchmark measures password hashing
+        PasswordHasher.Instance().setIterations(1);
+
+        directory = Files.createTempDirectory("users");
+        dataAccess = new ShardedUserDataAccessObject(directory, SHARD_COUNT, maxResidentBytes, 100);
+        credentials = new String[userCount];
+        for (int i = 0; i < userCount; i++) {
+            User user = new User("bench-" + i, "password");
+            user.addBalance(Double.MAX_VALUE / 4);
+            dataAccess.addUser(user);
+            credentials[i] = SessionManager.Instance().createSession(user.getUsername());
+        }
+
+        interactor = new ExecuteBuyInteractor(dataAccess, new ExecuteBuyOutputBoundary() {
+            @Override
+            public void prepareSuccessView(ExecuteBuyOutputData outputData) {
+                blackhole.consume(outputData);
+            }
+
+            @Override
+            public void prepareInsufficientBalanceExceptionView() {
+                throw new IllegalStateException("Benchmark account ran out of balance.");
+            }
+
+            @Override
+            public void prepareStockNotFoundExceptionView() {
+                throw new IllegalStateException("Benchmark ticker not found.");
+            }
+
+            @Override
+            public void prepareValidationExceptionView() {
+                throw new IllegalStateException("Benchmark credential rejected.");
+            }
+
+            @Override
+            public void prepareStorageExceptionView() {
+                // an order of a user evicted while it was placed is rejected, the trader retries like a user would
+                blackhole.consume(this);
+            }
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        System.out.printf("%nhit rate %.3f, %d users resident, load latency %s%n", dataAccess.getCacheHitRate(),
+                dataAccess.getResidentUserCount(), dataAccess.getLoadLatency().summary());
+        dataAccess.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public void buy() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int activeCount = userCount / 10;
+        int trader = random.nextDouble() < activeShare
+                ? random.nextInt(activeCount)
+                : activeCount + random.nextInt(userCount - activeCount);
+        interactor.execute(new ExecuteBuyInputData(credentials[trader], tickers[random.nextInt(STOCK_COUNT)], 1));
+    }
+}
@@ -0,0 +1,121 @@
+package benchmark;
+
+import data_access.InMemoryUserDataAccessObject;
+import data_access.SqlUserDataAccessObject;
+import entity.User;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import use_case.execute_buy.*;
+import utility.PasswordHasher;
+import utility.SessionManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Compares ExecuteBuyInteractor.execute on InMemoryUserDataAccessObject and on SqlUserDataAccessObject, with orders
+ * spread over random users and the SQL writer running in the background
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserStoreBenchmark {
+
+    private static final int STOCK_COUNT = 30;
+
+    @Param({"MEMORY", "SQL"})
+    public String store;
+
+    @Param({"1000"})
+    public int userCount;
+
+    private Path directory;
+    private SqlUserDataAccessObject sqlDataAccess;
+    private String[] tickers;
+    private String[] credentials;
+    private ExecuteBuyInteractor interactor;
+
+    @Setup(Level.Trial)
+    public void setUp(Blackhole blackhole) throws IOException {
+        BenchmarkFixtures.initializeMarket(STOCK_COUNT);
+        tickers = BenchmarkFixtures.tickers(STOCK_COUNT);
+        // the users are created in the setup, LoginBenchmark measures password hashing
+        PasswordHasher.Instance().setIterations(1);
+
+        ExecuteBuyDataAccessInterface dataAccess;
+        InMemoryUserDataAccessObject memoryDataAccess = null;
+        if (store.equals("SQL")) {
+            directory = Files.createTempDirectory("users");
+            sqlDataAccess = new SqlUserDataAccessObject(directory.resolve("users"), 100);
+            dataAccess = sqlDataAccess;
+        } else {
+            memoryDataAccess = new InMemoryUserDataAccessObject(false);
+            dataAccess = memoryDataAccess;
+        }
+        credentials = new String[userCount];
+        for (int i = 0; i < userCount; i++) {
+            User user = new User("bench-" + i, "password");
+            user.addBalance(Double.MAX_VALUE / 4);
+            if (sqlDataAccess != null) {
+                sqlDataAccess.addUser(user);
+            } else {
+                memoryDataAccess.addUser(user);
+            }
+            credentials[i] = SessionManager.Instance().createSession(user.getUsername());
+        }
+
+        interactor = new ExecuteBuyInteractor(dataAccess, new ExecuteBuyOutputBoundary() {
+            @Override
+            public void prepareSuccessView(ExecuteBuyOutputData outputData) {
+                blackhole.consume(outputData);
+            }
+
+            @Override
+            public void prepareInsufficientBalanceExceptionView() {
+                throw new IllegalStateException("Benchmark account ran out of balance.");
+            }
+
+            @Override
+            public void prepareStockNotFoundExceptionView() {
+                throw new IllegalStateException("Benchmark ticker not found.");
+            }
+
+            @Override
+            public void prepareValidationExceptionView() {
+                throw new IllegalStateException("Benchmark credential rejected.");
+            }
+
+            @Override
+            public void prepareStorageExceptionView() {
+                throw new IllegalStateException("Benchmark order could not be recorded.");
+            }
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (sqlDataAccess != null) {
+            sqlDataAccess.close();
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void buy() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String credential = credentials[random.nextInt(userCount)];
+        interactor.execute(new ExecuteBuyInputData(credential, tickers[random.nextInt(STOCK_COUNT)], 1));
+    }
+}
@@ -0,0 +1,45 @@
+package benchmark;
+
+import entity.Stock;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import utility.ViewManager;
+import view.view_events.UpdateStockEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the fan-out of ViewManager.broadcastEvent to a growing number of registered components
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ViewManagerBenchmark {
+
+    @Param({"1", "10", "100", "1000"})
+    public int components;
+
+    private UpdateStockEvent event;
+
+    @Setup(Level.Trial)
+    public void setUp(Blackhole blackhole) {
+        for (int i = 0; i < components; i++) {
+            ViewManager.Instance().registerComponent(blackhole::consume);
+        }
+        List<Stock> stocks = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            stocks.add(new Stock(BenchmarkFixtures.ticker(i), "Company " + i, "Industry", 100.0));
+        }
+        event = new UpdateStockEvent(stocks);
+    }
+
+    @Benchmark
+    public void broadcastEvent() {
+        ViewManager.Instance().broadcastEvent(event);
+    }
+}
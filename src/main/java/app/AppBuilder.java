@@ -1,15 +1,49 @@
 package app;
 
+import data_access.EquityCurveStore;
+import data_access.EquitySnapshotJob;
 import data_access.InMemoryStockDataAccessObject;
 import data_access.InMemoryUserDataAccessObject;
+import data_access.JournalDurability;
+import data_access.ShardedUserDataAccessObject;
+import data_access.SqlUserDataAccessObject;
 import data_access.StockDataAccessInterface;
+import data_access.TradeAnalytics;
+import data_access.TradeAnalyticsCheckpointJob;
+import data_access.TransactionArchivalJob;
+import data_access.UserSnapshot;
+import data_access.UserSnapshotJob;
+import data_access.UserSnapshotStore;
+import data_access.TradeJournal;
+import data_access.TradeRecorder;
 import entity.StockMarket;
+import entity.User;
+import interface_adapter.binary.BinaryOrderServer;
+import interface_adapter.execute_basket.ExecuteBasketController;
+import interface_adapter.execute_basket.ExecuteBasketPresenter;
 import interface_adapter.execute_buy.ExecuteBuyController;
 import interface_adapter.execute_buy.ExecuteBuyPresenter;
+import interface_adapter.http.HttpApiServer;
 import interface_adapter.login.LoginController;
 import interface_adapter.login.LoginPresenter;
+import interface_adapter.market_update.AssetUpdatePresenter;
+import interface_adapter.market_update.PriceFanOut;
+import interface_adapter.view_equity_curve.ViewEquityCurveController;
+import interface_adapter.view_equity_curve.ViewEquityCurvePresenter;
 import interface_adapter.view_history.ViewHistoryController;
 import interface_adapter.view_history.ViewHistoryPresenter;
+import interface_adapter.view_leaderboard.ViewLeaderboardController;
+import interface_adapter.view_leaderboard.ViewLeaderboardPresenter;
+import interface_adapter.view_risk.ViewRiskController;
+import interface_adapter.view_risk.ViewRiskPresenter;
+import interface_adapter.export_history.ExportHistoryController;
+import interface_adapter.export_history.ExportHistoryPresenter;
+import interface_adapter.view_trade_analytics.ViewTradeAnalyticsController;
+import interface_adapter.view_trade_analytics.ViewTradeAnalyticsPresenter;
+import use_case.execute_basket.ExecuteBasketDataAccessInterface;
+import use_case.execute_basket.ExecuteBasketInputBoundary;
+import use_case.execute_basket.ExecuteBasketInteractor;
+import use_case.execute_basket.ExecuteBasketOutputBoundary;
 import use_case.execute_buy.ExecuteBuyDataAccessInterface;
 import use_case.execute_buy.ExecuteBuyInputBoundary;
 import use_case.execute_buy.ExecuteBuyInteractor;
@@ -18,10 +52,32 @@ import use_case.login.LoginDataAccessInterface;
 import use_case.login.LoginInputBoundary;
 import use_case.login.LoginInteractor;
 import use_case.login.LoginOutputBoundary;
+import use_case.login.LoginPipeline;
+import use_case.view_equity_curve.ViewEquityCurveDataAccessInterface;
+import use_case.view_equity_curve.ViewEquityCurveInputBoundary;
+import use_case.view_equity_curve.ViewEquityCurveInteractor;
+import use_case.view_equity_curve.ViewEquityCurveOutputBoundary;
 import use_case.view_history.ViewHistoryDataAccessInterface;
 import use_case.view_history.ViewHistoryInputBoundary;
 import use_case.view_history.ViewHistoryInteractor;
 import use_case.view_history.ViewHistoryOutputBoundary;
+import use_case.view_leaderboard.ViewLeaderboardDataAccessInterface;
+import use_case.view_leaderboard.ViewLeaderboardInputBoundary;
+import use_case.view_leaderboard.ViewLeaderboardInteractor;
+import use_case.view_leaderboard.ViewLeaderboardOutputBoundary;
+import use_case.view_risk.ViewRiskDataAccessInterface;
+import use_case.view_risk.ViewRiskInputBoundary;
+import use_case.view_risk.ViewRiskInteractor;
+import use_case.view_risk.ViewRiskOutputBoundary;
+import use_case.export_history.ExportHistoryDataAccessInterface;
+import use_case.export_history.ExportHistoryInputBoundary;
+import use_case.export_history.ExportHistoryInteractor;
+import use_case.export_history.ExportHistoryOutputBoundary;
+import use_case.view_trade_analytics.ViewTradeAnalyticsDataAccessInterface;
+import use_case.view_trade_analytics.ViewTradeAnalyticsInputBoundary;
+import use_case.view_trade_analytics.ViewTradeAnalyticsInteractor;
+import use_case.view_trade_analytics.ViewTradeAnalyticsOutputBoundary;
+import utility.PasswordHasher;
 import utility.ServiceManager;
 import utility.ViewManager;
 import view.components.DialogComponent;
@@ -29,8 +85,16 @@ import view.panels.*;
 
 import javax.swing.*;
 import java.awt.*;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * A builder class for the application.
@@ -41,6 +105,17 @@ public class AppBuilder {
     private static final int DEFAULT_WIDTH = 1000;
     private static final int DEFAULT_HEIGHT = 800;
     private static final String DEFAULT_TITLE = "Application";
+    private static final String DEFAULT_DATA_DIRECTORY = "data";
+    private static final long EQUITY_SNAPSHOT_INTERVAL = 60000; // interval between equity snapshots in milliseconds
+    private static final long JOURNAL_FLUSH_INTERVAL = 100; // interval between journal flushes with ASYNC durability
+    private static final long TRADE_ANALYTICS_CHECKPOINT_INTERVAL = 60000; // interval between analytics checkpoints in milliseconds
+    private static final int DEFAULT_HOT_HISTORY_DAYS = 30;
+    private static final long TRANSACTION_ARCHIVAL_INTERVAL = 3600000; // interval between transaction archivals in milliseconds
+    private static final long USER_SNAPSHOT_INTERVAL = 600000; // interval between user snapshots in milliseconds
+    private static final int DEFAULT_LOGIN_CONCURRENCY = Math.max(1, Runtime.getRuntime().availableProcessors() / 4);
+    private static final int LOGIN_QUEUE_CAPACITY = 1024; // logins that can wait before new ones are rejected
+    private static final long USER_FILE_FLUSH_INTERVAL = 1000; // interval between writes of changed user files in milliseconds
+    private static final long USER_DATABASE_FLUSH_INTERVAL = 1000; // interval between writes of changed users to the database in milliseconds
 
     // Components for the application
     private final JPanel cardPanel;
@@ -52,6 +127,14 @@ public class AppBuilder {
     private int width = DEFAULT_WIDTH;
     private int height = DEFAULT_HEIGHT;
     private String title = DEFAULT_TITLE;
+    private String dataDirectory = DEFAULT_DATA_DIRECTORY;
+    private JournalDurability journalDurability = JournalDurability.GROUP;
+    private int hotHistoryDays = DEFAULT_HOT_HISTORY_DAYS;
+    private int passwordIterations = PasswordHasher.DEFAULT_ITERATIONS;
+    private int loginConcurrency = DEFAULT_LOGIN_CONCURRENCY;
+    private int userShards = 0;
+    private long maxResidentUserBytes = 0;
+    private boolean sqlUsers = false;
 
     /**
      * Constructor for the AppBuilder class
@@ -80,6 +163,67 @@ public class AppBuilder {
         return this;
     }
 
+    /**
+     * Sets the directory the application stores its data in
+     */
+    public AppBuilder withDataDirectory(String dataDirectory) {
+        this.dataDirectory = dataDirectory;
+        return this;
+    }
+
+    /**
+     * Sets when executed orders are on disk before they are confirmed
+     */
+    public AppBuilder withJournalDurability(JournalDurability journalDurability) {
+        this.journalDurability = journalDurability;
+        return this;
+    }
+
+    /**
+     * Sets how many days of transactions stay in memory before they are archived
+     */
+    public AppBuilder withHotHistoryDays(int hotHistoryDays) {
+        this.hotHistoryDays = hotHistoryDays;
+        return this;
+    }
+
+    /**
+     * Sets the work factor of password hashes, as PBKDF2 iterations
+     */
+    public AppBuilder withPasswordIterations(int passwordIterations) {
+        this.passwordIterations = passwordIterations;
+        return this;
+    }
+
+    /**
+     * Sets how many logins hash passwords at the same time
+     */
+    public AppBuilder withLoginConcurrency(int loginConcurrency) {
+        this.loginConcurrency = loginConcurrency;
+        return this;
+    }
+
+    /**
+     * Keeps the users that log in, trade and view their history in sharded user files in the data directory, with
+     * at most about the given memory resident, instead of all in memory. The users in memory that have no file are
+     * copied into the files, and the orders missing from the files after a crash are replayed from the journal.
+     * The leaderboard and equity curve views are not available.
+     */
+    public AppBuilder withShardedUsers(int shardCount, long maxResidentBytes) {
+        this.userShards = shardCount;
+        this.maxResidentUserBytes = maxResidentBytes;
+        return this;
+    }
+
+    /**
+     * Keeps the users that log in, trade and view their history in an embedded SQL database in the data directory,
+     * copying the users in memory that are missing from it. The leaderboard and equity curve views are not available.
+     */
+    public AppBuilder withSqlUsers() {
+        this.sqlUsers = true;
+        return this;
+    }
+
     /**
      * Sets the initial panel to be displayed
      */
@@ -111,6 +255,10 @@ public class AppBuilder {
     public AppBuilder addActionPanels() {
         addPanel("TradeSimulationPanel", new TradeSimulationPanel());
         addPanel("TransactionHistoryPanel", new TransactionHistoryPanel());
+        addPanel("LeaderboardPanel", new LeaderboardPanel());
+        addPanel("RiskPanel", new RiskPanel());
+        addPanel("EquityCurvePanel", new EquityCurvePanel());
+        addPanel("TradeAnalyticsPanel", new TradeAnalyticsPanel());
         return this;
     }
 
@@ -134,58 +282,364 @@ public class AppBuilder {
      * Initializes all required services
      */
     private void initializeServices() {
+        // passwords are hashed from the first user on
+        PasswordHasher.Instance().setIterations(passwordIterations);
+
         // 1. Initialize DAOs first
         InMemoryStockDataAccessObject stockDAO = new InMemoryStockDataAccessObject();
-        InMemoryUserDataAccessObject userDAO = new InMemoryUserDataAccessObject();
 
         // Register concrete DAOs and their interfaces
         ServiceManager.Instance().registerService(StockDataAccessInterface.class, stockDAO);
         StockMarket.Instance().initialize(stockDAO);
 
+        // the users come from the latest snapshot if there is one, the predefined users otherwise
+        UserSnapshotStore userSnapshotStore = openUserSnapshotStore();
+        UserSnapshot userSnapshot = readUserSnapshot(userSnapshotStore);
+        InMemoryUserDataAccessObject userDAO = new InMemoryUserDataAccessObject(userSnapshot == null);
+        StockMarket.Instance().addPriceUpdateListener(userDAO);
+
+        TradeRecorder tradeRecorder = userDAO.getTradeRecorder();
+        Path tradeAnalyticsCheckpoint = Path.of(dataDirectory, "trade_analytics.bin");
+        tradeRecorder.getTradeAnalytics().readCheckpoint(tradeAnalyticsCheckpoint);
+        openTransactionArchives(userDAO, userSnapshot);
+        TradeJournal tradeJournal = openTradeJournal(userDAO, userSnapshot);
+        tradeRecorder.setTradeJournal(tradeJournal);
+        TradeAnalyticsCheckpointJob tradeAnalyticsCheckpointJob = new TradeAnalyticsCheckpointJob(
+                tradeRecorder.getTradeAnalytics(), tradeJournal, tradeAnalyticsCheckpoint,
+                TRADE_ANALYTICS_CHECKPOINT_INTERVAL);
+        tradeAnalyticsCheckpointJob.start();
+        ServiceManager.Instance().registerService(TradeJournal.class, tradeJournal);
+        ServiceManager.Instance().registerService(TradeRecorder.class, tradeRecorder);
+        ServiceManager.Instance().registerService(TradeAnalytics.class, tradeRecorder.getTradeAnalytics());
+        ServiceManager.Instance().registerService(TradeAnalyticsCheckpointJob.class, tradeAnalyticsCheckpointJob);
+
+        UserSnapshotJob userSnapshotJob = new UserSnapshotJob(userDAO, userSnapshotStore, tradeJournal,
+                USER_SNAPSHOT_INTERVAL);
+        userSnapshotJob.start();
+        ServiceManager.Instance().registerService(UserSnapshotStore.class, userSnapshotStore);
+        ServiceManager.Instance().registerService(UserSnapshotJob.class, userSnapshotJob);
+
+        TransactionArchivalJob transactionArchivalJob = new TransactionArchivalJob(userDAO,
+                TimeUnit.DAYS.toMillis(hotHistoryDays), TRANSACTION_ARCHIVAL_INTERVAL);
+        transactionArchivalJob.start();
+        ServiceManager.Instance().registerService(TransactionArchivalJob.class, transactionArchivalJob);
+
+        EquityCurveStore equityCurveStore = openEquityCurveStore();
+        userDAO.setEquityCurveStore(equityCurveStore);
+        EquitySnapshotJob equitySnapshotJob = new EquitySnapshotJob(userDAO, equityCurveStore, EQUITY_SNAPSHOT_INTERVAL);
+        equitySnapshotJob.start();
+        ServiceManager.Instance().registerService(EquityCurveStore.class, equityCurveStore);
+        ServiceManager.Instance().registerService(EquitySnapshotJob.class, equitySnapshotJob);
+
         ServiceManager.Instance().registerService(InMemoryUserDataAccessObject.class, userDAO);
-        ServiceManager.Instance().registerService(ExecuteBuyDataAccessInterface.class, userDAO);
-        ServiceManager.Instance().registerService(ViewHistoryDataAccessInterface.class, userDAO);
-        ServiceManager.Instance().registerService(LoginDataAccessInterface.class, userDAO);
+        if (userShards > 0 && sqlUsers) {
+            throw new IllegalStateException("The users are either sharded or in a database, not both.");
+        }
+        if (userShards > 0) {
+            // the leaderboard and the equity curves cover the users in memory only, so they are not offered
+            ShardedUserDataAccessObject shardedUserDAO = openShardedUsers(userDAO, tradeJournal);
+            StockMarket.Instance().addPriceUpdateListener(shardedUserDAO);
+            ServiceManager.Instance().registerService(ShardedUserDataAccessObject.class, shardedUserDAO);
+            ServiceManager.Instance().registerService(ExecuteBuyDataAccessInterface.class, shardedUserDAO);
+            ServiceManager.Instance().registerService(ExecuteBasketDataAccessInterface.class, shardedUserDAO);
+            ServiceManager.Instance().registerService(ViewHistoryDataAccessInterface.class, shardedUserDAO);
+            ServiceManager.Instance().registerService(ViewRiskDataAccessInterface.class, shardedUserDAO);
+            ServiceManager.Instance().registerService(ViewTradeAnalyticsDataAccessInterface.class, shardedUserDAO);
+            ServiceManager.Instance().registerService(ExportHistoryDataAccessInterface.class, shardedUserDAO);
+            ServiceManager.Instance().registerService(LoginDataAccessInterface.class, shardedUserDAO);
+        } else if (sqlUsers) {
+            // the leaderboard and the equity curves cover the users in memory only, so they are not offered
+            SqlUserDataAccessObject sqlUserDAO = openSqlUsers(userDAO);
+            StockMarket.Instance().addPriceUpdateListener(sqlUserDAO);
+            ServiceManager.Instance().registerService(SqlUserDataAccessObject.class, sqlUserDAO);
+            ServiceManager.Instance().registerService(ExecuteBuyDataAccessInterface.class, sqlUserDAO);
+            ServiceManager.Instance().registerService(ExecuteBasketDataAccessInterface.class, sqlUserDAO);
+            ServiceManager.Instance().registerService(ViewHistoryDataAccessInterface.class, sqlUserDAO);
+            ServiceManager.Instance().registerService(ViewRiskDataAccessInterface.class, sqlUserDAO);
+            ServiceManager.Instance().registerService(ViewTradeAnalyticsDataAccessInterface.class, sqlUserDAO);
+            ServiceManager.Instance().registerService(ExportHistoryDataAccessInterface.class, sqlUserDAO);
+            ServiceManager.Instance().registerService(LoginDataAccessInterface.class, sqlUserDAO);
+        } else {
+            ServiceManager.Instance().registerService(ViewLeaderboardDataAccessInterface.class, userDAO);
+            ServiceManager.Instance().registerService(ViewRiskDataAccessInterface.class, userDAO);
+            ServiceManager.Instance().registerService(ViewEquityCurveDataAccessInterface.class, userDAO);
+            ServiceManager.Instance().registerService(ViewTradeAnalyticsDataAccessInterface.class, userDAO);
+            ServiceManager.Instance().registerService(ExecuteBuyDataAccessInterface.class, userDAO);
+            ServiceManager.Instance().registerService(ExecuteBasketDataAccessInterface.class, userDAO);
+            ServiceManager.Instance().registerService(ViewHistoryDataAccessInterface.class, userDAO);
+            ServiceManager.Instance().registerService(ExportHistoryDataAccessInterface.class, userDAO);
+            ServiceManager.Instance().registerService(LoginDataAccessInterface.class, userDAO);
+        }
 
         // 2. Initialize Presenters and register them as output boundaries
         ExecuteBuyOutputBoundary buyPresenter = new ExecuteBuyPresenter();
+        ExecuteBasketOutputBoundary basketPresenter = new ExecuteBasketPresenter();
         ViewHistoryOutputBoundary viewHistoryPresenter = new ViewHistoryPresenter();
+        ViewLeaderboardOutputBoundary viewLeaderboardPresenter = new ViewLeaderboardPresenter();
+        ViewRiskOutputBoundary viewRiskPresenter = new ViewRiskPresenter();
+        ViewEquityCurveOutputBoundary viewEquityCurvePresenter = new ViewEquityCurvePresenter();
+        ViewTradeAnalyticsOutputBoundary viewTradeAnalyticsPresenter = new ViewTradeAnalyticsPresenter();
+        ExportHistoryOutputBoundary exportHistoryPresenter = new ExportHistoryPresenter();
         LoginOutputBoundary loginPresenter = new LoginPresenter();
 
         ServiceManager.Instance().registerService(ExecuteBuyOutputBoundary.class, buyPresenter);
+        ServiceManager.Instance().registerService(ExecuteBasketOutputBoundary.class, basketPresenter);
         ServiceManager.Instance().registerService(ViewHistoryOutputBoundary.class, viewHistoryPresenter);
+        ServiceManager.Instance().registerService(ViewLeaderboardOutputBoundary.class, viewLeaderboardPresenter);
+        ServiceManager.Instance().registerService(ViewRiskOutputBoundary.class, viewRiskPresenter);
+        ServiceManager.Instance().registerService(ViewEquityCurveOutputBoundary.class, viewEquityCurvePresenter);
+        ServiceManager.Instance().registerService(ViewTradeAnalyticsOutputBoundary.class, viewTradeAnalyticsPresenter);
+        ServiceManager.Instance().registerService(ExportHistoryOutputBoundary.class, exportHistoryPresenter);
         ServiceManager.Instance().registerService(LoginOutputBoundary.class, loginPresenter);
+        // the dashboard follows the revaluations of the users that log in
+        ShardedUserDataAccessObject shardedUserDAO = ServiceManager.Instance().getService(
+                ShardedUserDataAccessObject.class);
+        SqlUserDataAccessObject sqlUserDAO = ServiceManager.Instance().getService(SqlUserDataAccessObject.class);
+        if (shardedUserDAO != null) {
+            shardedUserDAO.addAssetUpdateListener(new AssetUpdatePresenter());
+        } else if (sqlUserDAO != null) {
+            sqlUserDAO.addAssetUpdateListener(new AssetUpdatePresenter());
+        } else {
+            userDAO.addAssetUpdateListener(new AssetUpdatePresenter());
+        }
 
         // 3. Initialize Interactors and register them as input boundaries
         ExecuteBuyInputBoundary buyInteractor = new ExecuteBuyInteractor(
                 ServiceManager.Instance().getService(ExecuteBuyDataAccessInterface.class),
                 ServiceManager.Instance().getService(ExecuteBuyOutputBoundary.class)
         );
+        ExecuteBasketInputBoundary basketInteractor = new ExecuteBasketInteractor(
+                ServiceManager.Instance().getService(ExecuteBasketDataAccessInterface.class),
+                ServiceManager.Instance().getService(ExecuteBasketOutputBoundary.class)
+        );
         ViewHistoryInputBoundary viewHistoryInteractor = new ViewHistoryInteractor(
                 ServiceManager.Instance().getService(ViewHistoryDataAccessInterface.class),
                 ServiceManager.Instance().getService(ViewHistoryOutputBoundary.class)
         );
-        LoginInputBoundary loginInteractor = new LoginInteractor(
+        ViewRiskInputBoundary viewRiskInteractor = new ViewRiskInteractor(
+                ServiceManager.Instance().getService(ViewRiskDataAccessInterface.class),
+                ServiceManager.Instance().getService(ViewRiskOutputBoundary.class)
+        );
+        ViewTradeAnalyticsInputBoundary viewTradeAnalyticsInteractor = new ViewTradeAnalyticsInteractor(
+                ServiceManager.Instance().getService(ViewTradeAnalyticsDataAccessInterface.class),
+                ServiceManager.Instance().getService(ViewTradeAnalyticsOutputBoundary.class)
+        );
+        ExportHistoryInputBoundary exportHistoryInteractor = new ExportHistoryInteractor(
+                ServiceManager.Instance().getService(ExportHistoryDataAccessInterface.class),
+                ServiceManager.Instance().getService(ExportHistoryOutputBoundary.class)
+        );
+        // logins hash passwords on their own bounded pool of threads
+        LoginPipeline loginInteractor = new LoginPipeline(new LoginInteractor(
                 ServiceManager.Instance().getService(LoginDataAccessInterface.class),
                 ServiceManager.Instance().getService(LoginOutputBoundary.class)
-        );
+        ), ServiceManager.Instance().getService(LoginOutputBoundary.class), loginConcurrency, LOGIN_QUEUE_CAPACITY);
 
         ServiceManager.Instance().registerService(ExecuteBuyInputBoundary.class, buyInteractor);
+        ServiceManager.Instance().registerService(ExecuteBasketInputBoundary.class, basketInteractor);
         ServiceManager.Instance().registerService(ViewHistoryInputBoundary.class, viewHistoryInteractor);
+        ServiceManager.Instance().registerService(ViewRiskInputBoundary.class, viewRiskInteractor);
+        ServiceManager.Instance().registerService(ViewTradeAnalyticsInputBoundary.class, viewTradeAnalyticsInteractor);
+        ServiceManager.Instance().registerService(ExportHistoryInputBoundary.class, exportHistoryInteractor);
         ServiceManager.Instance().registerService(LoginInputBoundary.class, loginInteractor);
+        ServiceManager.Instance().registerService(LoginPipeline.class, loginInteractor);
+        // the leaderboard and the equity curves are only offered when the users are in memory
+        if (ServiceManager.Instance().getService(ViewLeaderboardDataAccessInterface.class) != null) {
+            ServiceManager.Instance().registerService(ViewLeaderboardInputBoundary.class, new ViewLeaderboardInteractor(
+                    ServiceManager.Instance().getService(ViewLeaderboardDataAccessInterface.class),
+                    ServiceManager.Instance().getService(ViewLeaderboardOutputBoundary.class))
+            );
+        }
+        if (ServiceManager.Instance().getService(ViewEquityCurveDataAccessInterface.class) != null) {
+            ServiceManager.Instance().registerService(ViewEquityCurveInputBoundary.class, new ViewEquityCurveInteractor(
+                    ServiceManager.Instance().getService(ViewEquityCurveDataAccessInterface.class),
+                    ServiceManager.Instance().getService(ViewEquityCurveOutputBoundary.class))
+            );
+        }
 
         // 4. Initialize Controllers
         ServiceManager.Instance().registerService(ExecuteBuyController.class, new ExecuteBuyController(
                 ServiceManager.Instance().getService(ExecuteBuyInputBoundary.class))
         );
+        ServiceManager.Instance().registerService(ExecuteBasketController.class, new ExecuteBasketController(
+                ServiceManager.Instance().getService(ExecuteBasketInputBoundary.class))
+        );
         ServiceManager.Instance().registerService(ViewHistoryController.class, new ViewHistoryController(
                 ServiceManager.Instance().getService(ViewHistoryInputBoundary.class))
         );
+        if (ServiceManager.Instance().getService(ViewLeaderboardInputBoundary.class) != null) {
+            ServiceManager.Instance().registerService(ViewLeaderboardController.class, new ViewLeaderboardController(
+                    ServiceManager.Instance().getService(ViewLeaderboardInputBoundary.class))
+            );
+        }
+        ServiceManager.Instance().registerService(ViewRiskController.class, new ViewRiskController(
+                ServiceManager.Instance().getService(ViewRiskInputBoundary.class))
+        );
+        if (ServiceManager.Instance().getService(ViewEquityCurveInputBoundary.class) != null) {
+            ServiceManager.Instance().registerService(ViewEquityCurveController.class, new ViewEquityCurveController(
+                    ServiceManager.Instance().getService(ViewEquityCurveInputBoundary.class))
+            );
+        }
+        ServiceManager.Instance().registerService(ViewTradeAnalyticsController.class, new ViewTradeAnalyticsController(
+                ServiceManager.Instance().getService(ViewTradeAnalyticsInputBoundary.class))
+        );
+        ServiceManager.Instance().registerService(ExportHistoryController.class, new ExportHistoryController(
+                ServiceManager.Instance().getService(ExportHistoryInputBoundary.class))
+        );
         ServiceManager.Instance().registerService(LoginController.class, new LoginController(
                 ServiceManager.Instance().getService(LoginInputBoundary.class))
         );
     }
 
+    /**
+     * Opens the sharded user files in the data directory, creating the directories if needed, copies the users in
+     * memory that have no file and replays the orders the files are missing from the journal
+     */
+    private ShardedUserDataAccessObject openShardedUsers(InMemoryUserDataAccessObject userDAO,
+                                                         TradeJournal tradeJournal) {
+        try {
+            ShardedUserDataAccessObject shardedUserDAO = new ShardedUserDataAccessObject(Path.of(dataDirectory,
+                    "users"), userShards, maxResidentUserBytes, USER_FILE_FLUSH_INTERVAL, userDAO.getTradeRecorder());
+            shardedUserDAO.importUsers(getUsers(userDAO));
+            shardedUserDAO.replayJournal(tradeJournal);
+            return shardedUserDAO;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open the user files.", e);
+        }
+    }
+
+    /**
+     * Opens the user database in the data directory and copies the users in memory that are missing from it
+     */
+    private SqlUserDataAccessObject openSqlUsers(InMemoryUserDataAccessObject userDAO) {
+        try {
+            Path directory = Files.createDirectories(Path.of(dataDirectory));
+            SqlUserDataAccessObject sqlUserDAO = new SqlUserDataAccessObject(directory.resolve("users"),
+                    USER_DATABASE_FLUSH_INTERVAL, userDAO.getTradeRecorder());
+            sqlUserDAO.importUsers(getUsers(userDAO));
+            return sqlUserDAO;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open the user database.", e);
+        }
+    }
+
+    /**
+     * Gets the users in memory in the order of their ids
+     */
+    private static List<User> getUsers(InMemoryUserDataAccessObject userDAO) {
+        List<User> users = new ArrayList<>(userDAO.getUserCount());
+        for (int userId = 0; userId < userDAO.getUserCount(); userId++) {
+            users.add(userDAO.getUserById(userId));
+        }
+        return users;
+    }
+
+    /**
+     * Opens the equity curve store in the data directory, creating the directory if needed
+     */
+    private EquityCurveStore openEquityCurveStore() {
+        try {
+            Path directory = Files.createDirectories(Path.of(dataDirectory));
+            return new EquityCurveStore(directory.resolve("equity_curve.bin"));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open the equity curve store.", e);
+        }
+    }
+
+    /**
+     * Opens the user snapshot store in the data directory
+     */
+    private UserSnapshotStore openUserSnapshotStore() {
+        try {
+            return new UserSnapshotStore(Path.of(dataDirectory, "snapshots"));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open the user snapshots.", e);
+        }
+    }
+
+    /**
+     * Reads the latest user snapshot, or returns null if there is none
+     */
+    private UserSnapshot readUserSnapshot(UserSnapshotStore store) {
+        try {
+            return store.readLatest().orElse(null);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read the user snapshots.", e);
+        }
+    }
+
+    /**
+     * Opens the transaction archives of the users in the data directory and restores the users of a snapshot
+     */
+    private void openTransactionArchives(InMemoryUserDataAccessObject userDAO, UserSnapshot userSnapshot) {
+        try {
+            userDAO.setArchiveDirectory(Path.of(dataDirectory, "archive"));
+            if (userSnapshot != null) {
+                userDAO.restoreSnapshot(userSnapshot);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open the transaction archives.", e);
+        }
+    }
+
+    /**
+     * Opens the trade journal in the data directory and replays it into the users after their snapshot
+     */
+    private TradeJournal openTradeJournal(InMemoryUserDataAccessObject userDAO, UserSnapshot userSnapshot) {
+        try {
+            Path directory = Files.createDirectories(Path.of(dataDirectory));
+            TradeJournal journal = new TradeJournal(directory.resolve("trades.journal"), journalDurability,
+                    JOURNAL_FLUSH_INTERVAL, userSnapshot == null ? TradeJournal.START : userSnapshot.journalPosition());
+            userDAO.replayJournal(journal, userSnapshot);
+            return journal;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open the trade journal.", e);
+        }
+    }
+
+    /**
+     * Builds a headless server over the same services, which serves the use cases over HTTP instead of a frame
+     *
+     * @param port the port to listen on, 0 for any free port
+     */
+    public HttpApiServer buildServer(int port) {
+        // Initialize services
+        initializeServices();
+
+        // price streams take the market's updates from one fan-out
+        PriceFanOut priceFanOut = new PriceFanOut();
+        StockMarket.Instance().addPriceUpdateListener(priceFanOut);
+        ServiceManager.Instance().registerService(PriceFanOut.class, priceFanOut);
+
+        try {
+            return new HttpApiServer(new InetSocketAddress(port),
+                    ServiceManager.Instance().getService(LoginPipeline.class),
+                    ServiceManager.Instance().getService(LoginDataAccessInterface.class),
+                    ServiceManager.Instance().getService(ExecuteBuyDataAccessInterface.class),
+                    ServiceManager.Instance().getService(ViewHistoryDataAccessInterface.class),
+                    priceFanOut);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not start the server on port " + port + ".", e);
+        }
+    }
+
+    /**
+     * Builds a server for bot clients over the services of buildServer, which takes orders in a binary protocol over
+     * TCP, so call buildServer first
+     *
+     * @param port the port to listen on, 0 for any free port
+     */
+    public BinaryOrderServer buildBinaryServer(int port) {
+        try {
+            return new BinaryOrderServer(new InetSocketAddress(port),
+                    ServiceManager.Instance().getService(LoginPipeline.class),
+                    ServiceManager.Instance().getService(LoginDataAccessInterface.class),
+                    ServiceManager.Instance().getService(ExecuteBasketDataAccessInterface.class),
+                    ServiceManager.Instance().getService(PriceFanOut.class));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not start the binary server on port " + port + ".", e);
+        }
+    }
+
     /**
      * Builds and returns the configured application frame
      */
@@ -0,0 +1,38 @@
+package app;
+
+import interface_adapter.binary.BinaryOrderServer;
+import interface_adapter.http.HttpApiServer;
+
+public class ServerMain {
+    private static final int USER_SHARDS = 64; // shard directories of the user files with the sharded user store
+    private static final long MAX_RESIDENT_USER_BYTES = 256L << 20; // memory the resident users may take with the sharded user store
+
+    public static void main(String[] args) {
+        // the server has no window, but the builder still creates its Swing panels
+        System.setProperty("java.awt.headless", "true");
+        // small responses are sent at once instead of waiting for the client's delayed ACK, which takes ~40 ms; the
+        // JDK server reads this once, so it is set before any server is created
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+
+        // the port is the first argument, 8080 by default, and the binary port the second, 9090 by default
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        int binaryPort = args.length > 1 ? Integer.parseInt(args[1]) : 9090;
+        // the users are kept in memory by default, in a database with "sql" as the third argument, or in sharded
+        // user files with "sharded"
+        String userStore = args.length > 2 ? args[2] : "memory";
+        AppBuilder builder = new AppBuilder();
+        switch (userStore) {
+            case "memory" -> {
+            }
+            case "sql" -> builder.withSqlUsers();
+            case "sharded" -> builder.withShardedUsers(USER_SHARDS, MAX_RESIDENT_USER_BYTES);
+            default -> throw new IllegalArgumentException("Unknown user store " + userStore + ".");
+        }
+        HttpApiServer server = builder.buildServer(port);
+        BinaryOrderServer binaryServer = builder.buildBinaryServer(binaryPort);
+        server.start();
+        binaryServer.start();
+        System.out.println("Trading Simulator API listening on port " + server.getPort());
+        System.out.println("Trading Simulator binary orders listening on port " + binaryServer.getPort());
+    }
+}
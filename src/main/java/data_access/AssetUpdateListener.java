@@ -0,0 +1,16 @@
+package data_access;
+
+import entity.User;
+
+/**
+ * A listener that is notified when the assets of a user were revalued after a market update
+ */
+public interface AssetUpdateListener {
+
+    /**
+     * Called once per market update for every user holding at least one ticker whose price changed.
+     *
+     * @param user the revalued user
+     */
+    void onAssetsUpdated(User user);
+}
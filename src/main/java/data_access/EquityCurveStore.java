@@ -0,0 +1,252 @@
+package data_access;
+
+import entity.EquityCurve;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * An append-only columnar file of equity snapshots
+ * <p>
+ * Every snapshot is one block: a header with the timestamp and the number of users, followed by the cash column and
+ * the portfolio value column, both indexed by user id. A snapshot is written sequentially through one reused
+ * buffer, and the curve of a user is read back with two positional reads per snapshot. A block cut short by a
+ * crash is dropped when the file is opened.
+ * </p>
+ */
+public class EquityCurveStore implements Closeable {
+
+    private static final int FILE_MAGIC = 0x45514331;
+    private static final int BLOCK_MAGIC = 0x534E4150;
+    private static final int FILE_HEADER_BYTES = Integer.BYTES;
+    private static final int BLOCK_HEADER_BYTES = Integer.BYTES + Long.BYTES + Integer.BYTES;
+    private static final int WRITE_BUFFER_BYTES = 1 << 20;
+    private static final int INITIAL_BLOCKS = 64;
+
+    private final FileChannel channel;
+    private final ByteBuffer writeBuffer = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES);
+    private long endOffset;
+
+    // block index, guarded by indexLock so queries are not blocked while a snapshot is written
+    private final Object indexLock = new Object();
+    private long[] blockTimestamps = new long[INITIAL_BLOCKS];
+    private long[] blockOffsets = new long[INITIAL_BLOCKS];
+    private int[] blockUserCounts = new int[INITIAL_BLOCKS];
+    private int blockCount = 0;
+
+    /**
+     * Open a store, creating the file if it does not exist
+     *
+     * @param file the file of the store
+     * @throws IOException if the file cannot be opened or is not an equity curve file
+     */
+    public EquityCurveStore(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            if (channel.size() == 0) {
+                ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_BYTES).putInt(FILE_MAGIC).flip();
+                writeFully(header, 0);
+                endOffset = FILE_HEADER_BYTES;
+            } else {
+                ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_BYTES);
+                readFully(header, 0);
+                if (header.getInt(0) != FILE_MAGIC) {
+                    throw new IOException(file + " is not an equity curve file.");
+                }
+                endOffset = scanBlocks();
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Append a snapshot of every user
+     *
+     * @param timestamp      the time of the snapshot in epoch milliseconds, not before the last snapshot
+     * @param cash           the cash balance of every user, indexed by user id
+     * @param portfolioValue the portfolio value of every user, indexed by user id
+     * @param userCount      the number of users in the snapshot
+     * @throws IOException if the snapshot cannot be written
+     */
+    public synchronized void append(long timestamp, double[] cash, double[] portfolioValue, int userCount)
+            throws IOException {
+        synchronized (indexLock) {
+            if (blockCount > 0 && timestamp < blockTimestamps[blockCount - 1]) {
+                throw new IllegalArgumentException("Snapshots must be appended in time order.");
+            }
+        }
+        long offset = endOffset;
+        long position = offset;
+        writeBuffer.clear();
+        writeBuffer.putInt(BLOCK_MAGIC).putLong(timestamp).putInt(userCount);
+        position = writeColumn(cash, userCount, position);
+        position = writeColumn(portfolioValue, userCount, position);
+        writeBuffer.flip();
+        position += writeFully(writeBuffer, position);
+        endOffset = position;
+
+        synchronized (indexLock) {
+            addBlock(timestamp, offset, userCount);
+        }
+    }
+
+    /**
+     * Read the equity curve of a user between two times
+     *
+     * @param userId the id of the user
+     * @param from   the earliest snapshot time, inclusive
+     * @param to     the latest snapshot time, inclusive
+     * @return the snapshots of the user in the range, oldest first
+     * @throws IOException if the snapshots cannot be read
+     */
+    public EquityCurve getCurve(int userId, long from, long to) throws IOException {
+        long[] timestamps;
+        long[] offsets;
+        int[] userCounts;
+        synchronized (indexLock) {
+            int first = lowerBound(from);
+            int last = lowerBound(to == Long.MAX_VALUE ? to : to + 1);
+            timestamps = Arrays.copyOfRange(blockTimestamps, first, Math.max(first, last));
+            offsets = Arrays.copyOfRange(blockOffsets, first, Math.max(first, last));
+            userCounts = Arrays.copyOfRange(blockUserCounts, first, Math.max(first, last));
+        }
+
+        long[] curveTimestamps = new long[timestamps.length];
+        double[] cash = new double[timestamps.length];
+        double[] portfolioValue = new double[timestamps.length];
+        ByteBuffer cell = ByteBuffer.allocate(Double.BYTES);
+        int size = 0;
+        for (int i = 0; i < timestamps.length; i++) {
+            // users added after a snapshot are not in it
+            if (userId >= userCounts[i]) {
+                continue;
+            }
+            long cashColumn = offsets[i] + BLOCK_HEADER_BYTES;
+            long valueColumn = cashColumn + (long) userCounts[i] * Double.BYTES;
+            curveTimestamps[size] = timestamps[i];
+            cash[size] = readDouble(cell, cashColumn + (long) userId * Double.BYTES);
+            portfolioValue[size] = readDouble(cell, valueColumn + (long) userId * Double.BYTES);
+            size++;
+        }
+        return new EquityCurve(Arrays.copyOf(curveTimestamps, size), Arrays.copyOf(cash, size),
+                Arrays.copyOf(portfolioValue, size));
+    }
+
+    /**
+     * Get the number of snapshots in the store
+     *
+     * @return the number of snapshots
+     */
+    public int getSnapshotCount() {
+        synchronized (indexLock) {
+            return blockCount;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // write a column through the buffer, flushing whenever it is full, and return the new file position
+    private long writeColumn(double[] column, int count, long position) throws IOException {
+        int written = 0;
+        while (written < count) {
+            int room = writeBuffer.remaining() / Double.BYTES;
+            if (room == 0) {
+                writeBuffer.flip();
+                position += writeFully(writeBuffer, position);
+                writeBuffer.clear();
+                continue;
+            }
+            int chunk = Math.min(room, count - written);
+            writeBuffer.asDoubleBuffer().put(column, written, chunk);
+            writeBuffer.position(writeBuffer.position() + chunk * Double.BYTES);
+            written += chunk;
+        }
+        return position;
+    }
+
+    // rebuild the block index from the file and drop an incomplete last block
+    private long scanBlocks() throws IOException {
+        long size = channel.size();
+        long position = FILE_HEADER_BYTES;
+        ByteBuffer header = ByteBuffer.allocate(BLOCK_HEADER_BYTES);
+        while (position + BLOCK_HEADER_BYTES <= size) {
+            header.clear();
+            readFully(header, position);
+            if (header.getInt(0) != BLOCK_MAGIC) {
+                break;
+            }
+            long timestamp = header.getLong(Integer.BYTES);
+            int userCount = header.getInt(Integer.BYTES + Long.BYTES);
+            long end = position + BLOCK_HEADER_BYTES + 2L * userCount * Double.BYTES;
+            if (userCount < 0 || end > size) {
+                break;
+            }
+            addBlock(timestamp, position, userCount);
+            position = end;
+        }
+        if (position < size) {
+            channel.truncate(position);
+        }
+        return position;
+    }
+
+    private void addBlock(long timestamp, long offset, int userCount) {
+        if (blockCount == blockTimestamps.length) {
+            blockTimestamps = Arrays.copyOf(blockTimestamps, blockCount * 2);
+            blockOffsets = Arrays.copyOf(blockOffsets, blockCount * 2);
+            blockUserCounts = Arrays.copyOf(blockUserCounts, blockCount * 2);
+        }
+        blockTimestamps[blockCount] = timestamp;
+        blockOffsets[blockCount] = offset;
+        blockUserCounts[blockCount] = userCount;
+        blockCount++;
+    }
+
+    // index of the first block at or after the timestamp
+    private int lowerBound(long timestamp) {
+        int low = 0;
+        int high = blockCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (blockTimestamps[middle] < timestamp) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private double readDouble(ByteBuffer cell, long position) throws IOException {
+        cell.clear();
+        readFully(cell, position);
+        return cell.getDouble(0);
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of the equity curve file.");
+            }
+        }
+    }
+
+    private int writeFully(ByteBuffer buffer, long position) throws IOException {
+        int written = 0;
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer, position + written);
+        }
+        return written;
+    }
+}
@@ -0,0 +1,127 @@
+package data_access;
+
+import entity.User;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A periodic job that records the cash and portfolio value of every user into an EquityCurveStore
+ * <p>
+ * The values are read in parallel across shards of user ids into two reused columns, then written to the store
+ * as one sequential block. Both values of a user are O(1) to read, so a snapshot costs one pass over the users.
+ * A snapshot is not a consistent cut across users: a fill that completes during the pass may or may not be seen.
+ * </p>
+ */
+public class EquitySnapshotJob {
+
+    private static final int USERS_PER_SHARD = 16384;
+
+    private final InMemoryUserDataAccessObject userDataAccess;
+    private final EquityCurveStore store;
+    private final long intervalMillis;
+    private ScheduledExecutorService scheduler;
+
+    // columns reused across snapshots
+    private double[] cash = new double[0];
+    private double[] portfolioValue = new double[0];
+
+    /**
+     * Create a snapshot job
+     *
+     * @param userDataAccess the users to snapshot
+     * @param store          the store to write the snapshots to
+     * @param intervalMillis the interval between snapshots in milliseconds
+     */
+    public EquitySnapshotJob(InMemoryUserDataAccessObject userDataAccess, EquityCurveStore store, long intervalMillis) {
+        this.userDataAccess = userDataAccess;
+        this.store = store;
+        this.intervalMillis = intervalMillis;
+    }
+
+    /**
+     * Take a snapshot of every user now
+     *
+     * @param timestamp the time of the snapshot in epoch milliseconds
+     * @throws IOException if the snapshot cannot be written
+     */
+    public synchronized void snapshot(long timestamp) throws IOException {
+        int userCount = userDataAccess.getUserCount();
+        if (cash.length < userCount) {
+            int capacity = Math.max(userCount, cash.length * 2);
+            cash = Arrays.copyOf(cash, capacity);
+            portfolioValue = Arrays.copyOf(portfolioValue, capacity);
+        }
+        new CaptureTask(0, userCount).invoke();
+        store.append(timestamp, cash, portfolioValue, userCount);
+    }
+
+    /**
+     * Starts a background thread taking a snapshot at fixed intervals.
+     */
+    public synchronized void start() {
+        if (scheduler != null && !scheduler.isShutdown()) {
+            throw new IllegalStateException("Equity snapshots are already running.");
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        // a failed snapshot is reported and skipped, an exception would cancel the periodic task
+        scheduler.scheduleAtFixedRate(() -> {
+            try {
+                snapshot(System.currentTimeMillis());
+            } catch (IOException | RuntimeException e) {
+                e.printStackTrace();
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the periodic snapshots, waiting for a running snapshot to finish.
+     * The snapshot thread is not interrupted, since an interrupt would close the store's file channel.
+     */
+    public void stop() {
+        ScheduledExecutorService running;
+        synchronized (this) {
+            running = scheduler;
+            scheduler = null;
+        }
+        if (running != null) {
+            running.shutdown();
+            try {
+                running.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Reads the values of a range of user ids into the columns
+     */
+    private final class CaptureTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+
+        private CaptureTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= USERS_PER_SHARD) {
+                for (int userId = from; userId < to; userId++) {
+                    User user = userDataAccess.getUserById(userId);
+                    cash[userId] = user.getBalance();
+                    portfolioValue[userId] = user.getPortfolio().getTotalValue();
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new CaptureTask(from, middle), new CaptureTask(middle, to));
+        }
+    }
+}
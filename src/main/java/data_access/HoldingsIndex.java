@@ -0,0 +1,114 @@
+package data_access;
+
+import entity.TickerSymbolTable;
+import utility.collections.IntIntHashMap;
+
+import java.util.Arrays;
+
+/**
+ * A reverse index from ticker to the users holding it and their quantities
+ * <p>
+ * Tickers are addressed by their TickerSymbolTable id and users by an integer id, and every ticker keeps a primitive
+ * IntIntHashMap from user id to quantity. At 1M users with 20 positions each this is 20M entries of 11 to 22 bytes
+ * each depending on table fill, a fraction of what boxed map entries would take.
+ * Each ticker is locked separately, so fills on different tickers do not contend.
+ * </p>
+ */
+public class HoldingsIndex {
+
+    private static final int NOT_HELD = 0;
+
+    private volatile IntIntHashMap[] holdings = new IntIntHashMap[0];
+
+    /**
+     * Record the new quantity a user holds of a ticker
+     *
+     * @param userId   the id of the user
+     * @param ticker   the ticker
+     * @param quantity the new quantity, 0 removes the user from the holders of the ticker
+     */
+    public void updateHolding(int userId, String ticker, int quantity) {
+        IntIntHashMap holders = holdersOf(TickerSymbolTable.Instance().getId(ticker));
+        synchronized (holders) {
+            if (quantity == NOT_HELD) {
+                holders.remove(userId, NOT_HELD);
+            } else {
+                holders.put(userId, quantity, NOT_HELD);
+            }
+        }
+    }
+
+    /**
+     * Get the ids of all users holding a ticker
+     *
+     * @param ticker the ticker
+     * @return a snapshot of the ids of the holders, in no particular order
+     */
+    public int[] getHolders(String ticker) {
+        IntIntHashMap holders = findHolders(ticker);
+        if (holders == null) {
+            return new int[0];
+        }
+        synchronized (holders) {
+            return holders.keys();
+        }
+    }
+
+    /**
+     * Get the quantity a user holds of a ticker
+     *
+     * @param userId the id of the user
+     * @param ticker the ticker
+     * @return the quantity held, 0 if the user does not hold the ticker
+     */
+    public int getQuantity(int userId, String ticker) {
+        IntIntHashMap holders = findHolders(ticker);
+        if (holders == null) {
+            return NOT_HELD;
+        }
+        synchronized (holders) {
+            return holders.get(userId, NOT_HELD);
+        }
+    }
+
+    /**
+     * Get the number of users holding a ticker
+     *
+     * @param ticker the ticker
+     * @return the number of holders
+     */
+    public int getHolderCount(String ticker) {
+        IntIntHashMap holders = findHolders(ticker);
+        if (holders == null) {
+            return 0;
+        }
+        synchronized (holders) {
+            return holders.size();
+        }
+    }
+
+    private IntIntHashMap findHolders(String ticker) {
+        int tickerId = TickerSymbolTable.Instance().findId(ticker);
+        IntIntHashMap[] current = holdings;
+        return tickerId < 0 || tickerId >= current.length ? null : current[tickerId];
+    }
+
+    private IntIntHashMap holdersOf(int tickerId) {
+        IntIntHashMap[] current = holdings;
+        if (tickerId < current.length && current[tickerId] != null) {
+            return current[tickerId];
+        }
+        synchronized (this) {
+            current = holdings;
+            if (tickerId < current.length && current[tickerId] != null) {
+                return current[tickerId];
+            }
+            // the published array is never written, readers see a new map only through the volatile write of a copy
+            int length = tickerId < current.length ? current.length : Math.max(tickerId + 1, current.length * 2);
+            IntIntHashMap[] copy = Arrays.copyOf(current, length);
+            copy[tickerId] = new IntIntHashMap();
+            holdings = copy;
+            return copy[tickerId];
+        }
+    }
+}
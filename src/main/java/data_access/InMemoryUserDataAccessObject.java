@@ -1,55 +1,378 @@
 package data_access;
 
+import entity.EquityCurve;
+import entity.Leaderboard;
+import entity.LotReliefMethod;
+import entity.PriceUpdateListener;
+import entity.RollupResolution;
+import entity.TradeRollup;
+import entity.Transaction;
+import entity.TransactionFileFormat;
+import entity.TransactionHistory;
 import entity.User;
+import use_case.execute_basket.ExecuteBasketDataAccessInterface;
 import use_case.execute_buy.ExecuteBuyDataAccessInterface;
+import use_case.export_history.ExportHistoryDataAccessInterface;
 import use_case.login.LoginDataAccessInterface;
+import use_case.view_equity_curve.ViewEquityCurveDataAccessInterface;
 import use_case.view_history.ViewHistoryDataAccessInterface;
+import use_case.view_leaderboard.LeaderboardEntry;
+import use_case.view_leaderboard.ViewLeaderboardDataAccessInterface;
+import use_case.view_risk.ViewRiskDataAccessInterface;
+import use_case.view_trade_analytics.ViewTradeAnalyticsDataAccessInterface;
 import utility.SessionManager;
 import utility.exceptions.ValidationException;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * A class that implements the ExecuteBuyDataAccessInterface interface
  * This class is used to get the user with the given credential
+ * <p>
+ * Every user gets a dense integer id when added. A HoldingsIndex from ticker to holders is kept up to date on every
+ * fill through the users' portfolios, so a market update only revalues the users holding a changed ticker.
+ * The same fills and revaluations re-rank the affected users on the leaderboard.
+ * With an archive directory, every user's history has a SegmentedTransactionArchive as its cold tier.
+ * </p>
+ * <p>
+ * Fills are recorded by a TradeRecorder before they are applied, which keeps the trade journal and the trade
+ * analytics, and restores the users from a UserSnapshot and the journal at startup.
+ * </p>
  */
-public class InMemoryUserDataAccessObject implements ExecuteBuyDataAccessInterface, ViewHistoryDataAccessInterface, LoginDataAccessInterface {
+public class InMemoryUserDataAccessObject implements ExecuteBuyDataAccessInterface, ExecuteBasketDataAccessInterface,
+        ViewHistoryDataAccessInterface, ViewLeaderboardDataAccessInterface, ViewRiskDataAccessInterface,
+        ViewEquityCurveDataAccessInterface, ViewTradeAnalyticsDataAccessInterface, ExportHistoryDataAccessInterface,
+        LoginDataAccessInterface, PriceUpdateListener {
     private static final String DEFAULT_PASSWORD = "000"; // Set all passwords to "000"
 
+    private static final int INITIAL_CAPACITY = 16;
+
     private final Map<String, User> users;
+    private final Map<String, Integer> userIds = new ConcurrentHashMap<>();
+    private final HoldingsIndex holdingsIndex = new HoldingsIndex();
+    private final Leaderboard leaderboard = new Leaderboard();
+    private final TradeRecorder tradeRecorder = new TradeRecorder();
+    private final List<AssetUpdateListener> assetUpdateListeners = new CopyOnWriteArrayList<>();
+    private volatile User[] usersById = new User[INITIAL_CAPACITY];
+    private volatile int userCount = 0;
+    private volatile EquityCurveStore equityCurveStore;
+    private volatile Path archiveDirectory;
 
     public InMemoryUserDataAccessObject() {
-        this.users = new java.util.HashMap<>();
+        this(true);
+    }
+
+    /**
+     * Create a data access object, e.g. without the predefined users to restore the users from a snapshot
+     *
+     * @param predefinedUsers whether to add the predefined users
+     */
+    public InMemoryUserDataAccessObject(boolean predefinedUsers) {
+        this.users = new ConcurrentHashMap<>();
+        if (!predefinedUsers) {
+            return;
+        }
 
         // Initialize with predefined users
         User user1 = new User("user1", DEFAULT_PASSWORD);
         user1.addBalance(100000.00); // Increased balance
-        users.put("user1", user1);
+        addUser(user1);
 
         User user2 = new User("user2", DEFAULT_PASSWORD);
         user2.addBalance(200000.00); // Increased balance
-        users.put("user2", user2);
+        addUser(user2);
 
         User user3 = new User("user3", DEFAULT_PASSWORD);
         user3.addBalance(300000.00); // Increased balance
-        users.put("user3", user3);
+        addUser(user3);
+    }
+
+    /**
+     * Add a user to the data access object and index its positions
+     *
+     * @param user the user to add
+     * @return the id assigned to the user
+     * @throws IllegalArgumentException if a user with the same username already exists
+     */
+    public synchronized int addUser(User user) {
+        if (users.containsKey(user.getUsername())) {
+            throw new IllegalArgumentException("User " + user.getUsername() + " already exists.");
+        }
+        int userId = userCount;
+        User[] current = usersById;
+        if (userId == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+        }
+        current[userId] = user;
+        usersById = current;
+        // published after the user, so every id below the count can be read
+        userCount = userId + 1;
+        users.put(user.getUsername(), user);
+        userIds.put(user.getUsername(), userId);
+
+        // keep the holdings index and the leaderboard in sync with every later fill
+        user.getPortfolio().setPositionListener((ticker, quantity) -> {
+            holdingsIndex.updateHolding(userId, ticker, quantity);
+            leaderboard.update(userId, user.getAssets());
+        });
+        user.getPortfolio().getAllStocks().forEach(userStock ->
+                holdingsIndex.updateHolding(userId, userStock.getStock().getTicker(), userStock.getQuantity()));
+        leaderboard.update(userId, user.getAssets());
+
+        Path directory = archiveDirectory;
+        if (directory != null && !user.getTransactionHistory().hasArchive()) {
+            try {
+                attachArchive(user, directory);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not open the transaction archive of " + user.getUsername(), e);
+            }
+        }
+        return userId;
+    }
+
+    /**
+     * Give the history of every user, present and future, an archive in a directory.
+     * This must happen before the journal is replayed.
+     *
+     * @param directory the directory holding one archive directory per user
+     * @throws IOException if an archive cannot be opened
+     */
+    public synchronized void setArchiveDirectory(Path directory) throws IOException {
+        if (archiveDirectory != null) {
+            throw new IllegalStateException("The archive directory is already set.");
+        }
+        for (int userId = 0; userId < userCount; userId++) {
+            attachArchive(usersById[userId], directory);
+        }
+        archiveDirectory = directory;
+    }
+
+    private static void attachArchive(User user, Path directory) throws IOException {
+        user.getTransactionHistory().attachArchive(SegmentedTransactionArchive.forUser(directory,
+                user.getUsername()));
+    }
+
+    /**
+     * Add the users of a snapshot in their order, with their archives and transactions
+     *
+     * @param snapshot the snapshot to restore
+     * @throws IOException if an archive cannot be opened or is missing transactions of the snapshot
+     */
+    public void restoreSnapshot(UserSnapshot snapshot) throws IOException {
+        for (User user : tradeRecorder.restoreUsers(snapshot, archiveDirectory)) {
+            addUser(user);
+        }
+    }
+
+    /**
+     * Get the number of users, the users have the ids from 0 to the count exclusive
+     *
+     * @return the number of users
+     */
+    public int getUserCount() {
+        return userCount;
+    }
+
+    /**
+     * Get a user by id
+     *
+     * @param userId the id of the user, below the user count
+     * @return the user
+     */
+    public User getUserById(int userId) {
+        return usersById[userId];
+    }
+
+    /**
+     * Set the store the equity curves of the users are read from
+     *
+     * @param equityCurveStore the equity curve store
+     */
+    public void setEquityCurveStore(EquityCurveStore equityCurveStore) {
+        this.equityCurveStore = equityCurveStore;
+    }
+
+    /**
+     * Apply the records of a journal after a restored snapshot, see TradeRecorder.replay
+     *
+     * @param journal  the journal to replay
+     * @param snapshot the snapshot the users were restored from, or null to replay every record
+     * @return the number of records applied
+     * @throws IOException if the journal cannot be read
+     */
+    public int replayJournal(TradeJournal journal, UserSnapshot snapshot) throws IOException {
+        return tradeRecorder.replay(journal, snapshot, users::get);
     }
 
     @Override
-    public User getUserWithCredential(String credential) throws ValidationException {
-        SessionManager sessionManager = SessionManager.Instance();
-        String username = sessionManager.getUsername(credential).orElseThrow(ValidationException::new);
-        return getUserWithUsername(username);
+    public int exportTransactionHistory(User user, Path file, TransactionFileFormat format) throws IOException {
+        return TransactionHistoryFiles.export(user.getTransactionHistory(), file, format);
     }
 
-    private User getUserWithUsername(String username) throws ValidationException {
-        User user = users.get(username);
+    /**
+     * Append the transactions of exported files to a user's history, parsing the files in parallel.
+     * Only the history changes, the balance and portfolio of the user are left as they are.
+     *
+     * @param user  the user
+     * @param files the files to import, appended in this order
+     * @return the number of imported transactions
+     * @throws IOException if a file cannot be read or is malformed, in which case nothing is imported
+     */
+    public int importTransactionHistory(User user, List<Path> files) throws IOException {
+        int imported = 0;
+        List<TransactionHistory> histories = TransactionHistoryFiles.readAll(files);
+        for (TransactionHistory history : histories) {
+            user.getTransactionHistory().addTransactions(history.getAllTransactions());
+            imported += history.size();
+        }
+        return imported;
+    }
+
+    /**
+     * Get the recorder of the fills of the users, which keeps the trade journal and the trade analytics
+     *
+     * @return the trade recorder
+     */
+    public TradeRecorder getTradeRecorder() {
+        return tradeRecorder;
+    }
+
+    /**
+     * Get the index from ticker to the ids of the users holding it
+     *
+     * @return the holdings index
+     */
+    public HoldingsIndex getHoldingsIndex() {
+        return holdingsIndex;
+    }
+
+    /**
+     * Get the live ranking of the users by total assets
+     *
+     * @return the leaderboard
+     */
+    public Leaderboard getLeaderboard() {
+        return leaderboard;
+    }
+
+    /**
+     * Register a listener that is notified for every user revalued after a market update
+     *
+     * @param listener the listener to register
+     */
+    public void addAssetUpdateListener(AssetUpdateListener listener) {
+        assetUpdateListeners.add(listener);
+    }
+
+    /**
+     * Revalue exactly the users holding a ticker whose price changed, and notify the asset update listeners for them
+     *
+     * @param changedPrices a map from ticker to its new price
+     */
+    @Override
+    public void onPricesUpdated(Map<String, Double> changedPrices) {
+        BitSet affectedUsers = new BitSet();
+        for (String ticker : changedPrices.keySet()) {
+            for (int userId : holdingsIndex.getHolders(ticker)) {
+                affectedUsers.set(userId);
+            }
+        }
+
+        User[] snapshot = usersById;
+        for (int userId = affectedUsers.nextSetBit(0); userId >= 0; userId = affectedUsers.nextSetBit(userId + 1)) {
+            User user = snapshot[userId];
+            user.getPortfolio().applyPriceUpdates(changedPrices);
+            leaderboard.update(userId, user.getAssets());
+            for (AssetUpdateListener listener : assetUpdateListeners) {
+                listener.onAssetsUpdated(user);
+            }
+        }
+    }
+
+    @Override
+    public int getRank(User user) {
+        Integer userId = userIds.get(user.getUsername());
+        return userId == null ? -1 : leaderboard.getRank(userId);
+    }
+
+    @Override
+    public List<LeaderboardEntry> getEntries(int fromRank, int count) {
+        int firstRank = Math.max(fromRank, 1);
+        // hold the leaderboard lock so the ranks and assets come from the same ranking
+        synchronized (leaderboard) {
+            int[] rankedIds = leaderboard.getRange(firstRank, count);
+            User[] snapshot = usersById;
+            List<LeaderboardEntry> entries = new ArrayList<>(rankedIds.length);
+            for (int i = 0; i < rankedIds.length; i++) {
+                int userId = rankedIds[i];
+                entries.add(new LeaderboardEntry(firstRank + i, snapshot[userId].getUsername(),
+                        leaderboard.getAssets(userId)));
+            }
+            return entries;
+        }
+    }
+
+    @Override
+    public int getRankedUserCount() {
+        return leaderboard.size();
+    }
+
+    @Override
+    public EquityCurve getEquityCurve(User user, long from, long to) throws IOException {
+        Integer userId = userIds.get(user.getUsername());
+        EquityCurveStore store = equityCurveStore;
+        if (userId == null || store == null) {
+            return new EquityCurve(new long[0], new double[0], new double[0]);
+        }
+        return store.getCurve(userId, from, to);
+    }
+
+    @Override
+    public void recordFills(User user, double balanceDelta, List<Transaction> fills, LotReliefMethod reliefMethod)
+            throws IOException {
+        tradeRecorder.record(user, balanceDelta, fills, reliefMethod);
+    }
+
+    @Override
+    public List<TradeRollup> getMarketRollups(String ticker, RollupResolution resolution, long from, long to) {
+        return tradeRecorder.getTradeAnalytics().getMarketRollups(ticker, resolution, from, to);
+    }
+
+    @Override
+    public List<TradeRollup> getUserRollups(User user, String ticker, RollupResolution resolution, long from,
+                                            long to) {
+        return tradeRecorder.getTradeAnalytics().getUserRollups(user.getUsername(), ticker, resolution, from, to);
+    }
+
+    @Override
+    public User getUserWithCredential(String credential) throws ValidationException {
+        User user = findUserWithCredential(credential);
         if (user == null) {
             throw new ValidationException();
         }
         return user;
     }
 
+    /**
+     * Get the user of a credential without an exception, e.g. to reject requests before they reach an interactor.
+     * The user is kept in the session after the first lookup.
+     *
+     * @param credential the user's credential
+     * @return the user, or null if the credential is not valid
+     */
+    public User findUserWithCredential(String credential) {
+        return SessionManager.Instance().getPrincipal(credential, User.class, users::get);
+    }
+
     @Override
     public User getUserWithPassword(String username, String password) throws ValidationException {
         User user = users.get(username);
@@ -58,7 +381,7 @@ public class InMemoryUserDataAccessObject implements ExecuteBuyDataAccessInterfa
             throw new ValidationException();
         }
 
-        if (!user.getPassword().equals(password)) {
+        if (!user.checkPassword(password)) {
             throw new ValidationException();
         }
 
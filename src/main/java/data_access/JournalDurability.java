@@ -0,0 +1,19 @@
+package data_access;
+
+/**
+ * When a record appended to a TradeJournal is on disk
+ */
+public enum JournalDurability {
+    /**
+     * Every append writes and forces its own record before it returns
+     */
+    SYNC,
+    /**
+     * Every append waits until its record is forced, concurrent appends share one force
+     */
+    GROUP,
+    /**
+     * Appends return at once, a background thread writes and forces the records at a fixed interval
+     */
+    ASYNC
+}
@@ -0,0 +1,13 @@
+package data_access;
+
+/**
+ * A position in the trade journal, between two records
+ *
+ * @param offset  the file offset of the next record
+ * @param records the number of records before the position
+ */
+public record JournalPosition(
+        long offset,
+        long records
+) {
+}
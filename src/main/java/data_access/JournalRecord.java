@@ -0,0 +1,22 @@
+package data_access;
+
+import entity.LotReliefMethod;
+import entity.Transaction;
+
+import java.util.List;
+
+/**
+ * One account mutation recorded in the trade journal: a balance change and the fills that caused it
+ *
+ * @param username     the user the mutation applies to
+ * @param balanceDelta the change of the user's balance
+ * @param reliefMethod the order the sell fills relieve the lots in
+ * @param fills        the fills in execution order, each is a position change and a transaction
+ */
+public record JournalRecord(
+        String username,
+        double balanceDelta,
+        LotReliefMethod reliefMethod,
+        List<Transaction> fills
+) {
+}
@@ -0,0 +1,354 @@
+package data_access;
+
+import entity.TickerSymbolTable;
+import entity.Transaction;
+import entity.TransactionArchive;
+import entity.TransactionFilter;
+import entity.TransactionHistory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * A TransactionArchive of immutable segment files in a directory
+ * <p>
+ * Every segment holds a contiguous range of positions. Its header has the range, the time span, whether it is
+ * ordered by time and the tickers in it, and its body is a TransactionCodec stream compressed with Deflate.
+ * A segment is written to a temporary file, forced and moved into place, so a crash never leaves a partial segment.
+ * </p>
+ * <p>
+ * Only the headers are read when the archive is opened. Bodies are decoded when a query needs them, skipping the
+ * segments whose time span or tickers cannot match, and the most recently used ones are kept decoded.
+ * </p>
+ */
+public class SegmentedTransactionArchive implements TransactionArchive {
+
+    private static final int SEGMENT_MAGIC = 0x54534731;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final int MAX_SEGMENT_TRANSACTIONS = 1 << 16;
+    private static final int CACHED_SEGMENTS = 4;
+    private static final int STREAM_BUFFER_BYTES = 1 << 16;
+
+    private final Path directory;
+
+    // segment headers in position order, guarded by this
+    private final List<Segment> segments = new ArrayList<>();
+    private int size = 0;
+
+    // decoded segment bodies by first position, least recently used first
+    private final Map<Integer, Transaction[]> cache = new LinkedHashMap<>(CACHED_SEGMENTS * 2, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Transaction[]> eldest) {
+            return size() > CACHED_SEGMENTS;
+        }
+    };
+
+    /**
+     * Open an archive, creating the directory if it does not exist
+     *
+     * @param directory the directory of the segment files
+     * @throws IOException if the directory cannot be created or a segment header cannot be read
+     */
+    public SegmentedTransactionArchive(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+
+        List<Segment> found = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory,
+                SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                found.add(readHeader(file));
+            }
+        }
+        found.sort((a, b) -> Integer.compare(a.firstPosition, b.firstPosition));
+        for (Segment segment : found) {
+            if (segment.firstPosition != size) {
+                throw new IOException("Archive " + directory + " is missing the positions from " + size + ".");
+            }
+            segments.add(segment);
+            size += segment.count;
+        }
+    }
+
+    /**
+     * Open the archive of a user in a directory holding one archive per user, named by the hex of the username,
+     * which is safe on every file system
+     *
+     * @param directory the directory of the archives of the users
+     * @param username  the user
+     * @return the archive of the user
+     * @throws IOException if the archive cannot be opened
+     */
+    public static SegmentedTransactionArchive forUser(Path directory, String username) throws IOException {
+        return new SegmentedTransactionArchive(directory.resolve(
+                HexFormat.of().formatHex(username.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    @Override
+    public synchronized int size() {
+        return size;
+    }
+
+    @Override
+    public synchronized boolean isTimeOrdered() {
+        for (int i = 0; i < segments.size(); i++) {
+            Segment segment = segments.get(i);
+            if (!segment.timeOrdered || (i > 0 && segment.minTimestamp < segments.get(i - 1).lastTimestamp)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Archive a range of a history in segments. Appends must not run concurrently, but reads continue while the
+     * segment files are written.
+     */
+    @Override
+    public void append(TransactionHistory history, int from, int to) throws IOException {
+        int archived = size();
+        if (from != archived) {
+            throw new IllegalArgumentException("Archived transactions must start at position " + archived + ".");
+        }
+        for (int start = from; start < to; start += MAX_SEGMENT_TRANSACTIONS) {
+            Segment segment = writeSegment(history, start, Math.min(to, start + MAX_SEGMENT_TRANSACTIONS));
+            synchronized (this) {
+                segments.add(segment);
+                size += segment.count;
+            }
+        }
+    }
+
+    @Override
+    public synchronized Transaction get(int position) {
+        if (position < 0 || position >= size) {
+            throw new IndexOutOfBoundsException(position);
+        }
+        Segment segment = segments.get(segmentIndex(position));
+        return load(segment)[position - segment.firstPosition];
+    }
+
+    @Override
+    public synchronized int timeLowerBound(long timestamp) {
+        // the first segment that ends at or after the time holds the position
+        int low = 0;
+        int high = segments.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (segments.get(middle).lastTimestamp < timestamp) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        if (low == segments.size()) {
+            return size;
+        }
+        Segment segment = segments.get(low);
+        if (segment.minTimestamp >= timestamp) {
+            return segment.firstPosition;
+        }
+        Transaction[] transactions = load(segment);
+        int first = 0;
+        int last = transactions.length;
+        while (first < last) {
+            int middle = (first + last) >>> 1;
+            if (transactions[middle].getTimestampMillis() < timestamp) {
+                first = middle + 1;
+            } else {
+                last = middle;
+            }
+        }
+        return segment.firstPosition + first;
+    }
+
+    @Override
+    public synchronized int[] find(TransactionFilter filter, int end) {
+        int[] matches = new int[16];
+        int count = 0;
+        for (Segment segment : segments) {
+            if (segment.firstPosition >= end) {
+                break;
+            }
+            if (segment.minTimestamp > filter.to() || segment.maxTimestamp < filter.from()
+                    || (filter.ticker() != null && !segment.tickers.contains(filter.ticker()))) {
+                continue;
+            }
+            Transaction[] transactions = load(segment);
+            int limit = Math.min(transactions.length, end - segment.firstPosition);
+            for (int i = 0; i < limit; i++) {
+                Transaction transaction = transactions[i];
+                long timestamp = transaction.getTimestampMillis();
+                if (timestamp >= filter.from() && timestamp <= filter.to()
+                        && (filter.ticker() == null || filter.ticker().equals(transaction.getTicker()))) {
+                    if (count == matches.length) {
+                        matches = Arrays.copyOf(matches, count * 2);
+                    }
+                    matches[count++] = segment.firstPosition + i;
+                }
+            }
+        }
+        return Arrays.copyOf(matches, count);
+    }
+
+    private int segmentIndex(int position) {
+        int low = 0;
+        int high = segments.size() - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (segments.get(middle).firstPosition <= position) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    private Transaction[] load(Segment segment) {
+        Transaction[] transactions = cache.get(segment.firstPosition);
+        if (transactions != null) {
+            return transactions;
+        }
+        try (InputStream file = Files.newInputStream(segment.file)) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(file, STREAM_BUFFER_BYTES));
+            skipHeader(in);
+            TransactionCodec.Decoder decoder = new TransactionCodec.Decoder(new InflaterInputStream(in));
+            transactions = new Transaction[segment.count];
+            for (int i = 0; i < segment.count; i++) {
+                Transaction transaction = decoder.read();
+                if (transaction == null) {
+                    throw new IOException("Segment " + segment.file + " ends early.");
+                }
+                transactions[i] = transaction;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        cache.put(segment.firstPosition, transactions);
+        return transactions;
+    }
+
+    private Segment writeSegment(TransactionHistory history, int from, int to) throws IOException {
+        long minTimestamp = Long.MAX_VALUE;
+        long maxTimestamp = Long.MIN_VALUE;
+        long lastTimestamp = Long.MIN_VALUE;
+        boolean timeOrdered = true;
+        Set<Integer> tickerIds = new HashSet<>();
+        for (int i = from; i < to; i++) {
+            long timestamp = history.getTimestampMillis(i);
+            minTimestamp = Math.min(minTimestamp, timestamp);
+            maxTimestamp = Math.max(maxTimestamp, timestamp);
+            timeOrdered &= timestamp >= lastTimestamp;
+            lastTimestamp = timestamp;
+            tickerIds.add(history.getTickerId(i));
+        }
+        Set<String> tickers = new HashSet<>();
+        for (int tickerId : tickerIds) {
+            tickers.add(TickerSymbolTable.Instance().getTicker(tickerId));
+        }
+        Segment segment = new Segment(directory.resolve(String.format("%s%010d%s", SEGMENT_PREFIX, from,
+                SEGMENT_SUFFIX)), from, to - from, minTimestamp, maxTimestamp, lastTimestamp, timeOrdered, tickers);
+
+        Path temporary = directory.resolve(segment.file.getFileName() + ".tmp");
+        try (OutputStream file = Files.newOutputStream(temporary)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, STREAM_BUFFER_BYTES));
+            writeHeader(out, segment);
+            DeflaterOutputStream body = new DeflaterOutputStream(out, new Deflater(Deflater.BEST_SPEED),
+                    STREAM_BUFFER_BYTES);
+            TransactionCodec.Encoder encoder = new TransactionCodec.Encoder(body);
+            encoder.write(history, from, to);
+            encoder.flush();
+            body.finish();
+            out.flush();
+        }
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temporary, segment.file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return segment;
+    }
+
+    private static void writeHeader(DataOutputStream out, Segment segment) throws IOException {
+        out.writeInt(SEGMENT_MAGIC);
+        out.writeInt(segment.firstPosition);
+        out.writeInt(segment.count);
+        out.writeLong(segment.minTimestamp);
+        out.writeLong(segment.maxTimestamp);
+        out.writeLong(segment.lastTimestamp);
+        out.writeBoolean(segment.timeOrdered);
+        out.writeInt(segment.tickers.size());
+        for (String ticker : segment.tickers) {
+            out.writeUTF(ticker);
+        }
+    }
+
+    private static Segment readHeader(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != SEGMENT_MAGIC) {
+                throw new IOException(file + " is not a transaction segment.");
+            }
+            int firstPosition = in.readInt();
+            int count = in.readInt();
+            long minTimestamp = in.readLong();
+            long maxTimestamp = in.readLong();
+            long lastTimestamp = in.readLong();
+            boolean timeOrdered = in.readBoolean();
+            int tickerCount = in.readInt();
+            Set<String> tickers = new HashSet<>();
+            for (int i = 0; i < tickerCount; i++) {
+                tickers.add(in.readUTF());
+            }
+            return new Segment(file, firstPosition, count, minTimestamp, maxTimestamp, lastTimestamp, timeOrdered,
+                    tickers);
+        }
+    }
+
+    private static void skipHeader(DataInputStream in) throws IOException {
+        in.skipNBytes(Integer.BYTES * 3L + Long.BYTES * 3L + 1);
+        int tickerCount = in.readInt();
+        for (int i = 0; i < tickerCount; i++) {
+            in.readUTF();
+        }
+    }
+
+    /**
+     * The header of a segment file
+     */
+    private record Segment(
+            Path file,
+            int firstPosition,
+            int count,
+            long minTimestamp,
+            long maxTimestamp,
+            long lastTimestamp,
+            boolean timeOrdered,
+            Set<String> tickers
+    ) {
+    }
+}
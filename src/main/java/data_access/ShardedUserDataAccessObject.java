@@ -0,0 +1,822 @@
+package data_access;
+
+import entity.LotReliefMethod;
+import entity.Portfolio;
+import entity.PriceUpdateListener;
+import entity.RollupResolution;
+import entity.TradeRollup;
+import entity.Transaction;
+import entity.TransactionFileFormat;
+import entity.TransactionHistory;
+import entity.User;
+import use_case.execute_basket.ExecuteBasketDataAccessInterface;
+import use_case.execute_buy.ExecuteBuyDataAccessInterface;
+import use_case.export_history.ExportHistoryDataAccessInterface;
+import use_case.login.LoginDataAccessInterface;
+import use_case.view_history.ViewHistoryDataAccessInterface;
+import use_case.view_risk.ViewRiskDataAccessInterface;
+import use_case.view_trade_analytics.ViewTradeAnalyticsDataAccessInterface;
+import utility.LatencyHistogram;
+import utility.SessionManager;
+import utility.exceptions.ValidationException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A user data access object for more users than fit in memory, keeping one file per user in shards by username hash
+ * <p>
+ * Users are loaded from their files on first access and stay resident while the resident users of a shard fit its
+ * share of a memory budget, estimated from the size of their histories and portfolios. Beyond the budget a shard
+ * evicts users with the CLOCK algorithm, an approximation of LRU where a hit only sets a flag, so active traders
+ * stay resident while hits take no lock. A session keeps the handle of its user, so a hit is one lookup.
+ * A user file is read without holding its shard: the first thread to miss leaves a placeholder that later threads
+ * wanting the same user wait on, and makes the user resident under the shard lock once it is read.
+ * </p>
+ * <p>
+ * Account changes are written behind: recordFills records the order with the TradeRecorder, in the trade journal
+ * and the trade analytics, and marks the user as dirty, and a background writer replaces the files of the dirty
+ * users at fixed intervals. An evicted user is written before another thread can load it again, and an order of a
+ * user evicted since the interactor got it is rejected with IOException, nothing is changed. Every file keeps the
+ * journal offset its user includes the orders before, so replayJournal restores the orders after the last write
+ * after a crash.
+ * </p>
+ * <p>
+ * The resident users are revalued by every market update, a loaded user keeps the prices of its file until then.
+ * </p>
+ */
+public class ShardedUserDataAccessObject implements ExecuteBuyDataAccessInterface, ExecuteBasketDataAccessInterface,
+        ViewHistoryDataAccessInterface, ViewRiskDataAccessInterface, ViewTradeAnalyticsDataAccessInterface,
+        ExportHistoryDataAccessInterface, LoginDataAccessInterface, PriceUpdateListener, Closeable {
+
+    private static final int FILE_MAGIC = 0x55535232;
+    private static final String FILE_SUFFIX = ".user";
+    private static final int STREAM_BUFFER_BYTES = 1 << 13;
+
+    // estimated resident bytes of a user, its history and its positions
+    private static final long USER_BYTES = 512;
+    private static final long TRANSACTION_BYTES = 32;
+    private static final long POSITION_BYTES = 256;
+
+    private final Shard[] shards;
+    private final long shardBudgetBytes;
+    private final ScheduledExecutorService writer;
+    private final TradeRecorder tradeRecorder;
+    private final List<AssetUpdateListener> assetUpdateListeners = new CopyOnWriteArrayList<>();
+
+    // users changed since they were last written, guarded by itself
+    private final Set<User> dirty = new LinkedHashSet<>();
+    private volatile IOException failure;
+
+    // the journal offset a user written during replayJournal includes the records before, or -1 outside a replay
+    private volatile long replayedOffset = -1;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LatencyHistogram loadLatency = new LatencyHistogram();
+
+    /**
+     * Open the users in a directory with their own trade recorder, which has no journal
+     *
+     * @param directory           the directory of the shards
+     * @param shardCount          the number of shards, a power of two
+     * @param maxResidentBytes    the estimated memory the resident users may take, split evenly across the shards
+     * @param flushIntervalMillis the interval between background writes of the changed users
+     * @throws IOException if the directories cannot be created
+     */
+    public ShardedUserDataAccessObject(Path directory, int shardCount, long maxResidentBytes,
+                                       long flushIntervalMillis) throws IOException {
+        this(directory, shardCount, maxResidentBytes, flushIntervalMillis, new TradeRecorder());
+    }
+
+    /**
+     * Open the users in a directory, creating the shard directories if they do not exist
+     *
+     * @param directory           the directory of the shards
+     * @param shardCount          the number of shards, a power of two
+     * @param maxResidentBytes    the estimated memory the resident users may take, split evenly across the shards
+     * @param flushIntervalMillis the interval between background writes of the changed users
+     * @param tradeRecorder       the recorder the orders of the users are journaled and analyzed with
+     * @throws IOException if the directories cannot be created
+     */
+    public ShardedUserDataAccessObject(Path directory, int shardCount, long maxResidentBytes,
+                                       long flushIntervalMillis, TradeRecorder tradeRecorder) throws IOException {
+        this.tradeRecorder = tradeRecorder;
+        if (Integer.bitCount(shardCount) != 1) {
+            throw new IllegalArgumentException("The number of shards must be a power of two.");
+        }
+        shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(Files.createDirectories(directory.resolve(String.format("shard-%03d", i))));
+        }
+        shardBudgetBytes = maxResidentBytes / shardCount;
+
+        writer = Executors.newSingleThreadScheduledExecutor();
+        // a failed write is kept in failure and rejects later orders, an exception would cancel the periodic task
+        writer.scheduleWithFixedDelay(() -> {
+            try {
+                flush();
+                evictOverBudget();
+            } catch (IOException | RuntimeException e) {
+                e.printStackTrace();
+            }
+        }, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Add a user, writing its file and keeping it resident
+     *
+     * @param user the user to add
+     * @throws IllegalArgumentException if a user with the same username already exists
+     * @throws IOException              if the user cannot be written
+     */
+    public void addUser(User user) throws IOException {
+        Shard shard = shardOf(user.getUsername());
+        List<Eviction> evicted;
+        synchronized (shard) {
+            Path file = shard.fileOf(user.getUsername());
+            if (shard.resident.containsKey(user.getUsername()) || shard.evicting.containsKey(user.getUsername())
+                    || Files.exists(file)) {
+                throw new IllegalArgumentException("User " + user.getUsername() + " already exists.");
+            }
+            long journalOffset;
+            synchronized (user) {
+                journalOffset = journalOffset();
+                writeUser(file, user, journalOffset);
+            }
+            evicted = admit(shard, new Handle(user.getUsername()), user, journalOffset);
+        }
+        writeEvicted(shard, evicted);
+    }
+
+    /**
+     * Write the files of the users that have none, e.g. the users kept in memory before the files were used.
+     * The given users do not become resident, a login reads its own copy of a user from its file.
+     *
+     * @param users the users to write
+     * @return the number of users written
+     * @throws IOException if a user cannot be written
+     */
+    public int importUsers(Collection<User> users) throws IOException {
+        int imported = 0;
+        for (User user : users) {
+            Shard shard = shardOf(user.getUsername());
+            synchronized (shard) {
+                Path file = shard.fileOf(user.getUsername());
+                if (shard.resident.containsKey(user.getUsername()) || shard.evicting.containsKey(user.getUsername())
+                        || Files.exists(file)) {
+                    continue;
+                }
+                synchronized (user) {
+                    writeUser(file, user, journalOffset());
+                }
+            }
+            imported++;
+        }
+        return imported;
+    }
+
+    /**
+     * Apply the records of a journal that the user files do not include yet, e.g. the orders after the last write
+     * before a crash. Each user only gets the records from the journal offset of its file on, and records of users
+     * without a file are skipped. Call this before the users are served.
+     *
+     * @param journal the journal the orders of the users were recorded in
+     * @return the number of records applied
+     * @throws IOException if the journal or a user file cannot be read
+     */
+    public int replayJournal(TradeJournal journal) throws IOException {
+        int[] applied = new int[1];
+        try {
+            journal.replay(journal.getStartPosition(), (record, offset) -> {
+                // the users written from now on include every record before this one
+                replayedOffset = offset;
+                if (replayRecord(record, offset)) {
+                    applied[0]++;
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            replayedOffset = -1;
+        }
+        return applied[0];
+    }
+
+    // apply a record to its user unless the user's file includes it, loading the user if needed
+    private boolean replayRecord(JournalRecord record, long offset) {
+        while (true) {
+            Handle handle = acquire(record.username(), null);
+            if (handle == null) {
+                return false;
+            }
+            User user = handle.user;
+            if (user == null) {
+                continue;
+            }
+            Shard shard = shardOf(record.username());
+            // like an order, the record is applied under the user's lock so an eviction waits before writing
+            synchronized (user) {
+                synchronized (shard) {
+                    if (shard.resident.get(record.username()) != handle || handle.user != user) {
+                        continue;
+                    }
+                    if (offset < handle.journalOffset) {
+                        return false;
+                    }
+                    markChanged(shard, handle, record.fills().size());
+                }
+                TradeRecorder.applyJournalRecord(user, record, 0);
+                // a write of the user from now on includes this record
+                replayedOffset = offset + 1;
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Write every user changed since it was last written now
+     *
+     * @throws IOException if a user cannot be written
+     */
+    public synchronized void flush() throws IOException {
+        checkFailure();
+        List<User> changed;
+        synchronized (dirty) {
+            changed = new ArrayList<>(dirty);
+        }
+        for (User user : changed) {
+            // a user is taken from the dirty users and written under its lock, so eviction can wait for the write
+            synchronized (user) {
+                synchronized (dirty) {
+                    if (!dirty.remove(user)) {
+                        continue;
+                    }
+                }
+                try {
+                    writeUser(shardOf(user.getUsername()).fileOf(user.getUsername()), user, journalOffset());
+                } catch (IOException e) {
+                    failure = e;
+                    throw e;
+                }
+            }
+        }
+    }
+
+    // trades grow resident users without a load, so the background writer evicts shards that grew over their budget
+    private void evictOverBudget() {
+        for (Shard shard : shards) {
+            List<Eviction> evicted;
+            synchronized (shard) {
+                evicted = evict(shard, null);
+            }
+            writeEvicted(shard, evicted);
+        }
+    }
+
+    /**
+     * Write the changed users and stop the background writer
+     *
+     * @throws IOException if a user cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    /**
+     * Get the share of user lookups served by resident users
+     *
+     * @return the hit rate from 0 to 1, or 0 before the first lookup
+     */
+    public double getCacheHitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    /**
+     * Get the latencies of loading users from their files
+     *
+     * @return the load latency histogram
+     */
+    public LatencyHistogram getLoadLatency() {
+        return loadLatency;
+    }
+
+    /**
+     * Get the number of resident users
+     *
+     * @return the number of users in memory
+     */
+    public int getResidentUserCount() {
+        int count = 0;
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                count += shard.resident.size();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Get the estimated memory the resident users take
+     *
+     * @return the estimated bytes
+     */
+    public long getResidentBytes() {
+        long bytes = 0;
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                bytes += shard.residentBytes;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Get the recorder the orders of the users are journaled and analyzed with
+     *
+     * @return the trade recorder
+     */
+    public TradeRecorder getTradeRecorder() {
+        return tradeRecorder;
+    }
+
+    /**
+     * Add a listener notified whenever a resident user is revalued by a market update
+     *
+     * @param listener the listener to add
+     */
+    public void addAssetUpdateListener(AssetUpdateListener listener) {
+        assetUpdateListeners.add(listener);
+    }
+
+    /**
+     * Revalue the resident users holding a ticker whose price changed
+     */
+    @Override
+    public void onPricesUpdated(Map<String, Double> changedPrices) {
+        List<User> residentUsers = new ArrayList<>();
+        for (Shard shard : shards) {
+            residentUsers.clear();
+            synchronized (shard) {
+                for (Handle handle : shard.clock) {
+                    residentUsers.add(handle.user);
+                }
+            }
+            for (User user : residentUsers) {
+                if (user.getPortfolio().applyPriceUpdates(changedPrices)) {
+                    for (AssetUpdateListener listener : assetUpdateListeners) {
+                        listener.onAssetsUpdated(user);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Records the order with the trade recorder and marks the user to be written by the next background write, if
+     * it is still resident
+     *
+     * @throws IOException if the user was evicted since it was looked up, an earlier write failed, or the order
+     *                     cannot be journaled
+     */
+    @Override
+    public void recordFills(User user, double balanceDelta, List<Transaction> fills, LotReliefMethod reliefMethod)
+            throws IOException {
+        checkFailure();
+        Shard shard = shardOf(user.getUsername());
+        // the interactor holds the user's lock, so the user cannot be written for eviction until the fills are applied
+        synchronized (shard) {
+            Handle handle = shard.resident.get(user.getUsername());
+            if (handle == null || handle.user != user) {
+                throw new IOException("User " + user.getUsername() + " was unloaded, please retry.");
+            }
+            markChanged(shard, handle, fills.size());
+        }
+        // the journal may wait for a disk flush, so it is written without holding the shard, a user marked dirty
+        // for an order the journal rejects is only written once more
+        tradeRecorder.record(user, balanceDelta, fills, reliefMethod);
+    }
+
+    @Override
+    public List<TradeRollup> getMarketRollups(String ticker, RollupResolution resolution, long from, long to) {
+        return tradeRecorder.getTradeAnalytics().getMarketRollups(ticker, resolution, from, to);
+    }
+
+    @Override
+    public List<TradeRollup> getUserRollups(User user, String ticker, RollupResolution resolution, long from,
+                                            long to) {
+        return tradeRecorder.getTradeAnalytics().getUserRollups(user.getUsername(), ticker, resolution, from, to);
+    }
+
+    @Override
+    public int exportTransactionHistory(User user, Path file, TransactionFileFormat format) throws IOException {
+        return TransactionHistoryFiles.export(user.getTransactionHistory(), file, format);
+    }
+
+    @Override
+    public User getUserWithCredential(String credential) throws ValidationException {
+        User user = findUserWithCredential(credential);
+        if (user == null) {
+            throw new ValidationException();
+        }
+        return user;
+    }
+
+    /**
+     * Get the user of a credential without an exception, loading it if it is not resident.
+     * The session keeps the handle of the user, which is refilled if the user was evicted.
+     *
+     * @param credential the user's credential
+     * @return the user, or null if the credential is not valid
+     */
+    public User findUserWithCredential(String credential) {
+        Handle handle = SessionManager.Instance().getPrincipal(credential, Handle.class,
+                username -> acquire(username, null));
+        if (handle == null) {
+            return null;
+        }
+        User user = handle.user;
+        if (user != null) {
+            handle.referenced = true;
+            hits.increment();
+            return user;
+        }
+        return load(handle.username, handle);
+    }
+
+    @Override
+    public User getUserWithPassword(String username, String password) throws ValidationException {
+        User user = load(username, null);
+        if (user == null || !user.checkPassword(password)) {
+            throw new ValidationException();
+        }
+        return user;
+    }
+
+    // get a user, loading it again if other loads evicted it before the caller could take it from its handle
+    private User load(String username, Handle evictedHandle) {
+        while (true) {
+            Handle handle = acquire(username, evictedHandle);
+            if (handle == null) {
+                return null;
+            }
+            User user = handle.user;
+            if (user != null) {
+                return user;
+            }
+        }
+    }
+
+    // get the resident handle of a user, loading the user into the given evicted handle or a new one if needed.
+    // the file is read without holding the shard, and other threads wanting the same user wait for that read
+    private Handle acquire(String username, Handle evictedHandle) {
+        Shard shard = shardOf(username);
+        boolean missed = false;
+        while (true) {
+            Handle handle = null;
+            List<Eviction> evicted = null;
+            CompletableFuture<User> loading = null;
+            boolean reader = false;
+            synchronized (shard) {
+                Handle resident = shard.resident.get(username);
+                if (resident != null) {
+                    resident.referenced = true;
+                    if (!missed) {
+                        hits.increment();
+                    }
+                    return resident;
+                }
+                if (!missed) {
+                    misses.increment();
+                    missed = true;
+                }
+                // a user still being written for eviction is taken back as it is
+                Evicting evicting = shard.evicting.get(username);
+                if (evicting != null) {
+                    handle = evictedHandle != null ? evictedHandle : new Handle(username);
+                    evicted = admit(shard, handle, evicting.user, evicting.journalOffset);
+                } else {
+                    loading = shard.loading.get(username);
+                    if (loading == null) {
+                        loading = new CompletableFuture<>();
+                        shard.loading.put(username, loading);
+                        reader = true;
+                    }
+                }
+            }
+            if (handle != null) {
+                writeEvicted(shard, evicted);
+                return handle;
+            }
+            if (reader) {
+                return read(shard, username, evictedHandle, loading);
+            }
+            // the user is resident once the other read is published, unless it was evicted again meanwhile
+            if (awaitLoad(username, loading) == null) {
+                return null;
+            }
+        }
+    }
+
+    // read a user outside the shard and make it resident, completing the placeholder other threads wait on
+    private Handle read(Shard shard, String username, Handle evictedHandle, CompletableFuture<User> loading) {
+        long start = System.nanoTime();
+        StoredUser stored;
+        try {
+            stored = readUser(shard.fileOf(username));
+        } catch (IOException | RuntimeException e) {
+            synchronized (shard) {
+                shard.loading.remove(username);
+            }
+            loading.completeExceptionally(e);
+            throw e instanceof IOException io ? new UncheckedIOException("Could not load user " + username + ".", io)
+                    : (RuntimeException) e;
+        }
+        Handle handle;
+        List<Eviction> evicted = List.of();
+        synchronized (shard) {
+            shard.loading.remove(username);
+            // a user added while its file was read is already resident, and the file read is dropped
+            handle = shard.resident.get(username);
+            if (handle == null && stored != null) {
+                loadLatency.record(System.nanoTime() - start);
+                handle = evictedHandle != null ? evictedHandle : new Handle(username);
+                evicted = admit(shard, handle, stored.user(), stored.journalOffset());
+            }
+        }
+        loading.complete(handle == null ? null : handle.user);
+        writeEvicted(shard, evicted);
+        return handle;
+    }
+
+    private static User awaitLoad(String username, CompletableFuture<User> loading) {
+        try {
+            return loading.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw new UncheckedIOException("Could not load user " + username + ".", io);
+            }
+            throw (RuntimeException) e.getCause();
+        }
+    }
+
+    // make a user resident and evict others while the shard is over its budget, the caller holds the shard
+    private List<Eviction> admit(Shard shard, Handle handle, User user, long journalOffset) {
+        handle.user = user;
+        handle.journalOffset = journalOffset;
+        handle.referenced = true;
+        handle.bytes = estimateBytes(user);
+        shard.resident.put(handle.username, handle);
+        shard.clock.add(handle);
+        shard.residentBytes += handle.bytes;
+        return evict(shard, handle);
+    }
+
+    // evict users while the shard is over its budget, except the given one, the caller holds the shard
+    private List<Eviction> evict(Shard shard, Handle keep) {
+        List<Eviction> evicted = new ArrayList<>();
+        // every handle is passed at most twice, once to clear its flag and once to evict it
+        int steps = 2 * shard.clock.size();
+        while (shard.residentBytes > shardBudgetBytes && shard.clock.size() > 1 && steps-- > 0) {
+            if (shard.hand >= shard.clock.size()) {
+                shard.hand = 0;
+            }
+            Handle candidate = shard.clock.get(shard.hand);
+            if (candidate == keep || candidate.referenced) {
+                candidate.referenced = false;
+                shard.hand++;
+                continue;
+            }
+            // the last handle takes the place of the evicted one, so the hand stays where it is
+            Handle last = shard.clock.remove(shard.clock.size() - 1);
+            if (last != candidate) {
+                shard.clock.set(shard.hand, last);
+            }
+            shard.resident.remove(candidate.username);
+            shard.residentBytes -= candidate.bytes;
+            User victim = candidate.user;
+            candidate.user = null;
+            boolean changed;
+            synchronized (dirty) {
+                changed = dirty.remove(victim);
+            }
+            // a user taken back and evicted again stays in evicting until the writes of both evictions finish
+            Evicting evicting = shard.evicting.computeIfAbsent(candidate.username,
+                    username -> new Evicting(victim, candidate.journalOffset));
+            evicting.writes++;
+            evicted.add(new Eviction(evicting, changed));
+        }
+        return evicted;
+    }
+
+    // write evicted users without holding the shard, then let them be loaded from their files again
+    private void writeEvicted(Shard shard, List<Eviction> evicted) {
+        for (Eviction eviction : evicted) {
+            User user = eviction.evicting().user;
+            try {
+                // an unchanged user is already in its file, or in a background write that holds the user's lock
+                synchronized (user) {
+                    if (eviction.changed()) {
+                        writeUser(shard.fileOf(user.getUsername()), user, journalOffset());
+                    }
+                }
+            } catch (IOException e) {
+                failure = e;
+                e.printStackTrace();
+                // the user stays in evicting, so it is taken back instead of loading its stale file
+                continue;
+            }
+            synchronized (shard) {
+                if (--eviction.evicting().writes == 0) {
+                    shard.evicting.remove(user.getUsername());
+                }
+            }
+        }
+    }
+
+    // a resident user grows by the fills of an order and is written by the next background write, the caller holds
+    // the shard
+    private void markChanged(Shard shard, Handle handle, int fillCount) {
+        handle.bytes += fillCount * TRANSACTION_BYTES;
+        shard.residentBytes += fillCount * TRANSACTION_BYTES;
+        synchronized (dirty) {
+            dirty.add(handle.user);
+        }
+    }
+
+    // the journal offset a user written now includes the records before, the caller holds the user
+    private long journalOffset() {
+        long replaying = replayedOffset;
+        return replaying >= 0 ? replaying : tradeRecorder.getJournalPosition().offset();
+    }
+
+    private void checkFailure() throws IOException {
+        if (failure != null) {
+            throw new IOException("The user files failed to write.", failure);
+        }
+    }
+
+    private Shard shardOf(String username) {
+        int hash = username.hashCode();
+        // spread the high bits, usernames often differ only in their last characters
+        return shards[(hash ^ (hash >>> 16)) & (shards.length - 1)];
+    }
+
+    private static long estimateBytes(User user) {
+        return USER_BYTES + user.getTransactionHistory().size() * TRANSACTION_BYTES
+                + user.getPortfolio().getLedgerTickers().size() * POSITION_BYTES;
+    }
+
+    // replace the file of a user with its current state, the caller holds the user
+    private static void writeUser(Path file, User user, long journalOffset) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (OutputStream stream = Files.newOutputStream(temporary)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, STREAM_BUFFER_BYTES));
+            Portfolio portfolio = user.getPortfolio();
+            out.writeInt(FILE_MAGIC);
+            out.writeLong(journalOffset);
+            out.writeUTF(user.getUsername());
+            out.writeUTF(user.getPasswordHash());
+            out.writeDouble(user.getBalance());
+            out.writeLong(portfolio.getNextLotId());
+            UserSnapshotStore.writePositions(out, portfolio);
+            // the history comes last, the decoder reads it to the end of the file
+            TransactionHistory history = user.getTransactionHistory();
+            TransactionCodec.Encoder encoder = new TransactionCodec.Encoder(out, STREAM_BUFFER_BYTES);
+            encoder.write(history, 0, history.size());
+            encoder.flush();
+            out.flush();
+        }
+        Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    // read a user from its file, or return null if there is no file
+    private static StoredUser readUser(Path file) throws IOException {
+        InputStream stream;
+        try {
+            stream = Files.newInputStream(file);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        try (stream) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(stream, STREAM_BUFFER_BYTES));
+            if (in.readInt() != FILE_MAGIC) {
+                throw new IOException(file + " is not a user file.");
+            }
+            long journalOffset = in.readLong();
+            String username = in.readUTF();
+            String passwordHash = in.readUTF();
+            double balance = in.readDouble();
+            long nextLotId = in.readLong();
+            Portfolio portfolio = UserSnapshotStore.readPositions(in, nextLotId);
+            List<Transaction> transactions = new ArrayList<>();
+            TransactionCodec.Decoder decoder = new TransactionCodec.Decoder(in, STREAM_BUFFER_BYTES);
+            Transaction transaction;
+            while ((transaction = decoder.read()) != null) {
+                transactions.add(transaction);
+            }
+            return new StoredUser(User.withPasswordHash(username, passwordHash, balance, portfolio,
+                    new TransactionHistory(transactions)), journalOffset);
+        }
+    }
+
+    /**
+     * A shard of the users, guarded by itself
+     */
+    private static final class Shard {
+        private final Path directory;
+        private final Map<String, Handle> resident = new HashMap<>();
+        private final Map<String, Evicting> evicting = new HashMap<>();
+        private final Map<String, CompletableFuture<User>> loading = new HashMap<>();
+        private final List<Handle> clock = new ArrayList<>();
+        private int hand = 0;
+        private long residentBytes = 0;
+
+        private Shard(Path directory) {
+            this.directory = directory;
+        }
+
+        // the file of a user is named by the hex of the username, which is safe on every file system
+        private Path fileOf(String username) {
+            return directory.resolve(HexFormat.of().formatHex(username.getBytes(StandardCharsets.UTF_8))
+                    + FILE_SUFFIX);
+        }
+    }
+
+    /**
+     * A user read from its file, with the journal offset it includes the records before
+     */
+    private record StoredUser(User user, long journalOffset) {
+    }
+
+    /**
+     * A user evicted from its shard, and whether it changed since it was last written
+     */
+    private record Eviction(Evicting evicting, boolean changed) {
+    }
+
+    /**
+     * A user being written after evictions, guarded by its shard
+     */
+    private static final class Evicting {
+        private final User user;
+        private final long journalOffset;
+        private int writes;
+
+        private Evicting(User user, long journalOffset) {
+            this.user = user;
+            this.journalOffset = journalOffset;
+        }
+    }
+
+    /**
+     * A handle of a user kept by its sessions, empty while the user is evicted
+     */
+    private static final class Handle {
+        private final String username;
+        private volatile User user;
+        private volatile boolean referenced;
+        private long bytes;
+        private long journalOffset;
+
+        private Handle(String username) {
+            this.username = username;
+        }
+    }
+}
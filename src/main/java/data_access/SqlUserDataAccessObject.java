@@ -0,0 +1,601 @@
+package data_access;
+
+import entity.LotReliefMethod;
+import entity.Portfolio;
+import entity.PriceUpdateListener;
+import entity.RollupResolution;
+import entity.Stock;
+import entity.StockMarket;
+import entity.TaxLot;
+import entity.TradeRollup;
+import entity.Transaction;
+import entity.TransactionFileFormat;
+import entity.TransactionHistory;
+import entity.TransactionSide;
+import entity.User;
+import entity.UserStock;
+import org.h2.jdbcx.JdbcConnectionPool;
+import use_case.execute_basket.ExecuteBasketDataAccessInterface;
+import use_case.execute_buy.ExecuteBuyDataAccessInterface;
+import use_case.export_history.ExportHistoryDataAccessInterface;
+import use_case.login.LoginDataAccessInterface;
+import use_case.view_history.ViewHistoryDataAccessInterface;
+import use_case.view_risk.ViewRiskDataAccessInterface;
+import use_case.view_trade_analytics.ViewTradeAnalyticsDataAccessInterface;
+import utility.SessionManager;
+import utility.exceptions.ValidationException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A user data access object that keeps users, positions and transactions in an embedded H2 database
+ * <p>
+ * Users are read through a cache: the first request for a user loads it with its lots and history, and later
+ * requests share the loaded User, which the interactors lock and change as with InMemoryUserDataAccessObject.
+ * </p>
+ * <p>
+ * Account changes are written behind. recordFills records the order with the TradeRecorder, in the trade journal
+ * and the trade analytics, and marks the user as dirty, and a background writer persists the dirty users at fixed
+ * intervals, so any number of orders of a user between two writes cost one row update of the user, a rewrite of its
+ * positions and lots, and inserts of its new transactions. Every write is one database transaction of prepared
+ * statement batches on a pooled connection. Orders after the last write are missing from the database after a
+ * crash, they are only in the journal. A write that fails rejects every later order.
+ * </p>
+ * <p>
+ * The loaded users are revalued by every market update, their positions keep the prices of their last write until
+ * then.
+ * </p>
+ */
+public class SqlUserDataAccessObject implements ExecuteBuyDataAccessInterface, ExecuteBasketDataAccessInterface,
+        ViewHistoryDataAccessInterface, ViewRiskDataAccessInterface, ViewTradeAnalyticsDataAccessInterface,
+        ExportHistoryDataAccessInterface, LoginDataAccessInterface, PriceUpdateListener, Closeable {
+
+    private static final int MAX_CONNECTIONS = 4;
+    private static final int MAX_FLUSH_USERS = 1024;
+    private static final String[] SCHEMA = {
+            "CREATE TABLE IF NOT EXISTS users (username VARCHAR(255) PRIMARY KEY, "
+                    + "password_hash VARCHAR(255) NOT NULL, balance DOUBLE PRECISION NOT NULL, "
+                    + "next_lot_id BIGINT NOT NULL)",
+            "CREATE TABLE IF NOT EXISTS positions (username VARCHAR(255) NOT NULL, ticker VARCHAR(32) NOT NULL, "
+                    + "company VARCHAR(255) NOT NULL, industry VARCHAR(255) NOT NULL, "
+                    + "cost DOUBLE PRECISION NOT NULL, market_price DOUBLE PRECISION NOT NULL, "
+                    + "realized_pnl DOUBLE PRECISION NOT NULL, PRIMARY KEY (username, ticker))",
+            "CREATE TABLE IF NOT EXISTS lots (username VARCHAR(255) NOT NULL, ticker VARCHAR(32) NOT NULL, "
+                    + "seq INT NOT NULL, lot_id BIGINT NOT NULL, timestamp_millis BIGINT NOT NULL, "
+                    + "quantity INT NOT NULL, price DOUBLE PRECISION NOT NULL, PRIMARY KEY (username, ticker, seq))",
+            "CREATE TABLE IF NOT EXISTS transactions (username VARCHAR(255) NOT NULL, position INT NOT NULL, "
+                    + "timestamp_millis BIGINT NOT NULL, ticker VARCHAR(32) NOT NULL, quantity INT NOT NULL, "
+                    + "price DOUBLE PRECISION NOT NULL, side VARCHAR(8) NOT NULL, PRIMARY KEY (username, position))"
+    };
+
+    private final JdbcConnectionPool pool;
+    private final ScheduledExecutorService writer;
+    private final TradeRecorder tradeRecorder;
+    private final List<AssetUpdateListener> assetUpdateListeners = new CopyOnWriteArrayList<>();
+
+    // loaded users by username, a user is never evicted since the interactors hold on to it
+    private final Map<String, Account> accounts = new ConcurrentHashMap<>();
+
+    // users changed since the last write, guarded by itself
+    private final Set<Account> dirty = new LinkedHashSet<>();
+
+    // writes do not run concurrently, and the written history sizes are guarded by this lock
+    private final Object writeLock = new Object();
+    private volatile IOException failure;
+
+    /**
+     * Open a database file, creating the tables if they do not exist
+     *
+     * @param file                the database file, without the .mv.db extension H2 adds
+     * @param flushIntervalMillis the interval between background writes of the changed users
+     * @param tradeRecorder       the recorder the orders of the users are journaled and analyzed with
+     * @throws IOException if the database cannot be opened
+     */
+    public SqlUserDataAccessObject(Path file, long flushIntervalMillis, TradeRecorder tradeRecorder)
+            throws IOException {
+        this("jdbc:h2:file:" + file.toAbsolutePath(), flushIntervalMillis, tradeRecorder);
+    }
+
+    /**
+     * Open a database with its own trade recorder, which has no journal
+     *
+     * @param jdbcUrl             the H2 JDBC URL of the database, e.g. jdbc:h2:mem:users;DB_CLOSE_DELAY=-1
+     * @param flushIntervalMillis the interval between background writes of the changed users
+     * @throws IOException if the database cannot be opened
+     */
+    public SqlUserDataAccessObject(String jdbcUrl, long flushIntervalMillis) throws IOException {
+        this(jdbcUrl, flushIntervalMillis, new TradeRecorder());
+    }
+
+    /**
+     * Open a database, creating the tables if they do not exist
+     *
+     * @param jdbcUrl             the H2 JDBC URL of the database, e.g. jdbc:h2:mem:users;DB_CLOSE_DELAY=-1
+     * @param flushIntervalMillis the interval between background writes of the changed users
+     * @param tradeRecorder       the recorder the orders of the users are journaled and analyzed with
+     * @throws IOException if the database cannot be opened
+     */
+    public SqlUserDataAccessObject(String jdbcUrl, long flushIntervalMillis, TradeRecorder tradeRecorder)
+            throws IOException {
+        this.tradeRecorder = tradeRecorder;
+        pool = JdbcConnectionPool.create(jdbcUrl, "sa", "");
+        pool.setMaxConnections(MAX_CONNECTIONS);
+        try (Connection connection = pool.getConnection(); Statement statement = connection.createStatement()) {
+            for (String table : SCHEMA) {
+                statement.execute(table);
+            }
+        } catch (SQLException e) {
+            pool.dispose();
+            throw new IOException("Could not open the user database " + jdbcUrl + ".", e);
+        }
+
+        writer = Executors.newSingleThreadScheduledExecutor();
+        // a failed write is kept in failure and rejects later orders, an exception would cancel the periodic task
+        writer.scheduleWithFixedDelay(() -> {
+            try {
+                flush();
+            } catch (IOException | RuntimeException e) {
+                e.printStackTrace();
+            }
+        }, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Add a user to the database, with its balance, positions and history
+     *
+     * @param user the user to add
+     * @throws IllegalArgumentException if a user with the same username already exists
+     * @throws IOException              if the user cannot be written
+     */
+    public void addUser(User user) throws IOException {
+        try (Connection connection = pool.getConnection();
+             PreparedStatement insert = connection.prepareStatement(
+                     "INSERT INTO users (username, password_hash, balance, next_lot_id) VALUES (?, ?, ?, ?)")) {
+            synchronized (user) {
+                insert.setString(1, user.getUsername());
+                insert.setString(2, user.getPasswordHash());
+                insert.setDouble(3, user.getBalance());
+                insert.setLong(4, user.getPortfolio().getNextLotId());
+            }
+            insert.executeUpdate();
+        } catch (SQLIntegrityConstraintViolationException e) {
+            throw new IllegalArgumentException("User " + user.getUsername() + " already exists.", e);
+        } catch (SQLException e) {
+            throw new IOException("Could not add user " + user.getUsername() + ".", e);
+        }
+        Account account = new Account(user);
+        // the positions and history are written like any later change
+        synchronized (writeLock) {
+            try {
+                write(List.of(account));
+            } catch (SQLException e) {
+                throw new IOException("Could not add user " + user.getUsername() + ".", e);
+            }
+        }
+        accounts.put(user.getUsername(), account);
+    }
+
+    /**
+     * Copy the users missing from the database into it, e.g. the users kept in memory before the database was used.
+     * The given users are not loaded, a login reads its own copy of a user from the database.
+     *
+     * @param users the users to copy
+     * @return the number of users copied
+     * @throws IOException if a user cannot be written
+     */
+    public int importUsers(Collection<User> users) throws IOException {
+        int imported = 0;
+        for (User user : users) {
+            if (accounts.containsKey(user.getUsername())) {
+                continue;
+            }
+            try (Connection connection = pool.getConnection();
+                 PreparedStatement insert = connection.prepareStatement(
+                         "INSERT INTO users (username, password_hash, balance, next_lot_id) VALUES (?, ?, ?, ?)")) {
+                synchronized (user) {
+                    insert.setString(1, user.getUsername());
+                    insert.setString(2, user.getPasswordHash());
+                    insert.setDouble(3, user.getBalance());
+                    insert.setLong(4, user.getPortfolio().getNextLotId());
+                }
+                insert.executeUpdate();
+            } catch (SQLIntegrityConstraintViolationException e) {
+                continue;
+            } catch (SQLException e) {
+                throw new IOException("Could not import user " + user.getUsername() + ".", e);
+            }
+            synchronized (writeLock) {
+                try {
+                    write(List.of(new Account(user)));
+                } catch (SQLException e) {
+                    throw new IOException("Could not import user " + user.getUsername() + ".", e);
+                }
+            }
+            imported++;
+        }
+        return imported;
+    }
+
+    /**
+     * Get the recorder the orders of the users are journaled and analyzed with
+     *
+     * @return the trade recorder
+     */
+    public TradeRecorder getTradeRecorder() {
+        return tradeRecorder;
+    }
+
+    /**
+     * Write every user changed since the last write now
+     *
+     * @throws IOException if the users cannot be written
+     */
+    public void flush() throws IOException {
+        synchronized (writeLock) {
+            checkFailure();
+            while (true) {
+                List<Account> batch = new ArrayList<>();
+                synchronized (dirty) {
+                    var iterator = dirty.iterator();
+                    while (iterator.hasNext() && batch.size() < MAX_FLUSH_USERS) {
+                        batch.add(iterator.next());
+                        iterator.remove();
+                    }
+                }
+                if (batch.isEmpty()) {
+                    return;
+                }
+                try {
+                    write(batch);
+                } catch (SQLException e) {
+                    failure = new IOException("The user database failed to write.", e);
+                    throw failure;
+                }
+            }
+        }
+    }
+
+    /**
+     * Write the changed users and close the database
+     *
+     * @throws IOException if the users cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            flush();
+        } finally {
+            pool.dispose();
+        }
+    }
+
+    /**
+     * Records the order with the trade recorder and marks the user to be written by the next background write, the
+     * fills are written with the user's history
+     */
+    @Override
+    public void recordFills(User user, double balanceDelta, List<Transaction> fills, LotReliefMethod reliefMethod)
+            throws IOException {
+        checkFailure();
+        Account account = accounts.get(user.getUsername());
+        if (account == null || account.user != user) {
+            throw new IllegalArgumentException("User " + user.getUsername() + " was not loaded from this database.");
+        }
+        tradeRecorder.record(user, balanceDelta, fills, reliefMethod);
+        // the interactor applies the fills under the user's lock, which the writer takes before reading the user
+        markDirty(account);
+    }
+
+    /**
+     * Add a listener notified whenever a loaded user is revalued by a market update
+     *
+     * @param listener the listener to add
+     */
+    public void addAssetUpdateListener(AssetUpdateListener listener) {
+        assetUpdateListeners.add(listener);
+    }
+
+    /**
+     * Revalue the loaded users holding a ticker whose price changed
+     */
+    @Override
+    public void onPricesUpdated(Map<String, Double> changedPrices) {
+        for (Account account : accounts.values()) {
+            if (account.user.getPortfolio().applyPriceUpdates(changedPrices)) {
+                for (AssetUpdateListener listener : assetUpdateListeners) {
+                    listener.onAssetsUpdated(account.user);
+                }
+            }
+        }
+    }
+
+    @Override
+    public List<TradeRollup> getMarketRollups(String ticker, RollupResolution resolution, long from, long to) {
+        return tradeRecorder.getTradeAnalytics().getMarketRollups(ticker, resolution, from, to);
+    }
+
+    @Override
+    public List<TradeRollup> getUserRollups(User user, String ticker, RollupResolution resolution, long from,
+                                            long to) {
+        return tradeRecorder.getTradeAnalytics().getUserRollups(user.getUsername(), ticker, resolution, from, to);
+    }
+
+    @Override
+    public int exportTransactionHistory(User user, Path file, TransactionFileFormat format) throws IOException {
+        return TransactionHistoryFiles.export(user.getTransactionHistory(), file, format);
+    }
+
+    @Override
+    public User getUserWithCredential(String credential) throws ValidationException {
+        User user = findUserWithCredential(credential);
+        if (user == null) {
+            throw new ValidationException();
+        }
+        return user;
+    }
+
+    /**
+     * Get the user of a credential without an exception, loading it on the first request.
+     * The user is kept in the session after the first lookup.
+     *
+     * @param credential the user's credential
+     * @return the user, or null if the credential is not valid
+     */
+    public User findUserWithCredential(String credential) {
+        return SessionManager.Instance().getPrincipal(credential, User.class,
+                username -> getUserWithUsername(username).orElse(null));
+    }
+
+    @Override
+    public User getUserWithPassword(String username, String password) throws ValidationException {
+        User user = getUserWithUsername(username).orElseThrow(ValidationException::new);
+        if (!user.checkPassword(password)) {
+            throw new ValidationException();
+        }
+        return user;
+    }
+
+    // get a user from the cache, loading it on the first request
+    private Optional<User> getUserWithUsername(String username) {
+        Account account = accounts.get(username);
+        if (account == null) {
+            account = accounts.computeIfAbsent(username, name -> {
+                try {
+                    return load(name);
+                } catch (SQLException e) {
+                    throw new UncheckedIOException(new IOException("Could not load user " + name + ".", e));
+                }
+            });
+        }
+        return account == null ? Optional.empty() : Optional.of(account.user);
+    }
+
+    private void markDirty(Account account) {
+        synchronized (dirty) {
+            dirty.add(account);
+        }
+    }
+
+    private void checkFailure() throws IOException {
+        if (failure != null) {
+            throw new IOException("The user database failed to write.", failure);
+        }
+    }
+
+    private Account load(String username) throws SQLException {
+        try (Connection connection = pool.getConnection()) {
+            String passwordHash;
+            double balance;
+            long nextLotId;
+            try (PreparedStatement select = connection.prepareStatement(
+                    "SELECT password_hash, balance, next_lot_id FROM users WHERE username = ?")) {
+                select.setString(1, username);
+                try (ResultSet row = select.executeQuery()) {
+                    if (!row.next()) {
+                        return null;
+                    }
+                    passwordHash = row.getString(1);
+                    balance = row.getDouble(2);
+                    nextLotId = row.getLong(3);
+                }
+            }
+
+            Map<String, List<TaxLot>> lots = new HashMap<>();
+            try (PreparedStatement select = connection.prepareStatement(
+                    "SELECT ticker, lot_id, timestamp_millis, quantity, price FROM lots WHERE username = ? "
+                            + "ORDER BY ticker, seq")) {
+                select.setString(1, username);
+                try (ResultSet row = select.executeQuery()) {
+                    while (row.next()) {
+                        lots.computeIfAbsent(row.getString(1), ticker -> new ArrayList<>()).add(
+                                new TaxLot(row.getLong(2), row.getLong(3), row.getInt(4), row.getDouble(5)));
+                    }
+                }
+            }
+
+            Portfolio portfolio = new Portfolio();
+            try (PreparedStatement select = connection.prepareStatement(
+                    "SELECT ticker, company, industry, cost, market_price, realized_pnl FROM positions "
+                            + "WHERE username = ?")) {
+                select.setString(1, username);
+                try (ResultSet row = select.executeQuery()) {
+                    while (row.next()) {
+                        String ticker = row.getString(1);
+                        String company = row.getString(2);
+                        String industry = row.getString(3);
+                        double marketPrice = row.getDouble(5);
+                        // positions share the market's stocks once it is loaded, like restored snapshots
+                        Stock stock = StockMarket.Instance().getStock(ticker)
+                                .orElseGet(() -> new Stock(ticker, company, industry, marketPrice));
+                        portfolio.restorePosition(stock, row.getDouble(4), marketPrice,
+                                lots.getOrDefault(ticker, List.of()), row.getDouble(6), nextLotId);
+                    }
+                }
+            }
+
+            List<Transaction> transactions = new ArrayList<>();
+            try (PreparedStatement select = connection.prepareStatement(
+                    "SELECT timestamp_millis, ticker, quantity, price, side FROM transactions WHERE username = ? "
+                            + "ORDER BY position")) {
+                select.setString(1, username);
+                try (ResultSet row = select.executeQuery()) {
+                    while (row.next()) {
+                        transactions.add(new Transaction(row.getLong(1), row.getString(2), row.getInt(3),
+                                row.getDouble(4), TransactionSide.valueOf(row.getString(5))));
+                    }
+                }
+            }
+
+            User user = User.withPasswordHash(username, passwordHash, balance, portfolio,
+                    new TransactionHistory(transactions));
+            Account account = new Account(user);
+            account.writtenTransactions = transactions.size();
+            return account;
+        }
+    }
+
+    // write a batch of users in one database transaction
+    private void write(List<Account> batch) throws SQLException {
+        int[] historySizes = new int[batch.size()];
+        try (Connection connection = pool.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement updateUser = connection.prepareStatement(
+                    "UPDATE users SET balance = ?, next_lot_id = ? WHERE username = ?");
+                 PreparedStatement deletePositions = connection.prepareStatement(
+                         "DELETE FROM positions WHERE username = ?");
+                 PreparedStatement deleteLots = connection.prepareStatement(
+                         "DELETE FROM lots WHERE username = ?");
+                 PreparedStatement insertPosition = connection.prepareStatement(
+                         "INSERT INTO positions (username, ticker, company, industry, cost, market_price, "
+                                 + "realized_pnl) VALUES (?, ?, ?, ?, ?, ?, ?)");
+                 PreparedStatement insertLot = connection.prepareStatement(
+                         "INSERT INTO lots (username, ticker, seq, lot_id, timestamp_millis, quantity, price) "
+                                 + "VALUES (?, ?, ?, ?, ?, ?, ?)");
+                 PreparedStatement insertTransaction = connection.prepareStatement(
+                         "INSERT INTO transactions (username, position, timestamp_millis, ticker, quantity, price, "
+                                 + "side) VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+                for (int i = 0; i < batch.size(); i++) {
+                    historySizes[i] = addBatches(batch.get(i), updateUser, deletePositions, deleteLots,
+                            insertPosition, insertLot, insertTransaction);
+                }
+                // the deletes run before the inserts of the same users
+                updateUser.executeBatch();
+                deletePositions.executeBatch();
+                deleteLots.executeBatch();
+                insertPosition.executeBatch();
+                insertLot.executeBatch();
+                insertTransaction.executeBatch();
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).writtenTransactions = historySizes[i];
+        }
+    }
+
+    // add the statements writing a user to the batches and return the history size written
+    private static int addBatches(Account account, PreparedStatement updateUser, PreparedStatement deletePositions,
+                                  PreparedStatement deleteLots, PreparedStatement insertPosition,
+                                  PreparedStatement insertLot, PreparedStatement insertTransaction)
+            throws SQLException {
+        User user = account.user;
+        String username = user.getUsername();
+        TransactionHistory history = user.getTransactionHistory();
+        int historySize;
+        synchronized (user) {
+            // fills are applied under the user's lock, so the user is read between two orders
+            historySize = history.size();
+            Portfolio portfolio = user.getPortfolio();
+            updateUser.setDouble(1, user.getBalance());
+            updateUser.setLong(2, portfolio.getNextLotId());
+            updateUser.setString(3, username);
+            updateUser.addBatch();
+            deletePositions.setString(1, username);
+            deletePositions.addBatch();
+            deleteLots.setString(1, username);
+            deleteLots.addBatch();
+            for (String ticker : portfolio.getLedgerTickers()) {
+                Optional<UserStock> held = portfolio.getUserStock(ticker);
+                insertPosition.setString(1, username);
+                insertPosition.setString(2, ticker);
+                insertPosition.setString(3, held.map(userStock -> userStock.getStock().getCompany())
+                        .orElse("Unknown Company"));
+                insertPosition.setString(4, held.map(userStock -> userStock.getStock().getIndustry())
+                        .orElse("Unknown Industry"));
+                insertPosition.setDouble(5, held.map(UserStock::getCost).orElse(0.0));
+                insertPosition.setDouble(6, held.map(UserStock::getMarketPrice).orElse(0.0));
+                insertPosition.setDouble(7, portfolio.getRealizedPnl(ticker));
+                insertPosition.addBatch();
+                List<TaxLot> lots = portfolio.getLots(ticker);
+                for (int seq = 0; seq < lots.size(); seq++) {
+                    TaxLot lot = lots.get(seq);
+                    insertLot.setString(1, username);
+                    insertLot.setString(2, ticker);
+                    insertLot.setInt(3, seq);
+                    insertLot.setLong(4, lot.lotId());
+                    insertLot.setLong(5, lot.timestamp());
+                    insertLot.setInt(6, lot.quantity());
+                    insertLot.setDouble(7, lot.price());
+                    insertLot.addBatch();
+                }
+            }
+        }
+
+        // the transactions below the size never change, so they are read without the lock
+        for (int position = account.writtenTransactions; position < historySize; position++) {
+            Transaction transaction = history.get(position);
+            insertTransaction.setString(1, username);
+            insertTransaction.setInt(2, position);
+            insertTransaction.setLong(3, transaction.getTimestampMillis());
+            insertTransaction.setString(4, transaction.getTicker());
+            insertTransaction.setInt(5, transaction.getQuantity());
+            insertTransaction.setDouble(6, transaction.getPrice());
+            insertTransaction.setString(7, transaction.getSide().name());
+            insertTransaction.addBatch();
+        }
+        return historySize;
+    }
+
+    /**
+     * A loaded user with the number of its transactions in the database
+     */
+    private static final class Account {
+        private final User user;
+        private int writtenTransactions;
+
+        private Account(User user) {
+            this.user = user;
+        }
+    }
+}
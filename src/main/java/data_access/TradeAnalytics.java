@@ -0,0 +1,436 @@
+package data_access;
+
+import entity.RollupResolution;
+import entity.TradeRollup;
+import entity.Transaction;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Rolling volume and notional per ticker, across all users and per user, in minute, hour and day buckets
+ * <p>
+ * Every recorded order adds its fills to the buckets of their tickers, so queries never read a transaction history.
+ * The buckets of a series are kept in primitive ring buffers that grow up to the retention of their resolution,
+ * after which the oldest bucket is dropped. Each series is locked separately.
+ * </p>
+ * <p>
+ * The series remember the position in the trade journal they cover. A checkpoint writes every series together with
+ * that position, so replaying the journal after loading it only needs to record the orders after the position.
+ * Recording an order and serializing a checkpoint exclude each other, which only holds back the single consumer
+ * recording orders, see TradeRecorder, and never the orders themselves.
+ * </p>
+ */
+public class TradeAnalytics {
+
+    private static final int CHECKPOINT_MAGIC = 0x54524132;
+
+    private final Map<String, Series> marketSeries = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, Series>> userSeries = new ConcurrentHashMap<>();
+    private final ReentrantLock checkpointLock = new ReentrantLock();
+    private JournalPosition position = TradeJournal.START;
+    private volatile JournalPosition checkpointedPosition = TradeJournal.START;
+
+    /**
+     * Record the fills of one order, without moving the journal position
+     *
+     * @param username the user who placed the order
+     * @param fills    the fills of the order
+     */
+    public void recordFills(String username, List<Transaction> fills) {
+        checkpointLock.lock();
+        try {
+            addFills(username, fills);
+        } finally {
+            checkpointLock.unlock();
+        }
+    }
+
+    /**
+     * Record the fills of one journaled order, as one step with respect to checkpoints
+     *
+     * @param username the user who placed the order
+     * @param fills    the fills of the order
+     * @param through  the journal position after the order
+     */
+    public void recordFills(String username, List<Transaction> fills, JournalPosition through) {
+        checkpointLock.lock();
+        try {
+            addFills(username, fills);
+            position = through;
+        } finally {
+            checkpointLock.unlock();
+        }
+    }
+
+    /**
+     * Get the position in the trade journal after the last recorded order, including those restored from a
+     * checkpoint
+     *
+     * @return the position
+     */
+    public JournalPosition getPosition() {
+        checkpointLock.lock();
+        try {
+            return position;
+        } finally {
+            checkpointLock.unlock();
+        }
+    }
+
+    /**
+     * Get the journal position of the last checkpoint written or read, the journal must be kept from there on
+     *
+     * @return the position
+     */
+    public JournalPosition getCheckpointedPosition() {
+        return checkpointedPosition;
+    }
+
+    // mark the orders up to a position as recorded, after replaying them without positions
+    void setPosition(JournalPosition position) {
+        checkpointLock.lock();
+        try {
+            this.position = position;
+        } finally {
+            checkpointLock.unlock();
+        }
+    }
+
+    /**
+     * Get the rollups of a ticker across all users
+     *
+     * @param ticker     the ticker
+     * @param resolution the bucket size
+     * @param from       the earliest time in epoch milliseconds, inclusive
+     * @param to         the latest time in epoch milliseconds, inclusive
+     * @return the non-empty buckets overlapping the range, oldest first
+     */
+    public List<TradeRollup> getMarketRollups(String ticker, RollupResolution resolution, long from, long to) {
+        Series series = marketSeries.get(ticker);
+        return series == null ? List.of() : series.get(resolution, from, to);
+    }
+
+    /**
+     * Get the rollups of a ticker for one user
+     *
+     * @param username   the user
+     * @param ticker     the ticker
+     * @param resolution the bucket size
+     * @param from       the earliest time in epoch milliseconds, inclusive
+     * @param to         the latest time in epoch milliseconds, inclusive
+     * @return the non-empty buckets overlapping the range, oldest first
+     */
+    public List<TradeRollup> getUserRollups(String username, String ticker, RollupResolution resolution,
+                                            long from, long to) {
+        Map<String, Series> tickers = userSeries.get(username);
+        Series series = tickers == null ? null : tickers.get(ticker);
+        return series == null ? List.of() : series.get(resolution, from, to);
+    }
+
+    /**
+     * Write a checkpoint of every series, replacing the file atomically.
+     * Recording is only held back while the series are serialized to memory, not while the file is written.
+     *
+     * @param file    the checkpoint file
+     * @param journal the journal the recorded orders are in, flushed before the checkpoint is written, or null
+     * @throws IOException if the journal cannot be flushed or the checkpoint cannot be written
+     */
+    public void writeCheckpoint(Path file, TradeJournal journal) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        CRC32 crc = new CRC32();
+        JournalPosition checkpointed;
+        checkpointLock.lock();
+        try (DataOutputStream out = new DataOutputStream(new CheckedOutputStream(bytes, crc))) {
+            out.writeInt(CHECKPOINT_MAGIC);
+            checkpointed = position;
+            out.writeLong(position.offset());
+            out.writeLong(position.records());
+            out.writeInt(marketSeries.size());
+            for (Map.Entry<String, Series> entry : marketSeries.entrySet()) {
+                out.writeUTF(entry.getKey());
+                entry.getValue().write(out);
+            }
+            out.writeInt(userSeries.size());
+            for (Map.Entry<String, Map<String, Series>> user : userSeries.entrySet()) {
+                out.writeUTF(user.getKey());
+                out.writeInt(user.getValue().size());
+                for (Map.Entry<String, Series> entry : user.getValue().entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    entry.getValue().write(out);
+                }
+            }
+            out.writeLong(crc.getValue());
+        } finally {
+            checkpointLock.unlock();
+        }
+        // with ASYNC durability the orders in the checkpoint may not be on disk yet
+        if (journal != null) {
+            journal.flush();
+        }
+
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        checkpointedPosition = checkpointed;
+    }
+
+    /**
+     * Replace every series with those of a checkpoint. A missing, damaged or unreadable checkpoint leaves the
+     * analytics unchanged, so every order is recorded again from the journal.
+     *
+     * @param file the checkpoint file
+     * @return true if the checkpoint was loaded
+     */
+    public boolean readCheckpoint(Path file) {
+        CRC32 crc = new CRC32();
+        Map<String, Series> market = new ConcurrentHashMap<>();
+        Map<String, Map<String, Series>> users = new ConcurrentHashMap<>();
+        JournalPosition checkpointed;
+        try (CheckedInputStream checked = new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(file)), crc);
+             DataInputStream in = new DataInputStream(checked)) {
+            if (in.readInt() != CHECKPOINT_MAGIC) {
+                return false;
+            }
+            checkpointed = new JournalPosition(in.readLong(), in.readLong());
+            int tickers = in.readInt();
+            for (int i = 0; i < tickers; i++) {
+                market.put(in.readUTF(), Series.read(in));
+            }
+            int userCount = in.readInt();
+            for (int i = 0; i < userCount; i++) {
+                String username = in.readUTF();
+                int userTickers = in.readInt();
+                Map<String, Series> series = new ConcurrentHashMap<>();
+                for (int j = 0; j < userTickers; j++) {
+                    series.put(in.readUTF(), Series.read(in));
+                }
+                users.put(username, series);
+            }
+            long expected = crc.getValue();
+            if (in.readLong() != expected) {
+                return false;
+            }
+        } catch (IOException e) {
+            return false;
+        }
+
+        checkpointLock.lock();
+        try {
+            marketSeries.clear();
+            marketSeries.putAll(market);
+            userSeries.clear();
+            userSeries.putAll(users);
+            position = checkpointed;
+            checkpointedPosition = checkpointed;
+        } finally {
+            checkpointLock.unlock();
+        }
+        return true;
+    }
+
+    private void addFills(String username, List<Transaction> fills) {
+        for (Transaction fill : fills) {
+            long timestamp = fill.getTimestampMillis();
+            double notional = fill.getPrice() * fill.getQuantity();
+            marketSeries.computeIfAbsent(fill.getTicker(), ticker -> new Series())
+                    .add(timestamp, fill.getQuantity(), notional);
+            userSeries.computeIfAbsent(username, user -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(fill.getTicker(), ticker -> new Series())
+                    .add(timestamp, fill.getQuantity(), notional);
+        }
+    }
+
+    /**
+     * The buckets of one ticker at every resolution
+     */
+    private static final class Series {
+        private final BucketRing[] rings = new BucketRing[RollupResolution.values().length];
+
+        private Series() {
+            for (RollupResolution resolution : RollupResolution.values()) {
+                rings[resolution.ordinal()] = new BucketRing(resolution.getRetainedBuckets());
+            }
+        }
+
+        private synchronized void add(long timestamp, int volume, double notional) {
+            for (RollupResolution resolution : RollupResolution.values()) {
+                rings[resolution.ordinal()].add(resolution.bucketStart(timestamp), volume, notional);
+            }
+        }
+
+        private synchronized List<TradeRollup> get(RollupResolution resolution, long from, long to) {
+            return rings[resolution.ordinal()].get(resolution.bucketStart(from), to);
+        }
+
+        private synchronized void write(DataOutputStream out) throws IOException {
+            for (BucketRing ring : rings) {
+                ring.write(out);
+            }
+        }
+
+        private static Series read(DataInputStream in) throws IOException {
+            Series series = new Series();
+            for (BucketRing ring : series.rings) {
+                ring.read(in);
+            }
+            return series;
+        }
+    }
+
+    /**
+     * Buckets in time order in parallel primitive ring buffers, growing up to a maximum number of buckets
+     */
+    private static final class BucketRing {
+        private static final int INITIAL_CAPACITY = 4;
+
+        private final int maxBuckets;
+        private long[] starts = new long[INITIAL_CAPACITY];
+        private long[] volumes = new long[INITIAL_CAPACITY];
+        private double[] notionals = new double[INITIAL_CAPACITY];
+        private int head = 0;
+        private int size = 0;
+
+        private BucketRing(int maxBuckets) {
+            this.maxBuckets = maxBuckets;
+        }
+
+        private void add(long bucketStart, long volume, double notional) {
+            // fills nearly always land in the newest bucket
+            if (size > 0 && starts[slot(size - 1)] == bucketStart) {
+                volumes[slot(size - 1)] += volume;
+                notionals[slot(size - 1)] += notional;
+                return;
+            }
+            int index = lowerBound(bucketStart);
+            if (index < size && starts[slot(index)] == bucketStart) {
+                volumes[slot(index)] += volume;
+                notionals[slot(index)] += notional;
+                return;
+            }
+            if (size == maxBuckets) {
+                if (index == 0) {
+                    // older than every retained bucket
+                    return;
+                }
+                head = (head + 1) % starts.length;
+                size--;
+                index--;
+            } else if (size == starts.length) {
+                grow();
+            }
+            // shift the newer buckets up by one to keep the buckets in time order
+            for (int i = size; i > index; i--) {
+                int to = slot(i);
+                int from = slot(i - 1);
+                starts[to] = starts[from];
+                volumes[to] = volumes[from];
+                notionals[to] = notionals[from];
+            }
+            int slot = slot(index);
+            starts[slot] = bucketStart;
+            volumes[slot] = volume;
+            notionals[slot] = notional;
+            size++;
+        }
+
+        private List<TradeRollup> get(long fromBucket, long to) {
+            List<TradeRollup> rollups = new ArrayList<>();
+            for (int i = lowerBound(fromBucket); i < size && starts[slot(i)] <= to; i++) {
+                int slot = slot(i);
+                rollups.add(new TradeRollup(starts[slot], volumes[slot], notionals[slot]));
+            }
+            return rollups;
+        }
+
+        // index of the first bucket starting at or after the given start
+        private int lowerBound(long bucketStart) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (starts[slot(middle)] < bucketStart) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        private int slot(int index) {
+            return (head + index) % starts.length;
+        }
+
+        private void grow() {
+            int capacity = Math.min(starts.length * 2, maxBuckets);
+            long[] newStarts = new long[capacity];
+            long[] newVolumes = new long[capacity];
+            double[] newNotionals = new double[capacity];
+            for (int i = 0; i < size; i++) {
+                int slot = slot(i);
+                newStarts[i] = starts[slot];
+                newVolumes[i] = volumes[slot];
+                newNotionals[i] = notionals[slot];
+            }
+            starts = newStarts;
+            volumes = newVolumes;
+            notionals = newNotionals;
+            head = 0;
+        }
+
+        private void write(DataOutputStream out) throws IOException {
+            out.writeInt(size);
+            for (int i = 0; i < size; i++) {
+                int slot = slot(i);
+                out.writeLong(starts[slot]);
+                out.writeLong(volumes[slot]);
+                out.writeDouble(notionals[slot]);
+            }
+        }
+
+        private void read(DataInputStream in) throws IOException {
+            int count = in.readInt();
+            if (count < 0 || count > maxBuckets) {
+                throw new IOException("Invalid bucket count " + count + " in the trade analytics checkpoint.");
+            }
+            int capacity = Math.max(INITIAL_CAPACITY, Math.min(Integer.highestOneBit(Math.max(count, 1)) * 2,
+                    maxBuckets));
+            starts = new long[capacity];
+            volumes = new long[capacity];
+            notionals = new double[capacity];
+            head = 0;
+            size = count;
+            for (int i = 0; i < count; i++) {
+                starts[i] = in.readLong();
+                volumes[i] = in.readLong();
+                notionals[i] = in.readDouble();
+            }
+        }
+    }
+}
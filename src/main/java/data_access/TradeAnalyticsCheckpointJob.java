@@ -0,0 +1,72 @@
+package data_access;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A periodic job that writes a checkpoint of the trade analytics, so a restart only replays the newer orders
+ */
+public class TradeAnalyticsCheckpointJob {
+
+    private final TradeAnalytics tradeAnalytics;
+    private final TradeJournal journal;
+    private final Path file;
+    private final long intervalMillis;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Create a checkpoint job
+     *
+     * @param tradeAnalytics the analytics to checkpoint
+     * @param journal        the journal the recorded orders are in, or null
+     * @param file           the checkpoint file
+     * @param intervalMillis the interval between checkpoints in milliseconds
+     */
+    public TradeAnalyticsCheckpointJob(TradeAnalytics tradeAnalytics, TradeJournal journal, Path file,
+                                       long intervalMillis) {
+        this.tradeAnalytics = tradeAnalytics;
+        this.journal = journal;
+        this.file = file;
+        this.intervalMillis = intervalMillis;
+    }
+
+    /**
+     * Starts a background thread writing a checkpoint at fixed intervals.
+     */
+    public synchronized void start() {
+        if (scheduler != null && !scheduler.isShutdown()) {
+            throw new IllegalStateException("Trade analytics checkpoints are already running.");
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        // a failed checkpoint is reported and skipped, an exception would cancel the periodic task
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                tradeAnalytics.writeCheckpoint(file, journal);
+            } catch (IOException | RuntimeException e) {
+                e.printStackTrace();
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the periodic checkpoints, waiting for a running checkpoint to finish.
+     */
+    public void stop() {
+        ScheduledExecutorService running;
+        synchronized (this) {
+            running = scheduler;
+            scheduler = null;
+        }
+        if (running != null) {
+            running.shutdown();
+            try {
+                running.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,619 @@
+package data_access;
+
+import entity.LotReliefMethod;
+import entity.Transaction;
+import entity.TransactionSide;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.ObjLongConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * A write-ahead journal of account mutations
+ * <p>
+ * Every record is framed by its length and a CRC32 of its payload. Appends are collected in a buffer, and whoever
+ * waits for its record first writes the whole buffer and forces it, while new appends go to a second buffer. With
+ * GROUP durability, orders arriving during a force therefore share the next force. A record cut short by a crash
+ * fails its length or checksum and is dropped with everything after it when the journal is opened.
+ * </p>
+ * <p>
+ * A failed write is truncated away, so none of the orders it rejected is replayed later. If the truncation fails
+ * too, the journal leaves a marker next to its file and refuses to open until an operator has truncated the segment
+ * named in the marker to the offset in it and deleted the marker.
+ * </p>
+ * <p>
+ * The records are kept in segment files named by the journal file and the offset of their first record. Offsets
+ * count the record bytes since the start of the journal, so they stay valid across segments. roll starts a new
+ * segment, and compact deletes the segments before a position that no longer needs to be replayed, e.g. after a
+ * snapshot. Only the active segment can have a torn tail.
+ * </p>
+ * <p>
+ * A JournalPosition names the place between two records. A journal can be opened trusting the records before a
+ * position that is known to be durable, e.g. the position of a snapshot, and replayed from it.
+ * </p>
+ */
+public class TradeJournal implements Closeable {
+
+    private static final int SEGMENT_MAGIC = 0x4A524E32;
+    private static final int SEGMENT_HEADER_BYTES = Integer.BYTES + Long.BYTES + Long.BYTES;
+    private static final int RECORD_HEADER_BYTES = Integer.BYTES + Integer.BYTES;
+    private static final int MAX_RECORD_BYTES = 1 << 24;
+    private static final int INITIAL_BUFFER_BYTES = 1 << 16;
+    private static final int SEGMENT_NAME_DIGITS = 16;
+
+    /**
+     * The position before the first record
+     */
+    public static final JournalPosition START = new JournalPosition(0, 0);
+
+    private final Path file;
+    private final Path failedMarker;
+    private final JournalDurability durability;
+    private final SegmentOpener segmentOpener;
+    private final ScheduledExecutorService flusher;
+
+    // the buffers, sequences, offsets and active segment are guarded by lock, the segment is only written by the
+    // flushing thread
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition flushed = lock.newCondition();
+    private ByteBuffer pending = ByteBuffer.allocate(INITIAL_BUFFER_BYTES);
+    private ByteBuffer spare = ByteBuffer.allocate(INITIAL_BUFFER_BYTES);
+    private long appendedSequence = 0;
+    private long durableSequence = 0;
+    private boolean flushing = false;
+    private IOException failure;
+    private Path segment;
+    private FileChannel channel;
+    private long segmentBase;
+    private long endOffset;
+    private long appendedOffset;
+    private long openedRecords;
+
+    /**
+     * Open a journal, creating its first segment if it has none
+     *
+     * @param file                the file of the journal, which names its segments
+     * @param durability          when appended records are on disk
+     * @param flushIntervalMillis the interval between background flushes with ASYNC durability
+     * @throws IOException if the segments cannot be opened or are not a journal
+     */
+    public TradeJournal(Path file, JournalDurability durability, long flushIntervalMillis) throws IOException {
+        this(file, durability, flushIntervalMillis, START);
+    }
+
+    /**
+     * Open a journal, creating its first segment if it has none and trusting the records before a durable position
+     *
+     * @param file                the file of the journal, which names its segments
+     * @param durability          when appended records are on disk
+     * @param flushIntervalMillis the interval between background flushes with ASYNC durability
+     * @param validated           a position the journal was durable up to, only the records after it are checked
+     * @throws IOException if the segments cannot be opened, are not a journal or end before the position
+     */
+    public TradeJournal(Path file, JournalDurability durability, long flushIntervalMillis, JournalPosition validated)
+            throws IOException {
+        this(file, durability, flushIntervalMillis, validated, segment -> FileChannel.open(segment,
+                StandardOpenOption.READ, StandardOpenOption.WRITE));
+    }
+
+    // open a journal whose segments are written through the channels of an opener, which the journal closes
+    TradeJournal(Path file, JournalDurability durability, long flushIntervalMillis, JournalPosition validated,
+                 SegmentOpener segmentOpener) throws IOException {
+        this.file = file;
+        this.durability = durability;
+        this.segmentOpener = segmentOpener;
+        this.failedMarker = file.resolveSibling(file.getFileName() + ".failed");
+        if (Files.exists(failedMarker)) {
+            throw new IOException(file + " could not be truncated after a failed write. Truncate the segment named "
+                    + "in " + failedMarker + " to the offset after its name and delete that file to open the journal.");
+        }
+        List<Path> segments = listSegments(file);
+        if (segments.isEmpty()) {
+            // a new journal only matches the start
+            if (!validated.equals(START)) {
+                throw new IOException(file + " ends before position " + validated.offset() + ".");
+            }
+            openSegment(createSegment(START), START);
+            openedRecords = 0;
+        } else {
+            Path last = segments.get(segments.size() - 1);
+            JournalPosition base = readHeader(last);
+            openSegment(last, base);
+            try {
+                JournalPosition from = validated.offset() >= base.offset() ? validated : base;
+                if (channel.size() < physicalOffset(from.offset())) {
+                    throw new IOException(file + " ends before position " + validated.offset() + ".");
+                }
+                JournalPosition end = scanRecords(channel, base, from, null, true);
+                endOffset = end.offset();
+                openedRecords = end.records();
+            } catch (IOException e) {
+                channel.close();
+                throw e;
+            }
+        }
+        appendedOffset = endOffset;
+
+        if (durability == JournalDurability.ASYNC) {
+            flusher = Executors.newSingleThreadScheduledExecutor();
+            flusher.scheduleWithFixedDelay(() -> {
+                try {
+                    flush();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            flusher = null;
+        }
+    }
+
+    /**
+     * Append a record, returning once it is as durable as the journal's durability requires
+     *
+     * @param record the record to append
+     * @return the position after the record
+     * @throws IOException if the record cannot be written or an earlier write failed
+     */
+    public JournalPosition append(JournalRecord record) throws IOException {
+        byte[] payload = encode(record);
+        if (payload.length > MAX_RECORD_BYTES) {
+            throw new IllegalArgumentException("A journal record cannot exceed " + MAX_RECORD_BYTES + " bytes.");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        long sequence;
+        JournalPosition position;
+        lock.lock();
+        try {
+            checkFailure();
+            if (pending.remaining() < RECORD_HEADER_BYTES + payload.length) {
+                pending = grow(pending, RECORD_HEADER_BYTES + payload.length);
+            }
+            pending.putInt(payload.length).putInt((int) crc.getValue()).put(payload);
+            appendedOffset += RECORD_HEADER_BYTES + payload.length;
+            sequence = ++appendedSequence;
+            position = new JournalPosition(appendedOffset, openedRecords + sequence);
+            // every order forces its own record while holding the lock
+            if (durability == JournalDurability.SYNC) {
+                awaitDurable(sequence);
+                return position;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (durability == JournalDurability.GROUP) {
+            awaitDurable(sequence);
+        }
+        return position;
+    }
+
+    /**
+     * Write and force every record appended so far
+     *
+     * @throws IOException if the records cannot be written
+     */
+    public void flush() throws IOException {
+        long sequence;
+        lock.lock();
+        try {
+            sequence = appendedSequence;
+        } finally {
+            lock.unlock();
+        }
+        awaitDurable(sequence);
+    }
+
+    /**
+     * Get the position after the last appended record, which may not be durable yet
+     *
+     * @return the position
+     */
+    public JournalPosition getPosition() {
+        lock.lock();
+        try {
+            return new JournalPosition(appendedOffset, openedRecords + appendedSequence);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Get the position before the first record that was not compacted away
+     *
+     * @return the position
+     * @throws IOException if the first segment cannot be read
+     */
+    public JournalPosition getStartPosition() throws IOException {
+        return readHeader(listSegments(file).get(0));
+    }
+
+    /**
+     * Flush the active segment and continue in a new one. Appends wait while the segment is switched.
+     *
+     * @throws IOException if the records cannot be written or the new segment cannot be created
+     */
+    public void roll() throws IOException {
+        lock.lock();
+        try {
+            // holding the lock keeps new appends out once every appended record is durable
+            while (durableSequence < appendedSequence) {
+                awaitDurable(appendedSequence);
+            }
+            checkFailure();
+            if (endOffset == segmentBase) {
+                return;
+            }
+            FileChannel previous = channel;
+            JournalPosition base = new JournalPosition(endOffset, openedRecords + appendedSequence);
+            openSegment(createSegment(base), base);
+            previous.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Delete the segments that only hold records before a position, never the active segment
+     *
+     * @param before the earliest position that may still be replayed
+     * @return the number of deleted segments
+     * @throws IOException if a segment cannot be deleted
+     */
+    public int compact(JournalPosition before) throws IOException {
+        long activeBase;
+        lock.lock();
+        try {
+            activeBase = segmentBase;
+        } finally {
+            lock.unlock();
+        }
+        List<Path> segments = listSegments(file);
+        int deleted = 0;
+        for (int i = 0; i + 1 < segments.size(); i++) {
+            long base = segmentBase(segments.get(i));
+            if (base >= activeBase || segmentBase(segments.get(i + 1)) > before.offset()) {
+                break;
+            }
+            Files.delete(segments.get(i));
+            deleted++;
+        }
+        return deleted;
+    }
+
+    /**
+     * Read every record in the journal in the order they were appended
+     *
+     * @param consumer receives the records
+     * @throws IOException if the journal cannot be read
+     */
+    public void replay(Consumer<JournalRecord> consumer) throws IOException {
+        replay(getStartPosition(), (record, offset) -> consumer.accept(record));
+    }
+
+    /**
+     * Read the records after a position in the order they were appended
+     *
+     * @param from     the position to start at, between two records
+     * @param consumer receives the records with their offsets
+     * @throws IOException if the journal cannot be read or was compacted past the position
+     */
+    public void replay(JournalPosition from, ObjLongConsumer<JournalRecord> consumer) throws IOException {
+        flush();
+        List<Path> segments = listSegments(file);
+        if (from.offset() < segmentBase(segments.get(0))) {
+            throw new IOException(file + " was compacted past position " + from.offset() + ".");
+        }
+        for (int i = 0; i < segments.size(); i++) {
+            if (i + 1 < segments.size() && segmentBase(segments.get(i + 1)) <= from.offset()) {
+                continue;
+            }
+            JournalPosition base = readHeader(segments.get(i));
+            try (FileChannel reader = FileChannel.open(segments.get(i), StandardOpenOption.READ)) {
+                JournalPosition end = scanRecords(reader, base, from.offset() > base.offset() ? from : base,
+                        consumer, false);
+                // only the active segment may end in a record that is still being written
+                if (i + 1 < segments.size() && end.offset() != segmentBase(segments.get(i + 1))) {
+                    throw new IOException("Corrupt trade journal segment " + segments.get(i) + ".");
+                }
+            }
+        }
+    }
+
+    /**
+     * Flush the records appended so far and close the journal
+     *
+     * @throws IOException if the records cannot be written or the segment cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        if (flusher != null) {
+            flusher.shutdown();
+            try {
+                flusher.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            flush();
+        } finally {
+            lock.lock();
+            try {
+                channel.close();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // wait until a sequence is forced, becoming the flushing thread if no other thread is
+    private void awaitDurable(long sequence) throws IOException {
+        lock.lock();
+        try {
+            while (durableSequence < sequence) {
+                checkFailure();
+                if (flushing) {
+                    flushed.awaitUninterruptibly();
+                    continue;
+                }
+                flushing = true;
+                ByteBuffer batch = pending;
+                pending = spare;
+                long target = appendedSequence;
+                long offset = endOffset;
+                FileChannel output = channel;
+                long physical = physicalOffset(offset);
+                IOException error = null;
+                // with SYNC durability the lock is held, so no append can join the batch
+                boolean release = durability != JournalDurability.SYNC;
+                if (release) {
+                    lock.unlock();
+                }
+                try {
+                    batch.flip();
+                    writeFully(output, batch, physical);
+                    output.force(false);
+                } catch (IOException e) {
+                    error = e;
+                } finally {
+                    if (release) {
+                        lock.lock();
+                    }
+                }
+                long written = batch.limit();
+                batch.clear();
+                spare = batch;
+                flushing = false;
+                if (error == null) {
+                    endOffset = offset + written;
+                    durableSequence = target;
+                } else {
+                    discardFailedWrite(physical, error);
+                    failure = error;
+                }
+                flushed.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // cut off whatever part of a failed batch reached the segment, so its records are not replayed on the next open
+    private void discardFailedWrite(long physical, IOException error) {
+        try {
+            channel.truncate(physical);
+            channel.force(true);
+        } catch (IOException e) {
+            error.addSuppressed(e);
+            try {
+                Files.writeString(failedMarker, segment.getFileName() + " " + physical);
+            } catch (IOException markerError) {
+                error.addSuppressed(markerError);
+            }
+        }
+    }
+
+    private void checkFailure() throws IOException {
+        if (failure != null) {
+            throw new IOException("The trade journal failed to write.", failure);
+        }
+    }
+
+    // validate the records of a segment from a position, passing them to the consumer if given, and drop an invalid
+    // tail if asked to
+    private static JournalPosition scanRecords(FileChannel segmentChannel, JournalPosition base,
+                                               JournalPosition from, ObjLongConsumer<JournalRecord> consumer,
+                                               boolean truncate) throws IOException {
+        long size = segmentChannel.size();
+        // file positions are offsets from the start of the segment
+        long shift = SEGMENT_HEADER_BYTES - base.offset();
+        long position = from.offset() + shift;
+        long records = from.records();
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_BYTES);
+        CRC32 crc = new CRC32();
+        while (position + RECORD_HEADER_BYTES <= size) {
+            header.clear();
+            readFully(segmentChannel, header, position);
+            int length = header.getInt(0);
+            if (length <= 0 || length > MAX_RECORD_BYTES || position + RECORD_HEADER_BYTES + length > size) {
+                break;
+            }
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            readFully(segmentChannel, payload, position + RECORD_HEADER_BYTES);
+            crc.reset();
+            crc.update(payload.array());
+            if ((int) crc.getValue() != header.getInt(Integer.BYTES)) {
+                break;
+            }
+            if (consumer != null) {
+                consumer.accept(decode(payload.array()), position - shift);
+            }
+            position += RECORD_HEADER_BYTES + length;
+            records++;
+        }
+        if (truncate && position < size) {
+            segmentChannel.truncate(position);
+            segmentChannel.force(true);
+        }
+        return new JournalPosition(position - shift, records);
+    }
+
+    private void openSegment(Path path, JournalPosition base) throws IOException {
+        channel = segmentOpener.open(path);
+        segment = path;
+        segmentBase = base.offset();
+        endOffset = base.offset();
+    }
+
+    // a segment only appears once its header is durable, so a crash while rolling leaves no empty segment file
+    private Path createSegment(JournalPosition base) throws IOException {
+        Path path = segmentPath(file, base.offset());
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel output = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_BYTES)
+                    .putInt(SEGMENT_MAGIC).putLong(base.offset()).putLong(base.records()).flip();
+            writeFully(output, header, 0);
+            output.force(true);
+        }
+        Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return path;
+    }
+
+    private static JournalPosition readHeader(Path path) throws IOException {
+        try (FileChannel reader = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_BYTES);
+            readFully(reader, header, 0);
+            if (header.getInt(0) != SEGMENT_MAGIC || header.getLong(Integer.BYTES) != segmentBase(path)) {
+                throw new IOException(path + " is not a trade journal segment.");
+            }
+            return new JournalPosition(header.getLong(Integer.BYTES), header.getLong(Integer.BYTES + Long.BYTES));
+        }
+    }
+
+    private long physicalOffset(long offset) {
+        return offset - segmentBase + SEGMENT_HEADER_BYTES;
+    }
+
+    /**
+     * List the segment files of a journal, oldest first
+     *
+     * @param file the file of the journal
+     * @return the segment files
+     * @throws IOException if the directory cannot be read
+     */
+    static List<Path> listSegments(Path file) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory,
+                file.getFileName() + "." + "?".repeat(SEGMENT_NAME_DIGITS))) {
+            files.forEach(segments::add);
+        }
+        // the names hold fixed-width offsets, so they sort in journal order
+        segments.sort(Comparator.comparing((Path path) -> path.getFileName().toString()));
+        return segments;
+    }
+
+    private static Path segmentPath(Path file, long base) {
+        return file.resolveSibling(String.format("%s.%0" + SEGMENT_NAME_DIGITS + "x", file.getFileName(), base));
+    }
+
+    private static long segmentBase(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseUnsignedLong(name.substring(name.length() - SEGMENT_NAME_DIGITS), 16);
+    }
+
+    private static byte[] encode(JournalRecord record) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + 48 * record.fills().size());
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeUTF(record.username());
+            out.writeDouble(record.balanceDelta());
+            out.writeByte(record.reliefMethod().ordinal());
+            out.writeInt(record.fills().size());
+            for (Transaction fill : record.fills()) {
+                out.writeLong(fill.getTimestampMillis());
+                out.writeUTF(fill.getTicker());
+                out.writeInt(fill.getQuantity());
+                out.writeDouble(fill.getPrice());
+                out.writeUTF(fill.getType());
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Writing to memory cannot fail.", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static JournalRecord decode(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        String username = in.readUTF();
+        double balanceDelta = in.readDouble();
+        LotReliefMethod reliefMethod = LotReliefMethod.values()[in.readByte()];
+        int count = in.readInt();
+        List<Transaction> fills = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long timestamp = in.readLong();
+            String ticker = in.readUTF();
+            int quantity = in.readInt();
+            double price = in.readDouble();
+            fills.add(new Transaction(timestamp, ticker, quantity, price, TransactionSide.fromLabel(in.readUTF())));
+        }
+        return new JournalRecord(username, balanceDelta, reliefMethod, fills);
+    }
+
+    private static ByteBuffer grow(ByteBuffer buffer, int needed) {
+        int capacity = buffer.capacity();
+        while (capacity - buffer.position() < needed) {
+            capacity *= 2;
+        }
+        ByteBuffer grown = ByteBuffer.allocate(capacity);
+        buffer.flip();
+        grown.put(buffer);
+        return grown;
+    }
+
+    private static void readFully(FileChannel source, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (source.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of the trade journal.");
+            }
+        }
+    }
+
+    private static void writeFully(FileChannel target, ByteBuffer buffer, long position) throws IOException {
+        int written = 0;
+        while (buffer.hasRemaining()) {
+            written += target.write(buffer, position + written);
+        }
+    }
+
+    /**
+     * Opens the channel a segment is written through
+     */
+    @FunctionalInterface
+    interface SegmentOpener {
+        FileChannel open(Path segment) throws IOException;
+    }
+}
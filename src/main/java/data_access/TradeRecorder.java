@@ -0,0 +1,329 @@
+package data_access;
+
+import entity.LotReliefMethod;
+import entity.Portfolio;
+import entity.Stock;
+import entity.StockMarket;
+import entity.Transaction;
+import entity.TransactionHistory;
+import entity.TransactionSide;
+import entity.User;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Records the fills of the users in the trade journal and the trade analytics, and recovers the users and the
+ * analytics from a snapshot and the journal at startup
+ * <p>
+ * A user data access object delegates every recorded order to its recorder, so the journal and the analytics stay
+ * out of the storage of the users.
+ * </p>
+ * <p>
+ * An order is appended to the journal without any analytics lock held and then queued for a single analytics
+ * thread, so neither the rollups nor their checkpoints hold back orders. Concurrent orders may be queued in another
+ * order than they were journaled in, the analytics thread holds them back until the orders before them in the
+ * journal are recorded, so the analytics always cover exactly the journal up to their position. The rollups
+ * therefore trail the orders slightly, awaitAnalytics waits for them to catch up.
+ * </p>
+ */
+public class TradeRecorder implements Closeable {
+
+    private final TradeAnalytics tradeAnalytics = new TradeAnalytics();
+    private volatile TradeJournal tradeJournal;
+
+    // orders waiting for the analytics thread, which is started by the first order
+    private final BlockingQueue<RecordedOrder> analyticsQueue = new LinkedBlockingQueue<>();
+    private final AtomicLong queuedOrders = new AtomicLong();
+    private final ReentrantLock analyticsLock = new ReentrantLock();
+    private final Condition analyticsProgress = analyticsLock.newCondition();
+    private long analyzedOrders = 0;
+    private Thread analyticsThread;
+    private boolean closed = false;
+
+    /**
+     * Set the journal the fills are recorded in. The analytics must already cover the journal, see replay.
+     *
+     * @param tradeJournal the trade journal
+     */
+    public void setTradeJournal(TradeJournal tradeJournal) {
+        this.tradeJournal = tradeJournal;
+    }
+
+    /**
+     * Get the position after the last order appended to the journal
+     *
+     * @return the position, or the start of a journal if there is none
+     */
+    public JournalPosition getJournalPosition() {
+        TradeJournal journal = tradeJournal;
+        return journal == null ? TradeJournal.START : journal.getPosition();
+    }
+
+    /**
+     * Get the volume and VWAP rollups of every recorded order
+     *
+     * @return the trade analytics
+     */
+    public TradeAnalytics getTradeAnalytics() {
+        return tradeAnalytics;
+    }
+
+    /**
+     * Record the fills of an order before they are applied to the user. The order is durable in the journal when
+     * this returns, and is added to the analytics in the background.
+     *
+     * @param user         the user whose account changes
+     * @param balanceDelta the change of the user's balance
+     * @param fills        the fills of the order, in execution order, which must not change afterwards
+     * @param reliefMethod the order the sell fills relieve the lots in
+     * @throws IOException if the order cannot be recorded in the journal
+     */
+    public void record(User user, double balanceDelta, List<Transaction> fills, LotReliefMethod reliefMethod)
+            throws IOException {
+        TradeJournal journal = tradeJournal;
+        JournalPosition position = journal == null ? null
+                : journal.append(new JournalRecord(user.getUsername(), balanceDelta, reliefMethod, fills));
+        startAnalytics();
+        queuedOrders.incrementAndGet();
+        analyticsQueue.add(new RecordedOrder(user.getUsername(), fills, position));
+    }
+
+    /**
+     * Wait until the analytics include every order recorded before the call
+     *
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public void awaitAnalytics() throws InterruptedException {
+        long target = queuedOrders.get();
+        analyticsLock.lock();
+        try {
+            while (analyzedOrders < target) {
+                analyticsProgress.await();
+            }
+        } finally {
+            analyticsLock.unlock();
+        }
+    }
+
+    /**
+     * Record the queued orders in the analytics and stop the analytics thread
+     */
+    @Override
+    public void close() {
+        Thread thread;
+        analyticsLock.lock();
+        try {
+            closed = true;
+            thread = analyticsThread;
+        } finally {
+            analyticsLock.unlock();
+        }
+        if (thread == null) {
+            return;
+        }
+        try {
+            awaitAnalytics();
+            thread.interrupt();
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Restore the users of a snapshot with their archives and transactions, opening the archives and filling the
+     * histories in parallel
+     *
+     * @param snapshot         the snapshot to restore
+     * @param archiveDirectory the directory of the archives of the users, or null if they have none
+     * @return the users in the order of the snapshot
+     * @throws IOException if an archive cannot be opened or is missing transactions of the snapshot
+     */
+    public List<User> restoreUsers(UserSnapshot snapshot, Path archiveDirectory) throws IOException {
+        try {
+            snapshot.entries().parallelStream().forEach(entry -> {
+                try {
+                    restoreHistory(entry, archiveDirectory);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        List<User> users = new ArrayList<>(snapshot.entries().size());
+        for (UserSnapshot.Entry entry : snapshot.entries()) {
+            users.add(entry.user());
+        }
+        return users;
+    }
+
+    /**
+     * Apply the records of a journal to the users after a restored snapshot, each user only gets the records after
+     * its own snapshot offset, and records of unknown users are skipped. The journal is read from the snapshot
+     * position, or from the position of the trade analytics checkpoint if that is older. The analytics only record
+     * the orders after their checkpoint, and the histories only the fills that are not in their archive yet.
+     * Without a checkpoint the analytics are rebuilt from the segments of the journal that were not compacted away.
+     * Afterwards the analytics cover the whole journal.
+     *
+     * @param journal  the journal to replay
+     * @param snapshot the snapshot the users were restored from, or null to replay every record
+     * @param users    finds a user by username, or returns null
+     * @return the number of records applied
+     * @throws IOException if the journal cannot be read or was compacted past the snapshot
+     */
+    public int replay(TradeJournal journal, UserSnapshot snapshot, Function<String, User> users) throws IOException {
+        JournalPosition checkpointed = tradeAnalytics.getPosition();
+        JournalPosition start = journal.getStartPosition();
+        if (checkpointed.offset() < start.offset()) {
+            checkpointed = start;
+        }
+        long checkpointedOffset = checkpointed.offset();
+        // every user skips its records before its snapshot offset and counts its fills from its snapshot history
+        Map<String, Long> userOffsets = new HashMap<>();
+        Map<String, Integer> replayedFills = new HashMap<>();
+        JournalPosition from = TradeJournal.START;
+        if (snapshot != null) {
+            for (UserSnapshot.Entry entry : snapshot.entries()) {
+                userOffsets.put(entry.user().getUsername(), entry.journalOffset());
+                replayedFills.put(entry.user().getUsername(), entry.historySize());
+            }
+            from = snapshot.journalPosition().offset() <= checkpointedOffset ? snapshot.journalPosition()
+                    : checkpointed;
+        }
+
+        int[] applied = new int[1];
+        journal.replay(from, (record, offset) -> {
+            if (offset >= checkpointedOffset) {
+                tradeAnalytics.recordFills(record.username(), record.fills());
+            }
+            User user = users.apply(record.username());
+            if (user != null && offset >= userOffsets.getOrDefault(record.username(), TradeJournal.START.offset())) {
+                int fills = record.fills().size();
+                int replayed = replayedFills.merge(record.username(), fills, Integer::sum) - fills;
+                int archived = user.getTransactionHistory().getArchivedCount() - replayed;
+                applyJournalRecord(user, record, Math.max(0, Math.min(fills, archived)));
+                applied[0]++;
+            }
+        });
+        tradeAnalytics.setPosition(journal.getPosition());
+        return applied[0];
+    }
+
+    private void startAnalytics() {
+        analyticsLock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("The trade recorder is closed.");
+            }
+            if (analyticsThread == null) {
+                analyticsThread = Thread.ofPlatform().name("trade-analytics").daemon().start(this::runAnalytics);
+            }
+        } finally {
+            analyticsLock.unlock();
+        }
+    }
+
+    // the single consumer of the queue, journaled orders wait in a heap until the orders before them arrive
+    private void runAnalytics() {
+        PriorityQueue<RecordedOrder> early = new PriorityQueue<>(
+                Comparator.comparingLong(order -> order.position().records()));
+        try {
+            while (true) {
+                RecordedOrder order = analyticsQueue.take();
+                int analyzed = 0;
+                if (order.position() == null) {
+                    tradeAnalytics.recordFills(order.username(), order.fills());
+                    analyzed++;
+                } else {
+                    early.add(order);
+                }
+                long next = tradeAnalytics.getPosition().records() + 1;
+                while (!early.isEmpty() && early.peek().position().records() <= next) {
+                    RecordedOrder ready = early.poll();
+                    // an order already covered by the replayed journal is not recorded twice
+                    if (ready.position().records() == next) {
+                        tradeAnalytics.recordFills(ready.username(), ready.fills(), ready.position());
+                        next++;
+                    }
+                    analyzed++;
+                }
+                if (analyzed > 0) {
+                    analyticsLock.lock();
+                    try {
+                        analyzedOrders += analyzed;
+                        analyticsProgress.signalAll();
+                    } finally {
+                        analyticsLock.unlock();
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            // closed
+        }
+    }
+
+    private record RecordedOrder(String username, List<Transaction> fills, JournalPosition position) {
+    }
+
+    // the archive may have grown since the snapshot, its transactions are not added again
+    private static void restoreHistory(UserSnapshot.Entry entry, Path directory) throws IOException {
+        User user = entry.user();
+        if (directory != null) {
+            user.getTransactionHistory().attachArchive(
+                    SegmentedTransactionArchive.forUser(directory, user.getUsername()));
+        }
+        TransactionHistory history = user.getTransactionHistory();
+        int archived = history.getArchivedCount();
+        if (archived < entry.archivedCount()) {
+            throw new IOException("The archive of " + user.getUsername() + " is missing transactions of the "
+                    + "snapshot.");
+        }
+        List<Transaction> recent = entry.recentTransactions();
+        int skipped = archived - entry.archivedCount();
+        if (skipped < recent.size()) {
+            history.addTransactions(recent.subList(skipped, recent.size()));
+        }
+    }
+
+    // apply a recorded mutation the same way the interactors do
+    static void applyJournalRecord(User user, JournalRecord record, int archivedFills) {
+        synchronized (user) {
+            if (record.balanceDelta() >= 0) {
+                user.addBalance(record.balanceDelta());
+            } else {
+                user.deductBalance(-record.balanceDelta());
+            }
+            Portfolio portfolio = user.getPortfolio();
+            for (Transaction fill : record.fills()) {
+                if (fill.getSide() == TransactionSide.SELL) {
+                    portfolio.reducePosition(fill.getTicker(), fill.getPrice(), fill.getQuantity(),
+                            record.reliefMethod());
+                } else {
+                    // the market may not be loaded yet, positions are revalued by the next market update
+                    Stock stock = StockMarket.Instance().getStock(fill.getTicker()).orElseGet(() ->
+                            new Stock(fill.getTicker(), "Unknown Company", "Unknown Industry", fill.getPrice()));
+                    portfolio.addPosition(stock, fill.getPrice(), fill.getQuantity(),
+                            fill.getTimestampMillis());
+                }
+            }
+            List<Transaction> fills = record.fills();
+            user.getTransactionHistory().addTransactions(fills.subList(archivedFills, fills.size()));
+        }
+    }
+}
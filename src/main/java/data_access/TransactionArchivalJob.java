@@ -0,0 +1,98 @@
+package data_access;
+
+import entity.TransactionHistory;
+
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A periodic job that moves the transactions older than a window from memory into the archives of the users
+ * <p>
+ * Users are archived one at a time, and a user whose transactions cannot be archived keeps them in memory until the
+ * next run.
+ * </p>
+ */
+public class TransactionArchivalJob {
+
+    private final InMemoryUserDataAccessObject userDataAccess;
+    private final long hotWindowMillis;
+    private final long intervalMillis;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Create an archival job
+     *
+     * @param userDataAccess  the users to archive
+     * @param hotWindowMillis how long transactions stay in memory in milliseconds
+     * @param intervalMillis  the interval between runs in milliseconds
+     */
+    public TransactionArchivalJob(InMemoryUserDataAccessObject userDataAccess, long hotWindowMillis,
+                                  long intervalMillis) {
+        this.userDataAccess = userDataAccess;
+        this.hotWindowMillis = hotWindowMillis;
+        this.intervalMillis = intervalMillis;
+    }
+
+    /**
+     * Archive the transactions of every user that are older than the window
+     *
+     * @param now the current time in epoch milliseconds
+     * @return the number of archived transactions
+     */
+    public synchronized long archive(long now) {
+        long archived = 0;
+        long cutoff = now - hotWindowMillis;
+        int userCount = userDataAccess.getUserCount();
+        for (int userId = 0; userId < userCount; userId++) {
+            TransactionHistory history = userDataAccess.getUserById(userId).getTransactionHistory();
+            if (!history.hasArchive()) {
+                continue;
+            }
+            try {
+                archived += history.archiveBefore(cutoff);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        return archived;
+    }
+
+    /**
+     * Starts a background thread archiving at fixed intervals.
+     */
+    public synchronized void start() {
+        if (scheduler != null && !scheduler.isShutdown()) {
+            throw new IllegalStateException("Transaction archival is already running.");
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        // an exception would cancel the periodic task
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                archive(System.currentTimeMillis());
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the periodic archival, waiting for a running archival to finish.
+     */
+    public void stop() {
+        ScheduledExecutorService running;
+        synchronized (this) {
+            running = scheduler;
+            scheduler = null;
+        }
+        if (running != null) {
+            running.shutdown();
+            try {
+                running.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,389 @@
+package data_access;
+
+import entity.TickerSymbolTable;
+import entity.Transaction;
+import entity.TransactionHistory;
+import entity.TransactionSide;
+import utility.collections.IntIntHashMap;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A compact binary encoding of transaction streams
+ * <p>
+ * A stream starts with a magic number and holds one record per transaction. A record starts with a varint tag of the
+ * side, a flag for a ticker seen for the first time in the stream, a flag for a raw price and the stream-local id of
+ * the ticker. A new ticker is followed by its UTF-8 symbol. Then come the timestamp as a zigzag varint delta from the
+ * previous record, the quantity as a zigzag varint, and the price as a zigzag varint delta in units of
+ * 1 / PRICE_SCALE from the previous price of the same ticker, or as 8 raw bytes if it has more decimals.
+ * A fill in a time-ordered stream usually takes 6 to 10 bytes.
+ * </p>
+ * <p>
+ * Both directions work on a buffer of their own and touch the stream only when it is full or empty.
+ * Encoders and decoders are not thread-safe.
+ * </p>
+ */
+public final class TransactionCodec {
+
+    public static final long PRICE_SCALE = 10_000;
+
+    private static final int STREAM_MAGIC = 0x54584E31;
+    private static final int MAX_SYMBOL_BYTES = 256;
+    private static final int BUFFER_BYTES = 1 << 16;
+    // tag, symbol length and symbol, timestamp, quantity, price
+    private static final int MAX_RECORD_BYTES = 10 + 2 + MAX_SYMBOL_BYTES + 10 + 5 + 10;
+    private static final int MIN_BUFFER_BYTES = 2 * MAX_RECORD_BYTES;
+
+    private static final int SIDE_BIT = 1;
+    private static final int NEW_TICKER_BIT = 2;
+    private static final int RAW_PRICE_BIT = 4;
+    private static final int TAG_BITS = 3;
+    private static final TransactionSide[] SIDES = TransactionSide.values();
+
+    private TransactionCodec() {
+    }
+
+    /**
+     * Encode transactions into a new stream
+     *
+     * @param transactions the transactions to encode
+     * @return the encoded stream
+     */
+    public static byte[] encode(List<Transaction> transactions) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(8 + 10 * transactions.size());
+        try (Encoder encoder = new Encoder(bytes)) {
+            for (Transaction transaction : transactions) {
+                encoder.write(transaction);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Writing to memory cannot fail.", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decode every transaction of a stream
+     *
+     * @param stream the encoded stream
+     * @return the transactions in the order they were encoded
+     * @throws IOException if the stream is not a transaction stream or is cut short
+     */
+    public static List<Transaction> decode(byte[] stream) throws IOException {
+        List<Transaction> transactions = new ArrayList<>();
+        try (Decoder decoder = new Decoder(new ByteArrayInputStream(stream))) {
+            Transaction transaction;
+            while ((transaction = decoder.read()) != null) {
+                transactions.add(transaction);
+            }
+        }
+        return transactions;
+    }
+
+    /**
+     * Writes transactions to an output stream
+     */
+    public static final class Encoder implements Flushable, Closeable {
+
+        private final OutputStream out;
+        private final byte[] buffer;
+        private int position = 0;
+
+        // stream-local ticker ids by TickerSymbolTable id, and the last scaled price of every local id
+        private final IntIntHashMap localIds = new IntIntHashMap();
+        private long[] lastPrices = new long[16];
+        private long lastTimestamp = 0;
+
+        /**
+         * Create an encoder and write the stream header
+         *
+         * @param out the stream to write to
+         */
+        public Encoder(OutputStream out) {
+            this(out, BUFFER_BYTES);
+        }
+
+        /**
+         * Create an encoder with a buffer of a given size, e.g. a small one for short streams, and write the header
+         *
+         * @param out         the stream to write to
+         * @param bufferBytes the size of the buffer, raised to the minimum a record needs
+         */
+        public Encoder(OutputStream out, int bufferBytes) {
+            this.out = out;
+            this.buffer = new byte[Math.max(bufferBytes, MIN_BUFFER_BYTES)];
+            buffer[0] = (byte) (STREAM_MAGIC >>> 24);
+            buffer[1] = (byte) (STREAM_MAGIC >>> 16);
+            buffer[2] = (byte) (STREAM_MAGIC >>> 8);
+            buffer[3] = (byte) STREAM_MAGIC;
+            position = Integer.BYTES;
+        }
+
+        /**
+         * Write a transaction
+         *
+         * @param transaction the transaction to write
+         * @throws IOException if the stream cannot be written
+         */
+        public void write(Transaction transaction) throws IOException {
+            write(TickerSymbolTable.Instance().getId(transaction.getTicker()), transaction.getTimestampMillis(),
+                    transaction.getQuantity(), transaction.getPrice(), transaction.getSide());
+        }
+
+        /**
+         * Write a range of a transaction history straight from its columns
+         *
+         * @param history the history to write
+         * @param from    the position of the first transaction, inclusive
+         * @param to      the position of the last transaction, exclusive
+         * @throws IOException if the stream cannot be written
+         */
+        public void write(TransactionHistory history, int from, int to) throws IOException {
+            for (int i = from; i < to; i++) {
+                write(history.getTickerId(i), history.getTimestampMillis(i), history.getQuantity(i),
+                        history.getPrice(i), history.getSide(i));
+            }
+        }
+
+        /**
+         * Write the buffered records to the stream and flush it
+         *
+         * @throws IOException if the stream cannot be written
+         */
+        @Override
+        public void flush() throws IOException {
+            drain();
+            out.flush();
+        }
+
+        /**
+         * Flush and close the stream
+         *
+         * @throws IOException if the stream cannot be written or closed
+         */
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                out.close();
+            }
+        }
+
+        // a price with more than 4 decimals keeps its raw bits
+        private void write(int tickerId, long timestamp, int quantity, double price, TransactionSide side)
+                throws IOException {
+            long scaledPrice = Math.round(price * PRICE_SCALE);
+            boolean raw = (double) scaledPrice / PRICE_SCALE != price;
+            write(tickerId, timestamp, quantity, raw ? Double.doubleToRawLongBits(price) : scaledPrice, raw, side);
+        }
+
+        // the price is scaled, or the raw bits of the double if raw is set
+        private void write(int tickerId, long timestamp, int quantity, long price, boolean raw, TransactionSide side)
+                throws IOException {
+            if (buffer.length - position < MAX_RECORD_BYTES) {
+                drain();
+            }
+            int localId = localIds.get(tickerId, -1);
+            int tag = side.ordinal() & SIDE_BIT;
+            if (localId < 0) {
+                localId = localIds.size();
+                localIds.put(tickerId, localId, -1);
+                if (localId == lastPrices.length) {
+                    lastPrices = Arrays.copyOf(lastPrices, localId * 2);
+                }
+                tag |= NEW_TICKER_BIT;
+            }
+            if (raw) {
+                tag |= RAW_PRICE_BIT;
+            }
+            putVarint(((long) localId << TAG_BITS) | tag);
+            if ((tag & NEW_TICKER_BIT) != 0) {
+                byte[] symbol = TickerSymbolTable.Instance().getTicker(tickerId).getBytes(StandardCharsets.UTF_8);
+                if (symbol.length > MAX_SYMBOL_BYTES) {
+                    throw new IllegalArgumentException("A ticker cannot exceed " + MAX_SYMBOL_BYTES + " bytes.");
+                }
+                putVarint(symbol.length);
+                System.arraycopy(symbol, 0, buffer, position, symbol.length);
+                position += symbol.length;
+            }
+            putVarint(zigzag(timestamp - lastTimestamp));
+            lastTimestamp = timestamp;
+            putVarint(zigzag(quantity));
+            if (raw) {
+                for (int shift = 56; shift >= 0; shift -= 8) {
+                    buffer[position++] = (byte) (price >>> shift);
+                }
+            } else {
+                putVarint(zigzag(price - lastPrices[localId]));
+                lastPrices[localId] = price;
+            }
+        }
+
+        private void putVarint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        private void drain() throws IOException {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+
+    /**
+     * Reads transactions from an input stream
+     */
+    public static final class Decoder implements Closeable {
+
+        private final InputStream in;
+        private final byte[] buffer;
+        private int position = 0;
+        private int limit = 0;
+
+        private final List<String> tickers = new ArrayList<>();
+        private long[] lastPrices = new long[16];
+        private long lastTimestamp = 0;
+
+        /**
+         * Create a decoder and read the stream header
+         *
+         * @param in the stream to read from
+         * @throws IOException if the stream cannot be read or is not a transaction stream
+         */
+        public Decoder(InputStream in) throws IOException {
+            this(in, BUFFER_BYTES);
+        }
+
+        /**
+         * Create a decoder with a buffer of a given size, e.g. a small one for short streams, and read the header
+         *
+         * @param in          the stream to read from
+         * @param bufferBytes the size of the buffer, raised to the minimum a record needs
+         * @throws IOException if the stream cannot be read or is not a transaction stream
+         */
+        public Decoder(InputStream in, int bufferBytes) throws IOException {
+            this.in = in;
+            this.buffer = new byte[Math.max(bufferBytes, MIN_BUFFER_BYTES)];
+            if (!fill(Integer.BYTES) || ((buffer[0] & 0xFF) << 24 | (buffer[1] & 0xFF) << 16
+                    | (buffer[2] & 0xFF) << 8 | (buffer[3] & 0xFF)) != STREAM_MAGIC) {
+                throw new IOException("Not a transaction stream.");
+            }
+            position = Integer.BYTES;
+        }
+
+        /**
+         * Read the next transaction
+         *
+         * @return the transaction, or null at the end of the stream
+         * @throws IOException if the stream cannot be read or ends within a record
+         */
+        public Transaction read() throws IOException {
+            if (!fill(MAX_RECORD_BYTES) && position == limit) {
+                return null;
+            }
+            long tag = getVarint();
+            if (tag >>> TAG_BITS > Integer.MAX_VALUE) {
+                throw new IOException("Corrupt transaction stream.");
+            }
+            int localId = (int) (tag >>> TAG_BITS);
+            if ((tag & NEW_TICKER_BIT) != 0) {
+                int length = (int) getVarint();
+                if (localId != tickers.size() || length < 0 || length > MAX_SYMBOL_BYTES) {
+                    throw new IOException("Corrupt transaction stream.");
+                }
+                require(length);
+                tickers.add(new String(buffer, position, length, StandardCharsets.UTF_8));
+                position += length;
+                if (localId == lastPrices.length) {
+                    lastPrices = Arrays.copyOf(lastPrices, localId * 2);
+                }
+            } else if (localId >= tickers.size()) {
+                throw new IOException("Corrupt transaction stream.");
+            }
+
+            long timestamp = lastTimestamp + unzigzag(getVarint());
+            lastTimestamp = timestamp;
+            int quantity = (int) unzigzag(getVarint());
+            double price;
+            if ((tag & RAW_PRICE_BIT) != 0) {
+                require(Long.BYTES);
+                long bits = 0;
+                for (int i = 0; i < Long.BYTES; i++) {
+                    bits = (bits << 8) | (buffer[position++] & 0xFF);
+                }
+                price = Double.longBitsToDouble(bits);
+            } else {
+                long scaledPrice = lastPrices[localId] + unzigzag(getVarint());
+                lastPrices[localId] = scaledPrice;
+                price = (double) scaledPrice / PRICE_SCALE;
+            }
+            return new Transaction(timestamp, tickers.get(localId), quantity, price, SIDES[(int) (tag & SIDE_BIT)]);
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+
+        private long getVarint() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < Long.SIZE; shift += 7) {
+                if (position == limit) {
+                    throw new EOFException("The transaction stream ends within a record.");
+                }
+                byte b = buffer[position++];
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Corrupt transaction stream.");
+        }
+
+        private void require(int bytes) throws EOFException {
+            if (limit - position < bytes) {
+                throw new EOFException("The transaction stream ends within a record.");
+            }
+        }
+
+        // make sure at least the given number of bytes are buffered, returning false if the stream ends first
+        private boolean fill(int bytes) throws IOException {
+            if (limit - position >= bytes) {
+                return true;
+            }
+            System.arraycopy(buffer, position, buffer, 0, limit - position);
+            limit -= position;
+            position = 0;
+            while (limit < bytes) {
+                int read = in.read(buffer, limit, buffer.length - limit);
+                if (read < 0) {
+                    return false;
+                }
+                limit += read;
+            }
+            return true;
+        }
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,451 @@
+package data_access;
+
+import entity.TickerSymbolTable;
+import entity.Transaction;
+import entity.TransactionFileFormat;
+import entity.TransactionHistory;
+import entity.TransactionSide;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Streams transaction histories to and from CSV and binary files
+ * <p>
+ * Exports read the history columns directly and format them into one reused buffer that is written to a file
+ * channel whenever it fills, so no Transaction objects or strings are created per row. Imports parse through a
+ * buffer of the same size and add transactions to the history in batches, and several files are imported in
+ * parallel. Memory use other than the imported histories themselves does not depend on the number of rows.
+ * </p>
+ * <p>
+ * A CSV file has the header {@code timestamp,ticker,side,quantity,price}, epoch-millisecond timestamps, the side
+ * labels and prices with four decimals.
+ * </p>
+ */
+public final class TransactionHistoryFiles {
+
+    private static final byte[] CSV_HEADER = "timestamp,ticker,side,quantity,price\n"
+            .getBytes(StandardCharsets.US_ASCII);
+    private static final byte[][] SIDE_LABELS = Arrays.stream(TransactionSide.values())
+            .map(side -> side.getLabel().getBytes(StandardCharsets.US_ASCII))
+            .toArray(byte[][]::new);
+    private static final int PRICE_DECIMALS = 4;
+    private static final long PRICE_SCALE = TransactionCodec.PRICE_SCALE;
+    private static final int BUFFER_BYTES = 1 << 16;
+    // the longest CSV line without its ticker
+    private static final int MAX_CSV_LINE_BYTES = 20 + 1 + 1 + 4 + 1 + 11 + 1 + 25 + 1;
+    private static final int IMPORT_BATCH = 4096;
+
+    private TransactionHistoryFiles() {
+    }
+
+    /**
+     * Export the transactions in a history when the export starts, replacing the file if it exists
+     *
+     * @param history the history to export
+     * @param file    the file to write
+     * @param format  the format of the file
+     * @return the number of exported transactions
+     * @throws IOException if the file cannot be written
+     */
+    public static int export(TransactionHistory history, Path file, TransactionFileFormat format)
+            throws IOException {
+        // the history is append-only, so the first size transactions do not change during the export
+        int size = history.size();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            if (format == TransactionFileFormat.CSV) {
+                writeCsv(history, size, channel);
+            } else {
+                // the encoder buffers the stream itself, so the channel stream sees only full buffers
+                OutputStream out = Channels.newOutputStream(channel);
+                TransactionCodec.Encoder encoder = new TransactionCodec.Encoder(out);
+                encoder.write(history, 0, size);
+                encoder.flush();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Import a file in either format into a new history
+     *
+     * @param file the file to read
+     * @return the transactions of the file in file order
+     * @throws IOException if the file cannot be read or is malformed
+     */
+    public static TransactionHistory read(Path file) throws IOException {
+        TransactionHistory history = new TransactionHistory();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(CSV_HEADER.length);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // read the header or the whole file if it is shorter
+            }
+            channel.position(0);
+            // the line break is not compared, since it may be \r\n
+            int compared = CSV_HEADER.length - 1;
+            if (header.position() >= compared
+                    && Arrays.equals(header.array(), 0, compared, CSV_HEADER, 0, compared)) {
+                new CsvReader(channel, file).readInto(history);
+            } else {
+                readBinary(channel, history);
+            }
+        }
+        return history;
+    }
+
+    /**
+     * Import several files in parallel, one thread per file up to the number of processors
+     *
+     * @param files the files to read
+     * @return a history per file, in the order of the files
+     * @throws IOException if a file cannot be read or is malformed
+     */
+    public static List<TransactionHistory> readAll(List<Path> files) throws IOException {
+        if (files.isEmpty()) {
+            return List.of();
+        }
+        int threads = Math.min(files.size(), Runtime.getRuntime().availableProcessors());
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<TransactionHistory>> futures = new ArrayList<>(files.size());
+            for (Path file : files) {
+                futures.add(executor.submit(() -> read(file)));
+            }
+            List<TransactionHistory> histories = new ArrayList<>(files.size());
+            for (Future<TransactionHistory> future : futures) {
+                histories.add(future.get());
+            }
+            return histories;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Importing a transaction file failed.", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while importing transaction files.");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void writeCsv(TransactionHistory history, int size, FileChannel channel) throws IOException {
+        byte[] buffer = new byte[BUFFER_BYTES];
+        ByteBuffer view = ByteBuffer.wrap(buffer);
+        System.arraycopy(CSV_HEADER, 0, buffer, 0, CSV_HEADER.length);
+        int position = CSV_HEADER.length;
+        byte[][] symbols = new byte[16][];
+
+        for (int i = 0; i < size; i++) {
+            int tickerId = history.getTickerId(i);
+            if (tickerId >= symbols.length) {
+                symbols = Arrays.copyOf(symbols, Math.max(symbols.length * 2, tickerId + 1));
+            }
+            byte[] symbol = symbols[tickerId];
+            if (symbol == null) {
+                symbol = TickerSymbolTable.Instance().getTicker(tickerId).getBytes(StandardCharsets.UTF_8);
+                symbols[tickerId] = symbol;
+            }
+            if (buffer.length - position < MAX_CSV_LINE_BYTES + symbol.length) {
+                position = drain(channel, view, position);
+                if (buffer.length < MAX_CSV_LINE_BYTES + symbol.length) {
+                    throw new IllegalArgumentException("A ticker is too long to export.");
+                }
+            }
+            position = putLong(buffer, position, history.getTimestampMillis(i));
+            buffer[position++] = ',';
+            System.arraycopy(symbol, 0, buffer, position, symbol.length);
+            position += symbol.length;
+            buffer[position++] = ',';
+            byte[] side = SIDE_LABELS[history.getSide(i).ordinal()];
+            System.arraycopy(side, 0, buffer, position, side.length);
+            position += side.length;
+            buffer[position++] = ',';
+            position = putLong(buffer, position, history.getQuantity(i));
+            buffer[position++] = ',';
+            position = putPrice(buffer, position, history.getPrice(i));
+            buffer[position++] = '\n';
+        }
+        drain(channel, view, position);
+    }
+
+    private static void readBinary(FileChannel channel, TransactionHistory history) throws IOException {
+        // the decoder buffers the stream itself
+        TransactionCodec.Decoder decoder = new TransactionCodec.Decoder(Channels.newInputStream(channel));
+        List<Transaction> batch = new ArrayList<>(IMPORT_BATCH);
+        Transaction transaction;
+        while ((transaction = decoder.read()) != null) {
+            batch.add(transaction);
+            if (batch.size() == IMPORT_BATCH) {
+                history.addTransactions(batch);
+                batch.clear();
+            }
+        }
+        history.addTransactions(batch);
+    }
+
+    private static int drain(FileChannel channel, ByteBuffer view, int position) throws IOException {
+        view.clear().limit(position);
+        while (view.hasRemaining()) {
+            channel.write(view);
+        }
+        return 0;
+    }
+
+    // write a decimal long, counting in negative numbers so Long.MIN_VALUE needs no special case
+    private static int putLong(byte[] buffer, int position, long value) {
+        long negative = value;
+        if (value < 0) {
+            buffer[position++] = '-';
+        } else {
+            negative = -value;
+        }
+        int digits = 1;
+        for (long rest = negative / 10; rest != 0; rest /= 10) {
+            digits++;
+        }
+        for (int i = position + digits - 1; i >= position; i--) {
+            buffer[i] = (byte) ('0' - negative % 10);
+            negative /= 10;
+        }
+        return position + digits;
+    }
+
+    // write a price with PRICE_DECIMALS decimals, or in full if it has more
+    private static int putPrice(byte[] buffer, int position, double price) {
+        long scaled = Math.round(price * PRICE_SCALE);
+        if ((double) scaled / PRICE_SCALE == price) {
+            return putScaled(buffer, position, scaled);
+        }
+        byte[] digits = Double.toString(price).getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(digits, 0, buffer, position, digits.length);
+        return position + digits.length;
+    }
+
+    // write a fixed-point price with PRICE_DECIMALS decimals
+    private static int putScaled(byte[] buffer, int position, long scaled) {
+        long whole = scaled / PRICE_SCALE;
+        long fraction = scaled % PRICE_SCALE;
+        if (scaled < 0) {
+            buffer[position++] = '-';
+            whole = -whole;
+            fraction = -fraction;
+        }
+        position = putLong(buffer, position, whole);
+        buffer[position++] = '.';
+        for (int i = position + PRICE_DECIMALS - 1; i >= position; i--) {
+            buffer[i] = (byte) ('0' + fraction % 10);
+            fraction /= 10;
+        }
+        return position + PRICE_DECIMALS;
+    }
+
+    /**
+     * Parses a CSV file line by line from a buffer refilled from the channel
+     */
+    private static final class CsvReader {
+        private final FileChannel channel;
+        private final Path file;
+        private final byte[] buffer = new byte[BUFFER_BYTES];
+        private int position = 0;
+        private int limit = 0;
+        private boolean endOfFile = false;
+        private long line = 0;
+
+        // the end of the current line and the start of the next field
+        private int lineEnd;
+        private int field;
+
+        private CsvReader(FileChannel channel, Path file) {
+            this.channel = channel;
+            this.file = file;
+        }
+
+        private void readInto(TransactionHistory history) throws IOException {
+            List<Transaction> batch = new ArrayList<>(IMPORT_BATCH);
+            nextLine();  // the header was checked before
+            while (nextLine()) {
+                if (field == lineEnd) {
+                    continue;
+                }
+                long timestamp = parseLong(nextField());
+                int tickerEnd = nextField();
+                if (tickerEnd == field) {
+                    throw malformed("missing ticker");
+                }
+                String ticker = new String(buffer, field, tickerEnd - field, StandardCharsets.UTF_8);
+                field = tickerEnd + 1;
+                TransactionSide side = parseSide(nextField());
+                long quantity = parseLong(nextField());
+                if (quantity < Integer.MIN_VALUE || quantity > Integer.MAX_VALUE) {
+                    throw malformed("quantity out of range");
+                }
+                double price = parsePrice(lineEnd);
+                batch.add(new Transaction(timestamp, ticker, (int) quantity, price, side));
+                if (batch.size() == IMPORT_BATCH) {
+                    history.addTransactions(batch);
+                    batch.clear();
+                }
+            }
+            history.addTransactions(batch);
+        }
+
+        // move to the next line, refilling the buffer if it is not complete, and return false at the end
+        private boolean nextLine() throws IOException {
+            int scanned = position;
+            while (true) {
+                for (int i = scanned; i < limit; i++) {
+                    if (buffer[i] == '\n') {
+                        startLine(i);
+                        position = i + 1;
+                        return true;
+                    }
+                }
+                if (endOfFile) {
+                    // the last line may have no line break
+                    if (position == limit) {
+                        return false;
+                    }
+                    startLine(limit);
+                    position = limit;
+                    return true;
+                }
+                scanned = limit - position;
+                refill();
+            }
+        }
+
+        private void startLine(int end) {
+            line++;
+            field = position;
+            lineEnd = end > position && buffer[end - 1] == '\r' ? end - 1 : end;
+        }
+
+        // move the unread bytes to the start of the buffer and read more after them
+        private void refill() throws IOException {
+            if (position == 0 && limit == buffer.length) {
+                throw malformed("line too long");
+            }
+            System.arraycopy(buffer, position, buffer, 0, limit - position);
+            limit -= position;
+            position = 0;
+            int read = channel.read(ByteBuffer.wrap(buffer, limit, buffer.length - limit));
+            if (read < 0) {
+                endOfFile = true;
+            } else {
+                limit += read;
+            }
+        }
+
+        // the end of the field starting at field
+        private int nextField() throws IOException {
+            for (int i = field; i < lineEnd; i++) {
+                if (buffer[i] == ',') {
+                    return i;
+                }
+            }
+            throw malformed("missing field");
+        }
+
+        private long parseLong(int end) throws IOException {
+            int i = field;
+            boolean negative = i < end && buffer[i] == '-';
+            if (negative) {
+                i++;
+            }
+            if (i == end || end - i > 19) {
+                throw malformed("invalid number");
+            }
+            // accumulate negatively so Long.MIN_VALUE parses
+            long value = 0;
+            for (; i < end; i++) {
+                int digit = buffer[i] - '0';
+                if (digit < 0 || digit > 9 || value < (Long.MIN_VALUE + digit) / 10) {
+                    throw malformed("invalid number");
+                }
+                value = value * 10 - digit;
+            }
+            field = end + 1;
+            if (!negative) {
+                if (value == Long.MIN_VALUE) {
+                    throw malformed("invalid number");
+                }
+                value = -value;
+            }
+            return value;
+        }
+
+        private TransactionSide parseSide(int end) throws IOException {
+            for (TransactionSide side : TransactionSide.values()) {
+                byte[] label = SIDE_LABELS[side.ordinal()];
+                if (Arrays.equals(buffer, field, end, label, 0, label.length)) {
+                    field = end + 1;
+                    return side;
+                }
+            }
+            throw malformed("invalid side");
+        }
+
+        // prices with up to PRICE_DECIMALS decimals are parsed exactly, others by Double.parseDouble
+        private double parsePrice(int end) throws IOException {
+            int start = field;
+            int i = start;
+            boolean negative = i < end && buffer[i] == '-';
+            if (negative) {
+                i++;
+            }
+            long scaled = 0;
+            int digits = 0;
+            int decimals = -1;
+            for (; i < end; i++) {
+                byte b = buffer[i];
+                if (b == '.' && decimals < 0) {
+                    decimals = 0;
+                    continue;
+                }
+                int digit = b - '0';
+                if (digit < 0 || digit > 9 || decimals >= PRICE_DECIMALS || ++digits > 14) {
+                    return parseDoubleField(start, end);
+                }
+                scaled = scaled * 10 + digit;
+                if (decimals >= 0) {
+                    decimals++;
+                }
+            }
+            if (digits == 0) {
+                throw malformed("invalid price");
+            }
+            for (int d = Math.max(decimals, 0); d < PRICE_DECIMALS; d++) {
+                scaled *= 10;
+            }
+            return (double) (negative ? -scaled : scaled) / PRICE_SCALE;
+        }
+
+        private double parseDoubleField(int start, int end) throws IOException {
+            try {
+                return Double.parseDouble(new String(buffer, start, end - start, StandardCharsets.US_ASCII));
+            } catch (NumberFormatException e) {
+                throw malformed("invalid price");
+            }
+        }
+
+        private IOException malformed(String reason) {
+            return new IOException(file + " line " + line + ": " + reason + ".");
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package data_access;
+
+import entity.Transaction;
+import entity.User;
+
+import java.util.List;
+
+/**
+ * The users read from a snapshot, with the journal positions their state includes
+ *
+ * @param journalPosition the position of the journal when the snapshot started, every user includes the records
+ *                        before it
+ * @param entries         the users in id order
+ */
+public record UserSnapshot(
+        JournalPosition journalPosition,
+        List<UserSnapshot.Entry> entries
+) {
+
+    /**
+     * One user of a snapshot
+     *
+     * @param user               the user with its balance and portfolio, and an empty transaction history
+     * @param journalOffset      the user includes its journal records before this offset and none after it
+     * @param historySize        the number of transactions of the user
+     * @param archivedCount      the number of transactions of the user that were archived
+     * @param recentTransactions the transactions from the archived count to the history size
+     */
+    public record Entry(
+            User user,
+            long journalOffset,
+            int historySize,
+            int archivedCount,
+            List<Transaction> recentTransactions
+    ) {
+    }
+}
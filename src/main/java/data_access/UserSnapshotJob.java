@@ -0,0 +1,89 @@
+package data_access;
+
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A periodic job that writes a snapshot of every user, so a restart only replays the journal after it
+ * <p>
+ * After every snapshot the journal continues in a new segment, and the segments before both the oldest kept
+ * snapshot and the last trade analytics checkpoint are deleted.
+ * </p>
+ */
+public class UserSnapshotJob {
+
+    private final InMemoryUserDataAccessObject userDataAccess;
+    private final UserSnapshotStore store;
+    private final TradeJournal journal;
+    private final long intervalMillis;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Create a snapshot job
+     *
+     * @param userDataAccess the users to snapshot
+     * @param store          the store to write the snapshots to
+     * @param journal        the journal the fills of the users are recorded in
+     * @param intervalMillis the interval between snapshots in milliseconds
+     */
+    public UserSnapshotJob(InMemoryUserDataAccessObject userDataAccess, UserSnapshotStore store,
+                           TradeJournal journal, long intervalMillis) {
+        this.userDataAccess = userDataAccess;
+        this.store = store;
+        this.journal = journal;
+        this.intervalMillis = intervalMillis;
+    }
+
+    /**
+     * Write a snapshot of every user now and compact the journal
+     *
+     * @throws IOException if the snapshot cannot be written or the journal cannot be compacted
+     */
+    public synchronized void snapshot() throws IOException {
+        store.write(userDataAccess, journal);
+        journal.roll();
+        JournalPosition snapshotted = store.getOldestPosition().orElse(TradeJournal.START);
+        JournalPosition checkpointed = userDataAccess.getTradeRecorder().getTradeAnalytics()
+                .getCheckpointedPosition();
+        journal.compact(snapshotted.offset() <= checkpointed.offset() ? snapshotted : checkpointed);
+    }
+
+    /**
+     * Starts a background thread writing a snapshot at fixed intervals.
+     */
+    public synchronized void start() {
+        if (scheduler != null && !scheduler.isShutdown()) {
+            throw new IllegalStateException("User snapshots are already running.");
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        // a failed snapshot is reported and skipped, an exception would cancel the periodic task
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                snapshot();
+            } catch (IOException | RuntimeException e) {
+                e.printStackTrace();
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the periodic snapshots, waiting for a running snapshot to finish.
+     */
+    public void stop() {
+        ScheduledExecutorService running;
+        synchronized (this) {
+            running = scheduler;
+            scheduler = null;
+        }
+        if (running != null) {
+            running.shutdown();
+            try {
+                running.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,429 @@
+package data_access;
+
+import entity.Portfolio;
+import entity.Stock;
+import entity.StockMarket;
+import entity.TaxLot;
+import entity.Transaction;
+import entity.TransactionHistory;
+import entity.User;
+import entity.UserStock;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.RecursiveAction;
+import java.util.zip.CRC32;
+
+/**
+ * Binary snapshots of every user in a directory, the base the trade journal is replayed onto at startup
+ * <p>
+ * A snapshot starts with the journal position when it started, followed by one frame per user framed by its length
+ * and a CRC32 like the journal records. A frame holds the balance, the positions with their lots and the
+ * transactions that are not archived, and is captured under the user's lock together with the journal offset it
+ * includes, so replaying the journal from the snapshot position applies exactly the records a user is missing.
+ * Snapshots are written to a temporary file, forced and moved into place after the journal is flushed, and the
+ * previous snapshot is kept as a fallback.
+ * </p>
+ * <p>
+ * Frames are read sequentially in batches and decoded in parallel with fork/join, so reading is bound by the disk.
+ * </p>
+ */
+public class UserSnapshotStore {
+
+    private static final int SNAPSHOT_MAGIC = 0x55534E31;
+    private static final String SNAPSHOT_PREFIX = "users-";
+    private static final String SNAPSHOT_SUFFIX = ".snapshot";
+    private static final int KEPT_SNAPSHOTS = 2;
+    private static final int SNAPSHOT_HEADER_BYTES = Integer.BYTES + Long.BYTES + Long.BYTES + Integer.BYTES;
+    private static final int FRAME_HEADER_BYTES = Integer.BYTES + Integer.BYTES;
+    private static final int MAX_FRAME_BYTES = 1 << 30;
+    private static final int STREAM_BUFFER_BYTES = 1 << 16;
+    private static final int CODEC_BUFFER_BYTES = 1 << 10;
+    private static final int USERS_PER_BATCH = 1 << 16;
+    private static final int USERS_PER_TASK = 256;
+
+    private final Path directory;
+
+    /**
+     * Open a snapshot store, creating the directory if it does not exist
+     *
+     * @param directory the directory of the snapshot files
+     * @throws IOException if the directory cannot be created
+     */
+    public UserSnapshotStore(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+    }
+
+    /**
+     * Write a snapshot of every user and delete the snapshots before the previous one
+     *
+     * @param userDataAccess the users to write
+     * @param journal        the journal the fills of the users are recorded in
+     * @return the snapshot file
+     * @throws IOException if the snapshot cannot be written or the journal cannot be flushed
+     */
+    public synchronized Path write(InMemoryUserDataAccessObject userDataAccess, TradeJournal journal)
+            throws IOException {
+        JournalPosition position = journal.getPosition();
+        int userCount = userDataAccess.getUserCount();
+        Path file = directory.resolve(String.format("%s%019d%s", SNAPSHOT_PREFIX, position.records(),
+                SNAPSHOT_SUFFIX));
+        Path temporary = directory.resolve(file.getFileName() + ".tmp");
+
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(STREAM_BUFFER_BYTES);
+            buffer.putInt(SNAPSHOT_MAGIC).putLong(position.offset()).putLong(position.records()).putInt(userCount);
+            ByteArrayOutputStream frame = new ByteArrayOutputStream();
+            DataOutputStream frameOut = new DataOutputStream(frame);
+            CRC32 crc = new CRC32();
+            for (int userId = 0; userId < userCount; userId++) {
+                frame.reset();
+                writeUser(frameOut, userDataAccess.getUserById(userId), journal);
+                byte[] payload = frame.toByteArray();
+                crc.reset();
+                crc.update(payload);
+                if (buffer.remaining() < FRAME_HEADER_BYTES + payload.length) {
+                    drain(channel, buffer);
+                }
+                buffer.putInt(payload.length).putInt((int) crc.getValue());
+                if (buffer.remaining() < payload.length) {
+                    drain(channel, buffer);
+                    writeFully(channel, ByteBuffer.wrap(payload));
+                } else {
+                    buffer.put(payload);
+                }
+            }
+            drain(channel, buffer);
+            channel.force(true);
+        }
+        // every journal offset in the snapshot must be durable before the snapshot is
+        journal.flush();
+        Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        List<Path> snapshots = listSnapshots();
+        for (int i = KEPT_SNAPSHOTS; i < snapshots.size(); i++) {
+            Files.deleteIfExists(snapshots.get(i));
+        }
+        return file;
+    }
+
+    /**
+     * Get the journal position of the oldest snapshot that may still be read, before which the journal is not needed
+     *
+     * @return the position, or empty if the store has no snapshot with a readable header
+     * @throws IOException if the directory cannot be listed
+     */
+    public synchronized Optional<JournalPosition> getOldestPosition() throws IOException {
+        List<Path> snapshots = listSnapshots();
+        for (int i = snapshots.size() - 1; i >= 0; i--) {
+            try (FileChannel channel = FileChannel.open(snapshots.get(i), StandardOpenOption.READ)) {
+                ByteBuffer buffer = ByteBuffer.allocate(SNAPSHOT_HEADER_BYTES).limit(0);
+                fill(channel, buffer, SNAPSHOT_HEADER_BYTES);
+                if (buffer.getInt() == SNAPSHOT_MAGIC) {
+                    return Optional.of(new JournalPosition(buffer.getLong(), buffer.getLong()));
+                }
+            } catch (IOException e) {
+                // a damaged snapshot is never read, so it does not hold the journal back
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Read the latest snapshot that can be read, falling back to the previous one if it is damaged
+     *
+     * @return the snapshot, or empty if the store has none
+     * @throws IOException if no snapshot can be read
+     */
+    public Optional<UserSnapshot> readLatest() throws IOException {
+        IOException failure = null;
+        for (Path file : listSnapshots()) {
+            try {
+                return Optional.of(read(file));
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Read a snapshot file
+     *
+     * @param file the snapshot file
+     * @return the snapshot
+     * @throws IOException if the file cannot be read or is not a complete snapshot
+     */
+    public UserSnapshot read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(STREAM_BUFFER_BYTES).limit(0);
+            fill(channel, buffer, SNAPSHOT_HEADER_BYTES);
+            if (buffer.getInt() != SNAPSHOT_MAGIC) {
+                throw new IOException(file + " is not a user snapshot.");
+            }
+            JournalPosition position = new JournalPosition(buffer.getLong(), buffer.getLong());
+            int userCount = buffer.getInt();
+            if (userCount < 0) {
+                throw new IOException("Corrupt user snapshot " + file + ".");
+            }
+
+            UserSnapshot.Entry[] entries = new UserSnapshot.Entry[userCount];
+            byte[][] frames = new byte[Math.min(userCount, USERS_PER_BATCH)][];
+            CRC32 crc = new CRC32();
+            for (int batchStart = 0; batchStart < userCount; batchStart += frames.length) {
+                int batchSize = Math.min(frames.length, userCount - batchStart);
+                for (int i = 0; i < batchSize; i++) {
+                    fill(channel, buffer, FRAME_HEADER_BYTES);
+                    int length = buffer.getInt();
+                    int checksum = buffer.getInt();
+                    if (length < 0 || length > MAX_FRAME_BYTES) {
+                        throw new IOException("Corrupt user snapshot " + file + ".");
+                    }
+                    frames[i] = readFrame(channel, buffer, length);
+                    crc.reset();
+                    crc.update(frames[i]);
+                    if ((int) crc.getValue() != checksum) {
+                        throw new IOException("Corrupt user snapshot " + file + ".");
+                    }
+                }
+                try {
+                    new DecodeTask(frames, entries, batchStart, 0, batchSize).invoke();
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+            }
+            return new UserSnapshot(position, Arrays.asList(entries));
+        }
+    }
+
+    // make sure at least the given number of bytes are buffered
+    private static void fill(FileChannel channel, ByteBuffer buffer, int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) {
+            return;
+        }
+        buffer.compact();
+        while (buffer.position() < bytes) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("The user snapshot ends early.");
+            }
+        }
+        buffer.flip();
+    }
+
+    // take a frame from the buffer, reading the part that is not buffered straight from the channel
+    private static byte[] readFrame(FileChannel channel, ByteBuffer buffer, int length) throws IOException {
+        byte[] frame = new byte[length];
+        int buffered = Math.min(length, buffer.remaining());
+        buffer.get(frame, 0, buffered);
+        ByteBuffer rest = ByteBuffer.wrap(frame, buffered, length - buffered);
+        while (rest.hasRemaining()) {
+            if (channel.read(rest) < 0) {
+                throw new EOFException("The user snapshot ends early.");
+            }
+        }
+        return frame;
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        writeFully(channel, buffer);
+        buffer.clear();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private List<Path> listSnapshots() throws IOException {
+        List<Path> snapshots = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory,
+                SNAPSHOT_PREFIX + "*" + SNAPSHOT_SUFFIX)) {
+            files.forEach(snapshots::add);
+        }
+        // the names hold fixed-width record counts, so the newest comes first in reverse order
+        snapshots.sort(Comparator.comparing((Path path) -> path.getFileName().toString()).reversed());
+        return snapshots;
+    }
+
+    private static void writeUser(DataOutputStream out, User user, TradeJournal journal) throws IOException {
+        TransactionHistory history = user.getTransactionHistory();
+        int historySize;
+        int archivedCount;
+        synchronized (user) {
+            // fills are journaled and applied under the user's lock, so the user includes exactly the records before
+            long journalOffset = journal.getPosition().offset();
+            historySize = history.size();
+            archivedCount = Math.min(history.getArchivedCount(), historySize);
+            Portfolio portfolio = user.getPortfolio();
+            out.writeUTF(user.getUsername());
+            out.writeUTF(user.getPasswordHash());
+            out.writeDouble(user.getBalance());
+            out.writeLong(journalOffset);
+            out.writeInt(historySize);
+            out.writeInt(archivedCount);
+            out.writeLong(portfolio.getNextLotId());
+            writePositions(out, portfolio);
+        }
+
+        // the transactions below the size never change, so they are encoded without the lock
+        if (historySize == archivedCount) {
+            out.writeInt(0);
+            return;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 + 8 * (historySize - archivedCount));
+        TransactionCodec.Encoder encoder = new TransactionCodec.Encoder(bytes, CODEC_BUFFER_BYTES);
+        encoder.write(history, archivedCount, historySize);
+        encoder.flush();
+        out.writeInt(bytes.size());
+        bytes.writeTo(out);
+    }
+
+    private static UserSnapshot.Entry readUser(byte[] frame) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(frame));
+        String username = in.readUTF();
+        String passwordHash = in.readUTF();
+        double balance = in.readDouble();
+        long journalOffset = in.readLong();
+        int historySize = in.readInt();
+        int archivedCount = in.readInt();
+        long nextLotId = in.readLong();
+        if (archivedCount < 0 || historySize < archivedCount) {
+            throw new IOException("Corrupt snapshot of user " + username + ".");
+        }
+
+        Portfolio portfolio = readPositions(in, nextLotId);
+
+        List<Transaction> recentTransactions = new ArrayList<>(historySize - archivedCount);
+        int encodedBytes = in.readInt();
+        if (encodedBytes > 0) {
+            TransactionCodec.Decoder decoder = new TransactionCodec.Decoder(
+                    new ByteArrayInputStream(frame, frame.length - in.available(), encodedBytes), CODEC_BUFFER_BYTES);
+            Transaction transaction;
+            while ((transaction = decoder.read()) != null) {
+                recentTransactions.add(transaction);
+            }
+        }
+        if (recentTransactions.size() != historySize - archivedCount) {
+            throw new IOException("Corrupt snapshot of user " + username + ".");
+        }
+        User user = User.withPasswordHash(username, passwordHash, balance, portfolio, new TransactionHistory());
+        return new UserSnapshot.Entry(user, journalOffset, historySize, archivedCount, recentTransactions);
+    }
+
+    // write the positions of a portfolio with their lots and realized profit and loss, the caller holds the user
+    static void writePositions(DataOutputStream out, Portfolio portfolio) throws IOException {
+        Set<String> tickers = portfolio.getLedgerTickers();
+        out.writeInt(tickers.size());
+        for (String ticker : tickers) {
+            out.writeUTF(ticker);
+            Optional<UserStock> held = portfolio.getUserStock(ticker);
+            out.writeBoolean(held.isPresent());
+            if (held.isPresent()) {
+                UserStock userStock = held.get();
+                out.writeUTF(userStock.getStock().getCompany());
+                out.writeUTF(userStock.getStock().getIndustry());
+                out.writeDouble(userStock.getCost());
+                out.writeDouble(userStock.getMarketPrice());
+            }
+            out.writeDouble(portfolio.getRealizedPnl(ticker));
+            List<TaxLot> lots = portfolio.getLots(ticker);
+            out.writeInt(lots.size());
+            for (TaxLot lot : lots) {
+                out.writeLong(lot.lotId());
+                out.writeLong(lot.timestamp());
+                out.writeInt(lot.quantity());
+                out.writeDouble(lot.price());
+            }
+        }
+    }
+
+    // read the positions written by writePositions into a new portfolio
+    static Portfolio readPositions(DataInputStream in, long nextLotId) throws IOException {
+        Portfolio portfolio = new Portfolio();
+        int tickerCount = in.readInt();
+        for (int i = 0; i < tickerCount; i++) {
+            String ticker = in.readUTF();
+            boolean held = in.readBoolean();
+            String company = held ? in.readUTF() : "Unknown Company";
+            String industry = held ? in.readUTF() : "Unknown Industry";
+            double cost = held ? in.readDouble() : 0;
+            double marketPrice = held ? in.readDouble() : 0;
+            double realizedPnl = in.readDouble();
+            int lotCount = in.readInt();
+            List<TaxLot> lots = new ArrayList<>(lotCount);
+            for (int j = 0; j < lotCount; j++) {
+                lots.add(new TaxLot(in.readLong(), in.readLong(), in.readInt(), in.readDouble()));
+            }
+            // positions share the market's stocks once it is loaded, and are revalued by the next market update
+            Stock stock = StockMarket.Instance().getStock(ticker)
+                    .orElseGet(() -> new Stock(ticker, company, industry, marketPrice));
+            portfolio.restorePosition(stock, cost, marketPrice, lots, realizedPnl, nextLotId);
+        }
+        return portfolio;
+    }
+
+    /**
+     * Decodes a range of the frames of a batch into the entries
+     */
+    private static final class DecodeTask extends RecursiveAction {
+        private final byte[][] frames;
+        private final UserSnapshot.Entry[] entries;
+        private final int batchStart;
+        private final int from;
+        private final int to;
+
+        private DecodeTask(byte[][] frames, UserSnapshot.Entry[] entries, int batchStart, int from, int to) {
+            this.frames = frames;
+            this.entries = entries;
+            this.batchStart = batchStart;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= USERS_PER_TASK) {
+                for (int i = from; i < to; i++) {
+                    try {
+                        entries[batchStart + i] = readUser(frames[i]);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    frames[i] = null;
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new DecodeTask(frames, entries, batchStart, from, middle),
+                    new DecodeTask(frames, entries, batchStart, middle, to));
+        }
+    }
+}
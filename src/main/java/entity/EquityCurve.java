@@ -0,0 +1,65 @@
+package entity;
+
+/**
+ * The snapshots of a user's cash and portfolio value over a time range, oldest first
+ *
+ * @param timestamps     the time of every snapshot in epoch milliseconds
+ * @param cash           the cash balance at every snapshot
+ * @param portfolioValue the portfolio value at every snapshot
+ */
+public record EquityCurve(
+        long[] timestamps,
+        double[] cash,
+        double[] portfolioValue
+) {
+
+    /**
+     * Get the number of snapshots in the curve
+     *
+     * @return the number of snapshots
+     */
+    public int size() {
+        return timestamps.length;
+    }
+
+    /**
+     * Get the total assets at a snapshot
+     *
+     * @param index the index of the snapshot
+     * @return the cash plus the portfolio value at the snapshot
+     */
+    public double getTotal(int index) {
+        return cash[index] + portfolioValue[index];
+    }
+
+    /**
+     * Get the return of the total assets from the first to the last snapshot
+     *
+     * @return the return as a fraction, or 0 if there are fewer than two snapshots or nothing was invested
+     */
+    public double getReturn() {
+        if (size() < 2 || getTotal(0) <= 0) {
+            return 0;
+        }
+        return getTotal(size() - 1) / getTotal(0) - 1;
+    }
+
+    /**
+     * Get the largest fall of the total assets from a previous peak
+     *
+     * @return the maximum drawdown as a fraction of the peak, 0 if the assets never fell
+     */
+    public double getMaxDrawdown() {
+        double peak = Double.NEGATIVE_INFINITY;
+        double maxDrawdown = 0;
+        for (int i = 0; i < size(); i++) {
+            double total = getTotal(i);
+            if (total > peak) {
+                peak = total;
+            } else if (peak > 0) {
+                maxDrawdown = Math.max(maxDrawdown, (peak - total) / peak);
+            }
+        }
+        return maxDrawdown;
+    }
+}
@@ -0,0 +1,321 @@
+package entity;
+
+import java.util.Arrays;
+
+/**
+ * A live ranking of users by total assets
+ * <p>
+ * The ranking is an order-statistic treap whose nodes are the user ids themselves. The links, subtree size and
+ * priority of a node are packed next to each other in one int array, so a million ranked users cost no objects
+ * beyond the arrays and a node visit touches a single cache line. Every node keeps the size of its subtree,
+ * which makes updating a user's assets, finding a user's rank and finding the user at a rank O(log n) expected.
+ * Users are ordered by assets from highest to lowest, ties are broken by the lower user id.
+ * </p>
+ */
+public class Leaderboard {
+
+    private static final int NIL = -1;
+    private static final int INITIAL_CAPACITY = 16;
+
+    // layout of a node in the nodes array
+    private static final int NODE_STRIDE = 4;
+    private static final int LEFT = 0;
+    private static final int RIGHT = 1;
+    private static final int SIZE = 2;
+    private static final int PRIORITY = 3;
+
+    private double[] assets;
+    private int[] nodes;
+    private boolean[] ranked;
+    private int root = NIL;
+
+    // results of the last split, valid until the next split
+    private int splitLeft;
+    private int splitRight;
+
+    // xorshift state for node priorities
+    private int seed = 0x2545F491;
+
+    public Leaderboard() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Set the total assets of a user, adding the user to the ranking if not ranked yet
+     *
+     * @param userId      the non-negative id of the user
+     * @param totalAssets the total assets of the user
+     */
+    public synchronized void update(int userId, double totalAssets) {
+        if (userId < 0) {
+            throw new IllegalArgumentException("User ids must be non-negative.");
+        }
+        if (userId >= assets.length) {
+            grow(userId + 1);
+        }
+        if (ranked[userId]) {
+            if (assets[userId] == totalAssets) {
+                return;
+            }
+            root = delete(root, userId);
+        }
+        assets[userId] = totalAssets;
+        setLeft(userId, NIL);
+        setRight(userId, NIL);
+        nodes[userId * NODE_STRIDE + SIZE] = 1;
+        nodes[userId * NODE_STRIDE + PRIORITY] = nextPriority();
+        ranked[userId] = true;
+        root = insert(root, userId);
+    }
+
+    /**
+     * Remove a user from the ranking
+     *
+     * @param userId the id of the user
+     */
+    public synchronized void remove(int userId) {
+        if (isRanked(userId)) {
+            root = delete(root, userId);
+            ranked[userId] = false;
+        }
+    }
+
+    /**
+     * Get the rank of a user, the user with the highest assets has rank 1
+     *
+     * @param userId the id of the user
+     * @return the rank of the user, or -1 if the user is not ranked
+     */
+    public synchronized int getRank(int userId) {
+        if (!isRanked(userId)) {
+            return -1;
+        }
+        int rank = 0;
+        int node = root;
+        while (node != userId) {
+            if (before(userId, node)) {
+                node = left(node);
+            } else {
+                rank += sizeOf(left(node)) + 1;
+                node = right(node);
+            }
+        }
+        return rank + sizeOf(left(userId)) + 1;
+    }
+
+    /**
+     * Get the user at a rank
+     *
+     * @param rank the rank, starting from 1
+     * @return the id of the user at the rank, or -1 if the rank is out of range
+     */
+    public synchronized int getUserAt(int rank) {
+        if (rank < 1 || rank > sizeOf(root)) {
+            return NIL;
+        }
+        int node = root;
+        while (true) {
+            int leftSize = sizeOf(left(node));
+            if (rank == leftSize + 1) {
+                return node;
+            } else if (rank <= leftSize) {
+                node = left(node);
+            } else {
+                rank -= leftSize + 1;
+                node = right(node);
+            }
+        }
+    }
+
+    /**
+     * Get the users ranked from a rank onwards
+     *
+     * @param fromRank the first rank to return, starting from 1
+     * @param count    the maximum number of users to return
+     * @return the ids of the users in rank order
+     */
+    public synchronized int[] getRange(int fromRank, int count) {
+        int from = Math.max(fromRank, 1);
+        int to = Math.min(from + Math.max(count, 0) - 1, sizeOf(root));
+        if (to < from) {
+            return new int[0];
+        }
+        int[] result = new int[to - from + 1];
+        collect(root, from, to, 0, result);
+        return result;
+    }
+
+    /**
+     * Get the users with the highest assets
+     *
+     * @param count the maximum number of users to return
+     * @return the ids of the top users in rank order
+     */
+    public int[] getTop(int count) {
+        return getRange(1, count);
+    }
+
+    /**
+     * Get the assets a user is ranked with
+     *
+     * @param userId the id of the user
+     * @return the ranked assets of the user, or NaN if the user is not ranked
+     */
+    public synchronized double getAssets(int userId) {
+        return isRanked(userId) ? assets[userId] : Double.NaN;
+    }
+
+    /**
+     * Get the number of ranked users
+     *
+     * @return the number of ranked users
+     */
+    public synchronized int size() {
+        return sizeOf(root);
+    }
+
+    // in-order walk of the ranks [from, to], skipping subtrees outside the range
+    private void collect(int node, int from, int to, int offset, int[] result) {
+        while (node != NIL) {
+            int nodeRank = offset + sizeOf(left(node)) + 1;
+            if (from < nodeRank) {
+                collect(left(node), from, to, offset, result);
+            }
+            if (nodeRank >= from && nodeRank <= to) {
+                result[nodeRank - from] = node;
+            }
+            if (to <= nodeRank) {
+                return;
+            }
+            offset = nodeRank;
+            node = right(node);
+        }
+    }
+
+    private int insert(int node, int userId) {
+        if (node == NIL) {
+            return userId;
+        }
+        if (priority(userId) > priority(node)) {
+            split(node, userId);
+            setLeft(userId, splitLeft);
+            setRight(userId, splitRight);
+            updateSize(userId);
+            return userId;
+        }
+        if (before(userId, node)) {
+            setLeft(node, insert(left(node), userId));
+        } else {
+            setRight(node, insert(right(node), userId));
+        }
+        updateSize(node);
+        return node;
+    }
+
+    private int delete(int node, int userId) {
+        if (node == userId) {
+            return merge(left(node), right(node));
+        }
+        if (before(userId, node)) {
+            setLeft(node, delete(left(node), userId));
+        } else {
+            setRight(node, delete(right(node), userId));
+        }
+        updateSize(node);
+        return node;
+    }
+
+    // split the subtree into the nodes ranked before userId and the rest
+    private void split(int node, int userId) {
+        if (node == NIL) {
+            splitLeft = NIL;
+            splitRight = NIL;
+            return;
+        }
+        if (before(node, userId)) {
+            split(right(node), userId);
+            setRight(node, splitLeft);
+            updateSize(node);
+            splitLeft = node;
+        } else {
+            split(left(node), userId);
+            setLeft(node, splitRight);
+            updateSize(node);
+            splitRight = node;
+        }
+    }
+
+    // merge two subtrees where every node of a is ranked before every node of b
+    private int merge(int a, int b) {
+        if (a == NIL) {
+            return b;
+        }
+        if (b == NIL) {
+            return a;
+        }
+        if (priority(a) > priority(b)) {
+            setRight(a, merge(right(a), b));
+            updateSize(a);
+            return a;
+        }
+        setLeft(b, merge(a, left(b)));
+        updateSize(b);
+        return b;
+    }
+
+    private boolean before(int a, int b) {
+        return assets[a] > assets[b] || (assets[a] == assets[b] && a < b);
+    }
+
+    private boolean isRanked(int userId) {
+        return userId >= 0 && userId < ranked.length && ranked[userId];
+    }
+
+    private int left(int node) {
+        return nodes[node * NODE_STRIDE + LEFT];
+    }
+
+    private int right(int node) {
+        return nodes[node * NODE_STRIDE + RIGHT];
+    }
+
+    private int priority(int node) {
+        return nodes[node * NODE_STRIDE + PRIORITY];
+    }
+
+    private void setLeft(int node, int child) {
+        nodes[node * NODE_STRIDE + LEFT] = child;
+    }
+
+    private void setRight(int node, int child) {
+        nodes[node * NODE_STRIDE + RIGHT] = child;
+    }
+
+    private int sizeOf(int node) {
+        return node == NIL ? 0 : nodes[node * NODE_STRIDE + SIZE];
+    }
+
+    private void updateSize(int node) {
+        nodes[node * NODE_STRIDE + SIZE] = sizeOf(left(node)) + sizeOf(right(node)) + 1;
+    }
+
+    private int nextPriority() {
+        seed ^= seed << 13;
+        seed ^= seed >>> 17;
+        seed ^= seed << 5;
+        return seed;
+    }
+
+    private void grow(int minimumCapacity) {
+        int capacity = Math.max(minimumCapacity, assets.length * 2);
+        assets = Arrays.copyOf(assets, capacity);
+        nodes = Arrays.copyOf(nodes, capacity * NODE_STRIDE);
+        ranked = Arrays.copyOf(ranked, capacity);
+    }
+
+    private void allocate(int capacity) {
+        assets = new double[capacity];
+        nodes = new int[capacity * NODE_STRIDE];
+        ranked = new boolean[capacity];
+    }
+}
@@ -0,0 +1,270 @@
+package entity;
+
+import utility.collections.LotDeque;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The tax lots of every position of a portfolio, with the profit and loss realized by selling them
+ * <p>
+ * The lots of a ticker are kept in a primitive deque, so FIFO and LIFO relief take lots from either end and a
+ * specific lot is found by binary search on its id. The quantity and cost basis of every ticker and the realized
+ * profit and loss are maintained on every change, so none of them needs a scan of the lots or of the transaction
+ * history. The ledger is guarded by the lock of its portfolio and is not thread-safe on its own.
+ * </p>
+ */
+public class LotLedger {
+
+    private final Map<String, Lots> lotsByTicker = new HashMap<>();
+    private long nextLotId = 1;
+    private double realizedPnl = 0;
+
+    /**
+     * Add a lot of bought shares
+     *
+     * @param ticker    the ticker of the stock
+     * @param timestamp the time of the fill in epoch milliseconds
+     * @param quantity  the quantity bought
+     * @param price     the price the shares were bought at
+     * @return the id of the new lot
+     */
+    long addLot(String ticker, long timestamp, int quantity, double price) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("A lot must have a positive quantity.");
+        }
+        Lots lots = lotsByTicker.computeIfAbsent(ticker, key -> new Lots());
+        long lotId = nextLotId++;
+        lots.deque.addLast(lotId, timestamp, quantity, price);
+        lots.quantity += quantity;
+        lots.costBasis += quantity * price;
+        return lotId;
+    }
+
+    /**
+     * Replace every lot of a ticker with a single lot, used when a position is set without a fill
+     *
+     * @param ticker    the ticker of the stock
+     * @param timestamp the time of the lot in epoch milliseconds
+     * @param quantity  the quantity held, no lot is kept if zero
+     * @param price     the average cost of the position
+     */
+    void resetLots(String ticker, long timestamp, int quantity, double price) {
+        Lots lots = lotsByTicker.get(ticker);
+        if (lots != null) {
+            // the realized profit and loss of the ticker is kept
+            lots.deque.clear();
+            lots.quantity = 0;
+            lots.costBasis = 0;
+        }
+        if (quantity > 0) {
+            addLot(ticker, timestamp, quantity, price);
+        }
+    }
+
+    /**
+     * Sell shares of a ticker, relieving its lots in the given order
+     *
+     * @param ticker   the ticker of the stock
+     * @param quantity the quantity sold
+     * @param price    the price the shares were sold at
+     * @param method   the order the lots are relieved in
+     * @return the profit or loss realized by the sale
+     * @throws IllegalArgumentException if fewer shares than sold are held
+     */
+    double relieve(String ticker, int quantity, double price, LotReliefMethod method) {
+        Lots lots = lotsWithQuantity(ticker, quantity);
+        boolean fifo = method == LotReliefMethod.FIFO;
+        double realized = 0;
+        int remaining = quantity;
+        while (remaining > 0) {
+            int index = fifo ? 0 : lots.deque.size() - 1;
+            int taken = Math.min(remaining, lots.deque.getQuantity(index));
+            realized += relieveFromLot(lots, index, taken, price);
+            if (lots.deque.getQuantity(index) == 0) {
+                if (fifo) {
+                    lots.deque.removeFirst();
+                } else {
+                    lots.deque.removeLast();
+                }
+            }
+            remaining -= taken;
+        }
+        return finishRelief(lots, realized);
+    }
+
+    /**
+     * Sell shares out of one specific lot
+     *
+     * @param ticker   the ticker of the stock
+     * @param lotId    the id of the lot
+     * @param quantity the quantity sold
+     * @param price    the price the shares were sold at
+     * @return the profit or loss realized by the sale
+     * @throws IllegalArgumentException if the lot does not exist or holds fewer shares than sold
+     */
+    double relieveLot(String ticker, long lotId, int quantity, double price) {
+        Lots lots = lotsWithQuantity(ticker, quantity);
+        int index = lots.deque.indexOf(lotId);
+        if (index < 0 || lots.deque.getQuantity(index) < quantity) {
+            throw new IllegalArgumentException("Lot " + lotId + " does not hold " + quantity + " shares.");
+        }
+        double realized = relieveFromLot(lots, index, quantity, price);
+        if (lots.deque.getQuantity(index) == 0) {
+            lots.deque.remove(index);
+        }
+        return finishRelief(lots, realized);
+    }
+
+    /**
+     * Check that a sale can be relieved without changing the ledger
+     *
+     * @param ticker   the ticker of the stock
+     * @param lotId    the id of the lot to sell from, or a negative id for any lot
+     * @param quantity the quantity to sell
+     * @return true if the shares are held
+     */
+    boolean canRelieve(String ticker, long lotId, int quantity) {
+        Lots lots = lotsByTicker.get(ticker);
+        if (lots == null || quantity <= 0 || lots.quantity < quantity) {
+            return false;
+        }
+        if (lotId < 0) {
+            return true;
+        }
+        int index = lots.deque.indexOf(lotId);
+        return index >= 0 && lots.deque.getQuantity(index) >= quantity;
+    }
+
+    /**
+     * Get the cost basis of the lots held of a ticker
+     *
+     * @param ticker the ticker of the stock
+     * @return the sum of quantity times price of the lots held
+     */
+    double getCostBasis(String ticker) {
+        Lots lots = lotsByTicker.get(ticker);
+        return lots == null ? 0 : lots.costBasis;
+    }
+
+    /**
+     * Get the profit and loss realized by every sale so far
+     *
+     * @return the realized profit and loss
+     */
+    double getRealizedPnl() {
+        return realizedPnl;
+    }
+
+    /**
+     * Get the profit and loss realized by the sales of one ticker
+     *
+     * @param ticker the ticker of the stock
+     * @return the realized profit and loss of the ticker
+     */
+    double getRealizedPnl(String ticker) {
+        Lots lots = lotsByTicker.get(ticker);
+        return lots == null ? 0 : lots.realizedPnl;
+    }
+
+    /**
+     * Get the lots held of a ticker, oldest first
+     *
+     * @param ticker the ticker of the stock
+     * @return a copy of the lots
+     */
+    List<TaxLot> getLots(String ticker) {
+        Lots lots = lotsByTicker.get(ticker);
+        if (lots == null) {
+            return List.of();
+        }
+        List<TaxLot> result = new ArrayList<>(lots.deque.size());
+        for (int i = 0; i < lots.deque.size(); i++) {
+            result.add(new TaxLot(lots.deque.getId(i), lots.deque.getTimestamp(i), lots.deque.getQuantity(i),
+                    lots.deque.getPrice(i)));
+        }
+        return result;
+    }
+
+    /**
+     * Get the tickers with lots held or profit and loss realized
+     *
+     * @return a copy of the tickers
+     */
+    Set<String> getTickers() {
+        return new HashSet<>(lotsByTicker.keySet());
+    }
+
+    /**
+     * Get the id the next lot will get
+     *
+     * @return the next lot id
+     */
+    long getNextLotId() {
+        return nextLotId;
+    }
+
+    /**
+     * Replace the lots and realized profit and loss of a ticker, e.g. when a portfolio is restored from a snapshot
+     *
+     * @param ticker      the ticker of the stock
+     * @param lots        the lots held, oldest first
+     * @param realizedPnl the profit and loss realized by the sales of the ticker
+     * @param nextLotId   the id the next lot will get, at least the id of every lot held plus one
+     */
+    void restoreLots(String ticker, List<TaxLot> lots, double realizedPnl, long nextLotId) {
+        Lots restored = new Lots();
+        for (TaxLot lot : lots) {
+            if (lot.quantity() <= 0 || lot.lotId() >= nextLotId) {
+                throw new IllegalArgumentException("Lot " + lot.lotId() + " cannot be restored.");
+            }
+            restored.deque.addLast(lot.lotId(), lot.timestamp(), lot.quantity(), lot.price());
+            restored.quantity += lot.quantity();
+            restored.costBasis += lot.quantity() * lot.price();
+        }
+        restored.realizedPnl = realizedPnl;
+        Lots previous = lotsByTicker.put(ticker, restored);
+        this.realizedPnl += previous == null ? realizedPnl : realizedPnl - previous.realizedPnl;
+        this.nextLotId = Math.max(this.nextLotId, nextLotId);
+    }
+
+    private Lots lotsWithQuantity(String ticker, int quantity) {
+        Lots lots = lotsByTicker.get(ticker);
+        if (quantity <= 0 || lots == null || lots.quantity < quantity) {
+            throw new IllegalArgumentException("Cannot sell more shares than owned.");
+        }
+        return lots;
+    }
+
+    private double relieveFromLot(Lots lots, int index, int quantity, double price) {
+        double lotPrice = lots.deque.getPrice(index);
+        lots.deque.setQuantity(index, lots.deque.getQuantity(index) - quantity);
+        lots.quantity -= quantity;
+        lots.costBasis -= quantity * lotPrice;
+        return quantity * (price - lotPrice);
+    }
+
+    private double finishRelief(Lots lots, double realized) {
+        lots.realizedPnl += realized;
+        realizedPnl += realized;
+        if (lots.quantity == 0) {
+            // an empty position has no cost left, this drops any rounding error of the running basis
+            lots.costBasis = 0;
+        }
+        return realized;
+    }
+
+    /**
+     * The lots of one ticker with their running totals
+     */
+    private static final class Lots {
+        private final LotDeque deque = new LotDeque();
+        private long quantity;
+        private double costBasis;
+        private double realizedPnl;
+    }
+}
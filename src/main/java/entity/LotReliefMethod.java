@@ -0,0 +1,15 @@
+package entity;
+
+/**
+ * The order in which the tax lots of a position are relieved when shares are sold
+ */
+public enum LotReliefMethod {
+    /**
+     * Sell the oldest lots first
+     */
+    FIFO,
+    /**
+     * Sell the newest lots first
+     */
+    LIFO
+}
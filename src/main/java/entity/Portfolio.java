@@ -1,19 +1,39 @@
 package entity;
 
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A class representing a user's portfolio
+ * <p>
+ * The market value and cost basis of the portfolio are maintained incrementally: every position change and every
+ * applied price update adjusts the totals by the difference it makes, so reading them is O(1) and consistent with
+ * the last applied price update.
+ * </p>
+ * <p>
+ * Every buy is also kept as a tax lot in a LotLedger, and every sale relieves lots FIFO, LIFO or from a specific lot,
+ * so the realized profit and loss is known without reading the transaction history.
+ * </p>
  */
 public class Portfolio {
 
     private final Map<String, UserStock> stocks;
+    private final LotLedger lotLedger = new LotLedger();
+
+    // running totals, written under the portfolio lock and readable without it
+    private volatile double totalValue;
+    private volatile double totalCost;
+
+    // notified of every quantity change, e.g. to maintain an index of holders
+    private volatile PositionListener positionListener;
 
     public Portfolio() {
-        this.stocks = new HashMap<>();
+        this.stocks = new ConcurrentHashMap<>();
     }
 
     /**
@@ -22,7 +42,21 @@ public class Portfolio {
      * @param stocks the stocks in the portfolio
      */
     public Portfolio(Map<String, UserStock> stocks) {
-        this.stocks = new HashMap<>(stocks);
+        this.stocks = new ConcurrentHashMap<>(stocks);
+        long now = System.currentTimeMillis();
+        for (UserStock userStock : this.stocks.values()) {
+            lotLedger.resetLots(userStock.getStock().getTicker(), now, userStock.getQuantity(), userStock.getCost());
+        }
+        recalculateTotals();
+    }
+
+    /**
+     * Set the listener notified whenever the quantity of a position changes, replacing any previous listener
+     *
+     * @param positionListener the listener, or null to remove it
+     */
+    public void setPositionListener(PositionListener positionListener) {
+        this.positionListener = positionListener;
     }
 
     /**
@@ -31,9 +65,106 @@ public class Portfolio {
      * @return the value of all stocks in the portfolio
      */
     public double getTotalValue() {
-        return stocks.values().stream()
-                .mapToDouble(UserStock::getCurrentMarketValue)
-                .sum();
+        return totalValue;
+    }
+
+    /**
+     * Get the total cost spent on all stocks in the portfolio
+     *
+     * @return the cost basis of the portfolio
+     */
+    public double getTotalCost() {
+        return totalCost;
+    }
+
+    /**
+     * Get the profit and loss realized by every sale so far
+     *
+     * @return the realized profit and loss
+     */
+    public synchronized double getRealizedPnl() {
+        return lotLedger.getRealizedPnl();
+    }
+
+    /**
+     * Get the profit and loss realized by the sales of one stock
+     *
+     * @param ticker the ticker of the stock
+     * @return the realized profit and loss of the stock
+     */
+    public synchronized double getRealizedPnl(String ticker) {
+        return lotLedger.getRealizedPnl(ticker);
+    }
+
+    /**
+     * Get the profit and loss of the positions held at their current market prices
+     *
+     * @return the unrealized profit and loss
+     */
+    public double getUnrealizedPnl() {
+        return totalValue - totalCost;
+    }
+
+    /**
+     * Get the tax lots held of a stock
+     *
+     * @param ticker the ticker of the stock
+     * @return the lots, oldest first
+     */
+    public synchronized List<TaxLot> getLots(String ticker) {
+        return lotLedger.getLots(ticker);
+    }
+
+    /**
+     * Get the tickers with lots held or profit and loss realized, including positions sold completely
+     *
+     * @return a copy of the tickers
+     */
+    public synchronized Set<String> getLedgerTickers() {
+        return lotLedger.getTickers();
+    }
+
+    /**
+     * Get the id the next bought lot will get
+     *
+     * @return the next lot id
+     */
+    public synchronized long getNextLotId() {
+        return lotLedger.getNextLotId();
+    }
+
+    /**
+     * Restores a position from a snapshot with its lots and realized profit and loss, replacing any position of the
+     * same stock. A ticker without lots only restores the profit and loss realized by selling it.
+     *
+     * @param stock       the stock of the position
+     * @param cost        the average cost of the position
+     * @param marketPrice the price the position was marked at
+     * @param lots        the lots held, oldest first
+     * @param realizedPnl the profit and loss realized by the sales of the stock
+     * @param nextLotId   the id the next bought lot will get
+     */
+    public synchronized void restorePosition(Stock stock, double cost, double marketPrice, List<TaxLot> lots,
+                                             double realizedPnl, long nextLotId) {
+        String ticker = stock.getTicker();
+        UserStock previous = stocks.remove(ticker);
+        if (previous != null) {
+            subtractFromTotals(previous);
+        }
+        lotLedger.restoreLots(ticker, lots, realizedPnl, nextLotId);
+        int quantity = 0;
+        for (TaxLot lot : lots) {
+            quantity += lot.quantity();
+        }
+        if (quantity > 0) {
+            UserStock userStock = new UserStock(stock, cost, quantity);
+            userStock.markToMarket(marketPrice);
+            stocks.put(ticker, userStock);
+            addToTotals(userStock);
+        } else {
+            resetTotalsIfEmpty();
+        }
+        notifyPositionChanged(ticker, quantity);
     }
 
     /**
@@ -52,7 +183,7 @@ public class Portfolio {
      * @return a collection of all UserStock objects
      */
     public Collection<UserStock> getAllStocks() {
-        return stocks.values();
+        return Collections.unmodifiableCollection(stocks.values());
     }
 
     /**
@@ -60,8 +191,16 @@ public class Portfolio {
      *
      * @param userStock the UserStock to add or update
      */
-    public void addStock(UserStock userStock) {
-        stocks.put(userStock.getStock().getTicker(), userStock);
+    public synchronized void addStock(UserStock userStock) {
+        UserStock previous = stocks.put(userStock.getStock().getTicker(), userStock);
+        if (previous != null) {
+            subtractFromTotals(previous);
+        }
+        addToTotals(userStock);
+        // a position set without a fill is kept as one lot at its average cost
+        lotLedger.resetLots(userStock.getStock().getTicker(), System.currentTimeMillis(), userStock.getQuantity(),
+                userStock.getCost());
+        notifyPositionChanged(userStock.getStock().getTicker(), userStock.getQuantity());
     }
 
     /**
@@ -69,7 +208,192 @@ public class Portfolio {
      *
      * @param userStock the UserStock to remove
      */
-    public void removeStock(UserStock userStock) {
-        stocks.remove(userStock.getStock().getTicker());
+    public synchronized void removeStock(UserStock userStock) {
+        if (stocks.remove(userStock.getStock().getTicker(), userStock)) {
+            subtractFromTotals(userStock);
+            resetTotalsIfEmpty();
+            lotLedger.resetLots(userStock.getStock().getTicker(), System.currentTimeMillis(), 0, 0);
+            notifyPositionChanged(userStock.getStock().getTicker(), 0);
+        }
+    }
+
+    /**
+     * Adds bought shares to the portfolio as a new lot bought now.
+     *
+     * @param stock    the stock bought
+     * @param price    the price the shares were bought at
+     * @param quantity the quantity bought
+     * @return the id of the new lot
+     */
+    public long addPosition(Stock stock, double price, int quantity) {
+        return addPosition(stock, price, quantity, System.currentTimeMillis());
+    }
+
+    /**
+     * Adds bought shares to the portfolio as a new lot, averaging the cost with an existing position of the same
+     * stock. The position is marked at the fill price.
+     *
+     * @param stock     the stock bought
+     * @param price     the price the shares were bought at
+     * @param quantity  the quantity bought
+     * @param timestamp the time of the fill in epoch milliseconds
+     * @return the id of the new lot
+     */
+    public synchronized long addPosition(Stock stock, double price, int quantity, long timestamp) {
+        UserStock userStock = stocks.get(stock.getTicker());
+        if (userStock == null) {
+            userStock = new UserStock(stock, price, quantity);
+            userStock.markToMarket(price);
+            stocks.put(stock.getTicker(), userStock);
+            addToTotals(userStock);
+        } else {
+            subtractFromTotals(userStock);
+            userStock.updateUserStock(price, quantity);
+            userStock.markToMarket(price);
+            addToTotals(userStock);
+        }
+        long lotId = lotLedger.addLot(stock.getTicker(), timestamp, quantity, price);
+        notifyPositionChanged(stock.getTicker(), userStock.getQuantity());
+        return lotId;
+    }
+
+    /**
+     * Removes sold shares from the portfolio, relieving the oldest lots first.
+     *
+     * @param ticker   the ticker of the stock sold
+     * @param price    the price the shares were sold at
+     * @param quantity the quantity sold
+     * @return the profit or loss realized by the sale
+     * @throws IllegalArgumentException if the portfolio holds fewer shares than sold
+     */
+    public double reducePosition(String ticker, double price, int quantity) {
+        return reducePosition(ticker, price, quantity, LotReliefMethod.FIFO);
+    }
+
+    /**
+     * Removes sold shares from the portfolio, the position is removed once no shares are left.
+     * The position is marked at the fill price.
+     *
+     * @param ticker   the ticker of the stock sold
+     * @param price    the price the shares were sold at
+     * @param quantity the quantity sold
+     * @param method   the order the lots are relieved in
+     * @return the profit or loss realized by the sale
+     * @throws IllegalArgumentException if the portfolio holds fewer shares than sold
+     */
+    public synchronized double reducePosition(String ticker, double price, int quantity, LotReliefMethod method) {
+        return reduce(ticker, price, quantity, method, -1);
+    }
+
+    /**
+     * Removes sold shares of one specific lot from the portfolio.
+     *
+     * @param ticker   the ticker of the stock sold
+     * @param lotId    the id of the lot sold from
+     * @param price    the price the shares were sold at
+     * @param quantity the quantity sold
+     * @return the profit or loss realized by the sale
+     * @throws IllegalArgumentException if the lot does not exist or holds fewer shares than sold
+     */
+    public synchronized double reduceLot(String ticker, long lotId, double price, int quantity) {
+        if (lotId < 0) {
+            throw new IllegalArgumentException("Lot ids are non-negative.");
+        }
+        return reduce(ticker, price, quantity, null, lotId);
+    }
+
+    /**
+     * Applies new market prices to the positions held in the portfolio, tickers that are not held are ignored.
+     *
+     * @param prices a map from ticker to its new price
+     * @return whether a position held in the portfolio was revalued
+     */
+    public synchronized boolean applyPriceUpdates(Map<String, Double> prices) {
+        boolean revalued = false;
+        if (stocks.size() <= prices.size()) {
+            for (UserStock userStock : stocks.values()) {
+                Double price = prices.get(userStock.getStock().getTicker());
+                if (price != null) {
+                    markPosition(userStock, price);
+                    revalued = true;
+                }
+            }
+        } else {
+            for (Map.Entry<String, Double> entry : prices.entrySet()) {
+                UserStock userStock = stocks.get(entry.getKey());
+                if (userStock != null) {
+                    markPosition(userStock, entry.getValue());
+                    revalued = true;
+                }
+            }
+        }
+        return revalued;
+    }
+
+    // sell from the lots in the given order, or from the given lot if the method is null
+    private double reduce(String ticker, double price, int quantity, LotReliefMethod method, long lotId) {
+        UserStock userStock = stocks.get(ticker);
+        if (userStock == null) {
+            throw new IllegalArgumentException("Cannot sell a stock that is not in the portfolio.");
+        }
+        if (quantity > userStock.getQuantity() || !lotLedger.canRelieve(ticker, lotId, quantity)) {
+            throw new IllegalArgumentException("Cannot sell more shares than owned.");
+        }
+        subtractFromTotals(userStock);
+        userStock.reduceQuantity(quantity);
+        double realized = method == null
+                ? lotLedger.relieveLot(ticker, lotId, quantity, price)
+                : lotLedger.relieve(ticker, quantity, price, method);
+        userStock.markToMarket(price);
+        if (userStock.getQuantity() == 0) {
+            stocks.remove(ticker);
+            resetTotalsIfEmpty();
+        } else {
+            userStock.setCost(lotLedger.getCostBasis(ticker) / userStock.getQuantity());
+            addToTotals(userStock);
+        }
+        notifyPositionChanged(ticker, userStock.getQuantity());
+        return realized;
+    }
+
+    private void notifyPositionChanged(String ticker, int quantity) {
+        PositionListener listener = positionListener;
+        if (listener != null) {
+            listener.onPositionChanged(ticker, quantity);
+        }
+    }
+
+    private void markPosition(UserStock userStock, double price) {
+        totalValue += (price - userStock.getMarketPrice()) * userStock.getQuantity();
+        userStock.markToMarket(price);
+    }
+
+    private void addToTotals(UserStock userStock) {
+        totalValue += userStock.getCurrentMarketValue();
+        totalCost += userStock.getPurchasedTotalCost();
+    }
+
+    private void subtractFromTotals(UserStock userStock) {
+        totalValue -= userStock.getCurrentMarketValue();
+        totalCost -= userStock.getPurchasedTotalCost();
+    }
+
+    // an empty portfolio is worth exactly zero, this drops any rounding error accumulated by the running totals
+    private void resetTotalsIfEmpty() {
+        if (stocks.isEmpty()) {
+            totalValue = 0;
+            totalCost = 0;
+        }
+    }
+
+    private synchronized void recalculateTotals() {
+        double value = 0;
+        double cost = 0;
+        for (UserStock userStock : stocks.values()) {
+            value += userStock.getCurrentMarketValue();
+            cost += userStock.getPurchasedTotalCost();
+        }
+        totalValue = value;
+        totalCost = cost;
     }
-}
\ No newline at end of file
+}
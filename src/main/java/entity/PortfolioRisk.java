@@ -0,0 +1,23 @@
+package entity;
+
+import java.util.List;
+
+/**
+ * The risk figures of a portfolio over one window of returns
+ *
+ * @param tickers        the tickers of the positions, in the order of betas and correlations
+ * @param historicalVaR  the loss not exceeded at the confidence level over one round, from past returns
+ * @param monteCarloVaR  the loss not exceeded at the confidence level over one round, from simulated returns
+ * @param betas          the beta of every position against an equal-weighted market
+ * @param correlations   the correlation matrix of the positions
+ * @param observations   the number of returns the figures are computed from
+ */
+public record PortfolioRisk(
+        List<String> tickers,
+        double historicalVaR,
+        double monteCarloVaR,
+        double[] betas,
+        double[][] correlations,
+        int observations
+) {
+}
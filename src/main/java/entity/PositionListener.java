@@ -0,0 +1,15 @@
+package entity;
+
+/**
+ * A listener that is notified when the quantity of a position in a portfolio changes
+ */
+public interface PositionListener {
+
+    /**
+     * Called after a fill or any other change of a position's quantity.
+     *
+     * @param ticker   the ticker of the position
+     * @param quantity the new quantity of the position, 0 if the position was removed
+     */
+    void onPositionChanged(String ticker, int quantity);
+}
@@ -0,0 +1,153 @@
+package entity;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A bounded history of the prices of every stock in the market
+ * <p>
+ * Every market update records one round in which every stock has a price, a stock that was not updated keeps its
+ * previous price. The prices of a stock are kept in a primitive ring buffer, so the rounds of all stocks line up
+ * and a return series is a copy out of one array.
+ * </p>
+ */
+public class PriceHistory {
+
+    private final int capacity;
+    private final Map<String, Series> series = new HashMap<>();
+    private long rounds = 0;
+
+    /**
+     * Create a price history
+     *
+     * @param maxReturns the maximum number of returns kept for every stock
+     */
+    public PriceHistory(int maxReturns) {
+        if (maxReturns < 1) {
+            throw new IllegalArgumentException("A price history must keep at least one return.");
+        }
+        this.capacity = maxReturns + 1;
+    }
+
+    /**
+     * Record the prices of the stocks as a new round
+     *
+     * @param stocks the stocks in the market
+     */
+    public synchronized void record(Collection<Stock> stocks) {
+        long round = rounds;
+        int slot = (int) (round % capacity);
+        for (Stock stock : stocks) {
+            Series prices = series.get(stock.getTicker());
+            if (prices == null) {
+                prices = new Series(round, capacity);
+                series.put(stock.getTicker(), prices);
+            }
+            prices.prices[slot] = stock.getPrice();
+            prices.lastRound = round;
+        }
+        // stocks missing from this round keep their last price
+        if (series.size() > stocks.size()) {
+            int previousSlot = (int) ((round + capacity - 1) % capacity);
+            for (Series prices : series.values()) {
+                if (prices.lastRound != round) {
+                    prices.prices[slot] = prices.prices[previousSlot];
+                    prices.lastRound = round;
+                }
+            }
+        }
+        rounds = round + 1;
+    }
+
+    /**
+     * Get the number of rounds recorded so far, the history only changes when this number does
+     *
+     * @return the number of rounds recorded
+     */
+    public synchronized long getRounds() {
+        return rounds;
+    }
+
+    /**
+     * Get the maximum number of returns kept for every stock
+     *
+     * @return the maximum number of returns
+     */
+    public int getMaxReturns() {
+        return capacity - 1;
+    }
+
+    /**
+     * Get the number of returns available for a full window, limited by the number of rounds and the capacity
+     *
+     * @return the number of returns available
+     */
+    public synchronized int getAvailableReturns() {
+        return (int) Math.min(Math.max(rounds - 1, 0), capacity - 1);
+    }
+
+    /**
+     * Get the latest simple returns of a stock, oldest first.
+     * Rounds before the stock was first recorded have a return of zero.
+     *
+     * @param ticker the ticker of the stock
+     * @param length the number of returns, at most the available returns
+     * @return the returns, or null if the stock has never been recorded
+     */
+    public synchronized double[] getReturns(String ticker, int length) {
+        Series prices = series.get(ticker);
+        if (prices == null) {
+            return null;
+        }
+        checkLength(length);
+        return prices.returns(rounds, length, capacity);
+    }
+
+    /**
+     * Get the latest simple returns of every stock, all taken from the same rounds
+     *
+     * @param length the number of returns per stock, at most the available returns
+     * @return a map from ticker to its returns, oldest first
+     */
+    public synchronized Map<String, double[]> getAllReturns(int length) {
+        checkLength(length);
+        Map<String, double[]> returns = new HashMap<>(series.size() * 2);
+        for (Map.Entry<String, Series> entry : series.entrySet()) {
+            returns.put(entry.getKey(), entry.getValue().returns(rounds, length, capacity));
+        }
+        return returns;
+    }
+
+    private void checkLength(int length) {
+        if (length < 0 || length > getAvailableReturns()) {
+            throw new IllegalArgumentException("Only " + getAvailableReturns() + " returns are available.");
+        }
+    }
+
+    private static final class Series {
+        private final long firstRound;
+        private final double[] prices;
+        private long lastRound;
+
+        private Series(long firstRound, int capacity) {
+            this.firstRound = firstRound;
+            this.prices = new double[capacity];
+        }
+
+        private double[] returns(long rounds, int length, int capacity) {
+            double[] returns = new double[length];
+            long firstReturnRound = rounds - length;
+            for (int i = 0; i < length; i++) {
+                long round = firstReturnRound + i;
+                if (round - 1 < firstRound) {
+                    continue;
+                }
+                double previous = prices[(int) ((round - 1) % capacity)];
+                double current = prices[(int) (round % capacity)];
+                returns[i] = previous == 0 ? 0 : current / previous - 1;
+            }
+            return returns;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package entity;
+
+import java.util.Map;
+
+/**
+ * A listener that is notified when the stock market applies new prices
+ */
+public interface PriceUpdateListener {
+
+    /**
+     * Called once per market update with the prices that changed in that update.
+     *
+     * @param changedPrices a map from ticker to its new price, only tickers whose price changed are included
+     */
+    void onPricesUpdated(Map<String, Double> changedPrices);
+}
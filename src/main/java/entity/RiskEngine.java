@@ -0,0 +1,347 @@
+package entity;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Computes the Value-at-Risk, betas and correlations of portfolios from the price history
+ * <p>
+ * All figures are computed on primitive return arrays and split across the common fork/join pool by positions,
+ * scenarios or matrix rows. Centred returns, betas and pairwise covariances only depend on the tickers and the
+ * history, so they are cached per history round and shared by every portfolio analysed in that round.
+ * </p>
+ * <p>
+ * The Monte Carlo VaR draws returns from a multivariate normal distribution with the sample covariance of the
+ * window. Since the sample covariance is built from the centred returns, every scenario is drawn as a random
+ * combination of the historical rounds, which costs one draw per round instead of a Cholesky factorization of a
+ * covariance matrix that is singular whenever there are more positions than rounds.
+ * </p>
+ */
+public class RiskEngine {
+
+    public static final int MIN_OBSERVATIONS = 2;
+
+    private static final int POSITIONS_PER_TASK = 64;
+    private static final int SCENARIOS_PER_TASK = 1024;
+    private static final int ROWS_PER_TASK = 8;
+
+    private final PriceHistory priceHistory;
+    private Snapshot snapshot;
+
+    /**
+     * Create a risk engine reading the given price history
+     *
+     * @param priceHistory the price history
+     */
+    public RiskEngine(PriceHistory priceHistory) {
+        this.priceHistory = priceHistory;
+    }
+
+    /**
+     * Check if the price history has enough returns to analyse a portfolio. The history only grows, so once this
+     * holds every later analysis succeeds.
+     *
+     * @return whether the history has at least MIN_OBSERVATIONS returns
+     */
+    public boolean hasEnoughHistory() {
+        return priceHistory.getAvailableReturns() >= MIN_OBSERVATIONS;
+    }
+
+    /**
+     * Analyse the risk of a portfolio over the latest window of the price history
+     *
+     * @param tickers    the tickers of the positions
+     * @param values     the market value of every position
+     * @param confidence the confidence level of the VaR, between 0 and 1 exclusive
+     * @param scenarios  the number of Monte Carlo scenarios
+     * @return the risk figures of the portfolio
+     * @throws IllegalStateException if the history has fewer than MIN_OBSERVATIONS returns, see hasEnoughHistory
+     */
+    public PortfolioRisk analyze(List<String> tickers, double[] values, double confidence, int scenarios) {
+        if (tickers.size() != values.length) {
+            throw new IllegalArgumentException("Every position needs exactly one value.");
+        }
+        if (!(confidence > 0 && confidence < 1) || scenarios < 1) {
+            throw new IllegalArgumentException("Invalid confidence level or number of scenarios.");
+        }
+        Snapshot current = currentSnapshot();
+        int length = current.length;
+
+        int positions = tickers.size();
+        TickerStats[] stats = new TickerStats[positions];
+        double[][] returns = new double[positions][];
+        double[] betas = new double[positions];
+        for (int i = 0; i < positions; i++) {
+            stats[i] = current.stats(tickers.get(i));
+            returns[i] = stats[i].returns;
+            betas[i] = stats[i].beta;
+        }
+
+        // profit and loss of the portfolio in every historical round
+        double[] pnl = new PnlTask(returns, values, length, 0, positions).invoke();
+        double historicalVaR = valueAtRisk(pnl.clone(), confidence);
+
+        // scenario = mean + sum over rounds of a standard normal times the scaled centred profit and loss
+        double mean = 0;
+        for (double value : pnl) {
+            mean += value;
+        }
+        mean /= length;
+        double[] factors = new double[length];
+        double scale = 1 / Math.sqrt(length - 1);
+        for (int t = 0; t < length; t++) {
+            factors[t] = (pnl[t] - mean) * scale;
+        }
+        double[] simulated = new double[scenarios];
+        new ScenarioTask(factors, mean, simulated, 0, scenarios, new SplittableRandom(current.rounds)).invoke();
+        double monteCarloVaR = valueAtRisk(simulated, confidence);
+
+        double[][] correlations = new double[positions][positions];
+        new CorrelationTask(current, stats, correlations, 0, positions).invoke();
+
+        return new PortfolioRisk(List.copyOf(tickers), historicalVaR, monteCarloVaR, betas, correlations, length);
+    }
+
+    private synchronized Snapshot currentSnapshot() {
+        long rounds;
+        int length;
+        Map<String, double[]> returns;
+        synchronized (priceHistory) {
+            rounds = priceHistory.getRounds();
+            if (snapshot != null && snapshot.rounds == rounds) {
+                return snapshot;
+            }
+            length = priceHistory.getAvailableReturns();
+            if (length < MIN_OBSERVATIONS) {
+                throw new IllegalStateException("At least " + MIN_OBSERVATIONS + " returns are needed.");
+            }
+            returns = priceHistory.getAllReturns(length);
+        }
+        snapshot = new Snapshot(rounds, length, returns);
+        return snapshot;
+    }
+
+    // the loss at the (1 - confidence) quantile of the samples, the samples are sorted in place
+    private static double valueAtRisk(double[] samples, double confidence) {
+        Arrays.sort(samples);
+        int index = (int) Math.floor((1 - confidence) * samples.length);
+        return -samples[Math.min(index, samples.length - 1)];
+    }
+
+    private static double dot(double[] a, double[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    private static double[] centre(double[] values) {
+        double mean = 0;
+        for (double value : values) {
+            mean += value;
+        }
+        mean /= values.length;
+        double[] centred = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            centred[i] = values[i] - mean;
+        }
+        return centred;
+    }
+
+    /**
+     * The cached figures of one history round, shared by every analysis in that round
+     */
+    private static final class Snapshot {
+        private final long rounds;
+        private final int length;
+        private final Map<String, double[]> returns;
+        private final double[] marketCentred;
+        private final double marketVariance;
+        private final Map<String, TickerStats> stats = new ConcurrentHashMap<>();
+        private final Map<Long, Double> covariances = new ConcurrentHashMap<>();
+        private final TickerStats unknown;
+
+        private Snapshot(long rounds, int length, Map<String, double[]> returns) {
+            this.rounds = rounds;
+            this.length = length;
+            this.returns = returns;
+
+            // equal-weighted market of every stock in the history
+            double[] market = new double[length];
+            for (double[] tickerReturns : returns.values()) {
+                for (int t = 0; t < length; t++) {
+                    market[t] += tickerReturns[t];
+                }
+            }
+            for (int t = 0; t < length; t++) {
+                market[t] /= Math.max(returns.size(), 1);
+            }
+            this.marketCentred = centre(market);
+            this.marketVariance = dot(marketCentred, marketCentred) / (length - 1);
+            this.unknown = new TickerStats(-1, new double[length], new double[length], 0, 0);
+        }
+
+        private TickerStats stats(String ticker) {
+            TickerStats cached = stats.get(ticker);
+            if (cached != null) {
+                return cached;
+            }
+            double[] tickerReturns = returns.get(ticker);
+            if (tickerReturns == null) {
+                // a stock without history carries no measurable risk
+                return unknown;
+            }
+            double[] centred = centre(tickerReturns);
+            double deviation = Math.sqrt(dot(centred, centred) / (length - 1));
+            double beta = marketVariance == 0 ? 0 : dot(centred, marketCentred) / (length - 1) / marketVariance;
+            TickerStats computed = new TickerStats(TickerSymbolTable.Instance().getId(ticker), tickerReturns,
+                    centred, deviation, beta);
+            TickerStats previous = stats.putIfAbsent(ticker, computed);
+            return previous == null ? computed : previous;
+        }
+
+        private double covariance(TickerStats a, TickerStats b) {
+            if (a.id < 0 || b.id < 0) {
+                return 0;
+            }
+            long key = a.id < b.id ? ((long) a.id << 32) | b.id : ((long) b.id << 32) | a.id;
+            Double cached = covariances.get(key);
+            if (cached != null) {
+                return cached;
+            }
+            double covariance = dot(a.centred, b.centred) / (length - 1);
+            covariances.putIfAbsent(key, covariance);
+            return covariance;
+        }
+    }
+
+    private record TickerStats(int id, double[] returns, double[] centred, double deviation, double beta) {
+    }
+
+    /**
+     * Sums the profit and loss of a range of positions in every round
+     */
+    private static final class PnlTask extends RecursiveTask<double[]> {
+        private final double[][] returns;
+        private final double[] values;
+        private final int length;
+        private final int from;
+        private final int to;
+
+        private PnlTask(double[][] returns, double[] values, int length, int from, int to) {
+            this.returns = returns;
+            this.values = values;
+            this.length = length;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected double[] compute() {
+            if (to - from <= POSITIONS_PER_TASK) {
+                double[] pnl = new double[length];
+                for (int i = from; i < to; i++) {
+                    double value = values[i];
+                    double[] positionReturns = returns[i];
+                    for (int t = 0; t < length; t++) {
+                        pnl[t] += value * positionReturns[t];
+                    }
+                }
+                return pnl;
+            }
+            int middle = (from + to) >>> 1;
+            PnlTask left = new PnlTask(returns, values, length, from, middle);
+            left.fork();
+            double[] pnl = new PnlTask(returns, values, length, middle, to).compute();
+            double[] leftPnl = left.join();
+            for (int t = 0; t < length; t++) {
+                pnl[t] += leftPnl[t];
+            }
+            return pnl;
+        }
+    }
+
+    /**
+     * Simulates a range of scenarios, every subtask gets its own split of the random generator
+     */
+    private static final class ScenarioTask extends RecursiveAction {
+        private final double[] factors;
+        private final double mean;
+        private final double[] simulated;
+        private final int from;
+        private final int to;
+        private final SplittableRandom random;
+
+        private ScenarioTask(double[] factors, double mean, double[] simulated, int from, int to,
+                             SplittableRandom random) {
+            this.factors = factors;
+            this.mean = mean;
+            this.simulated = simulated;
+            this.from = from;
+            this.to = to;
+            this.random = random;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SCENARIOS_PER_TASK) {
+                for (int s = from; s < to; s++) {
+                    double scenario = mean;
+                    for (double factor : factors) {
+                        scenario += factor * random.nextGaussian();
+                    }
+                    simulated[s] = scenario;
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ScenarioTask(factors, mean, simulated, from, middle, random.split()),
+                    new ScenarioTask(factors, mean, simulated, middle, to, random));
+        }
+    }
+
+    /**
+     * Fills a range of rows of the lower triangle of the correlation matrix and mirrors them
+     */
+    private static final class CorrelationTask extends RecursiveAction {
+        private final Snapshot snapshot;
+        private final TickerStats[] stats;
+        private final double[][] correlations;
+        private final int from;
+        private final int to;
+
+        private CorrelationTask(Snapshot snapshot, TickerStats[] stats, double[][] correlations, int from, int to) {
+            this.snapshot = snapshot;
+            this.stats = stats;
+            this.correlations = correlations;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= ROWS_PER_TASK) {
+                for (int i = from; i < to; i++) {
+                    correlations[i][i] = 1;
+                    for (int j = 0; j < i; j++) {
+                        double deviations = stats[i].deviation * stats[j].deviation;
+                        double correlation = deviations == 0
+                                ? 0 : snapshot.covariance(stats[i], stats[j]) / deviations;
+                        correlations[i][j] = correlation;
+                        correlations[j][i] = correlation;
+                    }
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new CorrelationTask(snapshot, stats, correlations, from, middle),
+                    new CorrelationTask(snapshot, stats, correlations, middle, to));
+        }
+    }
+}
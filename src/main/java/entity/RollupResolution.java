@@ -0,0 +1,38 @@
+package entity;
+
+/**
+ * The bucket sizes of the trade rollups and how many buckets of each size are kept
+ */
+public enum RollupResolution {
+    MINUTE(60_000L, 24 * 60),
+    HOUR(60 * 60_000L, 30 * 24),
+    DAY(24 * 60 * 60_000L, 366);
+
+    private final long bucketMillis;
+    private final int retainedBuckets;
+
+    RollupResolution(long bucketMillis, int retainedBuckets) {
+        this.bucketMillis = bucketMillis;
+        this.retainedBuckets = retainedBuckets;
+    }
+
+    public long getBucketMillis() {
+        return bucketMillis;
+    }
+
+    public int getRetainedBuckets() {
+        return retainedBuckets;
+    }
+
+    /**
+     * Get the start of the bucket a time falls into
+     *
+     * @param timestamp the time in epoch milliseconds
+     * @return the start of the bucket in epoch milliseconds
+     */
+    public long bucketStart(long timestamp) {
+        long start = timestamp - Math.floorMod(timestamp, bucketMillis);
+        // the bucket of the earliest times starts before the earliest representable time
+        return start <= timestamp ? start : Long.MIN_VALUE;
+    }
+}
@@ -6,10 +6,14 @@ import utility.exceptions.RateLimitExceededException;
 import view.view_events.UpdateStockEvent;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -26,6 +30,7 @@ public class StockMarket {
     private static final long INITIAL_UPDATE_MARKET_INTERVAL = 60000; // initial interval in milliseconds
     private static final long UPDATE_INTERVAL_ADJUSTMENT_RATE = 60000; // interval adjustment rate in milliseconds
     private static final int ROUNDS_WITHOUT_RATE_LIMIT_TO_DECREASE = 5; // number of rounds without rate limit
+    private static final int PRICE_HISTORY_RETURNS = 250; // number of returns kept per stock for risk analytics
 
     // thread-safe Singleton instance
     private static volatile StockMarket instance = null;
@@ -34,9 +39,11 @@ public class StockMarket {
     private final ReadWriteLock lock = new ReentrantReadWriteLock();
     private volatile long currentUpdateInterval = INITIAL_UPDATE_MARKET_INTERVAL;
     private int roundsWithoutRateLimit = 0;
-    private Map<String, Stock> stocks = new ConcurrentHashMap<>();
+    private final Map<String, Stock> stocks = new ConcurrentHashMap<>();
+    private final List<PriceUpdateListener> priceUpdateListeners = new CopyOnWriteArrayList<>();
+    private final PriceHistory priceHistory = new PriceHistory(PRICE_HISTORY_RETURNS);
     private StockDataAccessInterface dataAccess;
-    private boolean initialized = false;
+    private volatile boolean initialized = false;
     private ScheduledExecutorService scheduler;
 
     private StockMarket() {
@@ -63,6 +70,33 @@ public class StockMarket {
         this.initialized = true;
     }
 
+    /**
+     * Register a listener that is notified with the changed prices after every market update
+     *
+     * @param listener the listener to register
+     */
+    public void addPriceUpdateListener(PriceUpdateListener listener) {
+        priceUpdateListeners.add(listener);
+    }
+
+    /**
+     * Remove a previously registered price update listener
+     *
+     * @param listener the listener to remove
+     */
+    public void removePriceUpdateListener(PriceUpdateListener listener) {
+        priceUpdateListeners.remove(listener);
+    }
+
+    /**
+     * Get the history of the prices recorded by every market update
+     *
+     * @return the price history
+     */
+    public PriceHistory getPriceHistory() {
+        return priceHistory;
+    }
+
     public Optional<Stock> getStock(String ticker) {
         lock.readLock().lock();
         try {
@@ -81,6 +115,29 @@ public class StockMarket {
         }
     }
 
+    /**
+     * Get quotes for the given tickers from one consistent snapshot of the market.
+     * All prices are read under a single read lock, so no market update can be applied between two tickers.
+     *
+     * @param tickers the tickers to quote
+     * @return a map from ticker to quote, tickers that are not in the market are omitted
+     */
+    public Map<String, StockQuote> getQuotes(Collection<String> tickers) {
+        lock.readLock().lock();
+        try {
+            Map<String, StockQuote> quotes = new HashMap<>();
+            for (String ticker : tickers) {
+                Stock stock = stocks.get(ticker);
+                if (stock != null) {
+                    quotes.put(ticker, new StockQuote(stock, stock.getPrice()));
+                }
+            }
+            return quotes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
     /**
      * Update the stock information periodically based on API rate limit
      * <p>
@@ -89,23 +146,36 @@ public class StockMarket {
      * If API rate limit not exceeded in consecutive ROUNDS_WITHOUT_RATE_LIMIT_TO_DECREASE,
      * decrease update interval by UPDATE_INTERVAL_ADJUSTMENT_RATE until reaching INITIAL_UPDATE_MARKET_INTERVAL
      * </p>
+     * <p>
+     * The market keeps its own Stock instances and only updates their prices, so references held elsewhere
+     * (e.g. by user portfolios) stay valid. Every update records a round of prices in the price history.
+     * Registered PriceUpdateListeners are notified with the changed prices
+     * after the write lock is released.
+     * </p>
      */
     public void updateStocks() {
+        Map<String, Double> changedPrices = new HashMap<>();
         lock.writeLock().lock();
         try {
             if (dataAccess == null) {
                 throw new IllegalStateException("StockMarket has not been initialized with a data access object.");
             }
 
-            // retrieve stock information from data access object
-            this.stocks = dataAccess.getStocks();
-            for (Map.Entry<String, Stock> entry : stocks.entrySet()) {
+            // retrieve stock information from data access object and merge it into the market
+            for (Map.Entry<String, Stock> entry : dataAccess.getStocks().entrySet()) {
                 String ticker = entry.getKey();
-                String company = entry.getValue().getCompany();
-                String industry = entry.getValue().getIndustry();
-                double price = entry.getValue().getPrice();
-                stocks.computeIfAbsent(ticker, k -> new Stock(ticker, company, industry, price)).updatePrice(price);
+                Stock latest = entry.getValue();
+                double price = latest.getPrice();
+                Stock stock = stocks.get(ticker);
+                if (stock == null) {
+                    stocks.put(ticker, new Stock(ticker, latest.getCompany(), latest.getIndustry(), price));
+                    changedPrices.put(ticker, price);
+                } else if (stock.getPrice() != price) {
+                    stock.updatePrice(price);
+                    changedPrices.put(ticker, price);
+                }
             }
+            priceHistory.record(stocks.values());
 
             // if no exception, increment the rounds counter
             roundsWithoutRateLimit++;
@@ -129,6 +199,13 @@ public class StockMarket {
         } finally {
             lock.writeLock().unlock();
         }
+
+        if (!changedPrices.isEmpty()) {
+            Map<String, Double> prices = Collections.unmodifiableMap(changedPrices);
+            for (PriceUpdateListener listener : priceUpdateListeners) {
+                listener.onPricesUpdated(prices);
+            }
+        }
     }
 
     /**
@@ -139,7 +216,12 @@ public class StockMarket {
             throw new IllegalStateException("Stock price updating is already running.");
         }
         scheduler = Executors.newSingleThreadScheduledExecutor();
-        scheduler.scheduleAtFixedRate(this::updateStocks, 0, currentUpdateInterval, TimeUnit.MILLISECONDS);
+        // rounds before initialize() are skipped, an exception would cancel the periodic task
+        scheduler.scheduleAtFixedRate(() -> {
+            if (initialized) {
+                updateStocks();
+            }
+        }, 0, currentUpdateInterval, TimeUnit.MILLISECONDS);
     }
 
     /**
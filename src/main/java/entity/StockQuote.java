@@ -0,0 +1,13 @@
+package entity;
+
+/**
+ * A stock together with the price it had when the quote was taken
+ *
+ * @param stock the stock entity
+ * @param price the price of the stock at the time of the quote
+ */
+public record StockQuote(
+        Stock stock,
+        double price
+) {
+}
@@ -0,0 +1,17 @@
+package entity;
+
+/**
+ * A lot of shares bought in one fill, with the quantity of it still held
+ *
+ * @param lotId     the id of the lot, unique within a portfolio
+ * @param timestamp the time the lot was bought in epoch milliseconds
+ * @param quantity  the quantity of the lot still held
+ * @param price     the price the lot was bought at
+ */
+public record TaxLot(
+        long lotId,
+        long timestamp,
+        int quantity,
+        double price
+) {
+}
@@ -0,0 +1,104 @@
+package entity;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A singleton table that assigns every ticker a small, dense integer id
+ * <p>
+ * Ids are assigned on first use and never change or get reused during the lifetime of the application,
+ * so they can be used as array indices and primitive map keys in place of ticker strings.
+ * </p>
+ */
+public class TickerSymbolTable {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    // thread-safe Singleton instance
+    private static volatile TickerSymbolTable instance = null;
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile String[] tickers = new String[INITIAL_CAPACITY];
+    private volatile int size = 0;
+
+    private TickerSymbolTable() {
+    }
+
+    public static TickerSymbolTable Instance() {
+        if (instance == null) {
+            synchronized (TickerSymbolTable.class) {
+                if (instance == null) {
+                    instance = new TickerSymbolTable();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Get the id of a ticker, assigning a new id if the ticker has not been seen before
+     *
+     * @param ticker the ticker
+     * @return the id of the ticker
+     */
+    public int getId(String ticker) {
+        Integer id = ids.get(ticker);
+        if (id != null) {
+            return id;
+        }
+        return assignId(ticker);
+    }
+
+    /**
+     * Get the id of a ticker without assigning one
+     *
+     * @param ticker the ticker
+     * @return the id of the ticker, or -1 if the ticker has no id yet
+     */
+    public int findId(String ticker) {
+        Integer id = ids.get(ticker);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Get the ticker of an id
+     *
+     * @param id the id of the ticker
+     * @return the ticker
+     * @throws IllegalArgumentException if no ticker has this id
+     */
+    public String getTicker(int id) {
+        if (id < 0 || id >= size) {
+            throw new IllegalArgumentException("Unknown ticker id " + id);
+        }
+        return tickers[id];
+    }
+
+    /**
+     * Get the number of tickers that have an id, ids range from 0 to size - 1
+     *
+     * @return the number of tickers
+     */
+    public int size() {
+        return size;
+    }
+
+    private synchronized int assignId(String ticker) {
+        Integer existing = ids.get(ticker);
+        if (existing != null) {
+            return existing;
+        }
+        int id = size;
+        String[] current = tickers;
+        if (id == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+        }
+        current[id] = ticker;
+        tickers = current;
+        // publish the ticker before the id becomes visible to lock-free readers
+        size = id + 1;
+        ids.put(ticker, id);
+        return id;
+    }
+}
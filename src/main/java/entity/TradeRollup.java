@@ -0,0 +1,43 @@
+package entity;
+
+import java.util.List;
+
+/**
+ * The traded volume and notional of one bucket of time
+ *
+ * @param bucketStart the start of the bucket in epoch milliseconds
+ * @param volume      the number of shares traded
+ * @param notional    the value of the shares traded
+ */
+public record TradeRollup(
+        long bucketStart,
+        long volume,
+        double notional
+) {
+
+    /**
+     * Get the volume-weighted average price of the bucket
+     *
+     * @return the average price, or 0 if nothing was traded
+     */
+    public double getVwap() {
+        return volume == 0 ? 0 : notional / volume;
+    }
+
+    /**
+     * Add up rollups into one
+     *
+     * @param rollups     the rollups to add up
+     * @param bucketStart the start of the combined bucket
+     * @return the combined rollup
+     */
+    public static TradeRollup sum(List<TradeRollup> rollups, long bucketStart) {
+        long volume = 0;
+        double notional = 0;
+        for (TradeRollup rollup : rollups) {
+            volume += rollup.volume();
+            notional += rollup.notional();
+        }
+        return new TradeRollup(bucketStart, volume, notional);
+    }
+}
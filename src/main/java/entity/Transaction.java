@@ -4,22 +4,47 @@ import java.util.Date;
 
 /**
  * A class representing a transaction
+ * <p>
+ * The timestamp is kept as epoch milliseconds, so a transaction is immutable and needs no defensive copies.
+ * </p>
  */
 public record Transaction(
-        Date timestamp,
+        long timestampMillis,
         String ticker,
         int quantity,
         double price,
-        String type
+        TransactionSide side
 ) {
 
+    /**
+     * Create a transaction from a date and a side label
+     *
+     * @param timestamp date of transaction
+     * @param ticker    ticker of transaction
+     * @param quantity  number of stocks involved in the transaction
+     * @param price     price of a single stock
+     * @param type      "buy" or "sell"
+     */
+    public Transaction(Date timestamp, String ticker, int quantity, double price, String type) {
+        this(timestamp.getTime(), ticker, quantity, price, TransactionSide.fromLabel(type));
+    }
+
     /**
      * Getter to retrieve transaction date
      *
-     * @return date of transaction
+     * @return a new date of the transaction
      */
     public Date getTimestamp() {
-        return timestamp;
+        return new Date(timestampMillis);
+    }
+
+    /**
+     * Getter to retrieve transaction time
+     *
+     * @return time of transaction in epoch milliseconds
+     */
+    public long getTimestampMillis() {
+        return timestampMillis;
     }
 
     /**
@@ -49,12 +74,21 @@ public record Transaction(
         return price;
     }
 
+    /**
+     * Getter to retrieve the side of transaction
+     *
+     * @return the transaction side
+     */
+    public TransactionSide getSide() {
+        return side;
+    }
+
     /**
      * Getter to retrieve type of transaction (i.e. buy or sell)
      *
-     * @return the transaction type
+     * @return the label of the transaction side
      */
     public String getType() {
-        return type;
+        return side.getLabel();
     }
 }
@@ -0,0 +1,62 @@
+package entity;
+
+import java.io.IOException;
+
+/**
+ * The cold tier of a TransactionHistory, holding its oldest transactions outside of memory
+ * <p>
+ * An archive holds the positions from 0 to its size exclusive, and only grows at its end. Reads that fail
+ * throw UncheckedIOException, since they happen inside queries on the history.
+ * </p>
+ */
+public interface TransactionArchive {
+
+    /**
+     * Get the number of archived transactions
+     *
+     * @return the number of archived transactions
+     */
+    int size();
+
+    /**
+     * Check whether the archived timestamps never decrease
+     *
+     * @return whether the archive is ordered by time
+     */
+    boolean isTimeOrdered();
+
+    /**
+     * Archive a range of a history, which must start at the size of the archive
+     *
+     * @param history the history to archive from
+     * @param from    the first position to archive, inclusive
+     * @param to      the last position to archive, exclusive
+     * @throws IOException if the transactions cannot be written
+     */
+    void append(TransactionHistory history, int from, int to) throws IOException;
+
+    /**
+     * Get an archived transaction
+     *
+     * @param position the position of the transaction, below the size
+     * @return the transaction
+     */
+    Transaction get(int position);
+
+    /**
+     * Get the first archived position with a timestamp at or after a time, for an archive ordered by time
+     *
+     * @param timestamp the time in epoch milliseconds
+     * @return the position, or the size if every archived transaction is earlier
+     */
+    int timeLowerBound(long timestamp);
+
+    /**
+     * Find the archived transactions matching a filter
+     *
+     * @param filter the filter of the transactions
+     * @param end    only positions below this one
+     * @return the matching positions in increasing order
+     */
+    int[] find(TransactionFilter filter, int end);
+}
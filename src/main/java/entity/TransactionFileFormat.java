@@ -0,0 +1,15 @@
+package entity;
+
+/**
+ * The file formats a transaction history can be exported to and imported from
+ */
+public enum TransactionFileFormat {
+    /**
+     * Comma-separated text with one transaction per line
+     */
+    CSV,
+    /**
+     * The compact binary stream of TransactionCodec
+     */
+    BINARY
+}
@@ -0,0 +1,29 @@
+package entity;
+
+/**
+ * A filter on a transaction history by ticker and time range
+ *
+ * @param ticker the ticker of the transactions, or null for every ticker
+ * @param from   the earliest time in epoch milliseconds, inclusive
+ * @param to     the latest time in epoch milliseconds, inclusive
+ */
+public record TransactionFilter(
+        String ticker,
+        long from,
+        long to
+) {
+
+    /**
+     * The filter matching every transaction
+     */
+    public static final TransactionFilter NONE = new TransactionFilter(null, Long.MIN_VALUE, Long.MAX_VALUE);
+
+    /**
+     * Check if the filter matches every transaction
+     *
+     * @return true if nothing is filtered out
+     */
+    public boolean isNone() {
+        return ticker == null && from == Long.MIN_VALUE && to == Long.MAX_VALUE;
+    }
+}
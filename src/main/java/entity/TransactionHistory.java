@@ -1,21 +1,70 @@
 package entity;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.RandomAccess;
 
 /**
  * A class representing the transaction history of a user
+ * <p>
+ * The history is append-only and stored by column: every transaction is an epoch-millis timestamp, a ticker id from
+ * the TickerSymbolTable, a quantity, a price and a side, each kept in its own primitive array.
+ * The arrays grow in chunks that are never copied, and Transaction objects are only created when a transaction
+ * is read, so a transaction costs 25 bytes and a scan over one column stays within contiguous memory.
+ * </p>
+ * <p>
+ * Prices are kept as recorded, so a transaction read back has the exact price it was filled at.
+ * Writes are serialized, and the size is published after the columns so reads never take a lock.
+ * </p>
+ * <p>
+ * Every ticker has a posting list of the positions of its transactions, and as long as timestamps never decrease the
+ * timestamp column is itself a time index. A query by ticker and time range finds its first and last match with
+ * binary searches and costs O(log n + k) for k matches. A history with a timestamp earlier than the one before it
+ * falls back to scanning.
+ * </p>
+ * <p>
+ * A history can have a TransactionArchive as its cold tier. Archiving moves the oldest transactions into the archive
+ * and releases their chunks and postings, while positions stay the same, so cursors remain valid. Reads of archived
+ * positions go to the archive, and a query only touches the archive if its time range reaches archived positions.
+ * </p>
  */
 public class TransactionHistory {
 
-    private final List<Transaction> transactions;
+    private static final int CHUNK_BITS = 10;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int INITIAL_CHUNKS = 4;
+    private static final int INITIAL_TICKERS = 16;
+    private static final TransactionSide[] SIDES = TransactionSide.values();
+
+    // columns, indexed by chunk and then by position within the chunk
+    private long[][] timestamps = new long[INITIAL_CHUNKS][];
+    private int[][] tickerIds = new int[INITIAL_CHUNKS][];
+    private int[][] quantities = new int[INITIAL_CHUNKS][];
+    private double[][] prices = new double[INITIAL_CHUNKS][];
+    private byte[][] sides = new byte[INITIAL_CHUNKS][];
+
+    private volatile int size = 0;
+
+    // posting lists indexed by ticker id, and whether the timestamp column can be binary searched
+    private volatile Posting[] postings = new Posting[INITIAL_TICKERS];
+    private volatile boolean timeOrdered = true;
+    private long lastTimestamp = Long.MIN_VALUE;
+
+    // the cold tier holds the positions below archivedCount, archiving is serialized by archiveLock
+    private volatile TransactionArchive archive;
+    private volatile int archivedCount = 0;
+    // the positions of an attached archive were never in the columns, even where their chunk exists
+    private volatile int firstColumnPosition = 0;
+    private final Object archiveLock = new Object();
 
     /**
      * Constructor for TransactionHistory class
      */
     public TransactionHistory() {
-        this.transactions = new ArrayList<>();
     }
 
     /**
@@ -24,7 +73,7 @@ public class TransactionHistory {
      * @param existingTransactions take in the existing transactions when there are already some
      */
     public TransactionHistory(List<Transaction> existingTransactions) {
-        this.transactions = new ArrayList<>(existingTransactions);
+        addTransactions(existingTransactions);
     }
 
     /**
@@ -32,17 +81,132 @@ public class TransactionHistory {
      *
      * @param transaction the transaction to add
      */
-    public void addTransaction(Transaction transaction) {
-        this.transactions.add(transaction);
+    public synchronized void addTransaction(Transaction transaction) {
+        append(size, transaction);
+        size = size + 1;
+    }
+
+    /**
+     * Add a batch of transactions to the transaction history in one step,
+     * e.g. all legs of a basket order.
+     *
+     * @param transactions the transactions to add, in execution order
+     */
+    public synchronized void addTransactions(List<Transaction> transactions) {
+        int index = size;
+        for (Transaction transaction : transactions) {
+            append(index++, transaction);
+        }
+        // the whole batch becomes visible at once
+        size = index;
+    }
+
+    /**
+     * Attach an archive as the cold tier. A non-empty archive becomes the start of an empty history.
+     *
+     * @param archive the archive
+     * @throws IllegalStateException if the history already has an archive, or both are non-empty
+     */
+    public void attachArchive(TransactionArchive archive) {
+        synchronized (archiveLock) {
+            synchronized (this) {
+                if (this.archive != null) {
+                    throw new IllegalStateException("The history already has an archive.");
+                }
+                int archived = archive.size();
+                if (archived > 0 && size > 0) {
+                    throw new IllegalStateException("A non-empty archive can only be attached to an empty history.");
+                }
+                this.archive = archive;
+                if (archived > 0) {
+                    timeOrdered = archive.isTimeOrdered();
+                    lastTimestamp = archive.get(archived - 1).getTimestampMillis();
+                    archivedCount = archived;
+                    firstColumnPosition = archived;
+                    size = archived;
+                }
+            }
+        }
+    }
+
+    /**
+     * Move the oldest transactions up to the first one at or after a time into the archive
+     *
+     * @param cutoffMillis the time in epoch milliseconds before which transactions are archived
+     * @return the number of archived transactions
+     * @throws IOException           if the transactions cannot be archived, in which case they stay in memory
+     * @throws IllegalStateException if the history has no archive
+     */
+    public int archiveBefore(long cutoffMillis) throws IOException {
+        synchronized (archiveLock) {
+            TransactionArchive target = archive;
+            if (target == null) {
+                throw new IllegalStateException("The history has no archive.");
+            }
+            int from = archivedCount;
+            int end = size;
+            int to;
+            if (timeOrdered) {
+                to = Math.max(from, timeLowerBound(cutoffMillis, end));
+            } else {
+                to = from;
+                while (to < end && timestampAt(to) < cutoffMillis) {
+                    to++;
+                }
+            }
+            if (to == from) {
+                return 0;
+            }
+            // the columns below the size never change, so they are written without blocking new transactions
+            target.append(this, from, to);
+
+            synchronized (this) {
+                archivedCount = to;
+                // postings are replaced after the count, so a reader taking a posting before the count misses nothing
+                Posting[] trimmed = postings.clone();
+                for (int i = 0; i < trimmed.length; i++) {
+                    if (trimmed[i] != null) {
+                        trimmed[i] = trimmed[i].trimmed(to);
+                    }
+                }
+                postings = trimmed;
+                for (int chunk = from >>> CHUNK_BITS; chunk < to >>> CHUNK_BITS; chunk++) {
+                    timestamps[chunk] = null;
+                    tickerIds[chunk] = null;
+                    quantities[chunk] = null;
+                    prices[chunk] = null;
+                    sides[chunk] = null;
+                }
+            }
+            return to - from;
+        }
+    }
+
+    /**
+     * Check whether an archive is attached
+     *
+     * @return whether the history has a cold tier
+     */
+    public boolean hasArchive() {
+        return archive != null;
+    }
+
+    /**
+     * Get the number of transactions in the archive, they are the positions below this count
+     *
+     * @return the number of archived transactions
+     */
+    public int getArchivedCount() {
+        return archivedCount;
     }
 
     /**
      * This is the getter of the TransactionHistory class.
      *
-     * @return all transactions
+     * @return all transactions at the time of the call
      */
     public List<Transaction> getAllTransactions() {
-        return Collections.unmodifiableList(transactions);
+        return new RangeView(null, 0, size, false);
     }
 
     /**
@@ -56,7 +220,386 @@ public class TransactionHistory {
             return Collections.emptyList();
         }
 
-        int start = Math.max(transactions.size() - count, 0);
-        return new ArrayList<>(transactions.subList(start, transactions.size()));
+        int end = size;
+        return new RangeView(null, Math.max(end - count, 0), end, false);
+    }
+
+    /**
+     * Get one page of transactions, without copying them
+     *
+     * @param pageSize     the maximum number of transactions in the page
+     * @param beforeCursor only transactions at positions below this one, or TransactionPage.NO_CURSOR
+     * @param afterCursor  only transactions at positions above this one, or TransactionPage.NO_CURSOR
+     * @param newestFirst  whether the page is ordered from newest to oldest
+     * @return the page of transactions
+     */
+    public TransactionPage getPage(int pageSize, int beforeCursor, int afterCursor, boolean newestFirst) {
+        return getPage(TransactionFilter.NONE, pageSize, beforeCursor, afterCursor, newestFirst);
+    }
+
+    /**
+     * Get one page of the transactions matching a filter, without copying them
+     * <p>
+     * Only the matching transactions before the before cursor and after the after cursor are considered. Of those,
+     * the page holds the newest ones when a before cursor is given, the oldest ones when only an after cursor is
+     * given, and otherwise the newest or oldest ones depending on the order of the page.
+     * </p>
+     *
+     * @param filter       the filter of the transactions
+     * @param pageSize     the maximum number of transactions in the page
+     * @param beforeCursor only transactions at positions below this one, or TransactionPage.NO_CURSOR
+     * @param afterCursor  only transactions at positions above this one, or TransactionPage.NO_CURSOR
+     * @param newestFirst  whether the page is ordered from newest to oldest
+     * @return the page of transactions
+     */
+    public TransactionPage getPage(TransactionFilter filter, int pageSize, int beforeCursor, int afterCursor,
+                                   boolean newestFirst) {
+        int totalCount = size;
+
+        // the matches are candidates[first] to candidates[last - 1], or the positions first to last - 1 if null
+        int[] candidates = null;
+        int first;
+        int last;
+        if (!timeOrdered) {
+            candidates = scan(filter, totalCount);
+            first = 0;
+            last = candidates.length;
+        } else {
+            int timeLow = filter.from() == Long.MIN_VALUE ? 0 : timeLowerBound(filter.from(), totalCount);
+            int timeHigh = filter.to() == Long.MAX_VALUE ? totalCount : timeLowerBound(filter.to() + 1, totalCount);
+            if (filter.ticker() == null) {
+                first = timeLow;
+                last = Math.max(timeLow, timeHigh);
+            } else {
+                int tickerId = TickerSymbolTable.Instance().findId(filter.ticker());
+                Posting[] current = postings;
+                Posting posting = tickerId < 0 || tickerId >= current.length ? null : current[tickerId];
+                if (posting == null) {
+                    candidates = new int[0];
+                    first = 0;
+                    last = 0;
+                } else {
+                    // read the count before the positions, the positions are then at least that long
+                    int count = posting.count;
+                    candidates = posting.positions;
+                    // read after the posting, whose trimmed positions are then all below the archived count
+                    int archived = Math.min(archivedCount, totalCount);
+                    first = lowerBound(candidates, 0, count, Math.max(timeLow, archived));
+                    last = Math.max(first, lowerBound(candidates, first, count, timeHigh));
+                    if (timeLow < archived) {
+                        candidates = concat(archive.find(filter, archived), candidates, first, last);
+                        first = 0;
+                        last = candidates.length;
+                    }
+                }
+            }
+        }
+
+        int low = afterCursor == TransactionPage.NO_CURSOR
+                ? first : lowerBound(candidates, first, last, Math.min(afterCursor, totalCount - 1) + 1);
+        int high = beforeCursor == TransactionPage.NO_CURSOR
+                ? last : lowerBound(candidates, first, last, Math.min(beforeCursor, totalCount));
+        high = Math.max(low, high);
+        int pageLength = Math.min(Math.max(pageSize, 0), high - low);
+
+        boolean fromNewest = beforeCursor != TransactionPage.NO_CURSOR
+                || (afterCursor == TransactionPage.NO_CURSOR && newestFirst);
+        int start = fromNewest ? high - pageLength : low;
+        int startIndex;
+        int endIndex;
+        if (pageLength > 0) {
+            startIndex = position(candidates, start);
+            endIndex = position(candidates, start + pageLength - 1) + 1;
+        } else {
+            // an empty page sits at its cursor
+            startIndex = fromNewest
+                    ? (beforeCursor == TransactionPage.NO_CURSOR ? totalCount : Math.min(beforeCursor, totalCount))
+                    : (afterCursor == TransactionPage.NO_CURSOR ? 0 : Math.min(afterCursor + 1, totalCount));
+            endIndex = startIndex;
+        }
+        return new TransactionPage(new RangeView(candidates, start, start + pageLength, newestFirst),
+                startIndex, endIndex, newestFirst, last - first, start > first, start + pageLength < last);
+    }
+
+    /**
+     * Get every transaction matching a filter, oldest first
+     *
+     * @param filter the filter of the transactions
+     * @return the matching transactions
+     */
+    public List<Transaction> getTransactions(TransactionFilter filter) {
+        return getPage(filter, Integer.MAX_VALUE, TransactionPage.NO_CURSOR, TransactionPage.NO_CURSOR, false)
+                .transactions();
+    }
+
+    /**
+     * Get the number of transactions in the history
+     *
+     * @return the number of transactions
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get a transaction by position, creating it from the columns
+     *
+     * @param index the position of the transaction, 0 is the oldest
+     * @return the transaction
+     */
+    public Transaction get(int index) {
+        checkIndex(index);
+        int chunk = index >>> CHUNK_BITS;
+        int offset = index & CHUNK_MASK;
+        long[] timestampChunk = timestamps[chunk];
+        int[] tickerIdChunk = tickerIds[chunk];
+        int[] quantityChunk = quantities[chunk];
+        double[] priceChunk = prices[chunk];
+        byte[] sideChunk = sides[chunk];
+        // a released chunk has been archived, and positions of an attached archive were never in the columns
+        if (index < firstColumnPosition || timestampChunk == null || tickerIdChunk == null || quantityChunk == null
+                || priceChunk == null || sideChunk == null) {
+            return archive.get(index);
+        }
+        return new Transaction(
+                timestampChunk[offset],
+                TickerSymbolTable.Instance().getTicker(tickerIdChunk[offset]),
+                quantityChunk[offset],
+                priceChunk[offset],
+                SIDES[sideChunk[offset]]
+        );
+    }
+
+    public long getTimestampMillis(int index) {
+        checkIndex(index);
+        return timestampAt(index);
+    }
+
+    public int getTickerId(int index) {
+        checkIndex(index);
+        int[] chunk = tickerIds[index >>> CHUNK_BITS];
+        return chunk != null && index >= firstColumnPosition ? chunk[index & CHUNK_MASK]
+                : TickerSymbolTable.Instance().getId(archive.get(index).getTicker());
+    }
+
+    public int getQuantity(int index) {
+        checkIndex(index);
+        int[] chunk = quantities[index >>> CHUNK_BITS];
+        return chunk != null && index >= firstColumnPosition ? chunk[index & CHUNK_MASK]
+                : archive.get(index).getQuantity();
+    }
+
+    public double getPrice(int index) {
+        checkIndex(index);
+        double[] chunk = prices[index >>> CHUNK_BITS];
+        return chunk != null && index >= firstColumnPosition ? chunk[index & CHUNK_MASK]
+                : archive.get(index).getPrice();
+    }
+
+    public TransactionSide getSide(int index) {
+        checkIndex(index);
+        byte[] chunk = sides[index >>> CHUNK_BITS];
+        return chunk != null && index >= firstColumnPosition ? SIDES[chunk[index & CHUNK_MASK]]
+                : archive.get(index).getSide();
+    }
+
+    // write a transaction into the columns at a position not yet visible to readers
+    private void append(int index, Transaction transaction) {
+        int chunk = index >>> CHUNK_BITS;
+        int offset = index & CHUNK_MASK;
+        // an attached archive can leave the history starting within a chunk
+        if (chunk >= timestamps.length || timestamps[chunk] == null) {
+            addChunk(chunk);
+        }
+        timestamps[chunk][offset] = transaction.getTimestampMillis();
+        tickerIds[chunk][offset] = TickerSymbolTable.Instance().getId(transaction.getTicker());
+        quantities[chunk][offset] = transaction.getQuantity();
+        prices[chunk][offset] = transaction.getPrice();
+        sides[chunk][offset] = (byte) transaction.getSide().ordinal();
+
+        int tickerId = tickerIds[chunk][offset];
+        Posting[] current = postings;
+        if (tickerId >= current.length) {
+            current = Arrays.copyOf(current, Math.max(current.length * 2, tickerId + 1));
+            postings = current;
+        }
+        if (current[tickerId] == null) {
+            current[tickerId] = new Posting();
+        }
+        current[tickerId].add(index);
+
+        long timestamp = timestamps[chunk][offset];
+        if (timestamp < lastTimestamp) {
+            timeOrdered = false;
+        }
+        lastTimestamp = timestamp;
+    }
+
+    // index of the first position with a timestamp at or after the given time
+    private int timeLowerBound(long timestamp, int end) {
+        int low = Math.min(archivedCount, end);
+        if (low > 0) {
+            // the archive is only searched if the time is within it
+            int archived = archive.timeLowerBound(timestamp);
+            if (archived < low) {
+                return archived;
+            }
+        }
+        int high = end;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (timestampAt(middle) < timestamp) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    // index in [from, to) of the first candidate at or after the position, candidates null means every position
+    private static int lowerBound(int[] candidates, int from, int to, int position) {
+        if (candidates == null) {
+            return Math.min(Math.max(position, from), to);
+        }
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (candidates[middle] < position) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private long timestampAt(int index) {
+        long[] chunk = timestamps[index >>> CHUNK_BITS];
+        return chunk != null && index >= firstColumnPosition ? chunk[index & CHUNK_MASK]
+                : archive.get(index).getTimestampMillis();
+    }
+
+    // the archived matches followed by the candidates from first to last
+    private static int[] concat(int[] archived, int[] candidates, int first, int last) {
+        int[] merged = Arrays.copyOf(archived, archived.length + last - first);
+        System.arraycopy(candidates, first, merged, archived.length, last - first);
+        return merged;
+    }
+
+    private static int position(int[] candidates, int index) {
+        return candidates == null ? index : candidates[index];
+    }
+
+    // the positions matching a filter by a full scan, used when the timestamps are out of order
+    private int[] scan(TransactionFilter filter, int end) {
+        int tickerId = filter.ticker() == null ? -1 : TickerSymbolTable.Instance().findId(filter.ticker());
+        if (filter.ticker() != null && tickerId < 0) {
+            return new int[0];
+        }
+        int archived = Math.min(archivedCount, end);
+        int[] matches = archived > 0 ? archive.find(filter, archived) : new int[INITIAL_TICKERS];
+        int count = archived > 0 ? matches.length : 0;
+        for (int i = archived; i < end; i++) {
+            if (tickerId < 0 || getTickerId(i) == tickerId) {
+                long timestamp = timestampAt(i);
+                if (timestamp >= filter.from() && timestamp <= filter.to()) {
+                    if (count == matches.length) {
+                        matches = Arrays.copyOf(matches, Math.max(count * 2, INITIAL_TICKERS));
+                    }
+                    matches[count++] = i;
+                }
+            }
+        }
+        return Arrays.copyOf(matches, count);
+    }
+
+    private void addChunk(int chunk) {
+        if (chunk >= timestamps.length) {
+            int capacity = Math.max(timestamps.length * 2, chunk + 1);
+            timestamps = Arrays.copyOf(timestamps, capacity);
+            tickerIds = Arrays.copyOf(tickerIds, capacity);
+            quantities = Arrays.copyOf(quantities, capacity);
+            prices = Arrays.copyOf(prices, capacity);
+            sides = Arrays.copyOf(sides, capacity);
+        }
+        timestamps[chunk] = new long[CHUNK_SIZE];
+        tickerIds[chunk] = new int[CHUNK_SIZE];
+        quantities[chunk] = new int[CHUNK_SIZE];
+        prices[chunk] = new double[CHUNK_SIZE];
+        sides[chunk] = new byte[CHUNK_SIZE];
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+    }
+
+    /**
+     * The positions of the transactions of one ticker, appended by the writer and read without a lock
+     */
+    private static final class Posting {
+        private volatile int[] positions = new int[4];
+        private volatile int count;
+
+        private void add(int position) {
+            int current = count;
+            int[] array = positions;
+            if (current == array.length) {
+                array = Arrays.copyOf(array, current * 2);
+                positions = array;
+            }
+            array[current] = position;
+            count = current + 1;
+        }
+
+        // a copy without the positions below a position
+        private Posting trimmed(int position) {
+            int current = count;
+            int[] array = positions;
+            int first = lowerBound(array, 0, current, position);
+            if (first == 0) {
+                return this;
+            }
+            Posting posting = new Posting();
+            posting.positions = Arrays.copyOfRange(array, first, Math.max(first + 4, current));
+            posting.count = current - first;
+            return posting;
+        }
+    }
+
+    /**
+     * A read-only view of a range of the transactions, valid as long as the history only grows
+     * <p>
+     * The range is over the candidate positions, or over all positions if there are no candidates.
+     * </p>
+     */
+    private final class RangeView extends AbstractList<Transaction> implements RandomAccess {
+        private final int[] candidates;
+        private final int start;
+        private final int end;
+        private final boolean reversed;
+
+        private RangeView(int[] candidates, int start, int end, boolean reversed) {
+            this.candidates = candidates;
+            this.start = start;
+            this.end = end;
+            this.reversed = reversed;
+        }
+
+        @Override
+        public Transaction get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return TransactionHistory.this.get(position(candidates, reversed ? end - 1 - index : start + index));
+        }
+
+        @Override
+        public int size() {
+            return end - start;
+        }
     }
 }
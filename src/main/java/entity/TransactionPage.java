@@ -0,0 +1,54 @@
+package entity;
+
+import java.util.List;
+
+/**
+ * One page of a transaction history
+ * <p>
+ * Transactions are addressed by their position in the history, which never changes since the history is
+ * append-only. A page spans the positions from startIndex to endIndex exclusive, and its cursors are the
+ * positions to pass as the before or after cursor of the neighbouring pages. With a filter, only the matching
+ * transactions within that span are in the page.
+ * </p>
+ *
+ * @param transactions the transactions of the page, newest first if newestFirst is set
+ * @param startIndex   the position of the oldest transaction of the page
+ * @param endIndex     the position after the newest transaction of the page
+ * @param newestFirst  whether the transactions are ordered from newest to oldest
+ * @param matchCount   the number of transactions matching the filter when the page was taken
+ * @param hasOlder     whether older matching transactions exist
+ * @param hasNewer     whether newer matching transactions exist
+ */
+public record TransactionPage(
+        List<Transaction> transactions,
+        int startIndex,
+        int endIndex,
+        boolean newestFirst,
+        int matchCount,
+        boolean hasOlder,
+        boolean hasNewer
+) {
+
+    /**
+     * The cursor value for no cursor
+     */
+    public static final int NO_CURSOR = -1;
+
+    /**
+     * Get the before cursor of the page of older transactions
+     *
+     * @return the before cursor
+     */
+    public int olderCursor() {
+        return startIndex;
+    }
+
+    /**
+     * Get the after cursor of the page of newer transactions
+     *
+     * @return the after cursor
+     */
+    public int newerCursor() {
+        return endIndex - 1;
+    }
+}
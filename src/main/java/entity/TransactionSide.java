@@ -0,0 +1,46 @@
+package entity;
+
+/**
+ * The side of a transaction
+ */
+public enum TransactionSide {
+    /**
+     * Shares were bought
+     */
+    BUY("buy"),
+    /**
+     * Shares were sold
+     */
+    SELL("sell");
+
+    private final String label;
+
+    TransactionSide(String label) {
+        this.label = label;
+    }
+
+    /**
+     * Get the label of the side as shown to users and used by order input
+     *
+     * @return "buy" or "sell"
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Get the side with a label
+     *
+     * @param label "buy" or "sell"
+     * @return the side
+     * @throws IllegalArgumentException if the label is not a side
+     */
+    public static TransactionSide fromLabel(String label) {
+        for (TransactionSide side : values()) {
+            if (side.label.equals(label)) {
+                return side;
+            }
+        }
+        throw new IllegalArgumentException("Unknown transaction side: " + label);
+    }
+}
@@ -1,32 +1,51 @@
 package entity;
 
+import utility.PasswordHasher;
+
 /**
  * A class representing a user
  */
 public class User {
     private final String username;
-    private final String password;
+    private final String passwordHash;
     private final Portfolio portfolio;
     private final TransactionHistory transactionHistory;
-    private double balance;
+    private volatile double balance;
 
-    // TODO: user password should be hashed or encrypted
+    /**
+     * Create a user without balance or positions, hashing the password with the configured work factor
+     *
+     * @param username the username
+     * @param password the password in plaintext, which is not kept
+     */
     public User(String username, String password) {
-        this.username = username;
-        this.password = password;
-        this.balance = 0;
-        this.portfolio = new Portfolio();
-        this.transactionHistory = new TransactionHistory();
+        this(username, PasswordHasher.Instance().hash(password), 0, new Portfolio(), new TransactionHistory());
     }
 
-    public User(String username, String password, double balance, Portfolio portfolio, TransactionHistory transactionHistory) {
+    private User(String username, String passwordHash, double balance, Portfolio portfolio,
+                 TransactionHistory transactionHistory) {
         this.username = username;
-        this.password = password;
+        this.passwordHash = passwordHash;
         this.balance = balance;
         this.portfolio = portfolio;
         this.transactionHistory = transactionHistory;
     }
 
+    /**
+     * Create a user from stored state, whose password is already hashed
+     *
+     * @param username           the username
+     * @param passwordHash       the password hash encoded by PasswordHasher
+     * @param balance            the cash balance
+     * @param portfolio          the portfolio
+     * @param transactionHistory the transaction history
+     * @return the user
+     */
+    public static User withPasswordHash(String username, String passwordHash, double balance, Portfolio portfolio,
+                                        TransactionHistory transactionHistory) {
+        return new User(username, passwordHash, balance, portfolio, transactionHistory);
+    }
+
     public void addBalance(double amount) {
         this.balance += amount;
     }
@@ -48,8 +67,18 @@ public class User {
         return username;
     }
 
-    public String getPassword() {
-        return password;
+    public String getPasswordHash() {
+        return passwordHash;
+    }
+
+    /**
+     * Check a password against the user's hash, which takes as long as the work factor of the hash
+     *
+     * @param password the password in plaintext
+     * @return whether the password is the user's
+     */
+    public boolean checkPassword(String password) {
+        return PasswordHasher.Instance().verify(password, passwordHash);
     }
 
     public double getBalance() {
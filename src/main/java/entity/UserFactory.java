@@ -1,10 +1,31 @@
 package entity;
 
+import utility.PasswordHasher;
+
 /**
  * A factory class for creating users
  */
 public class UserFactory {
+    private final PasswordHasher passwordHasher;
+
+    /**
+     * Create a factory hashing passwords with the configured work factor
+     */
+    public UserFactory() {
+        this(PasswordHasher.Instance());
+    }
+
+    /**
+     * Create a factory hashing passwords with a given hasher, e.g. one with a low work factor for tests
+     *
+     * @param passwordHasher the hasher of the passwords
+     */
+    public UserFactory(PasswordHasher passwordHasher) {
+        this.passwordHasher = passwordHasher;
+    }
+
     public User create(String username, String password) {
-        return new User(username, password);
+        return User.withPasswordHash(username, passwordHasher.hash(password), 0, new Portfolio(),
+                new TransactionHistory());
     }
 }
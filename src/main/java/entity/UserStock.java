@@ -2,12 +2,19 @@ package entity;
 
 /**
  * A class representing a stock owned by a user
+ * <p>
+ * The position is marked at the price of its latest fill or the latest price update applied by its portfolio,
+ * whichever came last. Quantity and price changes go through {@link Portfolio} so that the portfolio totals stay
+ * consistent with its positions. The average cost is the cost basis of the tax lots still held divided by the
+ * quantity, so it changes on a sale whenever the sold lots were bought at a different price than the average.
+ * </p>
  */
 public class UserStock {
 
     private final Stock stock;
     private double cost;
     private int quantity;
+    private double marketPrice;
 
     /**
      * Constructor for UserStock class
@@ -20,6 +27,7 @@ public class UserStock {
         this.stock = stock;
         this.cost = cost;
         this.quantity = quantity;
+        this.marketPrice = stock.getPrice();
     }
 
     public Stock getStock() {
@@ -34,6 +42,15 @@ public class UserStock {
         return quantity;
     }
 
+    /**
+     * Get the price this position is currently marked at
+     *
+     * @return the last applied market price of the stock
+     */
+    public double getMarketPrice() {
+        return marketPrice;
+    }
+
     /**
      * Calculate the total cost spent on this stock
      *
@@ -49,7 +66,7 @@ public class UserStock {
      * @return the current market value of this stock in the stock market
      */
     public double getCurrentMarketValue() {
-        return stock.getPrice() * quantity;
+        return marketPrice * quantity;
     }
 
     /**
@@ -58,8 +75,38 @@ public class UserStock {
      * @param price:    the price of the stock
      * @param quantity: the quantity of the stock
      */
-    public void updateUserStock(double price, int quantity) {
+    void updateUserStock(double price, int quantity) {
         this.cost = (this.cost * this.quantity + price * quantity) / (quantity + this.quantity);
         this.quantity += quantity;
     }
+
+    /**
+     * Reduce the quantity of the stock when shares are sold, the average cost is set by the portfolio afterwards
+     *
+     * @param quantity: the quantity of the stock sold
+     */
+    void reduceQuantity(int quantity) {
+        if (quantity > this.quantity) {
+            throw new IllegalArgumentException("Cannot sell more shares than owned.");
+        }
+        this.quantity -= quantity;
+    }
+
+    /**
+     * Set the average cost of the stock, e.g. to the cost of the lots left after a sale
+     *
+     * @param cost: the new average cost of the stock
+     */
+    void setCost(double cost) {
+        this.cost = cost;
+    }
+
+    /**
+     * Mark the position at a new market price
+     *
+     * @param price: the new market price of the stock
+     */
+    void markToMarket(double price) {
+        this.marketPrice = price;
+    }
 }
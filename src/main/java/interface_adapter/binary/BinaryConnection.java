@@ -0,0 +1,316 @@
+package interface_adapter.binary;
+
+import entity.Transaction;
+import entity.TransactionSide;
+import interface_adapter.market_update.PriceSubscription;
+import use_case.execute_basket.BasketOrderLeg;
+import use_case.execute_basket.ExecuteBasketInputData;
+import use_case.execute_basket.ExecuteBasketInteractor;
+import use_case.execute_basket.ExecuteBasketOutputBoundary;
+import use_case.execute_basket.ExecuteBasketOutputData;
+import use_case.login.LoginInputData;
+import use_case.login.LoginInteractor;
+import use_case.login.LoginOutputBoundary;
+import use_case.login.LoginOutputData;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * One connection of the binary order server, run on its own virtual thread
+ * <p>
+ * The connection decodes the frames of every read in place, executes their orders on its interactor, which presents
+ * into this connection, and encodes the answers into its write buffer, sent once the read is processed. Quotes are
+ * written by the thread of its subscription, so every write goes through the write lock.
+ * </p>
+ */
+class BinaryConnection implements Runnable, ExecuteBasketOutputBoundary {
+
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    private final BinaryOrderServer server;
+    private final SocketChannel channel;
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    private final ByteBuffer writeBuffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final ExecuteBasketInteractor interactor;
+
+    private final LoginMessage loginIn = new LoginMessage();
+    private final OrderMessage orderIn = new OrderMessage();
+    private final SubscribeMessage subscribeIn = new SubscribeMessage();
+    private final LoginResultMessage loginResultOut = new LoginResultMessage();
+    private final OrderAckMessage ackOut = new OrderAckMessage();
+    private final FillMessage fillOut = new FillMessage();
+    private final QuoteMessage quoteOut = new QuoteMessage();
+
+    private String credential;
+    private long clientOrderId; // the order being executed, for the answers the interactor presents
+    private PriceSubscription subscription;
+
+    BinaryConnection(BinaryOrderServer server, SocketChannel channel) {
+        this.server = server;
+        this.channel = channel;
+        this.interactor = new ExecuteBasketInteractor(server.getOrderDataAccess(), this);
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (server.isRunning() && channel.read(readBuffer) >= 0) {
+                readBuffer.flip();
+                writeLock.lock();
+                try {
+                    processFrames();
+                    flush();
+                } finally {
+                    writeLock.unlock();
+                }
+                // a partial frame moves to the start of the buffer for the next read
+                readBuffer.compact();
+            }
+        } catch (IOException e) {
+            // the client disconnected or sent a malformed frame
+        } finally {
+            if (subscription != null) {
+                server.getPriceFanOut().unsubscribe(subscription);
+            }
+            server.close(channel);
+        }
+    }
+
+    private void processFrames() throws IOException {
+        while (readBuffer.remaining() >= BinaryProtocol.HEADER_BYTES) {
+            int start = readBuffer.position();
+            int length = readBuffer.getInt(start);
+            if (length < 1 || length > BinaryProtocol.MAX_FRAME_BYTES) {
+                throw new IOException("Malformed frame length " + length + ".");
+            }
+            if (readBuffer.remaining() < BinaryProtocol.LENGTH_BYTES + length) {
+                return;
+            }
+            int body = start + BinaryProtocol.HEADER_BYTES;
+            int bodyLength = length - 1;
+            switch (readBuffer.get(start + BinaryProtocol.LENGTH_BYTES)) {
+                case OrderMessage.TYPE -> {
+                    if (bodyLength != OrderMessage.BODY_LENGTH) {
+                        throw new IOException("Malformed order.");
+                    }
+                    orderIn.wrap(readBuffer, body);
+                    order();
+                }
+                case LoginMessage.TYPE -> {
+                    loginIn.wrap(readBuffer, body);
+                    if (!loginIn.fits(bodyLength)) {
+                        throw new IOException("Malformed login.");
+                    }
+                    login();
+                }
+                case SubscribeMessage.TYPE -> {
+                    subscribeIn.wrap(readBuffer, body);
+                    if (!subscribeIn.fits(bodyLength)) {
+                        throw new IOException("Malformed subscription.");
+                    }
+                    subscribe();
+                }
+                default -> throw new IOException("Unknown message type.");
+            }
+            readBuffer.position(start + BinaryProtocol.LENGTH_BYTES + length);
+        }
+    }
+
+    private void order() throws IOException {
+        long started = System.nanoTime();
+        clientOrderId = orderIn.clientOrderId();
+        byte side = orderIn.side();
+        if (credential == null) {
+            ack(BinaryProtocol.ORDER_NOT_LOGGED_IN);
+        } else if (side != BinaryProtocol.SIDE_BUY && side != BinaryProtocol.SIDE_SELL) {
+            ack(BinaryProtocol.ORDER_INVALID);
+        } else {
+            // a basket of one leg, which executes both sides and presents the fill prices
+            TransactionSide transactionSide = side == BinaryProtocol.SIDE_BUY ? TransactionSide.BUY
+                    : TransactionSide.SELL;
+            interactor.execute(new ExecuteBasketInputData(credential, List.of(
+                    new BasketOrderLeg(orderIn.ticker(), orderIn.quantity(), transactionSide))));
+        }
+        server.getOrderLatency().record(System.nanoTime() - started);
+    }
+
+    private void login() throws IOException {
+        LoginResultWriter writer = new LoginResultWriter();
+        server.getLoginPipeline().execute(new LoginInputData(loginIn.username(), loginIn.password()),
+                new LoginInteractor(server.getLoginDataAccess(), writer), writer);
+        // the login is hashed on the pipeline, this connection waits for it like a blocking read, but holds the
+        // write lock meanwhile, so it stops waiting after the login timeout and tells the client to try again
+        LoginResult result = writer.result.completeOnTimeout(new LoginResult(BinaryProtocol.LOGIN_BUSY, null, 0),
+                server.getLoginTimeoutMillis(), TimeUnit.MILLISECONDS).join();
+        if (result.status() == BinaryProtocol.LOGIN_ACCEPTED) {
+            credential = result.credential();
+        }
+        reserve(LoginResultMessage.FRAME_LENGTH);
+        loginResultOut.encode(writeBuffer).status(result.status()).balance(result.balance());
+    }
+
+    private void subscribe() {
+        List<String> tickers = new ArrayList<>(subscribeIn.tickerCount());
+        for (int i = 0; i < subscribeIn.tickerCount(); i++) {
+            tickers.add(subscribeIn.ticker(i));
+        }
+        if (subscription != null) {
+            server.getPriceFanOut().unsubscribe(subscription);
+        }
+        PriceSubscription newSubscription = server.getPriceFanOut().subscribe(tickers, subscribeIn.intervalMillis());
+        subscription = newSubscription;
+        server.getExecutor().execute(() -> streamQuotes(newSubscription));
+    }
+
+    // write the prices of a subscription as quotes until it is replaced, the client disconnects or the server stops
+    private void streamQuotes(PriceSubscription quotes) {
+        try {
+            while (server.isRunning() && quotes.isOpen()) {
+                Map<String, Double> prices = quotes.drain();
+                if (!prices.isEmpty()) {
+                    writeLock.lock();
+                    try {
+                        for (Map.Entry<String, Double> price : prices.entrySet()) {
+                            reserve(QuoteMessage.FRAME_LENGTH);
+                            quoteOut.encode(writeBuffer)
+                                    .ticker(BinaryProtocol.packTicker(price.getKey()))
+                                    .price(price.getValue());
+                        }
+                        flush();
+                    } finally {
+                        writeLock.unlock();
+                    }
+                }
+                Thread.sleep(quotes.getFlushIntervalMillis());
+            }
+        } catch (IOException e) {
+            server.close(channel);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void prepareSuccessView(ExecuteBasketOutputData outputData) {
+        try {
+            ack(BinaryProtocol.ORDER_ACCEPTED);
+            for (Transaction fill : outputData.transactions()) {
+                reserve(FillMessage.FRAME_LENGTH);
+                fillOut.encode(writeBuffer)
+                        .clientOrderId(clientOrderId)
+                        .side(fill.getSide() == TransactionSide.BUY ? BinaryProtocol.SIDE_BUY
+                                : BinaryProtocol.SIDE_SELL)
+                        .quantity(fill.getQuantity())
+                        .price(fill.getPrice())
+                        .balance(outputData.newBalance())
+                        .ticker(BinaryProtocol.packTicker(fill.getTicker()));
+            }
+        } catch (IOException e) {
+            server.close(channel);
+        }
+    }
+
+    @Override
+    public void prepareInsufficientBalanceExceptionView() {
+        reject(BinaryProtocol.ORDER_INSUFFICIENT_BALANCE);
+    }
+
+    @Override
+    public void prepareInsufficientQuantityExceptionView() {
+        reject(BinaryProtocol.ORDER_INSUFFICIENT_QUANTITY);
+    }
+
+    @Override
+    public void prepareStockNotFoundExceptionView() {
+        reject(BinaryProtocol.ORDER_STOCK_NOT_FOUND);
+    }
+
+    @Override
+    public void prepareInvalidBasketExceptionView() {
+        reject(BinaryProtocol.ORDER_INVALID);
+    }
+
+    @Override
+    public void prepareValidationExceptionView() {
+        reject(BinaryProtocol.ORDER_UNAUTHORIZED);
+    }
+
+    @Override
+    public void prepareStorageExceptionView() {
+        reject(BinaryProtocol.ORDER_NOT_RECORDED);
+    }
+
+    // the views of the interactor cannot throw, a failed write closes the connection, which ends its read loop
+    private void reject(byte status) {
+        try {
+            ack(status);
+        } catch (IOException e) {
+            server.close(channel);
+        }
+    }
+
+    private void ack(byte status) throws IOException {
+        reserve(OrderAckMessage.FRAME_LENGTH);
+        ackOut.encode(writeBuffer).clientOrderId(clientOrderId).status(status);
+    }
+
+    // make room for a message, sending what is buffered if it does not fit
+    private void reserve(int frameLength) throws IOException {
+        if (writeBuffer.remaining() < frameLength) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        writeBuffer.flip();
+        while (writeBuffer.hasRemaining()) {
+            channel.write(writeBuffer);
+        }
+        writeBuffer.clear();
+    }
+
+    /**
+     * The result of a login, encoded into a login result
+     */
+    private record LoginResult(byte status, String credential, double balance) {
+    }
+
+    /**
+     * The output boundary of a login, which the login pipeline can present on another thread
+     */
+    private static class LoginResultWriter implements LoginOutputBoundary {
+
+        private final CompletableFuture<LoginResult> result = new CompletableFuture<>();
+
+        @Override
+        public void prepareSuccessView(LoginOutputData outputData) {
+            result.complete(new LoginResult(BinaryProtocol.LOGIN_ACCEPTED, outputData.credential(),
+                    outputData.user().getBalance()));
+        }
+
+        @Override
+        public void prepareValidationExceptionView() {
+            result.complete(new LoginResult(BinaryProtocol.LOGIN_REJECTED, null, 0));
+        }
+
+        @Override
+        public void prepareBusyExceptionView() {
+            result.complete(new LoginResult(BinaryProtocol.LOGIN_BUSY, null, 0));
+        }
+
+        @Override
+        public void prepareErrorView() {
+            // the protocol has no error status, a busy server tells the client to try again
+            result.complete(new LoginResult(BinaryProtocol.LOGIN_BUSY, null, 0));
+        }
+    }
+}
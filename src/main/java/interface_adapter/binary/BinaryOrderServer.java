@@ -0,0 +1,172 @@
+package interface_adapter.binary;
+
+import interface_adapter.market_update.PriceFanOut;
+import use_case.execute_basket.ExecuteBasketDataAccessInterface;
+import use_case.login.LoginDataAccessInterface;
+import use_case.login.LoginPipeline;
+import utility.LatencyHistogram;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A headless server for bot clients, taking orders in the binary protocol of BinaryProtocol over plain TCP
+ * <p>
+ * Every connection is served by its own virtual thread reading frames into a direct buffer it reuses, so thousands
+ * of bots take no platform threads. The orders of a connection run one after another on its own interactor over the
+ * data access objects the application shares, and the answers to all the frames of one read go out in one write.
+ * The time the server takes for every order is recorded in a LatencyHistogram.
+ * </p>
+ */
+public class BinaryOrderServer {
+
+    private static final long DEFAULT_LOGIN_TIMEOUT_MILLIS = 10000; // a connection waits this long for its login
+
+    private final ServerSocketChannel serverChannel;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Set<SocketChannel> channels = ConcurrentHashMap.newKeySet();
+    private final LoginPipeline loginPipeline;
+    private final LoginDataAccessInterface loginDataAccess;
+    private final ExecuteBasketDataAccessInterface orderDataAccess;
+    private final PriceFanOut priceFanOut;
+    private final LatencyHistogram orderLatency = new LatencyHistogram();
+    private volatile long loginTimeoutMillis = DEFAULT_LOGIN_TIMEOUT_MILLIS;
+    private volatile boolean running = true;
+
+    /**
+     * Create a server bound to an address, which serves connections once started
+     *
+     * @param address         the address to listen on, port 0 for any free port
+     * @param loginPipeline   the login pipeline the logins run on
+     * @param loginDataAccess the data access of the login use case
+     * @param orderDataAccess the data access the orders are executed on
+     * @param priceFanOut     the fan-out of market prices the quote subscriptions subscribe to
+     * @throws IOException if the address cannot be bound
+     */
+    public BinaryOrderServer(InetSocketAddress address, LoginPipeline loginPipeline,
+                             LoginDataAccessInterface loginDataAccess,
+                             ExecuteBasketDataAccessInterface orderDataAccess, PriceFanOut priceFanOut)
+            throws IOException {
+        this.loginPipeline = loginPipeline;
+        this.loginDataAccess = loginDataAccess;
+        this.orderDataAccess = orderDataAccess;
+        this.priceFanOut = priceFanOut;
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(address, 4096);
+    }
+
+    /**
+     * Start accepting connections
+     */
+    public void start() {
+        executor.execute(this::accept);
+    }
+
+    /**
+     * Stop accepting connections, close the open ones and wait for their threads to finish
+     */
+    public void stop() {
+        running = false;
+        try {
+            serverChannel.close();
+        } catch (IOException e) {
+            // the server is stopping anyway
+        }
+        for (SocketChannel channel : channels) {
+            close(channel);
+        }
+        executor.close();
+    }
+
+    /**
+     * Get the port the server listens on
+     *
+     * @return the port
+     */
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Get the latencies of the executed orders, from decoding an order to encoding its answer
+     *
+     * @return the latency histogram
+     */
+    public LatencyHistogram getOrderLatency() {
+        return orderLatency;
+    }
+
+    /**
+     * Set how long a connection waits for a login on the login pipeline before answering that the server is busy
+     *
+     * @param loginTimeoutMillis the milliseconds to wait
+     */
+    public void setLoginTimeoutMillis(long loginTimeoutMillis) {
+        this.loginTimeoutMillis = loginTimeoutMillis;
+    }
+
+    boolean isRunning() {
+        return running;
+    }
+
+    long getLoginTimeoutMillis() {
+        return loginTimeoutMillis;
+    }
+
+    LoginPipeline getLoginPipeline() {
+        return loginPipeline;
+    }
+
+    LoginDataAccessInterface getLoginDataAccess() {
+        return loginDataAccess;
+    }
+
+    ExecuteBasketDataAccessInterface getOrderDataAccess() {
+        return orderDataAccess;
+    }
+
+    PriceFanOut getPriceFanOut() {
+        return priceFanOut;
+    }
+
+    ExecutorService getExecutor() {
+        return executor;
+    }
+
+    void close(SocketChannel channel) {
+        channels.remove(channel);
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // the connection is gone anyway
+        }
+    }
+
+    private void accept() {
+        while (running) {
+            try {
+                SocketChannel channel = serverChannel.accept();
+                // acks are small, they are sent at once instead of waiting for the client's delayed ACK
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                channels.add(channel);
+                if (!running) {
+                    close(channel);
+                    return;
+                }
+                executor.execute(new BinaryConnection(this, channel));
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                // a failed accept only loses that connection
+            }
+        }
+    }
+}
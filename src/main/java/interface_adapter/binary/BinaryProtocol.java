@@ -0,0 +1,79 @@
+package interface_adapter.binary;
+
+/**
+ * The constants of the binary protocol for bot clients
+ * <p>
+ * Every message is a frame of a 4 byte big-endian length, a 1 byte message type and a body, where the length counts
+ * the type and the body. Bodies have a fixed layout read and written in place by the flyweight of their type,
+ * tickers are 8 ASCII bytes padded with zeros. A client logs in once per connection, its orders then use the
+ * session of the connection and are answered in order, each with an OrderAck and one Fill per executed leg.
+ * </p>
+ */
+public final class BinaryProtocol {
+
+    public static final int LENGTH_BYTES = 4;
+    public static final int HEADER_BYTES = LENGTH_BYTES + 1;
+    public static final int MAX_FRAME_BYTES = 1 << 12;
+    public static final int TICKER_BYTES = 8;
+
+    public static final byte SIDE_BUY = 0;
+    public static final byte SIDE_SELL = 1;
+
+    // the status of a login result
+    public static final byte LOGIN_ACCEPTED = 0;
+    public static final byte LOGIN_REJECTED = 1;
+    public static final byte LOGIN_BUSY = 2;
+
+    // the status of an order ack
+    public static final byte ORDER_ACCEPTED = 0;
+    public static final byte ORDER_NOT_LOGGED_IN = 1;
+    public static final byte ORDER_UNAUTHORIZED = 2;
+    public static final byte ORDER_STOCK_NOT_FOUND = 3;
+    public static final byte ORDER_INSUFFICIENT_BALANCE = 4;
+    public static final byte ORDER_INSUFFICIENT_QUANTITY = 5;
+    public static final byte ORDER_INVALID = 6;
+    public static final byte ORDER_NOT_RECORDED = 7;
+
+    private BinaryProtocol() {
+    }
+
+    /**
+     * Pack a ticker into the 8 bytes of its field
+     *
+     * @param ticker the ticker, at most 8 ASCII characters
+     * @return the packed ticker
+     */
+    public static long packTicker(String ticker) {
+        if (ticker.length() > TICKER_BYTES) {
+            throw new IllegalArgumentException("Ticker " + ticker + " is longer than " + TICKER_BYTES + " bytes.");
+        }
+        long packed = 0;
+        for (int i = 0; i < TICKER_BYTES; i++) {
+            char c = i < ticker.length() ? ticker.charAt(i) : 0;
+            if (c > 0x7f) {
+                throw new IllegalArgumentException("Ticker " + ticker + " is not ASCII.");
+            }
+            packed = packed << 8 | c;
+        }
+        return packed;
+    }
+
+    /**
+     * Unpack a ticker from the 8 bytes of its field
+     *
+     * @param packed the packed ticker
+     * @return the ticker
+     */
+    public static String unpackTicker(long packed) {
+        char[] chars = new char[TICKER_BYTES];
+        int length = 0;
+        for (int i = 0; i < TICKER_BYTES; i++) {
+            char c = (char) (packed >>> (8 * (TICKER_BYTES - 1 - i)) & 0xff);
+            if (c == 0) {
+                break;
+            }
+            chars[length++] = c;
+        }
+        return new String(chars, 0, length);
+    }
+}
@@ -0,0 +1,88 @@
+package interface_adapter.binary;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A fill of an executed order: its client order id, side, quantity, price and ticker, and the user's balance after
+ * the order
+ */
+public final class FillMessage extends MessageFlyweight {
+
+    public static final byte TYPE = 103;
+    public static final int BODY_LENGTH = 37;
+    public static final int FRAME_LENGTH = BinaryProtocol.HEADER_BYTES + BODY_LENGTH;
+
+    private static final int CLIENT_ORDER_ID = 0;
+    private static final int SIDE = 8;
+    private static final int QUANTITY = 9;
+    private static final int PRICE = 13;
+    private static final int BALANCE = 21;
+    private static final int TICKER = 29;
+
+    private final TickerCache tickers = new TickerCache();
+
+    /**
+     * Start a new fill at the buffer's position
+     *
+     * @param buffer the buffer with room for FRAME_LENGTH bytes
+     * @return this flyweight, to set the fields
+     */
+    public FillMessage encode(ByteBuffer buffer) {
+        wrapForEncode(buffer, TYPE, BODY_LENGTH);
+        return this;
+    }
+
+    public long clientOrderId() {
+        return buffer.getLong(body + CLIENT_ORDER_ID);
+    }
+
+    public FillMessage clientOrderId(long clientOrderId) {
+        buffer.putLong(body + CLIENT_ORDER_ID, clientOrderId);
+        return this;
+    }
+
+    public byte side() {
+        return buffer.get(body + SIDE);
+    }
+
+    public FillMessage side(byte side) {
+        buffer.put(body + SIDE, side);
+        return this;
+    }
+
+    public int quantity() {
+        return buffer.getInt(body + QUANTITY);
+    }
+
+    public FillMessage quantity(int quantity) {
+        buffer.putInt(body + QUANTITY, quantity);
+        return this;
+    }
+
+    public double price() {
+        return buffer.getDouble(body + PRICE);
+    }
+
+    public FillMessage price(double price) {
+        buffer.putDouble(body + PRICE, price);
+        return this;
+    }
+
+    public double balance() {
+        return buffer.getDouble(body + BALANCE);
+    }
+
+    public FillMessage balance(double balance) {
+        buffer.putDouble(body + BALANCE, balance);
+        return this;
+    }
+
+    public String ticker() {
+        return tickers.get(buffer.getLong(body + TICKER));
+    }
+
+    public FillMessage ticker(long packedTicker) {
+        buffer.putLong(body + TICKER, packedTicker);
+        return this;
+    }
+}
@@ -0,0 +1,65 @@
+package interface_adapter.binary;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A login of a client: its username and password, each a 2 byte length and UTF-8 bytes
+ */
+public final class LoginMessage extends MessageFlyweight {
+
+    public static final byte TYPE = 1;
+
+    /**
+     * Write a login at the buffer's position
+     *
+     * @param buffer   the buffer to write into
+     * @param username the username
+     * @param password the password
+     * @return this flyweight
+     */
+    public LoginMessage encode(ByteBuffer buffer, String username, String password) {
+        byte[] usernameBytes = username.getBytes(StandardCharsets.UTF_8);
+        byte[] passwordBytes = password.getBytes(StandardCharsets.UTF_8);
+        wrapForEncode(buffer, TYPE, 4 + usernameBytes.length + passwordBytes.length);
+        buffer.putShort(body, (short) usernameBytes.length);
+        buffer.put(body + 2, usernameBytes);
+        int passwordOffset = body + 2 + usernameBytes.length;
+        buffer.putShort(passwordOffset, (short) passwordBytes.length);
+        buffer.put(passwordOffset + 2, passwordBytes);
+        return this;
+    }
+
+    /**
+     * Check the lengths of the fields against the length of the received body
+     *
+     * @param bodyLength the length of the body
+     * @return true if both fields are within the body
+     */
+    public boolean fits(int bodyLength) {
+        if (bodyLength < 4) {
+            return false;
+        }
+        int usernameLength = buffer.getShort(body) & 0xffff;
+        return 4 + usernameLength <= bodyLength
+                && 4 + usernameLength + (buffer.getShort(passwordOffset()) & 0xffff) == bodyLength;
+    }
+
+    public String username() {
+        return string(body);
+    }
+
+    public String password() {
+        return string(passwordOffset());
+    }
+
+    private int passwordOffset() {
+        return body + 2 + (buffer.getShort(body) & 0xffff);
+    }
+
+    private String string(int offset) {
+        byte[] bytes = new byte[buffer.getShort(offset) & 0xffff];
+        buffer.get(offset + 2, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,45 @@
+package interface_adapter.binary;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The answer to a login: whether it was accepted, see the LOGIN_ statuses of BinaryProtocol, and the user's balance
+ */
+public final class LoginResultMessage extends MessageFlyweight {
+
+    public static final byte TYPE = 101;
+    public static final int BODY_LENGTH = 9;
+    public static final int FRAME_LENGTH = BinaryProtocol.HEADER_BYTES + BODY_LENGTH;
+
+    private static final int STATUS = 0;
+    private static final int BALANCE = 1;
+
+    /**
+     * Start a new login result at the buffer's position
+     *
+     * @param buffer the buffer with room for FRAME_LENGTH bytes
+     * @return this flyweight, to set the fields
+     */
+    public LoginResultMessage encode(ByteBuffer buffer) {
+        wrapForEncode(buffer, TYPE, BODY_LENGTH);
+        return this;
+    }
+
+    public byte status() {
+        return buffer.get(body + STATUS);
+    }
+
+    public LoginResultMessage status(byte status) {
+        buffer.put(body + STATUS, status);
+        return this;
+    }
+
+    public double balance() {
+        return buffer.getDouble(body + BALANCE);
+    }
+
+    public LoginResultMessage balance(double balance) {
+        buffer.putDouble(body + BALANCE, balance);
+        return this;
+    }
+}
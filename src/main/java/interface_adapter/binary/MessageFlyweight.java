@@ -0,0 +1,45 @@
+package interface_adapter.binary;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The base of the flyweights of the binary protocol, which read and write the fields of one message in place in a
+ * buffer instead of copying them into objects
+ * <p>
+ * A flyweight is reused for every message of its type: wrap points it at a received message, and encode writes the
+ * frame header of a new message at the buffer's position and moves the position past it, leaving the fields to the
+ * setters. A flyweight is not thread-safe.
+ * </p>
+ */
+public abstract class MessageFlyweight {
+
+    protected ByteBuffer buffer;
+    protected int body;
+
+    /**
+     * Point the flyweight at a received message
+     *
+     * @param buffer     the buffer holding the message
+     * @param bodyOffset the index of the message body in the buffer, after its frame header
+     */
+    public void wrap(ByteBuffer buffer, int bodyOffset) {
+        this.buffer = buffer;
+        this.body = bodyOffset;
+    }
+
+    /**
+     * Write the frame header of a new message at the buffer's position and move the position past its body
+     *
+     * @param buffer     the buffer to write into
+     * @param type       the message type
+     * @param bodyLength the length of the body
+     */
+    protected void wrapForEncode(ByteBuffer buffer, byte type, int bodyLength) {
+        int start = buffer.position();
+        buffer.putInt(start, 1 + bodyLength);
+        buffer.put(start + BinaryProtocol.LENGTH_BYTES, type);
+        this.buffer = buffer;
+        this.body = start + BinaryProtocol.HEADER_BYTES;
+        buffer.position(body + bodyLength);
+    }
+}
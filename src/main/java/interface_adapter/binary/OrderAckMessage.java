@@ -0,0 +1,46 @@
+package interface_adapter.binary;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The answer to an order: its client order id and whether it was executed, see the ORDER_ statuses of
+ * BinaryProtocol. The fills of an executed order follow its ack.
+ */
+public final class OrderAckMessage extends MessageFlyweight {
+
+    public static final byte TYPE = 102;
+    public static final int BODY_LENGTH = 9;
+    public static final int FRAME_LENGTH = BinaryProtocol.HEADER_BYTES + BODY_LENGTH;
+
+    private static final int CLIENT_ORDER_ID = 0;
+    private static final int STATUS = 8;
+
+    /**
+     * Start a new order ack at the buffer's position
+     *
+     * @param buffer the buffer with room for FRAME_LENGTH bytes
+     * @return this flyweight, to set the fields
+     */
+    public OrderAckMessage encode(ByteBuffer buffer) {
+        wrapForEncode(buffer, TYPE, BODY_LENGTH);
+        return this;
+    }
+
+    public long clientOrderId() {
+        return buffer.getLong(body + CLIENT_ORDER_ID);
+    }
+
+    public OrderAckMessage clientOrderId(long clientOrderId) {
+        buffer.putLong(body + CLIENT_ORDER_ID, clientOrderId);
+        return this;
+    }
+
+    public byte status() {
+        return buffer.get(body + STATUS);
+    }
+
+    public OrderAckMessage status(byte status) {
+        buffer.put(body + STATUS, status);
+        return this;
+    }
+}
@@ -0,0 +1,67 @@
+package interface_adapter.binary;
+
+import java.nio.ByteBuffer;
+
+/**
+ * An order of a client: a client order id, a side, a quantity and a ticker
+ */
+public final class OrderMessage extends MessageFlyweight {
+
+    public static final byte TYPE = 2;
+    public static final int BODY_LENGTH = 21;
+    public static final int FRAME_LENGTH = BinaryProtocol.HEADER_BYTES + BODY_LENGTH;
+
+    private static final int CLIENT_ORDER_ID = 0;
+    private static final int SIDE = 8;
+    private static final int QUANTITY = 9;
+    private static final int TICKER = 13;
+
+    private final TickerCache tickers = new TickerCache();
+
+    /**
+     * Start a new order at the buffer's position
+     *
+     * @param buffer the buffer with room for FRAME_LENGTH bytes
+     * @return this flyweight, to set the fields
+     */
+    public OrderMessage encode(ByteBuffer buffer) {
+        wrapForEncode(buffer, TYPE, BODY_LENGTH);
+        return this;
+    }
+
+    public long clientOrderId() {
+        return buffer.getLong(body + CLIENT_ORDER_ID);
+    }
+
+    public OrderMessage clientOrderId(long clientOrderId) {
+        buffer.putLong(body + CLIENT_ORDER_ID, clientOrderId);
+        return this;
+    }
+
+    public byte side() {
+        return buffer.get(body + SIDE);
+    }
+
+    public OrderMessage side(byte side) {
+        buffer.put(body + SIDE, side);
+        return this;
+    }
+
+    public int quantity() {
+        return buffer.getInt(body + QUANTITY);
+    }
+
+    public OrderMessage quantity(int quantity) {
+        buffer.putInt(body + QUANTITY, quantity);
+        return this;
+    }
+
+    public String ticker() {
+        return tickers.get(buffer.getLong(body + TICKER));
+    }
+
+    public OrderMessage ticker(long packedTicker) {
+        buffer.putLong(body + TICKER, packedTicker);
+        return this;
+    }
+}
@@ -0,0 +1,47 @@
+package interface_adapter.binary;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The latest price of a ticker the client subscribed to
+ */
+public final class QuoteMessage extends MessageFlyweight {
+
+    public static final byte TYPE = 104;
+    public static final int BODY_LENGTH = 16;
+    public static final int FRAME_LENGTH = BinaryProtocol.HEADER_BYTES + BODY_LENGTH;
+
+    private static final int TICKER = 0;
+    private static final int PRICE = 8;
+
+    private final TickerCache tickers = new TickerCache();
+
+    /**
+     * Start a new quote at the buffer's position
+     *
+     * @param buffer the buffer with room for FRAME_LENGTH bytes
+     * @return this flyweight, to set the fields
+     */
+    public QuoteMessage encode(ByteBuffer buffer) {
+        wrapForEncode(buffer, TYPE, BODY_LENGTH);
+        return this;
+    }
+
+    public String ticker() {
+        return tickers.get(buffer.getLong(body + TICKER));
+    }
+
+    public QuoteMessage ticker(long packedTicker) {
+        buffer.putLong(body + TICKER, packedTicker);
+        return this;
+    }
+
+    public double price() {
+        return buffer.getDouble(body + PRICE);
+    }
+
+    public QuoteMessage price(double price) {
+        buffer.putDouble(body + PRICE, price);
+        return this;
+    }
+}
@@ -0,0 +1,60 @@
+package interface_adapter.binary;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * A subscription of a client to the quotes of some tickers: how often it wants them, and the tickers, which replace
+ * those of an earlier subscription on the connection
+ */
+public final class SubscribeMessage extends MessageFlyweight {
+
+    public static final byte TYPE = 3;
+
+    private static final int INTERVAL_MILLIS = 0;
+    private static final int TICKER_COUNT = 4;
+    private static final int TICKERS = 6;
+
+    private final TickerCache tickers = new TickerCache();
+
+    /**
+     * Write a subscription at the buffer's position
+     *
+     * @param buffer         the buffer to write into
+     * @param intervalMillis how often the client wants its quotes
+     * @param tickers        the tickers
+     * @return this flyweight
+     */
+    public SubscribeMessage encode(ByteBuffer buffer, int intervalMillis, List<String> tickers) {
+        wrapForEncode(buffer, TYPE, TICKERS + tickers.size() * BinaryProtocol.TICKER_BYTES);
+        buffer.putInt(body + INTERVAL_MILLIS, intervalMillis);
+        buffer.putShort(body + TICKER_COUNT, (short) tickers.size());
+        for (int i = 0; i < tickers.size(); i++) {
+            buffer.putLong(body + TICKERS + i * BinaryProtocol.TICKER_BYTES,
+                    BinaryProtocol.packTicker(tickers.get(i)));
+        }
+        return this;
+    }
+
+    /**
+     * Check the number of tickers against the length of the received body
+     *
+     * @param bodyLength the length of the body
+     * @return true if every ticker is within the body
+     */
+    public boolean fits(int bodyLength) {
+        return bodyLength >= TICKERS && TICKERS + tickerCount() * BinaryProtocol.TICKER_BYTES == bodyLength;
+    }
+
+    public int intervalMillis() {
+        return buffer.getInt(body + INTERVAL_MILLIS);
+    }
+
+    public int tickerCount() {
+        return buffer.getShort(body + TICKER_COUNT) & 0xffff;
+    }
+
+    public String ticker(int index) {
+        return tickers.get(buffer.getLong(body + TICKERS + index * BinaryProtocol.TICKER_BYTES));
+    }
+}
@@ -0,0 +1,25 @@
+package interface_adapter.binary;
+
+/**
+ * A small cache of unpacked tickers, so decoding the ticker of a message does not allocate a string every time.
+ * Not thread-safe, every flyweight has its own.
+ */
+final class TickerCache {
+
+    private static final int SIZE = 256; // a power of two
+
+    private final long[] packed = new long[SIZE];
+    private final String[] tickers = new String[SIZE];
+
+    String get(long packedTicker) {
+        int slot = Long.hashCode(packedTicker * 0x9E3779B97F4A7C15L) & (SIZE - 1);
+        String ticker = tickers[slot];
+        if (ticker == null || packed[slot] != packedTicker) {
+            // a colliding ticker replaces the cached one
+            ticker = BinaryProtocol.unpackTicker(packedTicker);
+            packed[slot] = packedTicker;
+            tickers[slot] = ticker;
+        }
+        return ticker;
+    }
+}
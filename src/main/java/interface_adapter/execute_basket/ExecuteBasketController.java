@@ -0,0 +1,45 @@
+package interface_adapter.execute_basket;
+
+import entity.LotReliefMethod;
+import use_case.execute_basket.BasketOrderLeg;
+import use_case.execute_basket.ExecuteBasketInputBoundary;
+import use_case.execute_basket.ExecuteBasketInputData;
+import utility.ClientSessionManager;
+
+import java.util.List;
+
+/**
+ * Controller for the ExecuteBasket Use Case.
+ */
+public class ExecuteBasketController {
+
+    private final ExecuteBasketInputBoundary interactor;
+
+    public ExecuteBasketController(ExecuteBasketInputBoundary interactor) {
+        this.interactor = interactor;
+    }
+
+    /**
+     * Executes the ExecuteBasket Use Case.
+     *
+     * @param legs the legs of the basket order
+     */
+    public void execute(List<BasketOrderLeg> legs) {
+        execute(legs, LotReliefMethod.FIFO);
+    }
+
+    /**
+     * Executes the ExecuteBasket Use Case, relieving tax lots in the given order.
+     *
+     * @param legs         the legs of the basket order
+     * @param reliefMethod the order the lots are relieved in by the sell legs
+     */
+    public void execute(List<BasketOrderLeg> legs, LotReliefMethod reliefMethod) {
+        final ExecuteBasketInputData data = new ExecuteBasketInputData(
+                ClientSessionManager.Instance().getCredential(),
+                List.copyOf(legs),
+                reliefMethod);
+
+        interactor.execute(data);
+    }
+}
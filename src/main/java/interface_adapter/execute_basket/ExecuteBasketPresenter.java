@@ -0,0 +1,59 @@
+package interface_adapter.execute_basket;
+
+import use_case.execute_basket.ExecuteBasketOutputBoundary;
+import use_case.execute_basket.ExecuteBasketOutputData;
+import utility.ViewManager;
+import view.view_events.DialogEvent;
+import view.view_events.UpdateAssetEvent;
+
+/**
+ * Presenter for the ExecuteBasket Use Case
+ */
+public class ExecuteBasketPresenter implements ExecuteBasketOutputBoundary {
+
+    /**
+     * Prepares the success view of the ExecuteBasket use case.
+     * The whole basket is reported with a single asset update regardless of the number of legs.
+     *
+     * @param outputData the required display output data
+     */
+    @Override
+    public void prepareSuccessView(ExecuteBasketOutputData outputData) {
+        ViewManager.Instance().broadcastEvent(
+                new UpdateAssetEvent(
+                        outputData.newPortfolio(),
+                        outputData.newBalance()
+                )
+        );
+    }
+
+    @Override
+    public void prepareInsufficientBalanceExceptionView() {
+        ViewManager.Instance().broadcastEvent(new DialogEvent("Failed", "You have insufficient balance to execute this basket."));
+    }
+
+    @Override
+    public void prepareInsufficientQuantityExceptionView() {
+        ViewManager.Instance().broadcastEvent(new DialogEvent("Failed", "You do not own enough shares to sell in this basket."));
+    }
+
+    @Override
+    public void prepareStockNotFoundExceptionView() {
+        ViewManager.Instance().broadcastEvent(new DialogEvent("Failed", "A stock in this basket does not exist."));
+    }
+
+    @Override
+    public void prepareInvalidBasketExceptionView() {
+        ViewManager.Instance().broadcastEvent(new DialogEvent("Failed", "The basket is empty or contains an invalid order."));
+    }
+
+    @Override
+    public void prepareValidationExceptionView() {
+        ViewManager.Instance().broadcastEvent(new DialogEvent("Failed", "You are not authorized to do this."));
+    }
+
+    @Override
+    public void prepareStorageExceptionView() {
+        ViewManager.Instance().broadcastEvent(new DialogEvent("Failed", "The basket could not be saved, no order was filled."));
+    }
+}
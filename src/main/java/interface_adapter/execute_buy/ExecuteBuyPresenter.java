@@ -33,4 +33,9 @@ public class ExecuteBuyPresenter implements ExecuteBuyOutputBoundary {
     public void prepareValidationExceptionView() {
         ViewManager.Instance().broadcastEvent(new DialogEvent("Failed", "You are not authorized to do this."));
     }
+
+    @Override
+    public void prepareStorageExceptionView() {
+        ViewManager.Instance().broadcastEvent(new DialogEvent("Failed", "Your order could not be saved, nothing was bought."));
+    }
 }
@@ -0,0 +1,54 @@
+package interface_adapter.execute_buy;
+
+import entity.UserStock;
+import interface_adapter.http.JsonResponseWriter;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import use_case.execute_buy.ExecuteBuyOutputBoundary;
+import use_case.execute_buy.ExecuteBuyOutputData;
+
+import java.net.HttpURLConnection;
+
+/**
+ * Writes the result of a buy order as the JSON response of an HTTP request, with the new balance and positions
+ */
+public class ExecuteBuyResponseWriter extends JsonResponseWriter implements ExecuteBuyOutputBoundary {
+
+    // an unprocessable order, well formed but not possible for the user
+    private static final int HTTP_UNPROCESSABLE = 422;
+
+    @Override
+    public void prepareSuccessView(ExecuteBuyOutputData outputData) {
+        JSONArray positions = new JSONArray();
+        for (UserStock userStock : outputData.newPortfolio().getAllStocks()) {
+            positions.put(new JSONObject()
+                    .put("ticker", userStock.getStock().getTicker())
+                    .put("quantity", userStock.getQuantity())
+                    .put("cost", userStock.getCost())
+                    .put("marketPrice", userStock.getMarketPrice()));
+        }
+        write(HttpURLConnection.HTTP_OK, new JSONObject()
+                .put("balance", outputData.newBalance())
+                .put("positions", positions));
+    }
+
+    @Override
+    public void prepareInsufficientBalanceExceptionView() {
+        writeError(HTTP_UNPROCESSABLE, "You have insufficient balance to buy this stock.");
+    }
+
+    @Override
+    public void prepareStockNotFoundExceptionView() {
+        writeError(HttpURLConnection.HTTP_NOT_FOUND, "The stock you are trying to buy does not exist.");
+    }
+
+    @Override
+    public void prepareValidationExceptionView() {
+        writeError(HttpURLConnection.HTTP_UNAUTHORIZED, "You are not authorized to do this.");
+    }
+
+    @Override
+    public void prepareStorageExceptionView() {
+        writeError(HttpURLConnection.HTTP_UNAVAILABLE, "Your order could not be saved, nothing was bought.");
+    }
+}
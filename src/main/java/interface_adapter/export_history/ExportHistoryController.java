@@ -0,0 +1,35 @@
+package interface_adapter.export_history;
+
+import entity.TransactionFileFormat;
+import use_case.export_history.ExportHistoryInputBoundary;
+import use_case.export_history.ExportHistoryInputData;
+import utility.ClientSessionManager;
+
+import java.nio.file.Path;
+
+/**
+ * Controller for the ExportHistory Use Case.
+ */
+public class ExportHistoryController {
+
+    private final ExportHistoryInputBoundary interactor;
+
+    public ExportHistoryController(ExportHistoryInputBoundary interactor) {
+        this.interactor = interactor;
+    }
+
+    /**
+     * Executes the ExportHistory Use Case.
+     *
+     * @param file   the file to export to
+     * @param format the format of the file
+     */
+    public void execute(Path file, TransactionFileFormat format) {
+        final ExportHistoryInputData data = new ExportHistoryInputData(
+                ClientSessionManager.Instance().getCredential(),
+                file,
+                format);
+
+        interactor.execute(data);
+    }
+}
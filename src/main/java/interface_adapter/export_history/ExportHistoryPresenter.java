@@ -0,0 +1,33 @@
+package interface_adapter.export_history;
+
+import use_case.export_history.ExportHistoryOutputBoundary;
+import use_case.export_history.ExportHistoryOutputData;
+import utility.ViewManager;
+import view.view_events.DialogEvent;
+
+/**
+ * Presenter for the ExportHistory Use Case
+ */
+public class ExportHistoryPresenter implements ExportHistoryOutputBoundary {
+
+    /**
+     * Prepares the success view of the ExportHistory use case
+     *
+     * @param outputData the required display output data
+     */
+    @Override
+    public void prepareSuccessView(ExportHistoryOutputData outputData) {
+        ViewManager.Instance().broadcastEvent(new DialogEvent("Success",
+                "Exported " + outputData.transactionCount() + " transactions to " + outputData.file() + "."));
+    }
+
+    @Override
+    public void prepareStorageExceptionView() {
+        ViewManager.Instance().broadcastEvent(new DialogEvent("Failed", "The transaction history could not be written."));
+    }
+
+    @Override
+    public void prepareValidationExceptionView() {
+        ViewManager.Instance().broadcastEvent(new DialogEvent("Failed", "You are not authorized to do this."));
+    }
+}
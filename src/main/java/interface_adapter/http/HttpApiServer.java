@@ -0,0 +1,323 @@
+package interface_adapter.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import entity.Stock;
+import entity.StockMarket;
+import entity.TransactionPage;
+import interface_adapter.execute_buy.ExecuteBuyResponseWriter;
+import interface_adapter.login.LoginResponseWriter;
+import interface_adapter.market_update.PriceFanOut;
+import interface_adapter.market_update.PriceSubscription;
+import interface_adapter.view_history.ViewHistoryResponseWriter;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import use_case.execute_buy.ExecuteBuyDataAccessInterface;
+import use_case.execute_buy.ExecuteBuyInputData;
+import use_case.execute_buy.ExecuteBuyInteractor;
+import use_case.login.LoginDataAccessInterface;
+import use_case.login.LoginInputData;
+import use_case.login.LoginInteractor;
+import use_case.login.LoginPipeline;
+import use_case.view_history.ViewHistoryDataAccessInterface;
+import use_case.view_history.ViewHistoryInputData;
+import use_case.view_history.ViewHistoryInteractor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A headless server exposing the use cases over an HTTP/JSON API, for many clients at once
+ * <p>
+ * Every request runs on its own virtual thread, so thousands of clients waiting on logins or slow connections take
+ * no platform threads. A request gets its own interactor with a response writer as its output boundary, over the
+ * data access objects the application shares, and logins go through the application's login pipeline.
+ * </p>
+ * <ul>
+ *     <li>POST /api/login with {"username", "password"} returns the credential of a new session</li>
+ *     <li>POST /api/buy with {"ticker", "quantity"} buys a stock</li>
+ *     <li>GET /api/history?pageSize=&amp;before=&amp;after=&amp;newestFirst=&amp;ticker=&amp;from=&amp;to= returns a page
+ *     of the transaction history</li>
+ *     <li>GET /api/market returns the stocks of the market</li>
+ *     <li>GET /api/prices?tickers=AAPL,MSFT&amp;intervalMillis= streams the latest prices of the tickers as server-sent
+ *     events, at most one event per interval with only the prices that changed</li>
+ * </ul>
+ * <p>
+ * Buy and history requests pass the credential in an "Authorization: Bearer" header.
+ * </p>
+ * <p>
+ * The JDK server reads sun.net.httpserver.nodelay once, when its first server is created, so the property is set by
+ * ServerMain before building the server, or as -Dsun.net.httpserver.nodelay=true on the command line.
+ * </p>
+ */
+public class HttpApiServer {
+
+    private static final int BACKLOG = 4096; // connections the operating system queues before accepting them
+    private static final int MAX_BODY_BYTES = 1 << 16;
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final String BEARER = "Bearer ";
+    private static final long DEFAULT_PRICE_INTERVAL_MILLIS = 1000;
+    private static final long HEARTBEAT_MILLIS = 15000; // a comment on idle streams, so dead clients are noticed
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final LoginPipeline loginPipeline;
+    private final LoginDataAccessInterface loginDataAccess;
+    private final ExecuteBuyDataAccessInterface buyDataAccess;
+    private final ViewHistoryDataAccessInterface viewHistoryDataAccess;
+    private final PriceFanOut priceFanOut;
+    private volatile boolean running = true;
+
+    /**
+     * Create a server bound to an address, which serves requests once started
+     *
+     * @param address               the address to listen on, port 0 for any free port
+     * @param loginPipeline         the login pipeline the logins run on
+     * @param loginDataAccess       the data access of the login use case
+     * @param buyDataAccess         the data access of the buy use case
+     * @param viewHistoryDataAccess the data access of the view history use case
+     * @param priceFanOut           the fan-out of market prices the price streams subscribe to
+     * @throws IOException if the address cannot be bound
+     */
+    public HttpApiServer(InetSocketAddress address, LoginPipeline loginPipeline,
+                         LoginDataAccessInterface loginDataAccess, ExecuteBuyDataAccessInterface buyDataAccess,
+                         ViewHistoryDataAccessInterface viewHistoryDataAccess, PriceFanOut priceFanOut)
+            throws IOException {
+        this.loginPipeline = loginPipeline;
+        this.loginDataAccess = loginDataAccess;
+        this.buyDataAccess = buyDataAccess;
+        this.viewHistoryDataAccess = viewHistoryDataAccess;
+        this.priceFanOut = priceFanOut;
+        server = HttpServer.create(address, BACKLOG);
+        server.setExecutor(executor);
+        server.createContext("/api/login", exchange -> handle(exchange, "POST", this::login));
+        server.createContext("/api/buy", exchange -> handle(exchange, "POST", this::buy));
+        server.createContext("/api/history", exchange -> handle(exchange, "GET", this::viewHistory));
+        server.createContext("/api/market", exchange -> handle(exchange, "GET", this::market));
+        server.createContext("/api/prices", this::streamPrices);
+    }
+
+    /**
+     * Start serving requests
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stop accepting requests and end the price streams, and wait up to the given delay for the requests being served
+     *
+     * @param delaySeconds the seconds to wait for the requests being served
+     */
+    public void stop(int delaySeconds) {
+        running = false;
+        server.stop(delaySeconds);
+        executor.close();
+    }
+
+    /**
+     * Get the port the server listens on
+     *
+     * @return the port
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private JsonResponseWriter.Response login(HttpExchange exchange) throws IOException {
+        JSONObject body = readBody(exchange);
+        LoginResponseWriter writer = new LoginResponseWriter();
+        loginPipeline.execute(new LoginInputData(body.getString("username"), body.getString("password")),
+                new LoginInteractor(loginDataAccess, writer), writer);
+        return writer.await();
+    }
+
+    private JsonResponseWriter.Response buy(HttpExchange exchange) throws IOException {
+        JSONObject body = readBody(exchange);
+        ExecuteBuyResponseWriter writer = new ExecuteBuyResponseWriter();
+        new ExecuteBuyInteractor(buyDataAccess, writer).execute(new ExecuteBuyInputData(
+                credential(exchange), body.getString("ticker"), body.getInt("quantity")));
+        return writer.await();
+    }
+
+    private JsonResponseWriter.Response viewHistory(HttpExchange exchange) {
+        Map<String, String> query = readQuery(exchange);
+        int pageSize = Math.min(MAX_PAGE_SIZE, Integer.parseInt(query.getOrDefault("pageSize",
+                String.valueOf(DEFAULT_PAGE_SIZE))));
+        ViewHistoryResponseWriter writer = new ViewHistoryResponseWriter();
+        // the whole history of a user can be large, so a request always gets one page
+        new ViewHistoryInteractor(viewHistoryDataAccess, writer).execute(new ViewHistoryInputData(
+                credential(exchange),
+                Math.max(1, pageSize),
+                Integer.parseInt(query.getOrDefault("before", String.valueOf(TransactionPage.NO_CURSOR))),
+                Integer.parseInt(query.getOrDefault("after", String.valueOf(TransactionPage.NO_CURSOR))),
+                Boolean.parseBoolean(query.getOrDefault("newestFirst", "true")),
+                query.get("ticker"),
+                Long.parseLong(query.getOrDefault("from", String.valueOf(Long.MIN_VALUE))),
+                Long.parseLong(query.getOrDefault("to", String.valueOf(Long.MAX_VALUE)))));
+        return writer.await();
+    }
+
+    private JsonResponseWriter.Response market(HttpExchange exchange) {
+        JSONArray stocks = new JSONArray();
+        for (Stock stock : StockMarket.Instance().getStocks()) {
+            stocks.put(new JSONObject()
+                    .put("ticker", stock.getTicker())
+                    .put("company", stock.getCompany())
+                    .put("industry", stock.getIndustry())
+                    .put("price", stock.getPrice()));
+        }
+        return new JsonResponseWriter.Response(HttpURLConnection.HTTP_OK,
+                new JSONObject().put("stocks", stocks).toString());
+    }
+
+    // answer a request with the response of its route, or with an error if the request is malformed or fails
+    private void handle(HttpExchange exchange, String method, Route route) throws IOException {
+        try (exchange) {
+            JsonResponseWriter.Response response;
+            if (!exchange.getRequestMethod().equals(method)) {
+                response = error(HttpURLConnection.HTTP_BAD_METHOD, "Use " + method + " for this path.");
+            } else {
+                try {
+                    response = route.respond(exchange);
+                } catch (JSONException | IllegalArgumentException e) {
+                    // a missing or malformed field, NumberFormatException is an IllegalArgumentException
+                    response = error(HttpURLConnection.HTTP_BAD_REQUEST, e.getMessage());
+                } catch (RuntimeException e) {
+                    // a failure of the server, e.g. a user that cannot be read, still gets a response
+                    e.printStackTrace();
+                    response = error(HttpURLConnection.HTTP_INTERNAL_ERROR, "The request failed.");
+                }
+            }
+            send(exchange, response);
+        }
+    }
+
+    // stream the prices of a subscription as server-sent events until the client disconnects or the server stops
+    private void streamPrices(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!exchange.getRequestMethod().equals("GET")) {
+                send(exchange, error(HttpURLConnection.HTTP_BAD_METHOD, "Use GET for this path."));
+                return;
+            }
+            Map<String, String> query = readQuery(exchange);
+            List<String> tickers = new ArrayList<>();
+            for (String ticker : query.getOrDefault("tickers", "").split(",")) {
+                if (!ticker.isBlank()) {
+                    tickers.add(ticker.trim());
+                }
+            }
+            long intervalMillis;
+            try {
+                intervalMillis = Long.parseLong(query.getOrDefault("intervalMillis",
+                        String.valueOf(DEFAULT_PRICE_INTERVAL_MILLIS)));
+            } catch (NumberFormatException e) {
+                send(exchange, error(HttpURLConnection.HTTP_BAD_REQUEST, e.getMessage()));
+                return;
+            }
+            if (tickers.isEmpty()) {
+                send(exchange, error(HttpURLConnection.HTTP_BAD_REQUEST, "Name the tickers to stream."));
+                return;
+            }
+
+            PriceSubscription subscription = priceFanOut.subscribe(tickers, intervalMillis);
+            try {
+                exchange.getResponseHeaders().set("Content-Type", "text/event-stream; charset=utf-8");
+                exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+                exchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, 0);
+                OutputStream out = exchange.getResponseBody();
+                long idleMillis = 0;
+                // the first drain sends the current prices of the tickers
+                while (running && subscription.isOpen()) {
+                    Map<String, Double> prices = subscription.drain();
+                    if (!prices.isEmpty()) {
+                        out.write(("event: prices\ndata: " + new JSONObject(prices) + "\n\n")
+                                .getBytes(StandardCharsets.UTF_8));
+                        out.flush();
+                        idleMillis = 0;
+                    } else if ((idleMillis += subscription.getFlushIntervalMillis()) >= HEARTBEAT_MILLIS) {
+                        out.write(": keep-alive\n\n".getBytes(StandardCharsets.UTF_8));
+                        out.flush();
+                        idleMillis = 0;
+                    }
+                    // the virtual thread sleeps between flushes, a slow client only delays its own stream
+                    Thread.sleep(subscription.getFlushIntervalMillis());
+                }
+            } catch (IOException e) {
+                // the client disconnected
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                priceFanOut.unsubscribe(subscription);
+            }
+        }
+    }
+
+    private static void send(HttpExchange exchange, JsonResponseWriter.Response response) throws IOException {
+        byte[] body = response.body().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(response.status(), body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static JsonResponseWriter.Response error(int status, String message) {
+        return new JsonResponseWriter.Response(status, new JSONObject().put("error", message).toString());
+    }
+
+    private static JSONObject readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] body = in.readNBytes(MAX_BODY_BYTES + 1);
+            if (body.length > MAX_BODY_BYTES) {
+                throw new IllegalArgumentException("The request body is too large.");
+            }
+            return new JSONObject(new String(body, StandardCharsets.UTF_8));
+        }
+    }
+
+    private static Map<String, String> readQuery(HttpExchange exchange) {
+        Map<String, String> query = new HashMap<>();
+        String raw = exchange.getRequestURI().getRawQuery();
+        if (raw == null) {
+            return query;
+        }
+        for (String parameter : raw.split("&")) {
+            int separator = parameter.indexOf('=');
+            if (separator > 0) {
+                query.put(URLDecoder.decode(parameter.substring(0, separator), StandardCharsets.UTF_8),
+                        URLDecoder.decode(parameter.substring(separator + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return query;
+    }
+
+    // the credential of the Authorization header, or an empty one the interactors reject as not valid
+    private static String credential(HttpExchange exchange) {
+        String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+        if (authorization == null || !authorization.startsWith(BEARER)) {
+            return "";
+        }
+        return authorization.substring(BEARER.length()).trim();
+    }
+
+    /**
+     * The handler of one path, returning the response to send
+     */
+    private interface Route {
+        JsonResponseWriter.Response respond(HttpExchange exchange) throws IOException;
+    }
+}
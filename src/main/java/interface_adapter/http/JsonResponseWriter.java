@@ -0,0 +1,83 @@
+package interface_adapter.http;
+
+import org.json.JSONObject;
+
+import java.net.HttpURLConnection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * The base of the output boundaries of one HTTP request, which write the JSON response of the request instead of
+ * broadcasting view events
+ * <p>
+ * An interactor can present its result on another thread, like a login on the login pipeline, so the request's
+ * thread waits for the response with await, for at most a timeout.
+ * </p>
+ */
+public abstract class JsonResponseWriter {
+
+    /**
+     * The milliseconds await waits for the response by default
+     */
+    public static final long DEFAULT_TIMEOUT_MILLIS = 30000;
+
+    private final CompletableFuture<Response> response = new CompletableFuture<>();
+
+    /**
+     * Write the response, a later response of the same request is ignored
+     *
+     * @param status the HTTP status code
+     * @param body   the JSON body
+     */
+    protected void write(int status, JSONObject body) {
+        response.complete(new Response(status, body.toString()));
+    }
+
+    /**
+     * Write an error response with a message for the client
+     *
+     * @param status  the HTTP status code
+     * @param message the error message
+     */
+    protected void writeError(int status, String message) {
+        write(status, new JSONObject().put("error", message));
+    }
+
+    /**
+     * Wait for the response of the interactor for at most DEFAULT_TIMEOUT_MILLIS
+     *
+     * @return the response, or a 503 error if the interactor did not respond in time
+     */
+    public Response await() {
+        return await(DEFAULT_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Wait for the response of the interactor, a response written after the timeout is ignored
+     *
+     * @param timeoutMillis the milliseconds to wait
+     * @return the response, or a 503 error if the interactor did not respond in time
+     */
+    public Response await(long timeoutMillis) {
+        try {
+            return response.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof TimeoutException) {
+                return new Response(HttpURLConnection.HTTP_UNAVAILABLE,
+                        new JSONObject().put("error", "The request timed out.").toString());
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * A JSON response
+     *
+     * @param status the HTTP status code
+     * @param body   the JSON body
+     */
+    public record Response(int status, String body) {
+    }
+}
@@ -5,54 +5,85 @@ import entity.Stock;
 import entity.User;
 import use_case.login.LoginOutputBoundary;
 import use_case.login.LoginOutputData;
+import utility.ClientSessionManager;
 import utility.ServiceManager;
 import utility.ViewManager;
 import view.view_events.*;
 
+import javax.swing.*;
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * Presenter for the Login Use Case
+ * <p>
+ * Logins run on the threads of the login pipeline, so the views are updated on the event dispatch thread.
+ * </p>
+ */
 public class LoginPresenter implements LoginOutputBoundary {
 
     @Override
     public void prepareSuccessView(LoginOutputData outputData) {
         User user = outputData.user();
-        // update username data
-        ViewManager.Instance().broadcastEvent(
-                new UpdateUsernameEvent(user.getUsername())
-        );
-        // update user asset data
-        ViewManager.Instance().broadcastEvent(
-                new UpdateAssetEvent(
-                        user.getPortfolio(),
-                        user.getBalance()
-                )
-        );
-        // update history data
-        ViewManager.Instance().broadcastEvent(
-                new UpdateTransactionHistoryEvent(user.getTransactionHistory())
-        );
-        // update stock data
+        // this client uses the new session for its later requests
+        ClientSessionManager.Instance().setCredential(outputData.credential());
+        // read the stock data here rather than on the event dispatch thread
+        List<Stock> stockList = null;
         try {
             StockDataAccessInterface stockDAO = ServiceManager.Instance().getService(StockDataAccessInterface.class);
             if (stockDAO == null) {
                 throw new RuntimeException("StockDataAccessInterface not registered.");
             }
-            List<Stock> stockList = new ArrayList<>(stockDAO.getStocks().values());
-            ViewManager.Instance().broadcastEvent(new UpdateStockEvent(stockList));
+            stockList = new ArrayList<>(stockDAO.getStocks().values());
         } catch (Exception ex) {
             ex.printStackTrace();
         }
-        // switch to dashboard
-        ViewManager.Instance().broadcastEvent(
-                new SwitchPanelEvent("DashboardPanel")
-        );
+        List<Stock> stocks = stockList;
+        SwingUtilities.invokeLater(() -> {
+            // update username data
+            ViewManager.Instance().broadcastEvent(
+                    new UpdateUsernameEvent(user.getUsername())
+            );
+            // update user asset data
+            ViewManager.Instance().broadcastEvent(
+                    new UpdateAssetEvent(
+                            user.getPortfolio(),
+                            user.getBalance()
+                    )
+            );
+            // update history data
+            ViewManager.Instance().broadcastEvent(
+                    new UpdateTransactionHistoryEvent(user.getTransactionHistory())
+            );
+            // update stock data
+            if (stocks != null) {
+                ViewManager.Instance().broadcastEvent(new UpdateStockEvent(stocks));
+            }
+            // switch to dashboard
+            ViewManager.Instance().broadcastEvent(
+                    new SwitchPanelEvent("DashboardPanel")
+            );
+        });
     }
 
     @Override
     public void prepareValidationExceptionView() {
-        ViewManager.Instance().broadcastEvent(
+        SwingUtilities.invokeLater(() -> ViewManager.Instance().broadcastEvent(
                 new DialogEvent("Sorry", "We cannot find your account. Please try again.")
-        );
+        ));
+    }
+
+    @Override
+    public void prepareBusyExceptionView() {
+        SwingUtilities.invokeLater(() -> ViewManager.Instance().broadcastEvent(
+                new DialogEvent("Sorry", "Too many users are logging in. Please try again in a moment.")
+        ));
+    }
+
+    @Override
+    public void prepareErrorView() {
+        SwingUtilities.invokeLater(() -> ViewManager.Instance().broadcastEvent(
+                new DialogEvent("Sorry", "We could not log you in. Please try again.")
+        ));
     }
 }
@@ -0,0 +1,37 @@
+package interface_adapter.login;
+
+import interface_adapter.http.JsonResponseWriter;
+import org.json.JSONObject;
+import use_case.login.LoginOutputBoundary;
+import use_case.login.LoginOutputData;
+
+import java.net.HttpURLConnection;
+
+/**
+ * Writes the result of a login as the JSON response of an HTTP request, with the credential of the new session
+ */
+public class LoginResponseWriter extends JsonResponseWriter implements LoginOutputBoundary {
+
+    @Override
+    public void prepareSuccessView(LoginOutputData outputData) {
+        write(HttpURLConnection.HTTP_OK, new JSONObject()
+                .put("username", outputData.user().getUsername())
+                .put("credential", outputData.credential())
+                .put("balance", outputData.user().getBalance()));
+    }
+
+    @Override
+    public void prepareValidationExceptionView() {
+        writeError(HttpURLConnection.HTTP_UNAUTHORIZED, "We cannot find your account.");
+    }
+
+    @Override
+    public void prepareBusyExceptionView() {
+        writeError(HttpURLConnection.HTTP_UNAVAILABLE, "Too many users are logging in.");
+    }
+
+    @Override
+    public void prepareErrorView() {
+        writeError(HttpURLConnection.HTTP_INTERNAL_ERROR, "The login failed.");
+    }
+}
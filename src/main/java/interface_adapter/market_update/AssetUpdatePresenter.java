@@ -0,0 +1,34 @@
+package interface_adapter.market_update;
+
+import data_access.AssetUpdateListener;
+import entity.User;
+import utility.ClientSessionManager;
+import utility.SessionManager;
+import utility.ViewManager;
+import view.view_events.UpdateAssetEvent;
+
+/**
+ * Presenter for asset revaluations after market updates.
+ * Only pushes an asset update to the view when the revalued user is the user logged in on this client.
+ */
+public class AssetUpdatePresenter implements AssetUpdateListener {
+
+    @Override
+    public void onAssetsUpdated(User user) {
+        String credential = ClientSessionManager.Instance().getCredential();
+        if (credential == null) {
+            return;
+        }
+        boolean isClientUser = SessionManager.Instance().getUsername(credential)
+                .map(user.getUsername()::equals)
+                .orElse(false);
+        if (isClientUser) {
+            ViewManager.Instance().broadcastEvent(
+                    new UpdateAssetEvent(
+                            user.getPortfolio(),
+                            user.getBalance()
+                    )
+            );
+        }
+    }
+}
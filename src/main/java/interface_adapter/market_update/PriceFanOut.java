@@ -0,0 +1,107 @@
+package interface_adapter.market_update;
+
+import entity.PriceUpdateListener;
+import entity.StockMarket;
+import entity.StockQuote;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fans the market's price updates out to many subscribed clients
+ * <p>
+ * Subscriptions are indexed by ticker, with the slot of the ticker in each subscription's buffer, so an update only
+ * touches the clients of the tickers that changed and writes one price per client without allocating. Sending is up
+ * to the client's transport, which drains the buffer at the rate the client chose, so a slow client costs the market
+ * update nothing.
+ * </p>
+ */
+public class PriceFanOut implements PriceUpdateListener {
+
+    // the fastest flush rate a client can choose
+    public static final long MIN_FLUSH_INTERVAL_MILLIS = 50;
+
+    private final Map<String, Set<Slot>> slotsByTicker = new ConcurrentHashMap<>();
+
+    /**
+     * Subscribe to the prices of some tickers, starting with their current prices
+     *
+     * @param tickers             the tickers, those not in the market are ignored until they are listed
+     * @param flushIntervalMillis how often the client wants its prices, at least MIN_FLUSH_INTERVAL_MILLIS
+     * @return the subscription
+     */
+    public PriceSubscription subscribe(Collection<String> tickers, long flushIntervalMillis) {
+        PriceSubscription subscription = new PriceSubscription(new ArrayList<>(new LinkedHashSet<>(tickers)),
+                Math.max(MIN_FLUSH_INTERVAL_MILLIS, flushIntervalMillis));
+        for (int i = 0; i < subscription.getSlotCount(); i++) {
+            Slot slot = new Slot(subscription, i);
+            // added within compute, so an unsubscribe cannot drop the set of the ticker in between
+            slotsByTicker.compute(subscription.getTicker(i), (ticker, slots) -> {
+                Set<Slot> result = slots == null ? ConcurrentHashMap.newKeySet() : slots;
+                result.add(slot);
+                return result;
+            });
+        }
+        // an update that arrived since the subscription was indexed is kept, a newer snapshot price is also
+        // delivered by the update that set it
+        Map<String, StockQuote> quotes = StockMarket.Instance().getQuotes(subscription.getTickers());
+        for (int i = 0; i < subscription.getSlotCount(); i++) {
+            StockQuote quote = quotes.get(subscription.getTicker(i));
+            if (quote != null) {
+                subscription.offerIfAbsent(i, quote.price());
+            }
+        }
+        return subscription;
+    }
+
+    /**
+     * Cancel a subscription, it gets no more prices
+     *
+     * @param subscription the subscription
+     */
+    public void unsubscribe(PriceSubscription subscription) {
+        subscription.close();
+        for (int i = 0; i < subscription.getSlotCount(); i++) {
+            Slot slot = new Slot(subscription, i);
+            slotsByTicker.computeIfPresent(subscription.getTicker(i), (ticker, slots) -> {
+                slots.remove(slot);
+                return slots.isEmpty() ? null : slots;
+            });
+        }
+    }
+
+    /**
+     * Get the number of open subscriptions of a ticker
+     *
+     * @param ticker the ticker
+     * @return the number of subscriptions
+     */
+    public int getSubscriptionCount(String ticker) {
+        Set<Slot> slots = slotsByTicker.get(ticker);
+        return slots == null ? 0 : slots.size();
+    }
+
+    @Override
+    public void onPricesUpdated(Map<String, Double> changedPrices) {
+        for (Map.Entry<String, Double> entry : changedPrices.entrySet()) {
+            Set<Slot> slots = slotsByTicker.get(entry.getKey());
+            if (slots == null) {
+                continue;
+            }
+            double price = entry.getValue();
+            for (Slot slot : slots) {
+                slot.subscription().offer(slot.index(), price);
+            }
+        }
+    }
+
+    /**
+     * The slot of a ticker in the buffer of a subscription, equal by subscription and index
+     */
+    private record Slot(PriceSubscription subscription, int index) {
+    }
+}
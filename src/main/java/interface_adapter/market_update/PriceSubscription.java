@@ -0,0 +1,124 @@
+package interface_adapter.market_update;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The subscription of one client to the prices of a set of tickers, with a conflating buffer
+ * <p>
+ * The buffer has one slot per ticker that keeps only its latest price, so it never holds more prices than the
+ * client has tickers, however many updates arrive between two flushes. A slow client gets fewer and more recent
+ * prices instead of a growing backlog, and never holds up the market update or the other clients.
+ * </p>
+ */
+public class PriceSubscription {
+
+    private final String[] tickers;
+    private final Set<String> tickerSet;
+    private final long flushIntervalMillis;
+
+    // the latest price of every slot and whether it changed since the last drain, guarded by this
+    private final double[] latest;
+    private final boolean[] changed;
+    private int changedCount = 0;
+    private long offeredCount = 0;
+    private long drainedCount = 0;
+    private volatile boolean open = true;
+
+    PriceSubscription(List<String> tickers, long flushIntervalMillis) {
+        this.tickers = tickers.toArray(String[]::new);
+        this.tickerSet = Collections.unmodifiableSet(new LinkedHashSet<>(tickers));
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.latest = new double[this.tickers.length];
+        this.changed = new boolean[this.tickers.length];
+    }
+
+    /**
+     * Get the tickers of the subscription
+     *
+     * @return the tickers
+     */
+    public Set<String> getTickers() {
+        return tickerSet;
+    }
+
+    /**
+     * Get how often the client wants its prices
+     *
+     * @return the interval between flushes in milliseconds
+     */
+    public long getFlushIntervalMillis() {
+        return flushIntervalMillis;
+    }
+
+    /**
+     * Check whether the subscription still receives prices
+     *
+     * @return false once it was cancelled
+     */
+    public boolean isOpen() {
+        return open;
+    }
+
+    /**
+     * Take the latest prices since the last drain, leaving the buffer empty
+     *
+     * @return a map from ticker to its latest price, empty if no price changed
+     */
+    public synchronized Map<String, Double> drain() {
+        if (changedCount == 0) {
+            return Map.of();
+        }
+        Map<String, Double> prices = new HashMap<>();
+        for (int slot = 0; slot < tickers.length; slot++) {
+            if (changed[slot]) {
+                prices.put(tickers[slot], latest[slot]);
+                changed[slot] = false;
+            }
+        }
+        drainedCount += changedCount;
+        changedCount = 0;
+        return prices;
+    }
+
+    /**
+     * Get the share of offered prices that were replaced by a later price before the client got them
+     *
+     * @return the conflated share from 0 to 1, or 0 before the first price
+     */
+    public synchronized double getConflationRate() {
+        long delivered = drainedCount + changedCount;
+        return offeredCount == 0 ? 0 : 1 - (double) delivered / offeredCount;
+    }
+
+    String getTicker(int slot) {
+        return tickers[slot];
+    }
+
+    int getSlotCount() {
+        return tickers.length;
+    }
+
+    synchronized void offer(int slot, double price) {
+        latest[slot] = price;
+        if (!changed[slot]) {
+            changed[slot] = true;
+            changedCount++;
+        }
+        offeredCount++;
+    }
+
+    synchronized void offerIfAbsent(int slot, double price) {
+        if (!changed[slot]) {
+            offer(slot, price);
+        }
+    }
+
+    void close() {
+        open = false;
+    }
+}
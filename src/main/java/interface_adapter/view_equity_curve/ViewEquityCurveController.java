@@ -0,0 +1,32 @@
+package interface_adapter.view_equity_curve;
+
+import use_case.view_equity_curve.ViewEquityCurveInputBoundary;
+import use_case.view_equity_curve.ViewEquityCurveInputData;
+import utility.ClientSessionManager;
+
+/**
+ * Controller for the ViewEquityCurve Use Case.
+ */
+public class ViewEquityCurveController {
+
+    private final ViewEquityCurveInputBoundary interactor;
+
+    public ViewEquityCurveController(ViewEquityCurveInputBoundary interactor) {
+        this.interactor = interactor;
+    }
+
+    /**
+     * Executes the ViewEquityCurve Use Case.
+     *
+     * @param from the start of the range in epoch milliseconds
+     * @param to   the end of the range in epoch milliseconds
+     */
+    public void execute(long from, long to) {
+        final ViewEquityCurveInputData data = new ViewEquityCurveInputData(
+                ClientSessionManager.Instance().getCredential(),
+                from,
+                to);
+
+        interactor.execute(data);
+    }
+}
@@ -0,0 +1,42 @@
+package interface_adapter.view_equity_curve;
+
+import use_case.view_equity_curve.ViewEquityCurveOutputBoundary;
+import use_case.view_equity_curve.ViewEquityCurveOutputData;
+import utility.ViewManager;
+import view.view_events.DialogEvent;
+import view.view_events.UpdateEquityCurveEvent;
+
+/**
+ * Presenter for the ViewEquityCurve Use Case
+ */
+public class ViewEquityCurvePresenter implements ViewEquityCurveOutputBoundary {
+
+    /**
+     * Prepares the success view of the ViewEquityCurve use case
+     *
+     * @param outputData the required display output data
+     */
+    @Override
+    public void prepareSuccessView(ViewEquityCurveOutputData outputData) {
+        ViewManager.Instance().broadcastEvent(new UpdateEquityCurveEvent(
+                outputData.equityCurve(),
+                outputData.totalReturn(),
+                outputData.maxDrawdown()
+        ));
+    }
+
+    @Override
+    public void prepareInvalidRangeExceptionView() {
+        ViewManager.Instance().broadcastEvent(new DialogEvent("Failed", "The start of the range is after its end."));
+    }
+
+    @Override
+    public void prepareStorageExceptionView() {
+        ViewManager.Instance().broadcastEvent(new DialogEvent("Failed", "The equity history could not be read."));
+    }
+
+    @Override
+    public void prepareValidationExceptionView() {
+        ViewManager.Instance().broadcastEvent(new DialogEvent("Failed", "You are not authorized to do this."));
+    }
+}
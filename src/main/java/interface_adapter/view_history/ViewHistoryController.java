@@ -24,4 +24,39 @@ public class ViewHistoryController {
 
         interactor.execute(data);
     }
+
+    /**
+     * Executes the ViewHistory Use Case for one page of the history.
+     *
+     * @param pageSize     the number of transactions per page
+     * @param beforeCursor only transactions before this cursor, or TransactionPage.NO_CURSOR
+     * @param afterCursor  only transactions after this cursor, or TransactionPage.NO_CURSOR
+     * @param newestFirst  whether the page is ordered from newest to oldest
+     */
+    public void execute(int pageSize, int beforeCursor, int afterCursor, boolean newestFirst) {
+        final ViewHistoryInputData data = new ViewHistoryInputData(
+                ClientSessionManager.Instance().getCredential(), pageSize, beforeCursor, afterCursor, newestFirst);
+
+        interactor.execute(data);
+    }
+
+    /**
+     * Executes the ViewHistory Use Case for one page of the transactions of a ticker within a time range.
+     *
+     * @param pageSize     the number of transactions per page
+     * @param beforeCursor only transactions before this cursor, or TransactionPage.NO_CURSOR
+     * @param afterCursor  only transactions after this cursor, or TransactionPage.NO_CURSOR
+     * @param newestFirst  whether the page is ordered from newest to oldest
+     * @param ticker       only transactions of this ticker, or null for every ticker
+     * @param from         only transactions at or after this time in epoch milliseconds
+     * @param to           only transactions at or before this time in epoch milliseconds
+     */
+    public void execute(int pageSize, int beforeCursor, int afterCursor, boolean newestFirst,
+                        String ticker, long from, long to) {
+        final ViewHistoryInputData data = new ViewHistoryInputData(
+                ClientSessionManager.Instance().getCredential(), pageSize, beforeCursor, afterCursor, newestFirst,
+                ticker, from, to);
+
+        interactor.execute(data);
+    }
 }
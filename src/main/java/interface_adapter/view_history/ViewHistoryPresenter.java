@@ -3,6 +3,7 @@ package interface_adapter.view_history;
 import use_case.view_history.ViewHistoryOutputBoundary;
 import use_case.view_history.ViewHistoryOutputData;
 import utility.ViewManager;
+import view.view_events.DialogEvent;
 import view.view_events.UpdateTransactionHistoryEvent;
 
 /**
@@ -19,11 +20,28 @@ public class ViewHistoryPresenter implements ViewHistoryOutputBoundary {
     public void prepareSuccessView(ViewHistoryOutputData outputData) {
         ViewManager.Instance().broadcastEvent(
                 new UpdateTransactionHistoryEvent(
-                        outputData.transactionHistory()
+                        outputData.transactionHistory(),
+                        outputData.page()
                 )
         );
     }
 
+    /**
+     * Prepares the InvalidRangeException view for the ViewHistory use case
+     */
+    @Override
+    public void prepareInvalidRangeExceptionView() {
+        ViewManager.Instance().broadcastEvent(new DialogEvent("Failed", "The start of the range is after its end."));
+    }
+
+    /**
+     * Prepares the view for the ViewHistory use case when archived transactions cannot be read
+     */
+    @Override
+    public void prepareStorageExceptionView() {
+        ViewManager.Instance().broadcastEvent(new DialogEvent("Failed", "The archived transaction history could not be read."));
+    }
+
     /**
      * Prepares the ValidationException view for the ViewHistory use case
      */
@@ -0,0 +1,54 @@
+package interface_adapter.view_history;
+
+import entity.Transaction;
+import entity.TransactionPage;
+import interface_adapter.http.JsonResponseWriter;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import use_case.view_history.ViewHistoryOutputBoundary;
+import use_case.view_history.ViewHistoryOutputData;
+
+import java.net.HttpURLConnection;
+
+/**
+ * Writes a page of the transaction history as the JSON response of an HTTP request, with the cursors of the
+ * neighbouring pages
+ */
+public class ViewHistoryResponseWriter extends JsonResponseWriter implements ViewHistoryOutputBoundary {
+
+    @Override
+    public void prepareSuccessView(ViewHistoryOutputData outputData) {
+        TransactionPage page = outputData.page();
+        JSONArray transactions = new JSONArray();
+        for (Transaction transaction : page.transactions()) {
+            transactions.put(new JSONObject()
+                    .put("timestamp", transaction.getTimestampMillis())
+                    .put("ticker", transaction.getTicker())
+                    .put("quantity", transaction.getQuantity())
+                    .put("price", transaction.getPrice())
+                    .put("side", transaction.getSide().name()));
+        }
+        write(HttpURLConnection.HTTP_OK, new JSONObject()
+                .put("transactions", transactions)
+                .put("matchCount", page.matchCount())
+                .put("hasOlder", page.hasOlder())
+                .put("hasNewer", page.hasNewer())
+                .put("olderCursor", page.olderCursor())
+                .put("newerCursor", page.newerCursor()));
+    }
+
+    @Override
+    public void prepareInvalidRangeExceptionView() {
+        writeError(HttpURLConnection.HTTP_BAD_REQUEST, "The requested page or time range is not valid.");
+    }
+
+    @Override
+    public void prepareStorageExceptionView() {
+        writeError(HttpURLConnection.HTTP_UNAVAILABLE, "The archived transactions could not be read.");
+    }
+
+    @Override
+    public void prepareValidationExceptionView() {
+        writeError(HttpURLConnection.HTTP_UNAUTHORIZED, "You are not authorized to do this.");
+    }
+}
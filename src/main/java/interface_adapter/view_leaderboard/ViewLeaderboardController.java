@@ -0,0 +1,32 @@
+package interface_adapter.view_leaderboard;
+
+import use_case.view_leaderboard.ViewLeaderboardInputBoundary;
+import use_case.view_leaderboard.ViewLeaderboardInputData;
+import utility.ClientSessionManager;
+
+/**
+ * Controller for the ViewLeaderboard Use Case.
+ */
+public class ViewLeaderboardController {
+
+    private final ViewLeaderboardInputBoundary interactor;
+
+    public ViewLeaderboardController(ViewLeaderboardInputBoundary interactor) {
+        this.interactor = interactor;
+    }
+
+    /**
+     * Executes the ViewLeaderboard Use Case.
+     *
+     * @param topCount        the number of top users to show
+     * @param neighbourRadius the number of users to show on each side of the current user
+     */
+    public void execute(int topCount, int neighbourRadius) {
+        final ViewLeaderboardInputData data = new ViewLeaderboardInputData(
+                ClientSessionManager.Instance().getCredential(),
+                topCount,
+                neighbourRadius);
+
+        interactor.execute(data);
+    }
+}
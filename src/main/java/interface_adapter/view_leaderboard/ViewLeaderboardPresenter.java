@@ -0,0 +1,38 @@
+package interface_adapter.view_leaderboard;
+
+import use_case.view_leaderboard.ViewLeaderboardOutputBoundary;
+import use_case.view_leaderboard.ViewLeaderboardOutputData;
+import utility.ViewManager;
+import view.view_events.DialogEvent;
+import view.view_events.UpdateLeaderboardEvent;
+
+/**
+ * Presenter for the ViewLeaderboard Use Case
+ */
+public class ViewLeaderboardPresenter implements ViewLeaderboardOutputBoundary {
+
+    /**
+     * Prepares the success view of the ViewLeaderboard use case
+     *
+     * @param outputData the required display output data
+     */
+    @Override
+    public void prepareSuccessView(ViewLeaderboardOutputData outputData) {
+        ViewManager.Instance().broadcastEvent(
+                new UpdateLeaderboardEvent(
+                        outputData.topEntries(),
+                        outputData.userRank(),
+                        outputData.neighbours(),
+                        outputData.totalUsers()
+                )
+        );
+    }
+
+    /**
+     * Prepares the ValidationException view for the ViewLeaderboard use case
+     */
+    @Override
+    public void prepareValidationExceptionView() {
+        ViewManager.Instance().broadcastEvent(new DialogEvent("Failed", "You are not authorized to do this."));
+    }
+}
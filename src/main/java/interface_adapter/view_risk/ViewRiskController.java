@@ -0,0 +1,32 @@
+package interface_adapter.view_risk;
+
+import use_case.view_risk.ViewRiskInputBoundary;
+import use_case.view_risk.ViewRiskInputData;
+import utility.ClientSessionManager;
+
+/**
+ * Controller for the ViewRisk Use Case.
+ */
+public class ViewRiskController {
+
+    private final ViewRiskInputBoundary interactor;
+
+    public ViewRiskController(ViewRiskInputBoundary interactor) {
+        this.interactor = interactor;
+    }
+
+    /**
+     * Executes the ViewRisk Use Case.
+     *
+     * @param confidenceLevel the confidence level of the Value-at-Risk
+     * @param scenarioCount   the number of Monte Carlo scenarios
+     */
+    public void execute(double confidenceLevel, int scenarioCount) {
+        final ViewRiskInputData data = new ViewRiskInputData(
+                ClientSessionManager.Instance().getCredential(),
+                confidenceLevel,
+                scenarioCount);
+
+        interactor.execute(data);
+    }
+}
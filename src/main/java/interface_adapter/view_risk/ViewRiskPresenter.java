@@ -0,0 +1,38 @@
+package interface_adapter.view_risk;
+
+import use_case.view_risk.ViewRiskOutputBoundary;
+import use_case.view_risk.ViewRiskOutputData;
+import utility.ViewManager;
+import view.view_events.DialogEvent;
+import view.view_events.UpdateRiskEvent;
+
+/**
+ * Presenter for the ViewRisk Use Case
+ */
+public class ViewRiskPresenter implements ViewRiskOutputBoundary {
+
+    /**
+     * Prepares the success view of the ViewRisk use case
+     *
+     * @param outputData the required display output data
+     */
+    @Override
+    public void prepareSuccessView(ViewRiskOutputData outputData) {
+        ViewManager.Instance().broadcastEvent(new UpdateRiskEvent(outputData.portfolioRisk()));
+    }
+
+    @Override
+    public void prepareInsufficientHistoryExceptionView() {
+        ViewManager.Instance().broadcastEvent(new DialogEvent("Failed", "Not enough price history to compute risk yet."));
+    }
+
+    @Override
+    public void prepareInvalidParametersExceptionView() {
+        ViewManager.Instance().broadcastEvent(new DialogEvent("Failed", "The confidence level or number of scenarios is invalid."));
+    }
+
+    @Override
+    public void prepareValidationExceptionView() {
+        ViewManager.Instance().broadcastEvent(new DialogEvent("Failed", "You are not authorized to do this."));
+    }
+}
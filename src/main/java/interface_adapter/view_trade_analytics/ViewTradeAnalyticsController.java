@@ -0,0 +1,37 @@
+package interface_adapter.view_trade_analytics;
+
+import entity.RollupResolution;
+import use_case.view_trade_analytics.ViewTradeAnalyticsInputBoundary;
+import use_case.view_trade_analytics.ViewTradeAnalyticsInputData;
+import utility.ClientSessionManager;
+
+/**
+ * Controller for the ViewTradeAnalytics Use Case.
+ */
+public class ViewTradeAnalyticsController {
+
+    private final ViewTradeAnalyticsInputBoundary interactor;
+
+    public ViewTradeAnalyticsController(ViewTradeAnalyticsInputBoundary interactor) {
+        this.interactor = interactor;
+    }
+
+    /**
+     * Executes the ViewTradeAnalytics Use Case.
+     *
+     * @param ticker     the ticker to analyse
+     * @param resolution the bucket size of the rollups
+     * @param from       the start of the range in epoch milliseconds
+     * @param to         the end of the range in epoch milliseconds
+     */
+    public void execute(String ticker, RollupResolution resolution, long from, long to) {
+        final ViewTradeAnalyticsInputData data = new ViewTradeAnalyticsInputData(
+                ClientSessionManager.Instance().getCredential(),
+                ticker,
+                resolution,
+                from,
+                to);
+
+        interactor.execute(data);
+    }
+}
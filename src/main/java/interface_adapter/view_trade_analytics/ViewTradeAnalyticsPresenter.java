@@ -0,0 +1,40 @@
+package interface_adapter.view_trade_analytics;
+
+import use_case.view_trade_analytics.ViewTradeAnalyticsOutputBoundary;
+import use_case.view_trade_analytics.ViewTradeAnalyticsOutputData;
+import utility.ViewManager;
+import view.view_events.DialogEvent;
+import view.view_events.UpdateTradeAnalyticsEvent;
+
+/**
+ * Presenter for the ViewTradeAnalytics Use Case
+ */
+public class ViewTradeAnalyticsPresenter implements ViewTradeAnalyticsOutputBoundary {
+
+    /**
+     * Prepares the success view of the ViewTradeAnalytics use case
+     *
+     * @param outputData the required display output data
+     */
+    @Override
+    public void prepareSuccessView(ViewTradeAnalyticsOutputData outputData) {
+        ViewManager.Instance().broadcastEvent(new UpdateTradeAnalyticsEvent(
+                outputData.ticker(),
+                outputData.resolution(),
+                outputData.marketRollups(),
+                outputData.userRollups(),
+                outputData.marketTotal(),
+                outputData.userTotal()
+        ));
+    }
+
+    @Override
+    public void prepareInvalidParametersExceptionView() {
+        ViewManager.Instance().broadcastEvent(new DialogEvent("Failed", "The ticker, resolution or time range is invalid."));
+    }
+
+    @Override
+    public void prepareValidationExceptionView() {
+        ViewManager.Instance().broadcastEvent(new DialogEvent("Failed", "You are not authorized to do this."));
+    }
+}
@@ -0,0 +1,17 @@
+package use_case.execute_basket;
+
+import entity.TransactionSide;
+
+/**
+ * This class records a single leg of a basket order
+ *
+ * @param ticker   the ticker of the stock
+ * @param quantity the quantity of the stock to trade
+ * @param type     the side of the leg
+ */
+public record BasketOrderLeg(
+        String ticker,
+        int quantity,
+        TransactionSide type
+) {
+}
@@ -0,0 +1,36 @@
+package use_case.execute_basket;
+
+import entity.LotReliefMethod;
+import entity.Transaction;
+import entity.User;
+import utility.exceptions.ValidationException;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * The interface of the DAO for the Execute Basket Use Case.
+ */
+public interface ExecuteBasketDataAccessInterface {
+
+    /**
+     * Gets the current user from the user credential and throws ValidationException if credential is invalid
+     *
+     * @param credential the user's credential
+     * @return the user associated with the credential
+     * @throws ValidationException if provided credential is invalid
+     */
+    User getUserWithCredential(String credential) throws ValidationException;
+
+    /**
+     * Records an account mutation durably before it is applied, so it can be replayed after a restart
+     *
+     * @param user         the user whose account changes
+     * @param balanceDelta the change of the user's balance
+     * @param fills        the fills of the order, in execution order
+     * @param reliefMethod the order the sell fills relieve the lots in
+     * @throws IOException if the mutation cannot be recorded
+     */
+    void recordFills(User user, double balanceDelta, List<Transaction> fills, LotReliefMethod reliefMethod)
+            throws IOException;
+}
@@ -0,0 +1,14 @@
+package use_case.execute_basket;
+
+/**
+ * Input Boundary for executing a basket order.
+ */
+public interface ExecuteBasketInputBoundary {
+
+    /**
+     * Executes the basket order use case.
+     *
+     * @param input the input data
+     */
+    void execute(ExecuteBasketInputData input);
+}
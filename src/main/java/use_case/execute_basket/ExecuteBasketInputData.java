@@ -0,0 +1,29 @@
+package use_case.execute_basket;
+
+import entity.LotReliefMethod;
+
+import java.util.List;
+
+/**
+ * This class records the input data for the ExecuteBasket use case
+ *
+ * @param credential   the credential of the user
+ * @param legs         the legs of the basket order
+ * @param reliefMethod the order the tax lots are relieved in by the sell legs
+ */
+public record ExecuteBasketInputData(
+        String credential,
+        List<BasketOrderLeg> legs,
+        LotReliefMethod reliefMethod
+) {
+
+    /**
+     * Create the input data of a basket whose sell legs relieve the oldest lots first
+     *
+     * @param credential the credential of the user
+     * @param legs       the legs of the basket order
+     */
+    public ExecuteBasketInputData(String credential, List<BasketOrderLeg> legs) {
+        this(credential, legs, LotReliefMethod.FIFO);
+    }
+}
@@ -0,0 +1,201 @@
+package use_case.execute_basket;
+
+import entity.*;
+import utility.exceptions.ValidationException;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * The Execute Basket Interactor.
+ * <p>
+ * Every leg of the basket is priced against one snapshot of the stock market, the net cost of
+ * the whole basket is checked against the user's balance, and only then are all legs committed
+ * to the portfolio and the transaction history. Either every leg is filled or none is.
+ * The whole basket is recorded as one journal record before any leg is committed.
+ * </p>
+ */
+public class ExecuteBasketInteractor implements ExecuteBasketInputBoundary {
+
+    private final ExecuteBasketDataAccessInterface dataAccess;
+    private final ExecuteBasketOutputBoundary outputPresenter;
+
+    /**
+     * This is the constructor of the ExecuteBasketInteractor class.
+     * It instantiates a new Execute Basket Interactor.
+     *
+     * @param dataAccess     the data access
+     * @param outputBoundary the output boundary
+     */
+    public ExecuteBasketInteractor(ExecuteBasketDataAccessInterface dataAccess, ExecuteBasketOutputBoundary outputBoundary) {
+        this.dataAccess = dataAccess;
+        this.outputPresenter = outputBoundary;
+    }
+
+    /**
+     * This method executes the basket order.
+     *
+     * @param data the input data
+     */
+    @Override
+    public void execute(ExecuteBasketInputData data) {
+        try {
+            // Get current user
+            User currentUser = dataAccess.getUserWithCredential(data.credential());
+
+            List<BasketOrderLeg> legs = data.legs();
+            validateLegs(legs);
+
+            // Price every leg against the same market snapshot
+            Set<String> tickers = new HashSet<>();
+            for (BasketOrderLeg leg : legs) {
+                tickers.add(leg.ticker());
+            }
+            Map<String, StockQuote> quotes = StockMarket.Instance().getQuotes(tickers);
+            if (quotes.size() != tickers.size()) {
+                throw new StockNotFoundException();
+            }
+
+            List<Transaction> transactions;
+            double realizedPnl = 0;
+            LotReliefMethod reliefMethod = data.reliefMethod() == null ? LotReliefMethod.FIFO : data.reliefMethod();
+            // Check and commit under the user's lock so no other order can interleave with the basket
+            synchronized (currentUser) {
+                Portfolio portfolio = currentUser.getPortfolio();
+                checkSellQuantities(portfolio, legs);
+
+                double netCost = calculateNetCost(legs, quotes);
+                if (currentUser.getBalance() < netCost) {
+                    throw new InsufficientBalanceException();
+                }
+
+                // All checks passed, record the basket before any leg is committed
+                long timestamp = System.currentTimeMillis();
+                transactions = new ArrayList<>(legs.size());
+                for (BasketOrderLeg leg : legs) {
+                    StockQuote quote = quotes.get(leg.ticker());
+                    transactions.add(new Transaction(timestamp, leg.ticker(), leg.quantity(), quote.price(),
+                            leg.type()));
+                }
+                dataAccess.recordFills(currentUser, -netCost, transactions, reliefMethod);
+
+                // Commit every leg
+                if (netCost >= 0) {
+                    currentUser.deductBalance(netCost);
+                } else {
+                    currentUser.addBalance(-netCost);
+                }
+                for (BasketOrderLeg leg : legs) {
+                    StockQuote quote = quotes.get(leg.ticker());
+                    realizedPnl += applyLegToPortfolio(portfolio, leg, quote, timestamp, reliefMethod);
+                }
+                currentUser.getTransactionHistory().addTransactions(transactions);
+            }
+
+            // Prepare a single success view for the whole basket
+            outputPresenter.prepareSuccessView(new ExecuteBasketOutputData(
+                    currentUser.getBalance(),
+                    currentUser.getPortfolio(),
+                    Collections.unmodifiableList(transactions),
+                    realizedPnl
+            ));
+        } catch (ValidationException e) {
+            outputPresenter.prepareValidationExceptionView();
+        } catch (InvalidBasketException e) {
+            outputPresenter.prepareInvalidBasketExceptionView();
+        } catch (StockNotFoundException e) {
+            outputPresenter.prepareStockNotFoundExceptionView();
+        } catch (InsufficientQuantityException e) {
+            outputPresenter.prepareInsufficientQuantityExceptionView();
+        } catch (InsufficientBalanceException e) {
+            outputPresenter.prepareInsufficientBalanceExceptionView();
+        } catch (IOException e) {
+            outputPresenter.prepareStorageExceptionView();
+        }
+    }
+
+    /**
+     * This method checks that the basket is not empty and every leg is well-formed.
+     *
+     * @param legs the legs of the basket
+     */
+    private void validateLegs(List<BasketOrderLeg> legs) throws InvalidBasketException {
+        if (legs == null || legs.isEmpty()) {
+            throw new InvalidBasketException();
+        }
+        for (BasketOrderLeg leg : legs) {
+            if (leg.ticker() == null || leg.quantity() <= 0 || leg.type() == null) {
+                throw new InvalidBasketException();
+            }
+        }
+    }
+
+    /**
+     * This method checks that the user holds enough shares for every sell leg,
+     * with multiple sell legs of the same ticker added together.
+     *
+     * @param portfolio the portfolio of the user
+     * @param legs      the legs of the basket
+     */
+    private void checkSellQuantities(Portfolio portfolio, List<BasketOrderLeg> legs) throws InsufficientQuantityException {
+        Map<String, Integer> sellQuantities = new HashMap<>();
+        for (BasketOrderLeg leg : legs) {
+            if (leg.type() == TransactionSide.SELL) {
+                sellQuantities.merge(leg.ticker(), leg.quantity(), Integer::sum);
+            }
+        }
+        for (Map.Entry<String, Integer> entry : sellQuantities.entrySet()) {
+            int owned = portfolio.getUserStock(entry.getKey()).map(UserStock::getQuantity).orElse(0);
+            if (owned < entry.getValue()) {
+                throw new InsufficientQuantityException();
+            }
+        }
+    }
+
+    /**
+     * This method calculates the net cost of the basket, buys add to the cost and sells reduce it.
+     *
+     * @param legs   the legs of the basket
+     * @param quotes the quotes of the market snapshot
+     * @return the net cost of the basket
+     */
+    private double calculateNetCost(List<BasketOrderLeg> legs, Map<String, StockQuote> quotes) {
+        double netCost = 0;
+        for (BasketOrderLeg leg : legs) {
+            double value = quotes.get(leg.ticker()).price() * leg.quantity();
+            netCost += leg.type() == TransactionSide.BUY ? value : -value;
+        }
+        return netCost;
+    }
+
+    /**
+     * This method applies a single leg to the user's portfolio.
+     *
+     * @param portfolio    the portfolio of the user
+     * @param leg          the leg to apply
+     * @param quote        the quote of the leg's stock
+     * @param timestamp    the time of the fill in epoch milliseconds
+     * @param reliefMethod the order the lots are relieved in by a sell leg
+     * @return the profit or loss realized by the leg
+     */
+    private double applyLegToPortfolio(Portfolio portfolio, BasketOrderLeg leg, StockQuote quote, long timestamp,
+                                       LotReliefMethod reliefMethod) {
+        if (leg.type() == TransactionSide.BUY) {
+            portfolio.addPosition(quote.stock(), quote.price(), leg.quantity(), timestamp);
+            return 0;
+        }
+        return portfolio.reducePosition(leg.ticker(), quote.price(), leg.quantity(), reliefMethod);
+    }
+
+    static class InvalidBasketException extends Exception {
+    }
+
+    static class InsufficientBalanceException extends Exception {
+    }
+
+    static class InsufficientQuantityException extends Exception {
+    }
+
+    static class StockNotFoundException extends Exception {
+    }
+}
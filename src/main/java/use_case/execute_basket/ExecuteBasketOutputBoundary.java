@@ -0,0 +1,44 @@
+package use_case.execute_basket;
+
+/**
+ * The output boundary for the ExecuteBasket use case.
+ */
+public interface ExecuteBasketOutputBoundary {
+
+    /**
+     * Prepares the success view once every leg of the basket is filled.
+     *
+     * @param outputData the output data
+     */
+    void prepareSuccessView(ExecuteBasketOutputData outputData);
+
+    /**
+     * Prepares the view when the net cost of the basket exceeds the user's balance
+     */
+    void prepareInsufficientBalanceExceptionView();
+
+    /**
+     * Prepares the view when a sell leg exceeds the quantity held in the portfolio
+     */
+    void prepareInsufficientQuantityExceptionView();
+
+    /**
+     * Prepares the view when a leg refers to a stock that is not in the market
+     */
+    void prepareStockNotFoundExceptionView();
+
+    /**
+     * Prepares the view when the basket is empty or contains a malformed leg
+     */
+    void prepareInvalidBasketExceptionView();
+
+    /**
+     * Prepares the ValidationException view for the ExecuteBasket use case
+     */
+    void prepareValidationExceptionView();
+
+    /**
+     * Prepares the view when the basket cannot be recorded, in which case no leg is filled
+     */
+    void prepareStorageExceptionView();
+}
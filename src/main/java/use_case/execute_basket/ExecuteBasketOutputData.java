@@ -0,0 +1,22 @@
+package use_case.execute_basket;
+
+import entity.Portfolio;
+import entity.Transaction;
+
+import java.util.List;
+
+/**
+ * This class represents the output data for the ExecuteBasket use case.
+ *
+ * @param newBalance   the new balance of the user
+ * @param newPortfolio the new portfolio of the user
+ * @param transactions the transactions recorded for the legs of the basket, in execution order
+ * @param realizedPnl  the profit and loss realized by the sell legs of the basket
+ */
+public record ExecuteBasketOutputData(
+        double newBalance,
+        Portfolio newPortfolio,
+        List<Transaction> transactions,
+        double realizedPnl
+) {
+}
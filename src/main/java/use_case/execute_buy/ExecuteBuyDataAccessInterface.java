@@ -1,8 +1,25 @@
 package use_case.execute_buy;
 
+import entity.LotReliefMethod;
+import entity.Transaction;
 import entity.User;
 import utility.exceptions.ValidationException;
 
+import java.io.IOException;
+import java.util.List;
+
 public interface ExecuteBuyDataAccessInterface {
     User getUserWithCredential(String credential) throws ValidationException;
+
+    /**
+     * Records an account mutation durably before it is applied, so it can be replayed after a restart
+     *
+     * @param user         the user whose account changes
+     * @param balanceDelta the change of the user's balance
+     * @param fills        the fills of the order, in execution order
+     * @param reliefMethod the order the sell fills relieve the lots in
+     * @throws IOException if the mutation cannot be recorded
+     */
+    void recordFills(User user, double balanceDelta, List<Transaction> fills, LotReliefMethod reliefMethod)
+            throws IOException;
 }
@@ -3,7 +3,8 @@ package use_case.execute_buy;
 import entity.*;
 import utility.exceptions.ValidationException;
 
-import java.util.Date;
+import java.io.IOException;
+import java.util.List;
 
 /**
  * The Execute Buy Interactor.
@@ -32,7 +33,6 @@ public class ExecuteBuyInteractor implements ExecuteBuyInputBoundary {
      */
     @Override
     public void execute(ExecuteBuyInputData data) {
-        // TODO: after the transaction is successful, the updated date should be saved in the database
         try {
             // Get current user
             User currentUser = dataAccess.getUserWithCredential(data.credential());
@@ -47,26 +47,33 @@ public class ExecuteBuyInteractor implements ExecuteBuyInputBoundary {
             double currentPrice = stock.getPrice();
             double totalCost = currentPrice * quantity;
 
-            if (currentUser.getBalance() >= totalCost) {
-                // Deduct balance
-                currentUser.deductBalance(totalCost);
-
-                // Update portfolio
-                Portfolio portfolio = currentUser.getPortfolio();
-                updateOrAddStockToPortfolio(portfolio, stock, quantity, currentPrice);
-
-                // Add transaction
-                Date timestamp = new Date();
-                Transaction transaction = new Transaction(timestamp, ticker, quantity, currentPrice, "buy");
-                currentUser.getTransactionHistory().addTransaction(transaction);
-
-                // Prepare success view
-                outputPresenter.prepareSuccessView(new ExecuteBuyOutputData(
-                        currentUser.getBalance(),
-                        currentUser.getPortfolio()
-                ));
-            } else {
-                throw new InsufficientBalanceException();
+            // Check and commit under the user's lock so concurrent orders of the same user do not interleave
+            synchronized (currentUser) {
+                if (currentUser.getBalance() >= totalCost) {
+                    // Record the fill before anything is changed
+                    long timestamp = System.currentTimeMillis();
+                    Transaction transaction = new Transaction(timestamp, ticker, quantity, currentPrice,
+                            TransactionSide.BUY);
+                    dataAccess.recordFills(currentUser, -totalCost, List.of(transaction), LotReliefMethod.FIFO);
+
+                    // Deduct balance
+                    currentUser.deductBalance(totalCost);
+
+                    // Update portfolio, the shares are kept as a new tax lot
+                    Portfolio portfolio = currentUser.getPortfolio();
+                    portfolio.addPosition(stock, currentPrice, quantity, timestamp);
+
+                    // Add transaction
+                    currentUser.getTransactionHistory().addTransaction(transaction);
+
+                    // Prepare success view
+                    outputPresenter.prepareSuccessView(new ExecuteBuyOutputData(
+                            currentUser.getBalance(),
+                            currentUser.getPortfolio()
+                    ));
+                } else {
+                    throw new InsufficientBalanceException();
+                }
             }
         } catch (ValidationException e) {
             outputPresenter.prepareValidationExceptionView();
@@ -74,25 +81,11 @@ public class ExecuteBuyInteractor implements ExecuteBuyInputBoundary {
             outputPresenter.prepareStockNotFoundExceptionView();
         } catch (InsufficientBalanceException e) {
             outputPresenter.prepareInsufficientBalanceExceptionView();
+        } catch (IOException e) {
+            outputPresenter.prepareStorageExceptionView();
         }
     }
 
-    /**
-     * This method updates the stock in the portfolio or adds a stock to the user's portfolio.
-     *
-     * @param portfolio    the portfolio of the user
-     * @param stock        the stock the user buys
-     * @param quantity     the quantity the user buys
-     * @param currentPrice the current price of the stock
-     */
-    private void updateOrAddStockToPortfolio(Portfolio portfolio, Stock stock, int quantity, double currentPrice) {
-        portfolio.getUserStock(stock.getTicker())
-                .ifPresentOrElse(
-                        existingStock -> existingStock.updateUserStock(currentPrice, quantity),
-                        () -> portfolio.addStock(new UserStock(stock, currentPrice, quantity))
-                );
-    }
-
     static class InsufficientBalanceException extends Exception {
     }
 
@@ -9,4 +9,9 @@ public interface ExecuteBuyOutputBoundary {
     void prepareStockNotFoundExceptionView();
 
     void prepareValidationExceptionView();
+
+    /**
+     * Prepares the view when the order cannot be recorded, in which case nothing is changed
+     */
+    void prepareStorageExceptionView();
 }
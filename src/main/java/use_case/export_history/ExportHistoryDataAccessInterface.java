@@ -0,0 +1,34 @@
+package use_case.export_history;
+
+import entity.TransactionFileFormat;
+import entity.User;
+import utility.exceptions.ValidationException;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * The interface of the DAO for the Export History Use Case.
+ */
+public interface ExportHistoryDataAccessInterface {
+
+    /**
+     * Gets the current user from the user credential and throws ValidationException if credential is invalid
+     *
+     * @param credential the user's credential
+     * @return the user associated with the credential
+     * @throws ValidationException if provided credential is invalid
+     */
+    User getUserWithCredential(String credential) throws ValidationException;
+
+    /**
+     * Writes the transaction history of a user to a file
+     *
+     * @param user   the user
+     * @param file   the file to write, replaced if it exists
+     * @param format the format of the file
+     * @return the number of exported transactions
+     * @throws IOException if the file cannot be written
+     */
+    int exportTransactionHistory(User user, Path file, TransactionFileFormat format) throws IOException;
+}
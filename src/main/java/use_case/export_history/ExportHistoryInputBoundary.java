@@ -0,0 +1,14 @@
+package use_case.export_history;
+
+/**
+ * Input Boundary for actions which are related to exporting the transaction history.
+ */
+public interface ExportHistoryInputBoundary {
+
+    /**
+     * Executes the export history use case.
+     *
+     * @param input the input data
+     */
+    void execute(ExportHistoryInputData input);
+}
@@ -0,0 +1,19 @@
+package use_case.export_history;
+
+import entity.TransactionFileFormat;
+
+import java.nio.file.Path;
+
+/**
+ * This class records the input data for the ExportHistory use case
+ *
+ * @param credential the credential of the user
+ * @param file       the file to export to
+ * @param format     the format of the file
+ */
+public record ExportHistoryInputData(
+        String credential,
+        Path file,
+        TransactionFileFormat format
+) {
+}
@@ -0,0 +1,48 @@
+package use_case.export_history;
+
+import entity.User;
+import utility.exceptions.ValidationException;
+
+import java.io.IOException;
+
+/**
+ * The Export History Interactor.
+ */
+public class ExportHistoryInteractor implements ExportHistoryInputBoundary {
+
+    private final ExportHistoryDataAccessInterface dataAccess;
+    private final ExportHistoryOutputBoundary outputPresenter;
+
+    /**
+     * This is the constructor of the ExportHistoryInteractor class.
+     * It instantiates a new ExportHistory Interactor.
+     *
+     * @param dataAccess     the data access
+     * @param outputBoundary the output boundary
+     */
+    public ExportHistoryInteractor(ExportHistoryDataAccessInterface dataAccess,
+                                   ExportHistoryOutputBoundary outputBoundary) {
+        this.dataAccess = dataAccess;
+        this.outputPresenter = outputBoundary;
+    }
+
+    /**
+     * This method executes export history
+     *
+     * @param data the input data
+     */
+    @Override
+    public void execute(ExportHistoryInputData data) {
+        try {
+            // Get current user
+            User currentUser = dataAccess.getUserWithCredential(data.credential());
+
+            int transactionCount = dataAccess.exportTransactionHistory(currentUser, data.file(), data.format());
+            outputPresenter.prepareSuccessView(new ExportHistoryOutputData(data.file(), transactionCount));
+        } catch (ValidationException e) {
+            outputPresenter.prepareValidationExceptionView();
+        } catch (IOException e) {
+            outputPresenter.prepareStorageExceptionView();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package use_case.export_history;
+
+/**
+ * The output boundary for the ExportHistory use case.
+ */
+public interface ExportHistoryOutputBoundary {
+
+    /**
+     * Prepares the success view for the ExportHistory use case.
+     *
+     * @param outputData the output data
+     */
+    void prepareSuccessView(ExportHistoryOutputData outputData);
+
+    /**
+     * Prepares the view for the ExportHistory use case when the file cannot be written
+     */
+    void prepareStorageExceptionView();
+
+    /**
+     * Prepares the ValidationException view for the ExportHistory use case
+     */
+    void prepareValidationExceptionView();
+}
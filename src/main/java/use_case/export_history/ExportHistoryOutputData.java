@@ -0,0 +1,15 @@
+package use_case.export_history;
+
+import java.nio.file.Path;
+
+/**
+ * This class represents the output data for the ExportHistory use case.
+ *
+ * @param file             the written file
+ * @param transactionCount the number of exported transactions
+ */
+public record ExportHistoryOutputData(
+        Path file,
+        int transactionCount
+) {
+}
@@ -2,7 +2,6 @@ package use_case.login;
 
 import entity.StockMarket;
 import entity.User;
-import utility.ClientSessionManager;
 import utility.SessionManager;
 import utility.exceptions.ValidationException;
 
@@ -21,10 +20,9 @@ public class LoginInteractor implements LoginInputBoundary {
         try {
             User currentUser = dataAccess.getUserWithPassword(data.username(), data.password());
             String credential = SessionManager.Instance().createSession(data.username());
-            // TODO: when we go to multi-client app, passing credential to client through output data
-            ClientSessionManager.Instance().setCredential(credential);
             outputPresenter.prepareSuccessView(new LoginOutputData(
                     currentUser,
+                    credential,
                     StockMarket.Instance().getStocks()
             ));
         } catch (ValidationException e) {
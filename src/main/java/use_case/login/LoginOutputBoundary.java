@@ -5,4 +5,14 @@ public interface LoginOutputBoundary {
     void prepareSuccessView(LoginOutputData outputData);
 
     void prepareValidationExceptionView();
+
+    /**
+     * Prepares the view when too many logins are waiting, in which case the login is not attempted
+     */
+    void prepareBusyExceptionView();
+
+    /**
+     * Prepares the view when the login failed unexpectedly, e.g. because the account could not be read
+     */
+    void prepareErrorView();
 }
@@ -5,8 +5,16 @@ import entity.User;
 
 import java.util.List;
 
+/**
+ * This class represents the output data for the Login use case.
+ *
+ * @param user       the logged in user
+ * @param credential the credential of the new session, which the client passes to later use cases
+ * @param stocks     the stocks of the market
+ */
 public record LoginOutputData(
         User user,
+        String credential,
         List<Stock> stocks
 ) {
 }
@@ -0,0 +1,100 @@
+package use_case.login;
+
+import utility.LatencyHistogram;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs logins on a bounded pool of threads, so a burst of slow password hashes cannot take the CPU from orders
+ * <p>
+ * At most the given number of logins run at the same time and at most the queue capacity wait for them. A login
+ * beyond that is rejected right away with prepareBusyExceptionView, and a login failing with a runtime exception is
+ * presented with prepareErrorView, so a caller waiting for its presenter is always answered. The time from
+ * submission to completion of every login is recorded in a LatencyHistogram.
+ * </p>
+ */
+public class LoginPipeline implements LoginInputBoundary {
+
+    private final LoginInputBoundary interactor;
+    private final LoginOutputBoundary outputPresenter;
+    private final ThreadPoolExecutor executor;
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    /**
+     * Create a login pipeline
+     *
+     * @param interactor     the login interactor, run on the pipeline's threads
+     * @param outputBoundary the presenter of rejected logins
+     * @param concurrency    the number of logins that run at the same time
+     * @param queueCapacity  the number of logins that can wait
+     */
+    public LoginPipeline(LoginInputBoundary interactor, LoginOutputBoundary outputBoundary, int concurrency,
+                         int queueCapacity) {
+        this.interactor = interactor;
+        this.outputPresenter = outputBoundary;
+        AtomicInteger threadCount = new AtomicInteger();
+        // daemon threads at the lowest priority, so logins yield to order execution
+        this.executor = new ThreadPoolExecutor(concurrency, concurrency, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), task -> {
+            Thread thread = new Thread(task, "login-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    @Override
+    public void execute(LoginInputData data) {
+        execute(data, interactor, outputPresenter);
+    }
+
+    /**
+     * Run a login on the pipeline with its own interactor and presenter, e.g. to answer one request of a server
+     *
+     * @param data           the login input data
+     * @param interactor     the login interactor, run on the pipeline's threads
+     * @param outputBoundary the presenter of the login if it is rejected or fails
+     */
+    public void execute(LoginInputData data, LoginInputBoundary interactor, LoginOutputBoundary outputBoundary) {
+        long submitted = System.nanoTime();
+        try {
+            executor.execute(() -> {
+                try {
+                    interactor.execute(data);
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                    outputBoundary.prepareErrorView();
+                } finally {
+                    latency.record(System.nanoTime() - submitted);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            outputBoundary.prepareBusyExceptionView();
+        }
+    }
+
+    /**
+     * Get the latencies of the completed logins, from submission to completion
+     *
+     * @return the latency histogram
+     */
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    /**
+     * Stop accepting logins and wait for the submitted ones to finish
+     */
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package use_case.view_equity_curve;
+
+import entity.EquityCurve;
+import entity.User;
+import utility.exceptions.ValidationException;
+
+import java.io.IOException;
+
+/**
+ * The interface of the DAO for the View Equity Curve Use Case.
+ */
+public interface ViewEquityCurveDataAccessInterface {
+
+    /**
+     * Gets the current user from the user credential and throws ValidationException if credential is invalid
+     *
+     * @param credential the user's credential
+     * @return the user associated with the credential
+     * @throws ValidationException if provided credential is invalid
+     */
+    User getUserWithCredential(String credential) throws ValidationException;
+
+    /**
+     * Gets the snapshots of a user's assets between two times
+     *
+     * @param user the user
+     * @param from the start of the range in epoch milliseconds, inclusive
+     * @param to   the end of the range in epoch milliseconds, inclusive
+     * @return the equity curve of the user, oldest first
+     * @throws IOException if the snapshots cannot be read
+     */
+    EquityCurve getEquityCurve(User user, long from, long to) throws IOException;
+}
@@ -0,0 +1,14 @@
+package use_case.view_equity_curve;
+
+/**
+ * Input Boundary for actions which are related to viewing the equity curve.
+ */
+public interface ViewEquityCurveInputBoundary {
+
+    /**
+     * Executes the view equity curve use case.
+     *
+     * @param input the input data
+     */
+    void execute(ViewEquityCurveInputData input);
+}
@@ -0,0 +1,15 @@
+package use_case.view_equity_curve;
+
+/**
+ * This class records the input data for the ViewEquityCurve use case
+ *
+ * @param credential the credential of the user
+ * @param from       the start of the range in epoch milliseconds, inclusive
+ * @param to         the end of the range in epoch milliseconds, inclusive
+ */
+public record ViewEquityCurveInputData(
+        String credential,
+        long from,
+        long to
+) {
+}
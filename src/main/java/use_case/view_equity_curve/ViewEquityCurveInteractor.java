@@ -0,0 +1,62 @@
+package use_case.view_equity_curve;
+
+import entity.EquityCurve;
+import entity.User;
+import utility.exceptions.ValidationException;
+
+import java.io.IOException;
+
+/**
+ * The View Equity Curve Interactor.
+ */
+public class ViewEquityCurveInteractor implements ViewEquityCurveInputBoundary {
+
+    private final ViewEquityCurveDataAccessInterface dataAccess;
+    private final ViewEquityCurveOutputBoundary outputPresenter;
+
+    /**
+     * This is the constructor of the ViewEquityCurveInteractor class.
+     * It instantiates a new ViewEquityCurve Interactor.
+     *
+     * @param dataAccess     the data access
+     * @param outputBoundary the output boundary
+     */
+    public ViewEquityCurveInteractor(ViewEquityCurveDataAccessInterface dataAccess,
+                                     ViewEquityCurveOutputBoundary outputBoundary) {
+        this.dataAccess = dataAccess;
+        this.outputPresenter = outputBoundary;
+    }
+
+    /**
+     * This method executes view equity curve
+     *
+     * @param data the input data
+     */
+    @Override
+    public void execute(ViewEquityCurveInputData data) {
+        try {
+            // Get current user
+            User currentUser = dataAccess.getUserWithCredential(data.credential());
+
+            if (data.from() > data.to()) {
+                throw new InvalidRangeException();
+            }
+
+            EquityCurve equityCurve = dataAccess.getEquityCurve(currentUser, data.from(), data.to());
+            outputPresenter.prepareSuccessView(new ViewEquityCurveOutputData(
+                    equityCurve,
+                    equityCurve.getReturn(),
+                    equityCurve.getMaxDrawdown()
+            ));
+        } catch (ValidationException e) {
+            outputPresenter.prepareValidationExceptionView();
+        } catch (InvalidRangeException e) {
+            outputPresenter.prepareInvalidRangeExceptionView();
+        } catch (IOException e) {
+            outputPresenter.prepareStorageExceptionView();
+        }
+    }
+
+    static class InvalidRangeException extends Exception {
+    }
+}
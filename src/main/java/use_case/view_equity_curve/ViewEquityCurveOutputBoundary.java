@@ -0,0 +1,29 @@
+package use_case.view_equity_curve;
+
+/**
+ * The output boundary for the ViewEquityCurve use case.
+ */
+public interface ViewEquityCurveOutputBoundary {
+
+    /**
+     * Prepares the success view for the ViewEquityCurve use case.
+     *
+     * @param outputData the output data
+     */
+    void prepareSuccessView(ViewEquityCurveOutputData outputData);
+
+    /**
+     * Prepares the InvalidRangeException view for the ViewEquityCurve use case
+     */
+    void prepareInvalidRangeExceptionView();
+
+    /**
+     * Prepares the view for the ViewEquityCurve use case when the snapshots cannot be read
+     */
+    void prepareStorageExceptionView();
+
+    /**
+     * Prepares the ValidationException view for the ViewEquityCurve use case
+     */
+    void prepareValidationExceptionView();
+}
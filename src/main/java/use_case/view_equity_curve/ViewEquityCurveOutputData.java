@@ -0,0 +1,17 @@
+package use_case.view_equity_curve;
+
+import entity.EquityCurve;
+
+/**
+ * This class represents the output data for the ViewEquityCurve use case.
+ *
+ * @param equityCurve the snapshots of the user's assets in the range
+ * @param totalReturn the return of the total assets over the range
+ * @param maxDrawdown the maximum drawdown of the total assets over the range
+ */
+public record ViewEquityCurveOutputData(
+        EquityCurve equityCurve,
+        double totalReturn,
+        double maxDrawdown
+) {
+}
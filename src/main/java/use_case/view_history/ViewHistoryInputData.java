@@ -1,11 +1,50 @@
 package use_case.view_history;
 
+import entity.TransactionPage;
+
 /**
  * This class records the input data for the ViewHistory use case
  *
- * @param credential the credential of the user
+ * @param credential   the credential of the user
+ * @param pageSize     the number of transactions per page, or 0 for every matching transaction
+ * @param beforeCursor only transactions before this cursor, or TransactionPage.NO_CURSOR
+ * @param afterCursor  only transactions after this cursor, or TransactionPage.NO_CURSOR
+ * @param newestFirst  whether the page is ordered from newest to oldest
+ * @param ticker       only transactions of this ticker, or null for every ticker
+ * @param from         only transactions at or after this time in epoch milliseconds
+ * @param to           only transactions at or before this time in epoch milliseconds
  */
 public record ViewHistoryInputData(
-        String credential
+        String credential,
+        int pageSize,
+        int beforeCursor,
+        int afterCursor,
+        boolean newestFirst,
+        String ticker,
+        long from,
+        long to
 ) {
+
+    /**
+     * Create input data for the whole history
+     *
+     * @param credential the credential of the user
+     */
+    public ViewHistoryInputData(String credential) {
+        this(credential, 0, TransactionPage.NO_CURSOR, TransactionPage.NO_CURSOR, true);
+    }
+
+    /**
+     * Create input data for one page of the unfiltered history
+     *
+     * @param credential   the credential of the user
+     * @param pageSize     the number of transactions per page, or 0 for the whole history
+     * @param beforeCursor only transactions before this cursor, or TransactionPage.NO_CURSOR
+     * @param afterCursor  only transactions after this cursor, or TransactionPage.NO_CURSOR
+     * @param newestFirst  whether the page is ordered from newest to oldest
+     */
+    public ViewHistoryInputData(String credential, int pageSize, int beforeCursor, int afterCursor,
+                                boolean newestFirst) {
+        this(credential, pageSize, beforeCursor, afterCursor, newestFirst, null, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
 }
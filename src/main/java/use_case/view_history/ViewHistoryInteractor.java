@@ -1,8 +1,14 @@
 package use_case.view_history;
 
+import entity.TransactionFilter;
+import entity.TransactionHistory;
+import entity.TransactionPage;
 import entity.User;
 import utility.exceptions.ValidationException;
 
+import java.io.UncheckedIOException;
+import java.util.List;
+
 /**
  * The View History Interactor.
  */
@@ -33,12 +39,34 @@ public class ViewHistoryInteractor implements ViewHistoryInputBoundary {
         try {
             // Get current user
             User currentUser = dataAccess.getUserWithCredential(data.credential());
-            // Prepare output data to feed into presenter
-            outputPresenter.prepareSuccessView(new ViewHistoryOutputData(
-                    currentUser.getTransactionHistory()
-            ));
+            TransactionHistory history = currentUser.getTransactionHistory();
+            if (data.from() > data.to()) {
+                throw new InvalidRangeException();
+            }
+            TransactionFilter filter = new TransactionFilter(data.ticker(), data.from(), data.to());
+            // Prepare output data to feed into presenter, paging only if a page size or a filter is given
+            if (data.pageSize() <= 0 && filter.isNone()) {
+                outputPresenter.prepareSuccessView(new ViewHistoryOutputData(history));
+            } else {
+                int pageSize = data.pageSize() <= 0 ? Integer.MAX_VALUE : data.pageSize();
+                TransactionPage page = history.getPage(
+                        filter, pageSize, data.beforeCursor(), data.afterCursor(), data.newestFirst());
+                // the page reads archived transactions lazily, copy it here so the disk is read on this thread
+                // and a read failure is reported, rather than on the thread the presenter renders the page on
+                page = new TransactionPage(List.copyOf(page.transactions()), page.startIndex(), page.endIndex(),
+                        page.newestFirst(), page.matchCount(), page.hasOlder(), page.hasNewer());
+                outputPresenter.prepareSuccessView(new ViewHistoryOutputData(history, page));
+            }
         } catch (ValidationException e) {
             outputPresenter.prepareValidationExceptionView();
+        } catch (InvalidRangeException e) {
+            outputPresenter.prepareInvalidRangeExceptionView();
+        } catch (UncheckedIOException e) {
+            // archived transactions are read from disk
+            outputPresenter.prepareStorageExceptionView();
         }
     }
+
+    static class InvalidRangeException extends Exception {
+    }
 }
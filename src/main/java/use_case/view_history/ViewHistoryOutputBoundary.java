@@ -12,6 +12,16 @@ public interface ViewHistoryOutputBoundary {
      */
     void prepareSuccessView(ViewHistoryOutputData outputData);
 
+    /**
+     * Prepares the InvalidRangeException view for the ViewHistory use case
+     */
+    void prepareInvalidRangeExceptionView();
+
+    /**
+     * Prepares the view for the ViewHistory use case when archived transactions cannot be read
+     */
+    void prepareStorageExceptionView();
+
     /**
      * Prepares the ValidationException view for the ViewHistory use case
      */
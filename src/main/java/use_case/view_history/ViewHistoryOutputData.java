@@ -1,13 +1,25 @@
 package use_case.view_history;
 
 import entity.TransactionHistory;
+import entity.TransactionPage;
 
 /**
  * This class represents the output data for the ViewHistory use case.
  *
  * @param transactionHistory the transaction history of the user
+ * @param page               the requested page of the history, or null if the whole history was requested
  */
 public record ViewHistoryOutputData(
-        TransactionHistory transactionHistory
+        TransactionHistory transactionHistory,
+        TransactionPage page
 ) {
+
+    /**
+     * Create output data for the whole history
+     *
+     * @param transactionHistory the transaction history of the user
+     */
+    public ViewHistoryOutputData(TransactionHistory transactionHistory) {
+        this(transactionHistory, null);
+    }
 }
@@ -0,0 +1,15 @@
+package use_case.view_leaderboard;
+
+/**
+ * This class records a single row of the leaderboard
+ *
+ * @param rank     the rank of the user, starting from 1
+ * @param username the username of the user
+ * @param assets   the total assets the user is ranked with
+ */
+public record LeaderboardEntry(
+        int rank,
+        String username,
+        double assets
+) {
+}
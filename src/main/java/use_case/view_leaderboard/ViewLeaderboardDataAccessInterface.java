@@ -0,0 +1,45 @@
+package use_case.view_leaderboard;
+
+import entity.User;
+import utility.exceptions.ValidationException;
+
+import java.util.List;
+
+/**
+ * The interface of the DAO for the View Leaderboard Use Case.
+ */
+public interface ViewLeaderboardDataAccessInterface {
+
+    /**
+     * Gets the current user from the user credential and throws ValidationException if credential is invalid
+     *
+     * @param credential the user's credential
+     * @return the user associated with the credential
+     * @throws ValidationException if provided credential is invalid
+     */
+    User getUserWithCredential(String credential) throws ValidationException;
+
+    /**
+     * Gets the rank of a user by total assets
+     *
+     * @param user the user
+     * @return the rank of the user starting from 1, or -1 if the user is not ranked
+     */
+    int getRank(User user);
+
+    /**
+     * Gets the leaderboard entries ranked from a rank onwards
+     *
+     * @param fromRank the first rank to return, starting from 1
+     * @param count    the maximum number of entries to return
+     * @return the entries in rank order
+     */
+    List<LeaderboardEntry> getEntries(int fromRank, int count);
+
+    /**
+     * Gets the number of ranked users
+     *
+     * @return the number of ranked users
+     */
+    int getRankedUserCount();
+}
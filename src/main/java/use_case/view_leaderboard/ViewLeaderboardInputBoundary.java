@@ -0,0 +1,14 @@
+package use_case.view_leaderboard;
+
+/**
+ * Input Boundary for actions which are related to viewing the leaderboard.
+ */
+public interface ViewLeaderboardInputBoundary {
+
+    /**
+     * Executes the view leaderboard use case.
+     *
+     * @param input the input data
+     */
+    void execute(ViewLeaderboardInputData input);
+}
@@ -0,0 +1,15 @@
+package use_case.view_leaderboard;
+
+/**
+ * This class records the input data for the ViewLeaderboard use case
+ *
+ * @param credential      the credential of the user
+ * @param topCount        the number of top users to show
+ * @param neighbourRadius the number of users to show on each side of the current user
+ */
+public record ViewLeaderboardInputData(
+        String credential,
+        int topCount,
+        int neighbourRadius
+) {
+}
@@ -0,0 +1,64 @@
+package use_case.view_leaderboard;
+
+import entity.User;
+import utility.exceptions.ValidationException;
+
+import java.util.List;
+
+/**
+ * The View Leaderboard Interactor.
+ * <p>
+ * Ranks are maintained live by the data access, so every query is a few O(log n) lookups
+ * no matter how many users are ranked.
+ * </p>
+ */
+public class ViewLeaderboardInteractor implements ViewLeaderboardInputBoundary {
+
+    private final ViewLeaderboardDataAccessInterface dataAccess;
+    private final ViewLeaderboardOutputBoundary outputPresenter;
+
+    /**
+     * This is the constructor of the ViewLeaderboardInteractor class.
+     * It instantiates a new ViewLeaderboard Interactor.
+     *
+     * @param dataAccess     the data access
+     * @param outputBoundary the output boundary
+     */
+    public ViewLeaderboardInteractor(ViewLeaderboardDataAccessInterface dataAccess, ViewLeaderboardOutputBoundary outputBoundary) {
+        this.dataAccess = dataAccess;
+        this.outputPresenter = outputBoundary;
+    }
+
+    /**
+     * This method executes view leaderboard
+     *
+     * @param data the input data
+     */
+    @Override
+    public void execute(ViewLeaderboardInputData data) {
+        try {
+            // Get current user
+            User currentUser = dataAccess.getUserWithCredential(data.credential());
+
+            List<LeaderboardEntry> topEntries = dataAccess.getEntries(1, Math.max(data.topCount(), 0));
+
+            // Find the users ranked around the current user
+            int radius = Math.max(data.neighbourRadius(), 0);
+            int userRank = dataAccess.getRank(currentUser);
+            List<LeaderboardEntry> neighbours = List.of();
+            if (userRank > 0) {
+                int fromRank = Math.max(userRank - radius, 1);
+                neighbours = dataAccess.getEntries(fromRank, userRank + radius - fromRank + 1);
+            }
+
+            outputPresenter.prepareSuccessView(new ViewLeaderboardOutputData(
+                    topEntries,
+                    userRank,
+                    neighbours,
+                    dataAccess.getRankedUserCount()
+            ));
+        } catch (ValidationException e) {
+            outputPresenter.prepareValidationExceptionView();
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package use_case.view_leaderboard;
+
+/**
+ * The output boundary for the ViewLeaderboard use case.
+ */
+public interface ViewLeaderboardOutputBoundary {
+
+    /**
+     * Prepares the success view for the ViewLeaderboard use case.
+     *
+     * @param outputData the output data
+     */
+    void prepareSuccessView(ViewLeaderboardOutputData outputData);
+
+    /**
+     * Prepares the ValidationException view for the ViewLeaderboard use case
+     */
+    void prepareValidationExceptionView();
+}
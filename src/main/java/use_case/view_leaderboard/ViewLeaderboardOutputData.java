@@ -0,0 +1,19 @@
+package use_case.view_leaderboard;
+
+import java.util.List;
+
+/**
+ * This class represents the output data for the ViewLeaderboard use case.
+ *
+ * @param topEntries the users with the highest assets in rank order
+ * @param userRank   the rank of the current user, or -1 if the user is not ranked
+ * @param neighbours the users ranked around the current user, including the user
+ * @param totalUsers the number of ranked users
+ */
+public record ViewLeaderboardOutputData(
+        List<LeaderboardEntry> topEntries,
+        int userRank,
+        List<LeaderboardEntry> neighbours,
+        int totalUsers
+) {
+}
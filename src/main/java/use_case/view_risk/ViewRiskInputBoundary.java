@@ -0,0 +1,14 @@
+package use_case.view_risk;
+
+/**
+ * Input Boundary for actions which are related to viewing the risk of a portfolio.
+ */
+public interface ViewRiskInputBoundary {
+
+    /**
+     * Executes the view risk use case.
+     *
+     * @param input the input data
+     */
+    void execute(ViewRiskInputData input);
+}
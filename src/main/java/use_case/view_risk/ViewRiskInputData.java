@@ -0,0 +1,15 @@
+package use_case.view_risk;
+
+/**
+ * This class records the input data for the ViewRisk use case
+ *
+ * @param credential      the credential of the user
+ * @param confidenceLevel the confidence level of the Value-at-Risk, between 0 and 1 exclusive
+ * @param scenarioCount   the number of Monte Carlo scenarios
+ */
+public record ViewRiskInputData(
+        String credential,
+        double confidenceLevel,
+        int scenarioCount
+) {
+}
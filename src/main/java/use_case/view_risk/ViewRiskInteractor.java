@@ -0,0 +1,96 @@
+package use_case.view_risk;
+
+import entity.*;
+import utility.exceptions.ValidationException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The View Risk Interactor.
+ * <p>
+ * One risk engine is shared by every request, so the covariances computed for one user are reused for every
+ * other user holding the same tickers until the next market update.
+ * </p>
+ */
+public class ViewRiskInteractor implements ViewRiskInputBoundary {
+
+    private final ViewRiskDataAccessInterface dataAccess;
+    private final ViewRiskOutputBoundary outputPresenter;
+    private final RiskEngine riskEngine;
+
+    /**
+     * This is the constructor of the ViewRiskInteractor class.
+     * It instantiates a new ViewRisk Interactor reading the price history of the stock market.
+     *
+     * @param dataAccess     the data access
+     * @param outputBoundary the output boundary
+     */
+    public ViewRiskInteractor(ViewRiskDataAccessInterface dataAccess, ViewRiskOutputBoundary outputBoundary) {
+        this(dataAccess, outputBoundary, new RiskEngine(StockMarket.Instance().getPriceHistory()));
+    }
+
+    /**
+     * This is the constructor of the ViewRiskInteractor class.
+     * It instantiates a new ViewRisk Interactor with the given risk engine.
+     *
+     * @param dataAccess     the data access
+     * @param outputBoundary the output boundary
+     * @param riskEngine     the risk engine
+     */
+    public ViewRiskInteractor(ViewRiskDataAccessInterface dataAccess, ViewRiskOutputBoundary outputBoundary,
+                              RiskEngine riskEngine) {
+        this.dataAccess = dataAccess;
+        this.outputPresenter = outputBoundary;
+        this.riskEngine = riskEngine;
+    }
+
+    /**
+     * This method executes view risk
+     *
+     * @param data the input data
+     */
+    @Override
+    public void execute(ViewRiskInputData data) {
+        try {
+            // Get current user
+            User currentUser = dataAccess.getUserWithCredential(data.credential());
+
+            if (!(data.confidenceLevel() > 0 && data.confidenceLevel() < 1) || data.scenarioCount() < 1) {
+                throw new InvalidParametersException();
+            }
+
+            // Take the positions from one consistent state of the portfolio
+            Portfolio portfolio = currentUser.getPortfolio();
+            List<String> tickers;
+            double[] values;
+            synchronized (portfolio) {
+                tickers = new ArrayList<>(portfolio.getAllStocks().size());
+                values = new double[portfolio.getAllStocks().size()];
+                for (UserStock userStock : portfolio.getAllStocks()) {
+                    values[tickers.size()] = userStock.getCurrentMarketValue();
+                    tickers.add(userStock.getStock().getTicker());
+                }
+            }
+
+            if (!riskEngine.hasEnoughHistory()) {
+                throw new InsufficientHistoryException();
+            }
+            PortfolioRisk risk = riskEngine.analyze(tickers, values, data.confidenceLevel(), data.scenarioCount());
+
+            outputPresenter.prepareSuccessView(new ViewRiskOutputData(risk));
+        } catch (ValidationException e) {
+            outputPresenter.prepareValidationExceptionView();
+        } catch (InvalidParametersException e) {
+            outputPresenter.prepareInvalidParametersExceptionView();
+        } catch (InsufficientHistoryException e) {
+            outputPresenter.prepareInsufficientHistoryExceptionView();
+        }
+    }
+
+    static class InvalidParametersException extends Exception {
+    }
+
+    static class InsufficientHistoryException extends Exception {
+    }
+}
@@ -0,0 +1,29 @@
+package use_case.view_risk;
+
+/**
+ * The output boundary for the ViewRisk use case.
+ */
+public interface ViewRiskOutputBoundary {
+
+    /**
+     * Prepares the success view for the ViewRisk use case.
+     *
+     * @param outputData the output data
+     */
+    void prepareSuccessView(ViewRiskOutputData outputData);
+
+    /**
+     * Prepares the InsufficientHistoryException view for the ViewRisk use case
+     */
+    void prepareInsufficientHistoryExceptionView();
+
+    /**
+     * Prepares the InvalidParametersException view for the ViewRisk use case
+     */
+    void prepareInvalidParametersExceptionView();
+
+    /**
+     * Prepares the ValidationException view for the ViewRisk use case
+     */
+    void prepareValidationExceptionView();
+}
@@ -0,0 +1,13 @@
+package use_case.view_risk;
+
+import entity.PortfolioRisk;
+
+/**
+ * This class represents the output data for the ViewRisk use case.
+ *
+ * @param portfolioRisk the risk figures of the user's portfolio
+ */
+public record ViewRiskOutputData(
+        PortfolioRisk portfolioRisk
+) {
+}
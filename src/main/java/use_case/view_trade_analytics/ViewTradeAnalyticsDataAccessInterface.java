@@ -0,0 +1,46 @@
+package use_case.view_trade_analytics;
+
+import entity.RollupResolution;
+import entity.TradeRollup;
+import entity.User;
+import utility.exceptions.ValidationException;
+
+import java.util.List;
+
+/**
+ * The interface of the DAO for the View Trade Analytics Use Case.
+ */
+public interface ViewTradeAnalyticsDataAccessInterface {
+
+    /**
+     * Gets the current user from the user credential and throws ValidationException if credential is invalid
+     *
+     * @param credential the user's credential
+     * @return the user associated with the credential
+     * @throws ValidationException if provided credential is invalid
+     */
+    User getUserWithCredential(String credential) throws ValidationException;
+
+    /**
+     * Gets the rollups of a ticker across all users
+     *
+     * @param ticker     the ticker
+     * @param resolution the bucket size
+     * @param from       the start of the range in epoch milliseconds, inclusive
+     * @param to         the end of the range in epoch milliseconds, inclusive
+     * @return the non-empty buckets in the range, oldest first
+     */
+    List<TradeRollup> getMarketRollups(String ticker, RollupResolution resolution, long from, long to);
+
+    /**
+     * Gets the rollups of a ticker for one user
+     *
+     * @param user       the user
+     * @param ticker     the ticker
+     * @param resolution the bucket size
+     * @param from       the start of the range in epoch milliseconds, inclusive
+     * @param to         the end of the range in epoch milliseconds, inclusive
+     * @return the non-empty buckets in the range, oldest first
+     */
+    List<TradeRollup> getUserRollups(User user, String ticker, RollupResolution resolution, long from, long to);
+}
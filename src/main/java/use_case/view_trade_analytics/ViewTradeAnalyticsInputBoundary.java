@@ -0,0 +1,14 @@
+package use_case.view_trade_analytics;
+
+/**
+ * Input Boundary for actions which are related to viewing the trade analytics.
+ */
+public interface ViewTradeAnalyticsInputBoundary {
+
+    /**
+     * Executes the view trade analytics use case.
+     *
+     * @param input the input data
+     */
+    void execute(ViewTradeAnalyticsInputData input);
+}
@@ -0,0 +1,21 @@
+package use_case.view_trade_analytics;
+
+import entity.RollupResolution;
+
+/**
+ * This class records the input data for the ViewTradeAnalytics use case
+ *
+ * @param credential the credential of the user
+ * @param ticker     the ticker to analyse
+ * @param resolution the bucket size of the rollups
+ * @param from       the start of the range in epoch milliseconds, inclusive
+ * @param to         the end of the range in epoch milliseconds, inclusive
+ */
+public record ViewTradeAnalyticsInputData(
+        String credential,
+        String ticker,
+        RollupResolution resolution,
+        long from,
+        long to
+) {
+}
@@ -0,0 +1,68 @@
+package use_case.view_trade_analytics;
+
+import entity.TradeRollup;
+import entity.User;
+import utility.exceptions.ValidationException;
+
+import java.util.List;
+
+/**
+ * The View Trade Analytics Interactor.
+ * The volumes and VWAPs come from rollups kept up to date on every fill, no transaction history is read.
+ */
+public class ViewTradeAnalyticsInteractor implements ViewTradeAnalyticsInputBoundary {
+
+    private final ViewTradeAnalyticsDataAccessInterface dataAccess;
+    private final ViewTradeAnalyticsOutputBoundary outputPresenter;
+
+    /**
+     * This is the constructor of the ViewTradeAnalyticsInteractor class.
+     * It instantiates a new ViewTradeAnalytics Interactor.
+     *
+     * @param dataAccess     the data access
+     * @param outputBoundary the output boundary
+     */
+    public ViewTradeAnalyticsInteractor(ViewTradeAnalyticsDataAccessInterface dataAccess,
+                                        ViewTradeAnalyticsOutputBoundary outputBoundary) {
+        this.dataAccess = dataAccess;
+        this.outputPresenter = outputBoundary;
+    }
+
+    /**
+     * This method executes view trade analytics
+     *
+     * @param data the input data
+     */
+    @Override
+    public void execute(ViewTradeAnalyticsInputData data) {
+        try {
+            // Get current user
+            User currentUser = dataAccess.getUserWithCredential(data.credential());
+
+            if (data.ticker() == null || data.resolution() == null || data.from() > data.to()) {
+                throw new InvalidParametersException();
+            }
+
+            List<TradeRollup> marketRollups = dataAccess.getMarketRollups(
+                    data.ticker(), data.resolution(), data.from(), data.to());
+            List<TradeRollup> userRollups = dataAccess.getUserRollups(
+                    currentUser, data.ticker(), data.resolution(), data.from(), data.to());
+            long rangeStart = data.resolution().bucketStart(data.from());
+            outputPresenter.prepareSuccessView(new ViewTradeAnalyticsOutputData(
+                    data.ticker(),
+                    data.resolution(),
+                    marketRollups,
+                    userRollups,
+                    TradeRollup.sum(marketRollups, rangeStart),
+                    TradeRollup.sum(userRollups, rangeStart)
+            ));
+        } catch (ValidationException e) {
+            outputPresenter.prepareValidationExceptionView();
+        } catch (InvalidParametersException e) {
+            outputPresenter.prepareInvalidParametersExceptionView();
+        }
+    }
+
+    static class InvalidParametersException extends Exception {
+    }
+}
@@ -0,0 +1,24 @@
+package use_case.view_trade_analytics;
+
+/**
+ * The output boundary for the ViewTradeAnalytics use case.
+ */
+public interface ViewTradeAnalyticsOutputBoundary {
+
+    /**
+     * Prepares the success view for the ViewTradeAnalytics use case.
+     *
+     * @param outputData the output data
+     */
+    void prepareSuccessView(ViewTradeAnalyticsOutputData outputData);
+
+    /**
+     * Prepares the InvalidParametersException view for the ViewTradeAnalytics use case
+     */
+    void prepareInvalidParametersExceptionView();
+
+    /**
+     * Prepares the ValidationException view for the ViewTradeAnalytics use case
+     */
+    void prepareValidationExceptionView();
+}
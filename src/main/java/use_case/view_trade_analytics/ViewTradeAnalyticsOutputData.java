@@ -0,0 +1,26 @@
+package use_case.view_trade_analytics;
+
+import entity.RollupResolution;
+import entity.TradeRollup;
+
+import java.util.List;
+
+/**
+ * This class represents the output data for the ViewTradeAnalytics use case.
+ *
+ * @param ticker         the analysed ticker
+ * @param resolution     the bucket size of the rollups
+ * @param marketRollups  the buckets of the ticker across all users, oldest first
+ * @param userRollups    the buckets of the ticker for the current user, oldest first
+ * @param marketTotal    the volume, notional and VWAP of the ticker across all users over the range
+ * @param userTotal      the volume, notional and VWAP of the ticker for the current user over the range
+ */
+public record ViewTradeAnalyticsOutputData(
+        String ticker,
+        RollupResolution resolution,
+        List<TradeRollup> marketRollups,
+        List<TradeRollup> userRollups,
+        TradeRollup marketTotal,
+        TradeRollup userTotal
+) {
+}
@@ -0,0 +1,109 @@
+package utility;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Hashes passwords with PBKDF2-HMAC-SHA256 and a random salt per password
+ * <p>
+ * A hash is stored as pbkdf2-sha256$iterations$salt$hash with Base64 salt and hash. The iterations are the work
+ * factor: new hashes use the configured value, and a hash is always verified with the iterations stored in it, so
+ * raising the work factor does not invalidate existing passwords.
+ * </p>
+ */
+public class PasswordHasher {
+
+    public static final int DEFAULT_ITERATIONS = 600000;
+
+    private static final String PREFIX = "pbkdf2-sha256";
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+
+    // singleton instance
+    private static volatile PasswordHasher instance;
+
+    private final SecureRandom random = new SecureRandom();
+    private volatile int iterations;
+
+    /**
+     * Create a hasher with its own work factor, e.g. a low one for tests. Hashes of any work factor are verified by
+     * every hasher.
+     *
+     * @param iterations the number of PBKDF2 iterations of new hashes, at least 1
+     */
+    public PasswordHasher(int iterations) {
+        setIterations(iterations);
+    }
+
+    public static synchronized PasswordHasher Instance() {
+        if (instance == null) {
+            instance = new PasswordHasher(DEFAULT_ITERATIONS);
+        }
+        return instance;
+    }
+
+    /**
+     * Set the work factor of new hashes
+     *
+     * @param iterations the number of PBKDF2 iterations, at least 1
+     */
+    public void setIterations(int iterations) {
+        if (iterations < 1) {
+            throw new IllegalArgumentException("The iterations must be at least 1.");
+        }
+        this.iterations = iterations;
+    }
+
+    /**
+     * Hash a password with a new salt and the configured work factor
+     *
+     * @param password the password
+     * @return the encoded hash
+     */
+    public String hash(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        int work = iterations;
+        byte[] hash = derive(password, salt, work);
+        Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+        return PREFIX + "$" + work + "$" + encoder.encodeToString(salt) + "$" + encoder.encodeToString(hash);
+    }
+
+    /**
+     * Check a password against an encoded hash, in time independent of where they differ
+     *
+     * @param password the password to check
+     * @param encoded  the encoded hash
+     * @return whether the password matches
+     */
+    public boolean verify(String password, String encoded) {
+        String[] parts = encoded.split("\\$");
+        if (parts.length != 4 || !parts[0].equals(PREFIX)) {
+            return false;
+        }
+        try {
+            int work = Integer.parseInt(parts[1]);
+            byte[] salt = Base64.getDecoder().decode(parts[2]);
+            byte[] expected = Base64.getDecoder().decode(parts[3]);
+            return work >= 1 && MessageDigest.isEqual(derive(password, salt, work), expected);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static byte[] derive(String password, byte[] salt, int work) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, work, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available.", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
@@ -1,51 +1,218 @@
 package utility;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.Queue;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
 
+/**
+ * The server side sessions, from credential to username
+ * <p>
+ * A session expires when it has not been used for the idle TTL, or at the latest the absolute TTL after it was
+ * created. Lookups go to a ConcurrentHashMap without locking and reject an expired session themselves. Expired
+ * sessions are removed by a hashed timing wheel: a session is put in the slot of the tick its deadline falls in,
+ * and a background thread only looks at the slot of the current tick, so the cost of expiry does not grow with the
+ * number of live sessions. A session used since it was put in its slot is moved to the slot of its new deadline.
+ * </p>
+ * <p>
+ * A session can keep the principal its username resolves to, so a request goes from credential to user with one
+ * lookup. The principal goes away with the session.
+ * </p>
+ */
 public class SessionManager {
 
-    // singleton instance
-    private volatile static SessionManager instance;
+    private static final long IDLE_TTL_MILLIS = TimeUnit.MINUTES.toMillis(30);
+    private static final long ABSOLUTE_TTL_MILLIS = TimeUnit.HOURS.toMillis(12);
+    private static final long TICK_MILLIS = 1000;
+    private static final int WHEEL_SLOTS = 1 << 12;
 
-    // map to store session credentials and associated usernames
-    private final Map<String, String> sessions;
+    // map to store sessions by their credentials
+    private final ConcurrentHashMap<String, Session> sessions;
+
+    // the slots of the wheel, a session is in the slot of the tick of its deadline modulo the number of slots
+    private final List<Queue<Session>> wheel;
+
+    // the current time in milliseconds
+    private final LongSupplier clock;
+
+    // the last tick whose slot was expired, only written by the expiry thread
+    private volatile long expiredTick;
 
     // singleton constructor
     private SessionManager() {
-        sessions = new HashMap<>();
+        this(System::currentTimeMillis);
+
+        // a daemon thread, so the sessions do not keep the application running
+        ScheduledExecutorService expiry = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "session-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        expiry.scheduleWithFixedDelay(() -> {
+            try {
+                expireUntil(clock.getAsLong());
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
     }
 
-    public static synchronized SessionManager Instance() {
-        if (instance == null) {
-            instance = new SessionManager();
+    // sessions on the given clock whose wheel only turns on calls to expireUntil, for tests
+    SessionManager(LongSupplier clock) {
+        this.clock = clock;
+        sessions = new ConcurrentHashMap<>();
+        wheel = new ArrayList<>(WHEEL_SLOTS);
+        for (int i = 0; i < WHEEL_SLOTS; i++) {
+            wheel.add(new ConcurrentLinkedQueue<>());
         }
-        return instance;
+        expiredTick = clock.getAsLong() / TICK_MILLIS;
+    }
+
+    public static SessionManager Instance() {
+        return Holder.INSTANCE;
     }
 
     // create a new session and return the unique credential key
     public String createSession(String username) {
         String credentialKey = UUID.randomUUID().toString();
-        sessions.put(credentialKey, username);
+        Session session = new Session(credentialKey, username, clock.getAsLong());
+        sessions.put(credentialKey, session);
+        schedule(session);
         return credentialKey;
     }
 
-    // get the username associated with a session credential
+    // get the username associated with a session credential, which counts as a use of the session
     public Optional<String> getUsername(String credentialKey) {
-        return Optional.ofNullable(sessions.get(credentialKey));
+        Session session = getLiveSession(credentialKey);
+        return session == null ? Optional.empty() : Optional.of(session.username);
     }
 
-    // end a session
+    /**
+     * Get the principal of a session, e.g. the user it belongs to, without an exception or a second lookup.
+     * The first call resolves the principal from the username and keeps it in the session, so it is dropped with
+     * the session on logout or expiry. This counts as a use of the session.
+     *
+     * @param credentialKey the credential of the session
+     * @param type          the type of the principal
+     * @param resolver      resolves the principal from the username, returning null if there is none
+     * @return the principal, or null if the session is not live or the resolver returned null
+     */
+    public <T> T getPrincipal(String credentialKey, Class<T> type, Function<String, T> resolver) {
+        Session session = getLiveSession(credentialKey);
+        if (session == null) {
+            return null;
+        }
+        Object principal = session.principal;
+        if (type.isInstance(principal)) {
+            return type.cast(principal);
+        }
+        // concurrent first uses may both resolve, which gives the same principal
+        T resolved = resolver.apply(session.username);
+        session.principal = resolved;
+        return resolved;
+    }
+
+    // end a session if it is still valid, an expired one is already removed by the lookup
     public void endSession(String credentialKey) {
-        if (isValidSession(credentialKey)) {
-            sessions.remove(credentialKey);
+        Session session = getLiveSession(credentialKey);
+        if (session != null && sessions.remove(credentialKey, session)) {
+            // the session is dropped from the wheel when its slot comes up, its principal goes now
+            session.principal = null;
         }
     }
 
-    // check if a session is valid
+    // check if a session is valid, which counts as a use of the session
     public boolean isValidSession(String credentialKey) {
-        return sessions.containsKey(credentialKey);
+        return getLiveSession(credentialKey) != null;
+    }
+
+    // get the number of sessions that were not removed yet, including expired ones whose slot did not come up
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    // get a session that has not expired and mark it as used
+    private Session getLiveSession(String credentialKey) {
+        Session session = sessions.get(credentialKey);
+        if (session == null) {
+            return null;
+        }
+        long now = clock.getAsLong();
+        if (now >= session.deadline()) {
+            sessions.remove(credentialKey, session);
+            return null;
+        }
+        // the wheel works in ticks, so a use within the same tick does not write the shared session
+        if (now - session.lastAccessMillis >= TICK_MILLIS) {
+            session.lastAccessMillis = now;
+        }
+        return session;
+    }
+
+    // put a session in the slot of its deadline, or of the next tick if that slot has already been expired
+    private void schedule(Session session) {
+        long tick = Math.max(session.deadline() / TICK_MILLIS, expiredTick + 1);
+        wheel.get((int) (tick & (WHEEL_SLOTS - 1))).add(session);
+    }
+
+    // expire the slots of every tick up to a time, catching up on ticks the thread was late for
+    void expireUntil(long now) {
+        long nowTick = now / TICK_MILLIS;
+        long tick = expiredTick;
+        // after a long pause every slot is looked at once
+        long first = Math.max(tick + 1, nowTick - WHEEL_SLOTS + 1);
+        for (tick = first; tick <= nowTick; tick++) {
+            Queue<Session> slot = wheel.get((int) (tick & (WHEEL_SLOTS - 1)));
+            List<Session> live = new ArrayList<>();
+            Session session;
+            while ((session = slot.poll()) != null) {
+                if (sessions.get(session.credentialKey) != session) {
+                    continue;
+                }
+                if (now >= session.deadline()) {
+                    sessions.remove(session.credentialKey, session);
+                } else {
+                    live.add(session);
+                }
+            }
+            expiredTick = tick;
+            // sessions that were used, or whose deadline is more than a revolution away, move to their slot
+            live.forEach(this::schedule);
+        }
+    }
+
+    // the singleton, created on the first call to Instance
+    private static final class Holder {
+        private static final SessionManager INSTANCE = new SessionManager();
+    }
+
+    /**
+     * A live session
+     */
+    private static final class Session {
+        private final String credentialKey;
+        private final String username;
+        private final long createdMillis;
+        private volatile long lastAccessMillis;
+        private volatile Object principal;
+
+        private Session(String credentialKey, String username, long createdMillis) {
+            this.credentialKey = credentialKey;
+            this.username = username;
+            this.createdMillis = createdMillis;
+            this.lastAccessMillis = createdMillis;
+        }
+
+        private long deadline() {
+            return Math.min(lastAccessMillis + IDLE_TTL_MILLIS, createdMillis + ABSOLUTE_TTL_MILLIS);
+        }
     }
-}
\ No newline at end of file
+}
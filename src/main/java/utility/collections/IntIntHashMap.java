@@ -0,0 +1,216 @@
+package utility.collections;
+
+import java.util.Arrays;
+
+/**
+ * An open-addressing hash map from int to int without boxing
+ * <p>
+ * Keys must be non-negative, which fits the integer ids used as keys across the application.
+ * Collisions are resolved with linear probing and removals use backward shifting, so no tombstones are left behind.
+ * Each entry costs 8 bytes at full load instead of the ~80 bytes of a {@code HashMap<Integer, Integer>} entry.
+ * This class is not thread-safe.
+ * </p>
+ */
+public class IntIntHashMap {
+
+    private static final int EMPTY = -1;
+    private static final int MINIMUM_CAPACITY = 4;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private int[] keys;
+    private int[] values;
+    private int size;
+    private int resizeThreshold;
+
+    public IntIntHashMap() {
+        this(MINIMUM_CAPACITY);
+    }
+
+    /**
+     * Create a map sized for the expected number of entries
+     *
+     * @param expectedSize the number of entries the map should hold without resizing
+     */
+    public IntIntHashMap(int expectedSize) {
+        allocate(tableSizeFor((int) Math.ceil(Math.max(expectedSize, 1) / LOAD_FACTOR)));
+    }
+
+    /**
+     * Associate a value with a key, replacing any previous value
+     *
+     * @param key   the non-negative key
+     * @param value the value
+     * @return the previous value, or missingValue if the key was not present
+     */
+    public int put(int key, int value, int missingValue) {
+        checkKey(key);
+        int mask = keys.length - 1;
+        int index = hash(key) & mask;
+        while (keys[index] != EMPTY) {
+            if (keys[index] == key) {
+                int previous = values[index];
+                values[index] = value;
+                return previous;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = value;
+        if (++size > resizeThreshold) {
+            rehash(keys.length << 1);
+        }
+        return missingValue;
+    }
+
+    /**
+     * Get the value of a key
+     *
+     * @param key          the key
+     * @param missingValue the value returned when the key is not present
+     * @return the value of the key, or missingValue
+     */
+    public int get(int key, int missingValue) {
+        if (key < 0) {
+            return missingValue;
+        }
+        int mask = keys.length - 1;
+        int index = hash(key) & mask;
+        while (keys[index] != EMPTY) {
+            if (keys[index] == key) {
+                return values[index];
+            }
+            index = (index + 1) & mask;
+        }
+        return missingValue;
+    }
+
+    /**
+     * Remove a key from the map
+     *
+     * @param key          the key
+     * @param missingValue the value returned when the key is not present
+     * @return the removed value, or missingValue
+     */
+    public int remove(int key, int missingValue) {
+        if (key < 0) {
+            return missingValue;
+        }
+        int mask = keys.length - 1;
+        int index = hash(key) & mask;
+        while (keys[index] != EMPTY) {
+            if (keys[index] == key) {
+                int previous = values[index];
+                shiftBack(index);
+                size--;
+                return previous;
+            }
+            index = (index + 1) & mask;
+        }
+        return missingValue;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Copy all keys of the map into a new array
+     *
+     * @return the keys in no particular order
+     */
+    public int[] keys() {
+        int[] result = new int[size];
+        int count = 0;
+        for (int key : keys) {
+            if (key != EMPTY) {
+                result[count++] = key;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Call the consumer for every entry of the map, the map must not be modified during iteration
+     *
+     * @param consumer the consumer of the entries
+     */
+    public void forEach(EntryConsumer consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                consumer.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    /**
+     * A consumer of int to int entries
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(int key, int value);
+    }
+
+    // remove the slot at index and move later entries of the probe sequence back so lookups still find them
+    private void shiftBack(int index) {
+        int mask = keys.length - 1;
+        int gap = index;
+        int next = (gap + 1) & mask;
+        while (keys[next] != EMPTY) {
+            int home = hash(keys[next]) & mask;
+            // move the entry into the gap unless its home slot lies cyclically within (gap, next]
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap] = EMPTY;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            int key = oldKeys[i];
+            if (key != EMPTY) {
+                int index = hash(key) & mask;
+                while (keys[index] != EMPTY) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = key;
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static void checkKey(int key) {
+        if (key < 0) {
+            throw new IllegalArgumentException("Keys must be non-negative.");
+        }
+    }
+
+    private static int hash(int key) {
+        // spread the bits of sequential ids over the table
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static int tableSizeFor(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, MINIMUM_CAPACITY) - 1) << 1;
+        return Math.max(size, MINIMUM_CAPACITY);
+    }
+}
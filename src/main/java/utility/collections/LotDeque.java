@@ -0,0 +1,203 @@
+package utility.collections;
+
+import java.util.NoSuchElementException;
+
+/**
+ * A double-ended queue of tax lots stored in parallel primitive ring buffers
+ * <p>
+ * A lot is an id, an acquisition timestamp, a remaining quantity and a price. Lots are addressed by their position
+ * from the oldest (0) to the newest (size - 1). Ids must be added in increasing order, which keeps them sorted so a
+ * lot is found by binary search. Each lot costs 28 bytes instead of an object per lot in a list.
+ * This class is not thread-safe.
+ * </p>
+ */
+public class LotDeque {
+
+    private static final int MINIMUM_CAPACITY = 4;
+
+    private long[] ids;
+    private long[] timestamps;
+    private int[] quantities;
+    private double[] prices;
+    private int head;
+    private int size;
+
+    public LotDeque() {
+        allocate(MINIMUM_CAPACITY);
+    }
+
+    /**
+     * Add a lot after the newest lot
+     *
+     * @param id        the id of the lot, greater than the id of every lot in the deque
+     * @param timestamp the time the lot was acquired
+     * @param quantity  the quantity of the lot
+     * @param price     the price the lot was acquired at
+     */
+    public void addLast(long id, long timestamp, int quantity, double price) {
+        if (size > 0 && id <= getId(size - 1)) {
+            throw new IllegalArgumentException("Lot ids must be added in increasing order.");
+        }
+        if (size == ids.length) {
+            grow();
+        }
+        int slot = slot(size);
+        ids[slot] = id;
+        timestamps[slot] = timestamp;
+        quantities[slot] = quantity;
+        prices[slot] = price;
+        size++;
+    }
+
+    /**
+     * Remove the oldest lot
+     */
+    public void removeFirst() {
+        checkIndex(0);
+        head = (head + 1) & (ids.length - 1);
+        size--;
+    }
+
+    /**
+     * Remove the newest lot
+     */
+    public void removeLast() {
+        checkIndex(0);
+        size--;
+    }
+
+    /**
+     * Remove the lot at a position, shifting the shorter side of the deque
+     *
+     * @param index the position of the lot, 0 is the oldest
+     */
+    public void remove(int index) {
+        checkIndex(index);
+        if (index < size / 2) {
+            for (int i = index; i > 0; i--) {
+                copy(i - 1, i);
+            }
+            removeFirst();
+        } else {
+            for (int i = index; i < size - 1; i++) {
+                copy(i + 1, i);
+            }
+            removeLast();
+        }
+    }
+
+    /**
+     * Find the position of a lot by id
+     *
+     * @param id the id of the lot
+     * @return the position of the lot, or -1 if there is no lot with the id
+     */
+    public int indexOf(long id) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long middleId = getId(middle);
+            if (middleId < id) {
+                low = middle + 1;
+            } else if (middleId > id) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    public long getId(int index) {
+        checkIndex(index);
+        return ids[slot(index)];
+    }
+
+    public long getTimestamp(int index) {
+        checkIndex(index);
+        return timestamps[slot(index)];
+    }
+
+    public int getQuantity(int index) {
+        checkIndex(index);
+        return quantities[slot(index)];
+    }
+
+    public double getPrice(int index) {
+        checkIndex(index);
+        return prices[slot(index)];
+    }
+
+    /**
+     * Set the remaining quantity of a lot
+     *
+     * @param index    the position of the lot
+     * @param quantity the new quantity
+     */
+    public void setQuantity(int index, int quantity) {
+        checkIndex(index);
+        quantities[slot(index)] = quantity;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Remove every lot
+     */
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    private int slot(int index) {
+        return (head + index) & (ids.length - 1);
+    }
+
+    private void copy(int fromIndex, int toIndex) {
+        int from = slot(fromIndex);
+        int to = slot(toIndex);
+        ids[to] = ids[from];
+        timestamps[to] = timestamps[from];
+        quantities[to] = quantities[from];
+        prices[to] = prices[from];
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new NoSuchElementException("No lot at position " + index + ".");
+        }
+    }
+
+    // double the capacity and move the lots to the start of the new buffers
+    private void grow() {
+        long[] oldIds = ids;
+        long[] oldTimestamps = timestamps;
+        int[] oldQuantities = quantities;
+        double[] oldPrices = prices;
+        int oldHead = head;
+        int mask = oldIds.length - 1;
+        allocate(oldIds.length * 2);
+        for (int i = 0; i < size; i++) {
+            int from = (oldHead + i) & mask;
+            ids[i] = oldIds[from];
+            timestamps[i] = oldTimestamps[from];
+            quantities[i] = oldQuantities[from];
+            prices[i] = oldPrices[from];
+        }
+    }
+
+    private void allocate(int capacity) {
+        ids = new long[capacity];
+        timestamps = new long[capacity];
+        quantities = new int[capacity];
+        prices = new double[capacity];
+        head = 0;
+    }
+}
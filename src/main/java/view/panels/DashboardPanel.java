@@ -32,6 +32,10 @@ public class DashboardPanel extends JPanel implements IComponent {
     private final JLabel balanceLabel;
     private final ButtonComponent tradeButton;
     private final ButtonComponent historyButton;
+    private final ButtonComponent leaderboardButton;
+    private final ButtonComponent riskButton;
+    private final ButtonComponent equityCurveButton;
+    private final ButtonComponent tradeAnalyticsButton;
     private final ButtonComponent logoutButton;
 
     public DashboardPanel() {
@@ -40,6 +44,10 @@ public class DashboardPanel extends JPanel implements IComponent {
         balanceLabel = new JLabel(formatBalanceText(DEFAULT_CASH, DEFAULT_POSITION));
         tradeButton = new ButtonComponent("Trade");
         historyButton = new ButtonComponent("View Transaction History");
+        leaderboardButton = new ButtonComponent("Leaderboard");
+        riskButton = new ButtonComponent("Portfolio Risk");
+        equityCurveButton = new ButtonComponent("Equity Curve");
+        tradeAnalyticsButton = new ButtonComponent("Trade Analytics");
         logoutButton = new ButtonComponent("Log out");
 
         ViewManager.Instance().registerComponent(this);
@@ -93,6 +101,14 @@ public class DashboardPanel extends JPanel implements IComponent {
         tradingManagementPanel.add(tradeButton);
         tradingManagementPanel.add(historyButton);
 
+        // Analysis Panel
+        JPanel analysisPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 10));
+        analysisPanel.setBorder(BorderFactory.createTitledBorder("Analysis"));
+        analysisPanel.add(leaderboardButton);
+        analysisPanel.add(riskButton);
+        analysisPanel.add(equityCurveButton);
+        analysisPanel.add(tradeAnalyticsButton);
+
         // Account Management Panel
         JPanel accountManagementPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 10));
         accountManagementPanel.setBorder(BorderFactory.createTitledBorder("Account management"));
@@ -101,6 +117,8 @@ public class DashboardPanel extends JPanel implements IComponent {
         // Combine panels
         centerPanel.add(tradingManagementPanel);
         centerPanel.add(Box.createRigidArea(new Dimension(0, SECTION_SPACING)));
+        centerPanel.add(analysisPanel);
+        centerPanel.add(Box.createRigidArea(new Dimension(0, SECTION_SPACING)));
         centerPanel.add(accountManagementPanel);
 
         return centerPanel;
@@ -129,6 +147,22 @@ public class DashboardPanel extends JPanel implements IComponent {
                 ViewManager.Instance().broadcastEvent(new SwitchPanelEvent("TransactionHistoryPanel"))
         );
 
+        leaderboardButton.addActionListener(e ->
+                ViewManager.Instance().broadcastEvent(new SwitchPanelEvent("LeaderboardPanel"))
+        );
+
+        riskButton.addActionListener(e ->
+                ViewManager.Instance().broadcastEvent(new SwitchPanelEvent("RiskPanel"))
+        );
+
+        equityCurveButton.addActionListener(e ->
+                ViewManager.Instance().broadcastEvent(new SwitchPanelEvent("EquityCurvePanel"))
+        );
+
+        tradeAnalyticsButton.addActionListener(e ->
+                ViewManager.Instance().broadcastEvent(new SwitchPanelEvent("TradeAnalyticsPanel"))
+        );
+
         logoutButton.addActionListener(e ->
                 ViewManager.Instance().broadcastEvent(new SwitchPanelEvent("LogInPanel"))
         );
@@ -0,0 +1,172 @@
+package view.panels;
+
+import entity.EquityCurve;
+import interface_adapter.view_equity_curve.ViewEquityCurveController;
+import utility.ServiceManager;
+import utility.ViewManager;
+import view.IComponent;
+import view.components.ButtonComponent;
+import view.view_events.SwitchPanelEvent;
+import view.view_events.UpdateEquityCurveEvent;
+import view.view_events.ViewEvent;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+public class EquityCurvePanel extends JPanel implements IComponent {
+    // Layout Constants
+    private static final int MAIN_PADDING = 20;
+    private static final int HEADER_BOTTOM_SPACING = 10;
+    private static final int ROW_HEIGHT = 30;
+    private static final int BUTTON_WIDTH = 120;
+    private static final int BUTTON_HEIGHT = 30;
+    private static final int BUTTON_SPACING = 10;
+
+    // Font Constants
+    private static final String FONT_FAMILY = "Lucida Sans";
+    private static final int TITLE_FONT_SIZE = 28;
+    private static final int TABLE_FONT_SIZE = 14;
+
+    // Range Constants, the ranges end now and start this many milliseconds before
+    private static final String[] RANGE_NAMES = {"Last hour", "Last day", "Last week", "Last 30 days", "All"};
+    private static final long[] RANGE_MILLIS = {
+            60 * 60_000L,
+            24 * 60 * 60_000L,
+            7 * 24 * 60 * 60_000L,
+            30 * 24 * 60 * 60_000L,
+            Long.MAX_VALUE
+    };
+
+    // Format Constants
+    private static final String CURRENCY_FORMAT = "$%.2f";
+    private static final String PERCENT_FORMAT = "%.2f%%";
+    private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("MM/dd/yyyy HH:mm");
+
+    // Column Constants
+    private static final String[] COLUMN_NAMES = {"Date", "Cash", "Portfolio Value", "Total Assets"};
+
+    // Components
+    private final JComboBox<String> rangeBox = new JComboBox<>(RANGE_NAMES);
+    private final JLabel summaryLabel = new JLabel(" ");
+    private final DefaultTableModel tableModel = new DefaultTableModel(COLUMN_NAMES, 0) {
+        @Override
+        public boolean isCellEditable(int row, int column) {
+            return false;
+        }
+    };
+
+    public EquityCurvePanel() {
+        ViewManager.Instance().registerComponent(this);
+        setupMainPanel();
+
+        add(createHeaderPanel(), BorderLayout.NORTH);
+        add(createTablePanel(), BorderLayout.CENTER);
+
+        // a snapshot is taken every minute, so the curve is read again whenever the panel is shown
+        addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentShown(ComponentEvent e) {
+                requestCurve();
+            }
+        });
+    }
+
+    private void setupMainPanel() {
+        setLayout(new BorderLayout());
+        setBorder(BorderFactory.createEmptyBorder(MAIN_PADDING, MAIN_PADDING, MAIN_PADDING, MAIN_PADDING));
+    }
+
+    private JPanel createHeaderPanel() {
+        JPanel headerPanel = new JPanel(new BorderLayout());
+        headerPanel.setBorder(BorderFactory.createEmptyBorder(0, 0, HEADER_BOTTOM_SPACING, 0));
+
+        // Title and the return and drawdown over the range
+        JLabel titleLabel = new JLabel("Equity Curve");
+        titleLabel.setFont(new Font(FONT_FAMILY, Font.BOLD, TITLE_FONT_SIZE));
+        summaryLabel.setFont(new Font(FONT_FAMILY, Font.PLAIN, TABLE_FONT_SIZE));
+        JPanel titlePanel = new JPanel();
+        titlePanel.setLayout(new BoxLayout(titlePanel, BoxLayout.Y_AXIS));
+        titlePanel.add(titleLabel);
+        titlePanel.add(summaryLabel);
+        headerPanel.add(titlePanel, BorderLayout.WEST);
+
+        // Range, refresh and back buttons
+        rangeBox.setSelectedIndex(1);
+        rangeBox.addActionListener(e -> requestCurve());
+        ButtonComponent refreshButton = new ButtonComponent("Refresh");
+        refreshButton.setPreferredSize(new Dimension(BUTTON_WIDTH, BUTTON_HEIGHT));
+        refreshButton.addActionListener(e -> requestCurve());
+        ButtonComponent backButton = new ButtonComponent("Back to Home");
+        backButton.setPreferredSize(new Dimension(BUTTON_WIDTH, BUTTON_HEIGHT));
+        backButton.addActionListener(e ->
+                ViewManager.Instance().broadcastEvent(new SwitchPanelEvent("DashboardPanel"))
+        );
+
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, BUTTON_SPACING, 0));
+        buttonPanel.add(new JLabel("Range"));
+        buttonPanel.add(rangeBox);
+        buttonPanel.add(refreshButton);
+        buttonPanel.add(backButton);
+        headerPanel.add(buttonPanel, BorderLayout.EAST);
+
+        return headerPanel;
+    }
+
+    private JScrollPane createTablePanel() {
+        JTable table = new JTable(tableModel);
+        table.setFillsViewportHeight(true);
+        table.setRowHeight(ROW_HEIGHT);
+        table.setFont(new Font(FONT_FAMILY, Font.PLAIN, TABLE_FONT_SIZE));
+        table.getTableHeader().setFont(new Font(FONT_FAMILY, Font.BOLD, TABLE_FONT_SIZE));
+        table.getTableHeader().setForeground(Color.GRAY);
+
+        JScrollPane scrollPane = new JScrollPane(table);
+        scrollPane.setBorder(BorderFactory.createEmptyBorder(0, 0, 0, 0));
+        return scrollPane;
+    }
+
+    private void requestCurve() {
+        ViewEquityCurveController controller = ServiceManager.Instance().getService(ViewEquityCurveController.class);
+        if (controller != null) {
+            long now = System.currentTimeMillis();
+            long rangeMillis = RANGE_MILLIS[rangeBox.getSelectedIndex()];
+            controller.execute(rangeMillis == Long.MAX_VALUE ? Long.MIN_VALUE : now - rangeMillis, now);
+        } else {
+            summaryLabel.setText("The equity curve is only available when the users are kept in memory.");
+        }
+    }
+
+    private void updateCurve(UpdateEquityCurveEvent curveEvent) {
+        EquityCurve curve = curveEvent.getEquityCurve();
+        if (curve.size() == 0) {
+            summaryLabel.setText("No snapshots in this range yet.");
+        } else {
+            summaryLabel.setText(String.format("Return " + PERCENT_FORMAT + ", maximum drawdown " + PERCENT_FORMAT
+                            + ", %d snapshots", curveEvent.getTotalReturn() * 100, curveEvent.getMaxDrawdown() * 100,
+                    curve.size()));
+        }
+
+        // newest snapshot first
+        tableModel.setRowCount(0);
+        for (int i = curve.size() - 1; i >= 0; i--) {
+            tableModel.addRow(new Object[]{
+                    DATE_FORMAT.format(new Date(curve.timestamps()[i])),
+                    String.format(CURRENCY_FORMAT, curve.cash()[i]),
+                    String.format(CURRENCY_FORMAT, curve.portfolioValue()[i]),
+                    String.format(CURRENCY_FORMAT, curve.getTotal(i))
+            });
+        }
+    }
+
+    @Override
+    public void receiveViewEvent(ViewEvent event) {
+        if (event instanceof UpdateEquityCurveEvent curveEvent) {
+            SwingUtilities.invokeLater(() -> updateCurve(curveEvent));
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package view.panels;
+
+import interface_adapter.view_leaderboard.ViewLeaderboardController;
+import use_case.view_leaderboard.LeaderboardEntry;
+import utility.ServiceManager;
+import utility.ViewManager;
+import view.IComponent;
+import view.components.ButtonComponent;
+import view.view_events.SwitchPanelEvent;
+import view.view_events.UpdateLeaderboardEvent;
+import view.view_events.ViewEvent;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.util.List;
+
+public class LeaderboardPanel extends JPanel implements IComponent {
+    // Layout Constants
+    private static final int MAIN_PADDING = 20;
+    private static final int HEADER_BOTTOM_SPACING = 10;
+    private static final int ROW_HEIGHT = 30;
+    private static final int BUTTON_WIDTH = 120;
+    private static final int BUTTON_HEIGHT = 30;
+    private static final int BUTTON_SPACING = 10;
+
+    // Font Constants
+    private static final String FONT_FAMILY = "Lucida Sans";
+    private static final int TITLE_FONT_SIZE = 28;
+    private static final int TABLE_FONT_SIZE = 14;
+
+    // Leaderboard Constants
+    private static final int TOP_COUNT = 10;
+    private static final int NEIGHBOUR_RADIUS = 5;
+
+    // Format Constants
+    private static final String CURRENCY_FORMAT = "$%.2f";
+
+    // Column Constants
+    private static final String[] COLUMN_NAMES = {"Rank", "Username", "Total Assets"};
+
+    // Components
+    private final DefaultTableModel topModel = createTableModel();
+    private final DefaultTableModel neighbourModel = createTableModel();
+    private final JLabel rankLabel = new JLabel(" ");
+
+    public LeaderboardPanel() {
+        ViewManager.Instance().registerComponent(this);
+        setupMainPanel();
+
+        add(createHeaderPanel(), BorderLayout.NORTH);
+        add(createTablesPanel(), BorderLayout.CENTER);
+
+        // the ranking changes with every trade and price update, so it is read again whenever the panel is shown
+        addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentShown(ComponentEvent e) {
+                requestLeaderboard();
+            }
+        });
+    }
+
+    private void setupMainPanel() {
+        setLayout(new BorderLayout());
+        setBorder(BorderFactory.createEmptyBorder(MAIN_PADDING, MAIN_PADDING, MAIN_PADDING, MAIN_PADDING));
+    }
+
+    private JPanel createHeaderPanel() {
+        JPanel headerPanel = new JPanel(new BorderLayout());
+        headerPanel.setBorder(BorderFactory.createEmptyBorder(0, 0, HEADER_BOTTOM_SPACING, 0));
+
+        // Title and the rank of the current user
+        JLabel titleLabel = new JLabel("Leaderboard");
+        titleLabel.setFont(new Font(FONT_FAMILY, Font.BOLD, TITLE_FONT_SIZE));
+        rankLabel.setFont(new Font(FONT_FAMILY, Font.PLAIN, TABLE_FONT_SIZE));
+        JPanel titlePanel = new JPanel();
+        titlePanel.setLayout(new BoxLayout(titlePanel, BoxLayout.Y_AXIS));
+        titlePanel.add(titleLabel);
+        titlePanel.add(rankLabel);
+        headerPanel.add(titlePanel, BorderLayout.WEST);
+
+        // Refresh and back buttons
+        ButtonComponent refreshButton = new ButtonComponent("Refresh");
+        refreshButton.setPreferredSize(new Dimension(BUTTON_WIDTH, BUTTON_HEIGHT));
+        refreshButton.addActionListener(e -> requestLeaderboard());
+        ButtonComponent backButton = new ButtonComponent("Back to Home");
+        backButton.setPreferredSize(new Dimension(BUTTON_WIDTH, BUTTON_HEIGHT));
+        backButton.addActionListener(e ->
+                ViewManager.Instance().broadcastEvent(new SwitchPanelEvent("DashboardPanel"))
+        );
+
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, BUTTON_SPACING, 0));
+        buttonPanel.add(refreshButton);
+        buttonPanel.add(backButton);
+        headerPanel.add(buttonPanel, BorderLayout.EAST);
+
+        return headerPanel;
+    }
+
+    private JPanel createTablesPanel() {
+        JPanel tablesPanel = new JPanel(new GridLayout(1, 2, BUTTON_SPACING, 0));
+        tablesPanel.add(createTablePanel("Top " + TOP_COUNT, topModel));
+        tablesPanel.add(createTablePanel("Around you", neighbourModel));
+        return tablesPanel;
+    }
+
+    private JScrollPane createTablePanel(String title, DefaultTableModel model) {
+        JTable table = new JTable(model);
+        table.setFillsViewportHeight(true);
+        table.setRowHeight(ROW_HEIGHT);
+        table.setFont(new Font(FONT_FAMILY, Font.PLAIN, TABLE_FONT_SIZE));
+        table.getTableHeader().setFont(new Font(FONT_FAMILY, Font.BOLD, TABLE_FONT_SIZE));
+        table.getTableHeader().setForeground(Color.GRAY);
+
+        JScrollPane scrollPane = new JScrollPane(table);
+        scrollPane.setBorder(BorderFactory.createTitledBorder(title));
+        return scrollPane;
+    }
+
+    private static DefaultTableModel createTableModel() {
+        return new DefaultTableModel(new Object[][]{}, COLUMN_NAMES) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+    }
+
+    private void requestLeaderboard() {
+        ViewLeaderboardController controller = ServiceManager.Instance().getService(ViewLeaderboardController.class);
+        if (controller != null) {
+            controller.execute(TOP_COUNT, NEIGHBOUR_RADIUS);
+        } else {
+            rankLabel.setText("The leaderboard is only available when the users are kept in memory.");
+        }
+    }
+
+    private void updateLeaderboard(UpdateLeaderboardEvent leaderboardEvent) {
+        fillTable(topModel, leaderboardEvent.getTopEntries());
+        fillTable(neighbourModel, leaderboardEvent.getNeighbours());
+        if (leaderboardEvent.getUserRank() < 0) {
+            rankLabel.setText("You are not ranked yet among " + leaderboardEvent.getTotalUsers() + " users.");
+        } else {
+            rankLabel.setText("You are ranked " + leaderboardEvent.getUserRank() + " of "
+                    + leaderboardEvent.getTotalUsers() + " users.");
+        }
+    }
+
+    private static void fillTable(DefaultTableModel model, List<LeaderboardEntry> entries) {
+        model.setRowCount(0);
+        for (LeaderboardEntry entry : entries) {
+            model.addRow(new Object[]{
+                    entry.rank(),
+                    entry.username(),
+                    String.format(CURRENCY_FORMAT, entry.assets())
+            });
+        }
+    }
+
+    @Override
+    public void receiveViewEvent(ViewEvent event) {
+        if (event instanceof UpdateLeaderboardEvent leaderboardEvent) {
+            SwingUtilities.invokeLater(() -> updateLeaderboard(leaderboardEvent));
+        }
+    }
+}
@@ -46,6 +46,7 @@ public class PortfolioPanel extends JPanel implements IComponent {
     private final JTable portfolioTable;
     private final DefaultTableModel tableModel;
     private JLabel titleLabel;
+    private JLabel pnlLabel;
 
     public PortfolioPanel() {
         ViewManager.Instance().registerComponent(this);
@@ -97,6 +98,10 @@ public class PortfolioPanel extends JPanel implements IComponent {
         titleLabel.setHorizontalAlignment(SwingConstants.LEFT);
         headerPanel.add(titleLabel, BorderLayout.WEST);
 
+        pnlLabel = new JLabel();
+        pnlLabel.setFont(new Font(FONT_FAMILY, Font.PLAIN, TABLE_FONT_SIZE));
+        headerPanel.add(pnlLabel, BorderLayout.EAST);
+
         return headerPanel;
     }
 
@@ -142,6 +147,8 @@ public class PortfolioPanel extends JPanel implements IComponent {
                 Object[] rowData = createRowData(userStock);
                 tableModel.addRow(rowData);
             });
+            pnlLabel.setText("Realized: " + formatProfit(portfolio.getRealizedPnl())
+                    + "    Unrealized: " + formatProfit(portfolio.getUnrealizedPnl()));
 
             // Adjust column widths after updating the data
             adjustColumnWidths(portfolioTable);
@@ -152,7 +159,7 @@ public class PortfolioPanel extends JPanel implements IComponent {
         String ticker = userStock.getStock().getTicker();
         double avgCost = userStock.getCost();
         int quantity = userStock.getQuantity();
-        double marketPrice = userStock.getStock().getPrice();
+        double marketPrice = userStock.getMarketPrice();
         double profitPerShare = marketPrice - avgCost;
         double totalProfit = profitPerShare * quantity;
 
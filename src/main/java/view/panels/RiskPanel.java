@@ -0,0 +1,180 @@
+package view.panels;
+
+import entity.PortfolioRisk;
+import interface_adapter.view_risk.ViewRiskController;
+import utility.ServiceManager;
+import utility.ViewManager;
+import view.IComponent;
+import view.components.ButtonComponent;
+import view.view_events.SwitchPanelEvent;
+import view.view_events.UpdateRiskEvent;
+import view.view_events.ViewEvent;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.util.List;
+
+public class RiskPanel extends JPanel implements IComponent {
+    // Layout Constants
+    private static final int MAIN_PADDING = 20;
+    private static final int HEADER_BOTTOM_SPACING = 10;
+    private static final int ROW_HEIGHT = 30;
+    private static final int BUTTON_WIDTH = 120;
+    private static final int BUTTON_HEIGHT = 30;
+    private static final int BUTTON_SPACING = 10;
+
+    // Font Constants
+    private static final String FONT_FAMILY = "Lucida Sans";
+    private static final int TITLE_FONT_SIZE = 28;
+    private static final int TABLE_FONT_SIZE = 14;
+
+    // Risk Constants
+    private static final Double[] CONFIDENCE_LEVELS = {0.95, 0.99};
+    private static final int SCENARIO_COUNT = 10000;
+
+    // Format Constants
+    private static final String CURRENCY_FORMAT = "$%.2f";
+    private static final String RATIO_FORMAT = "%.3f";
+
+    // Components
+    private final JComboBox<Double> confidenceBox = new JComboBox<>(CONFIDENCE_LEVELS);
+    private final JLabel varLabel = new JLabel(" ");
+    private final DefaultTableModel betaModel = createTableModel(new Object[]{"Ticker", "Beta"});
+    private final DefaultTableModel correlationModel = createTableModel(new Object[]{"Ticker"});
+
+    public RiskPanel() {
+        ViewManager.Instance().registerComponent(this);
+        setupMainPanel();
+
+        add(createHeaderPanel(), BorderLayout.NORTH);
+        add(createTablesPanel(), BorderLayout.CENTER);
+
+        // the risk changes with every trade and market update, so it is computed again whenever the panel is shown
+        addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentShown(ComponentEvent e) {
+                requestRisk();
+            }
+        });
+    }
+
+    private void setupMainPanel() {
+        setLayout(new BorderLayout());
+        setBorder(BorderFactory.createEmptyBorder(MAIN_PADDING, MAIN_PADDING, MAIN_PADDING, MAIN_PADDING));
+    }
+
+    private JPanel createHeaderPanel() {
+        JPanel headerPanel = new JPanel(new BorderLayout());
+        headerPanel.setBorder(BorderFactory.createEmptyBorder(0, 0, HEADER_BOTTOM_SPACING, 0));
+
+        // Title and the Value-at-Risk of the portfolio
+        JLabel titleLabel = new JLabel("Portfolio Risk");
+        titleLabel.setFont(new Font(FONT_FAMILY, Font.BOLD, TITLE_FONT_SIZE));
+        varLabel.setFont(new Font(FONT_FAMILY, Font.PLAIN, TABLE_FONT_SIZE));
+        JPanel titlePanel = new JPanel();
+        titlePanel.setLayout(new BoxLayout(titlePanel, BoxLayout.Y_AXIS));
+        titlePanel.add(titleLabel);
+        titlePanel.add(varLabel);
+        headerPanel.add(titlePanel, BorderLayout.WEST);
+
+        // Confidence level, refresh and back buttons
+        confidenceBox.addActionListener(e -> requestRisk());
+        ButtonComponent refreshButton = new ButtonComponent("Refresh");
+        refreshButton.setPreferredSize(new Dimension(BUTTON_WIDTH, BUTTON_HEIGHT));
+        refreshButton.addActionListener(e -> requestRisk());
+        ButtonComponent backButton = new ButtonComponent("Back to Home");
+        backButton.setPreferredSize(new Dimension(BUTTON_WIDTH, BUTTON_HEIGHT));
+        backButton.addActionListener(e ->
+                ViewManager.Instance().broadcastEvent(new SwitchPanelEvent("DashboardPanel"))
+        );
+
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, BUTTON_SPACING, 0));
+        buttonPanel.add(new JLabel("Confidence"));
+        buttonPanel.add(confidenceBox);
+        buttonPanel.add(refreshButton);
+        buttonPanel.add(backButton);
+        headerPanel.add(buttonPanel, BorderLayout.EAST);
+
+        return headerPanel;
+    }
+
+    private JPanel createTablesPanel() {
+        JPanel tablesPanel = new JPanel(new BorderLayout(BUTTON_SPACING, 0));
+        JScrollPane betaPane = createTablePanel("Beta", betaModel);
+        betaPane.setPreferredSize(new Dimension(250, 0));
+        tablesPanel.add(betaPane, BorderLayout.WEST);
+        tablesPanel.add(createTablePanel("Correlation", correlationModel), BorderLayout.CENTER);
+        return tablesPanel;
+    }
+
+    private JScrollPane createTablePanel(String title, DefaultTableModel model) {
+        JTable table = new JTable(model);
+        table.setFillsViewportHeight(true);
+        table.setRowHeight(ROW_HEIGHT);
+        table.setFont(new Font(FONT_FAMILY, Font.PLAIN, TABLE_FONT_SIZE));
+        table.getTableHeader().setFont(new Font(FONT_FAMILY, Font.BOLD, TABLE_FONT_SIZE));
+        table.getTableHeader().setForeground(Color.GRAY);
+
+        JScrollPane scrollPane = new JScrollPane(table);
+        scrollPane.setBorder(BorderFactory.createTitledBorder(title));
+        return scrollPane;
+    }
+
+    private static DefaultTableModel createTableModel(Object[] columnNames) {
+        return new DefaultTableModel(columnNames, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+    }
+
+    private void requestRisk() {
+        ViewRiskController controller = ServiceManager.Instance().getService(ViewRiskController.class);
+        if (controller != null) {
+            controller.execute(selectedConfidence(), SCENARIO_COUNT);
+        }
+    }
+
+    private double selectedConfidence() {
+        return (Double) confidenceBox.getSelectedItem();
+    }
+
+    private void updateRisk(PortfolioRisk risk) {
+        int confidencePercent = (int) Math.round(selectedConfidence() * 100);
+        varLabel.setText(String.format("%d%% Value-at-Risk: " + CURRENCY_FORMAT + " historical, " + CURRENCY_FORMAT
+                        + " Monte Carlo, over %d market updates", confidencePercent, risk.historicalVaR(),
+                risk.monteCarloVaR(), risk.observations()));
+
+        List<String> tickers = risk.tickers();
+        betaModel.setRowCount(0);
+        for (int i = 0; i < tickers.size(); i++) {
+            betaModel.addRow(new Object[]{tickers.get(i), String.format(RATIO_FORMAT, risk.betas()[i])});
+        }
+
+        // a square matrix with the tickers as both the header and the first column
+        Object[] columnNames = new Object[tickers.size() + 1];
+        columnNames[0] = "Ticker";
+        for (int i = 0; i < tickers.size(); i++) {
+            columnNames[i + 1] = tickers.get(i);
+        }
+        Object[][] rows = new Object[tickers.size()][tickers.size() + 1];
+        for (int i = 0; i < tickers.size(); i++) {
+            rows[i][0] = tickers.get(i);
+            for (int j = 0; j < tickers.size(); j++) {
+                rows[i][j + 1] = String.format(RATIO_FORMAT, risk.correlations()[i][j]);
+            }
+        }
+        correlationModel.setDataVector(rows, columnNames);
+    }
+
+    @Override
+    public void receiveViewEvent(ViewEvent event) {
+        if (event instanceof UpdateRiskEvent riskEvent) {
+            SwingUtilities.invokeLater(() -> updateRisk(riskEvent.getPortfolioRisk()));
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package view.panels;
+
+import entity.RollupResolution;
+import entity.TradeRollup;
+import interface_adapter.view_trade_analytics.ViewTradeAnalyticsController;
+import utility.ServiceManager;
+import utility.ViewManager;
+import view.IComponent;
+import view.components.ButtonComponent;
+import view.view_events.SwitchPanelEvent;
+import view.view_events.UpdateTradeAnalyticsEvent;
+import view.view_events.ViewEvent;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class TradeAnalyticsPanel extends JPanel implements IComponent {
+    // Layout Constants
+    private static final int MAIN_PADDING = 20;
+    private static final int HEADER_BOTTOM_SPACING = 10;
+    private static final int ROW_HEIGHT = 30;
+    private static final int BUTTON_WIDTH = 120;
+    private static final int BUTTON_HEIGHT = 30;
+    private static final int BUTTON_SPACING = 10;
+
+    // Font Constants
+    private static final String FONT_FAMILY = "Lucida Sans";
+    private static final int TITLE_FONT_SIZE = 28;
+    private static final int TABLE_FONT_SIZE = 14;
+
+    // Format Constants
+    private static final String CURRENCY_FORMAT = "$%.2f";
+    private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("MM/dd/yyyy HH:mm");
+
+    // Column Constants
+    private static final String[] COLUMN_NAMES = {"Period", "Market Volume", "Market VWAP", "Your Volume", "Your VWAP"};
+
+    // Components
+    private final JTextField tickerField = new JTextField(8);
+    private final JComboBox<RollupResolution> resolutionBox = new JComboBox<>(RollupResolution.values());
+    private final JLabel summaryLabel = new JLabel("Enter a ticker to see its traded volume and VWAP.");
+    private final DefaultTableModel tableModel = new DefaultTableModel(COLUMN_NAMES, 0) {
+        @Override
+        public boolean isCellEditable(int row, int column) {
+            return false;
+        }
+    };
+
+    public TradeAnalyticsPanel() {
+        ViewManager.Instance().registerComponent(this);
+        setupMainPanel();
+
+        add(createHeaderPanel(), BorderLayout.NORTH);
+        add(createTablePanel(), BorderLayout.CENTER);
+    }
+
+    private void setupMainPanel() {
+        setLayout(new BorderLayout());
+        setBorder(BorderFactory.createEmptyBorder(MAIN_PADDING, MAIN_PADDING, MAIN_PADDING, MAIN_PADDING));
+    }
+
+    private JPanel createHeaderPanel() {
+        JPanel headerPanel = new JPanel(new BorderLayout());
+        headerPanel.setBorder(BorderFactory.createEmptyBorder(0, 0, HEADER_BOTTOM_SPACING, 0));
+
+        // Title and the totals over the range
+        JLabel titleLabel = new JLabel("Trade Analytics");
+        titleLabel.setFont(new Font(FONT_FAMILY, Font.BOLD, TITLE_FONT_SIZE));
+        summaryLabel.setFont(new Font(FONT_FAMILY, Font.PLAIN, TABLE_FONT_SIZE));
+        JPanel titlePanel = new JPanel();
+        titlePanel.setLayout(new BoxLayout(titlePanel, BoxLayout.Y_AXIS));
+        titlePanel.add(titleLabel);
+        titlePanel.add(summaryLabel);
+        headerPanel.add(titlePanel, BorderLayout.WEST);
+
+        // Ticker, resolution, show and back buttons
+        tickerField.setToolTipText("Ticker to analyse");
+        tickerField.addActionListener(e -> requestAnalytics());
+        resolutionBox.setSelectedItem(RollupResolution.HOUR);
+        resolutionBox.addActionListener(e -> requestAnalytics());
+        ButtonComponent showButton = new ButtonComponent("Show");
+        showButton.setPreferredSize(new Dimension(BUTTON_WIDTH, BUTTON_HEIGHT));
+        showButton.addActionListener(e -> requestAnalytics());
+        ButtonComponent backButton = new ButtonComponent("Back to Home");
+        backButton.setPreferredSize(new Dimension(BUTTON_WIDTH, BUTTON_HEIGHT));
+        backButton.addActionListener(e ->
+                ViewManager.Instance().broadcastEvent(new SwitchPanelEvent("DashboardPanel"))
+        );
+
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, BUTTON_SPACING, 0));
+        buttonPanel.add(new JLabel("Ticker"));
+        buttonPanel.add(tickerField);
+        buttonPanel.add(resolutionBox);
+        buttonPanel.add(showButton);
+        buttonPanel.add(backButton);
+        headerPanel.add(buttonPanel, BorderLayout.EAST);
+
+        return headerPanel;
+    }
+
+    private JScrollPane createTablePanel() {
+        JTable table = new JTable(tableModel);
+        table.setFillsViewportHeight(true);
+        table.setRowHeight(ROW_HEIGHT);
+        table.setFont(new Font(FONT_FAMILY, Font.PLAIN, TABLE_FONT_SIZE));
+        table.getTableHeader().setFont(new Font(FONT_FAMILY, Font.BOLD, TABLE_FONT_SIZE));
+        table.getTableHeader().setForeground(Color.GRAY);
+
+        JScrollPane scrollPane = new JScrollPane(table);
+        scrollPane.setBorder(BorderFactory.createEmptyBorder(0, 0, 0, 0));
+        return scrollPane;
+    }
+
+    // every bucket the resolution retains, up to now
+    private void requestAnalytics() {
+        String ticker = tickerField.getText().trim().toUpperCase();
+        ViewTradeAnalyticsController controller =
+                ServiceManager.Instance().getService(ViewTradeAnalyticsController.class);
+        if (controller != null && !ticker.isEmpty()) {
+            RollupResolution resolution = (RollupResolution) resolutionBox.getSelectedItem();
+            long now = System.currentTimeMillis();
+            controller.execute(ticker, resolution,
+                    now - resolution.getBucketMillis() * resolution.getRetainedBuckets(), now);
+        }
+    }
+
+    private void updateAnalytics(UpdateTradeAnalyticsEvent analyticsEvent) {
+        TradeRollup marketTotal = analyticsEvent.getMarketTotal();
+        TradeRollup userTotal = analyticsEvent.getUserTotal();
+        summaryLabel.setText(String.format("%s: %d shares traded at a VWAP of " + CURRENCY_FORMAT
+                        + ", of which you traded %d at " + CURRENCY_FORMAT, analyticsEvent.getTicker(),
+                marketTotal.volume(), marketTotal.getVwap(), userTotal.volume(), userTotal.getVwap()));
+
+        // the user's buckets are a subset of the market's, newest first
+        Map<Long, TradeRollup> userRollups = new HashMap<>();
+        for (TradeRollup rollup : analyticsEvent.getUserRollups()) {
+            userRollups.put(rollup.bucketStart(), rollup);
+        }
+        List<TradeRollup> marketRollups = analyticsEvent.getMarketRollups();
+        tableModel.setRowCount(0);
+        for (int i = marketRollups.size() - 1; i >= 0; i--) {
+            TradeRollup market = marketRollups.get(i);
+            TradeRollup user = userRollups.get(market.bucketStart());
+            tableModel.addRow(new Object[]{
+                    DATE_FORMAT.format(new Date(market.bucketStart())),
+                    market.volume(),
+                    String.format(CURRENCY_FORMAT, market.getVwap()),
+                    user == null ? 0 : user.volume(),
+                    user == null ? "" : String.format(CURRENCY_FORMAT, user.getVwap())
+            });
+        }
+    }
+
+    @Override
+    public void receiveViewEvent(ViewEvent event) {
+        if (event instanceof UpdateTradeAnalyticsEvent analyticsEvent) {
+            SwingUtilities.invokeLater(() -> updateAnalytics(analyticsEvent));
+        }
+    }
+}
@@ -1,7 +1,12 @@
 package view.panels;
 
 import entity.Transaction;
+import entity.TransactionFileFormat;
 import entity.TransactionHistory;
+import entity.TransactionPage;
+import interface_adapter.export_history.ExportHistoryController;
+import interface_adapter.view_history.ViewHistoryController;
+import utility.ServiceManager;
 import utility.ViewManager;
 import view.IComponent;
 import view.components.ButtonComponent;
@@ -10,9 +15,11 @@ import view.view_events.UpdateTransactionHistoryEvent;
 import view.view_events.ViewEvent;
 
 import javax.swing.*;
+import javax.swing.filechooser.FileNameExtensionFilter;
 import javax.swing.table.DefaultTableModel;
 import javax.swing.table.TableColumn;
 import java.awt.*;
+import java.nio.file.Path;
 import java.text.SimpleDateFormat;
 
 public class TransactionHistoryPanel extends JPanel implements IComponent {
@@ -22,6 +29,8 @@ public class TransactionHistoryPanel extends JPanel implements IComponent {
     private static final int ROW_HEIGHT = 30;
     private static final int BUTTON_WIDTH = 120;
     private static final int BUTTON_HEIGHT = 30;
+    private static final int BUTTON_SPACING = 10;
+    private static final int PAGE_SIZE = 50;
 
     // Font Constants
     private static final String FONT_FAMILY = "Lucida Sans";
@@ -58,6 +67,12 @@ public class TransactionHistoryPanel extends JPanel implements IComponent {
     private final JTable historyTable;
     // Components
     private DefaultTableModel tableModel;
+    private final ButtonComponent newerButton = new ButtonComponent("Newer");
+    private final ButtonComponent olderButton = new ButtonComponent("Older");
+    private final ButtonComponent exportButton = new ButtonComponent("Export");
+    private final JTextField tickerFilterField = new JTextField(8);
+    private String tickerFilter;
+    private TransactionPage currentPage;
 
     public TransactionHistoryPanel() {
         // Initialize table model and table first
@@ -128,7 +143,32 @@ public class TransactionHistoryPanel extends JPanel implements IComponent {
                 ViewManager.Instance().broadcastEvent(new SwitchPanelEvent("DashboardPanel"))
         );
 
-        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 0, 0));
+        // Paging buttons
+        newerButton.setPreferredSize(new Dimension(BUTTON_WIDTH, BUTTON_HEIGHT));
+        newerButton.setEnabled(false);
+        newerButton.addActionListener(e -> requestPage(TransactionPage.NO_CURSOR, currentPage.newerCursor()));
+        olderButton.setPreferredSize(new Dimension(BUTTON_WIDTH, BUTTON_HEIGHT));
+        olderButton.setEnabled(false);
+        olderButton.addActionListener(e -> requestPage(currentPage.olderCursor(), TransactionPage.NO_CURSOR));
+
+        // Ticker filter, an empty ticker shows every transaction
+        tickerFilterField.setToolTipText("Filter by ticker");
+        tickerFilterField.addActionListener(e -> {
+            String ticker = tickerFilterField.getText().trim().toUpperCase();
+            tickerFilter = ticker.isEmpty() ? null : ticker;
+            requestPage(TransactionPage.NO_CURSOR, TransactionPage.NO_CURSOR);
+        });
+
+        // Export button, the file extension chooses the format
+        exportButton.setPreferredSize(new Dimension(BUTTON_WIDTH, BUTTON_HEIGHT));
+        exportButton.addActionListener(e -> exportHistory());
+
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, BUTTON_SPACING, 0));
+        buttonPanel.add(new JLabel("Ticker"));
+        buttonPanel.add(tickerFilterField);
+        buttonPanel.add(newerButton);
+        buttonPanel.add(olderButton);
+        buttonPanel.add(exportButton);
         buttonPanel.add(backButton);
         headerPanel.add(buttonPanel, BorderLayout.EAST);
 
@@ -165,11 +205,42 @@ public class TransactionHistoryPanel extends JPanel implements IComponent {
         }
     }
 
-    private void updateTransactionTable(TransactionHistory transactionHistory) {
+    private void requestPage(int beforeCursor, int afterCursor) {
+        ViewHistoryController controller = ServiceManager.Instance().getService(ViewHistoryController.class);
+        if (controller != null && currentPage != null) {
+            controller.execute(PAGE_SIZE, beforeCursor, afterCursor, true, tickerFilter, Long.MIN_VALUE, Long.MAX_VALUE);
+        }
+    }
+
+    private void exportHistory() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setFileFilter(new FileNameExtensionFilter("CSV or binary transaction files", "csv", "bin"));
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        Path file = chooser.getSelectedFile().toPath();
+        TransactionFileFormat format = file.getFileName().toString().toLowerCase().endsWith(".bin")
+                ? TransactionFileFormat.BINARY : TransactionFileFormat.CSV;
+        ExportHistoryController controller = ServiceManager.Instance().getService(ExportHistoryController.class);
+        if (controller != null) {
+            controller.execute(file, format);
+        }
+    }
+
+    private void updateTransactionTable(TransactionHistory transactionHistory, TransactionPage page) {
         if (transactionHistory == null) {
             System.err.println("No transaction history available to update.");
             return;
         }
+        // show the newest page when the whole history is sent
+        if (page == null) {
+            tickerFilter = null;
+            tickerFilterField.setText("");
+            page = transactionHistory.getPage(PAGE_SIZE, TransactionPage.NO_CURSOR, TransactionPage.NO_CURSOR, true);
+        }
+        currentPage = page;
+        newerButton.setEnabled(page.hasNewer());
+        olderButton.setEnabled(page.hasOlder());
 
         // 1. Create new table model with column names
         DefaultTableModel newModel = new DefaultTableModel(COLUMN_NAMES, 0) {
@@ -185,7 +256,7 @@ public class TransactionHistoryPanel extends JPanel implements IComponent {
         };
 
         // 2. Add data rows
-        for (Transaction transaction : transactionHistory.getAllTransactions()) {
+        for (Transaction transaction : page.transactions()) {
             Object[] rowData = createRowData(transaction);
             newModel.addRow(rowData);
         }
@@ -242,7 +313,8 @@ public class TransactionHistoryPanel extends JPanel implements IComponent {
     public void receiveViewEvent(ViewEvent event) {
         if (event instanceof UpdateTransactionHistoryEvent historyEvent) {
             System.out.println("TransactionHistoryPanel received UpdateTransactionHistoryEvent");
-            SwingUtilities.invokeLater(() -> updateTransactionTable(historyEvent.getTransactionHistory()));
+            SwingUtilities.invokeLater(() -> updateTransactionTable(
+                    historyEvent.getTransactionHistory(), historyEvent.getPage()));
         }
     }
 }
@@ -0,0 +1,37 @@
+package view.view_events;
+
+import entity.EquityCurve;
+
+/**
+ * This class handles the ViewEvent for the ViewEquityCurve use case
+ */
+public class UpdateEquityCurveEvent extends ViewEvent {
+    private final EquityCurve equityCurve;
+    private final double totalReturn;
+    private final double maxDrawdown;
+
+    /**
+     * Constructs an UpdateEquityCurveEvent with the equity curve of the user and its statistics
+     *
+     * @param equityCurve the snapshots of the user's assets
+     * @param totalReturn the return over the curve
+     * @param maxDrawdown the maximum drawdown over the curve
+     */
+    public UpdateEquityCurveEvent(EquityCurve equityCurve, double totalReturn, double maxDrawdown) {
+        this.equityCurve = equityCurve;
+        this.totalReturn = totalReturn;
+        this.maxDrawdown = maxDrawdown;
+    }
+
+    public EquityCurve getEquityCurve() {
+        return equityCurve;
+    }
+
+    public double getTotalReturn() {
+        return totalReturn;
+    }
+
+    public double getMaxDrawdown() {
+        return maxDrawdown;
+    }
+}
@@ -0,0 +1,47 @@
+package view.view_events;
+
+import use_case.view_leaderboard.LeaderboardEntry;
+
+import java.util.List;
+
+/**
+ * This class handles the ViewEvent for the ViewLeaderboard use case
+ */
+public class UpdateLeaderboardEvent extends ViewEvent {
+    private final List<LeaderboardEntry> topEntries;
+    private final int userRank;
+    private final List<LeaderboardEntry> neighbours;
+    private final int totalUsers;
+
+    /**
+     * Constructs an UpdateLeaderboardEvent with the ranking around the current user
+     *
+     * @param topEntries the users with the highest assets in rank order
+     * @param userRank   the rank of the current user, or -1 if the user is not ranked
+     * @param neighbours the users ranked around the current user
+     * @param totalUsers the number of ranked users
+     */
+    public UpdateLeaderboardEvent(List<LeaderboardEntry> topEntries, int userRank,
+                                  List<LeaderboardEntry> neighbours, int totalUsers) {
+        this.topEntries = topEntries;
+        this.userRank = userRank;
+        this.neighbours = neighbours;
+        this.totalUsers = totalUsers;
+    }
+
+    public List<LeaderboardEntry> getTopEntries() {
+        return topEntries;
+    }
+
+    public int getUserRank() {
+        return userRank;
+    }
+
+    public List<LeaderboardEntry> getNeighbours() {
+        return neighbours;
+    }
+
+    public int getTotalUsers() {
+        return totalUsers;
+    }
+}
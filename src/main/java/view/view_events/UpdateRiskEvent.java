@@ -0,0 +1,23 @@
+package view.view_events;
+
+import entity.PortfolioRisk;
+
+/**
+ * This class handles the ViewEvent for the ViewRisk use case
+ */
+public class UpdateRiskEvent extends ViewEvent {
+    private final PortfolioRisk portfolioRisk;
+
+    /**
+     * Constructs an UpdateRiskEvent with the risk figures of the user's portfolio
+     *
+     * @param portfolioRisk the risk figures to display
+     */
+    public UpdateRiskEvent(PortfolioRisk portfolioRisk) {
+        this.portfolioRisk = portfolioRisk;
+    }
+
+    public PortfolioRisk getPortfolioRisk() {
+        return portfolioRisk;
+    }
+}
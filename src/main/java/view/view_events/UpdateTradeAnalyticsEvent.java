@@ -0,0 +1,62 @@
+package view.view_events;
+
+import entity.RollupResolution;
+import entity.TradeRollup;
+
+import java.util.List;
+
+/**
+ * This class handles the ViewEvent for the ViewTradeAnalytics use case
+ */
+public class UpdateTradeAnalyticsEvent extends ViewEvent {
+    private final String ticker;
+    private final RollupResolution resolution;
+    private final List<TradeRollup> marketRollups;
+    private final List<TradeRollup> userRollups;
+    private final TradeRollup marketTotal;
+    private final TradeRollup userTotal;
+
+    /**
+     * Constructs an UpdateTradeAnalyticsEvent with the volume and VWAP rollups of a ticker
+     *
+     * @param ticker        the analysed ticker
+     * @param resolution    the bucket size of the rollups
+     * @param marketRollups the buckets across all users
+     * @param userRollups   the buckets of the current user
+     * @param marketTotal   the total across all users over the range
+     * @param userTotal     the total of the current user over the range
+     */
+    public UpdateTradeAnalyticsEvent(String ticker, RollupResolution resolution, List<TradeRollup> marketRollups,
+                                     List<TradeRollup> userRollups, TradeRollup marketTotal, TradeRollup userTotal) {
+        this.ticker = ticker;
+        this.resolution = resolution;
+        this.marketRollups = marketRollups;
+        this.userRollups = userRollups;
+        this.marketTotal = marketTotal;
+        this.userTotal = userTotal;
+    }
+
+    public String getTicker() {
+        return ticker;
+    }
+
+    public RollupResolution getResolution() {
+        return resolution;
+    }
+
+    public List<TradeRollup> getMarketRollups() {
+        return marketRollups;
+    }
+
+    public List<TradeRollup> getUserRollups() {
+        return userRollups;
+    }
+
+    public TradeRollup getMarketTotal() {
+        return marketTotal;
+    }
+
+    public TradeRollup getUserTotal() {
+        return userTotal;
+    }
+}
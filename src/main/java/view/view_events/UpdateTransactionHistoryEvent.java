@@ -1,12 +1,14 @@
 package view.view_events;
 
 import entity.TransactionHistory;
+import entity.TransactionPage;
 
 /**
  * This class handles the ViewEvent for the ViewHistory use case
  */
 public class UpdateTransactionHistoryEvent extends ViewEvent {
     private final TransactionHistory transactionHistory;
+    private final TransactionPage page;
 
     /**
      * Constructs a UpdateTransactionHistoryEvent with a specified transaction history,
@@ -15,7 +17,18 @@ public class UpdateTransactionHistoryEvent extends ViewEvent {
      * @param transactionHistory The transaction history to display
      */
     public UpdateTransactionHistoryEvent(TransactionHistory transactionHistory) {
+        this(transactionHistory, null);
+    }
+
+    /**
+     * Constructs a UpdateTransactionHistoryEvent with one page of a transaction history
+     *
+     * @param transactionHistory The transaction history the page is taken from
+     * @param page               The page to display, or null to display the first page
+     */
+    public UpdateTransactionHistoryEvent(TransactionHistory transactionHistory, TransactionPage page) {
         this.transactionHistory = transactionHistory;
+        this.page = page;
     }
 
     /**
@@ -26,4 +39,13 @@ public class UpdateTransactionHistoryEvent extends ViewEvent {
     public TransactionHistory getTransactionHistory() {
         return transactionHistory;
     }
+
+    /**
+     * A getter for the page to display
+     *
+     * @return The page to display, or null if no page was requested
+     */
+    public TransactionPage getPage() {
+        return page;
+    }
 }
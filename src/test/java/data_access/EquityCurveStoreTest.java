@@ -0,0 +1,185 @@
+package data_access;
+
+import entity.EquityCurve;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EquityCurveStoreTest {
+
+    private static final int FILE_HEADER_BYTES = Integer.BYTES;
+    private static final int BLOCK_HEADER_BYTES = Integer.BYTES + Long.BYTES + Integer.BYTES;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void blockLayoutTest() throws IOException {
+        Path file = directory.resolve("equity.bin");
+        try (EquityCurveStore store = new EquityCurveStore(file)) {
+            // the columns are longer than the user count, only the first userCount entries are written
+            store.append(1000, new double[]{10, 20, 30, 99}, new double[]{1, 2, 3, 99}, 3);
+            store.append(2000, new double[]{11, 21}, new double[]{4, 5}, 2);
+        }
+
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file));
+        long firstBlock = FILE_HEADER_BYTES;
+        long secondBlock = firstBlock + BLOCK_HEADER_BYTES + 2L * 3 * Double.BYTES;
+        assertEquals(secondBlock + BLOCK_HEADER_BYTES + 2L * 2 * Double.BYTES, bytes.capacity());
+        assertEquals(0x45514331, bytes.getInt(0));
+
+        // magic, timestamp and user count, then the cash column and the portfolio value column
+        assertEquals(0x534E4150, bytes.getInt((int) firstBlock));
+        assertEquals(1000, bytes.getLong((int) firstBlock + Integer.BYTES));
+        assertEquals(3, bytes.getInt((int) firstBlock + Integer.BYTES + Long.BYTES));
+        int cashColumn = (int) firstBlock + BLOCK_HEADER_BYTES;
+        int valueColumn = cashColumn + 3 * Double.BYTES;
+        for (int user = 0; user < 3; user++) {
+            assertEquals(10.0 * (user + 1), bytes.getDouble(cashColumn + user * Double.BYTES));
+            assertEquals(user + 1.0, bytes.getDouble(valueColumn + user * Double.BYTES));
+        }
+        assertEquals(0x534E4150, bytes.getInt((int) secondBlock));
+        assertEquals(2000, bytes.getLong((int) secondBlock + Integer.BYTES));
+        assertEquals(2, bytes.getInt((int) secondBlock + Integer.BYTES + Long.BYTES));
+        assertEquals(21.0, bytes.getDouble((int) secondBlock + BLOCK_HEADER_BYTES + Double.BYTES));
+        assertEquals(5.0, bytes.getDouble((int) secondBlock + BLOCK_HEADER_BYTES + 3 * Double.BYTES));
+    }
+
+    @Test
+    void snapshotLargerThanWriteBufferTest() throws IOException {
+        // more users than the 1 MiB write buffer holds in one column, so each column is written in several flushes
+        int users = 200_000;
+        double[] cash = new double[users];
+        double[] portfolioValue = new double[users];
+        for (int i = 0; i < users; i++) {
+            cash[i] = i;
+            portfolioValue[i] = -i;
+        }
+        Path file = directory.resolve("equity.bin");
+        try (EquityCurveStore store = new EquityCurveStore(file)) {
+            store.append(1000, cash, portfolioValue, users);
+            store.append(2000, portfolioValue, cash, users);
+        }
+        assertEquals(FILE_HEADER_BYTES + 2 * (BLOCK_HEADER_BYTES + 2L * users * Double.BYTES), Files.size(file));
+
+        try (EquityCurveStore store = new EquityCurveStore(file)) {
+            for (int user : new int[]{0, 131_071, 131_072, users - 1}) {
+                EquityCurve curve = store.getCurve(user, Long.MIN_VALUE, Long.MAX_VALUE);
+                assertArrayEquals(new long[]{1000, 2000}, curve.timestamps());
+                assertArrayEquals(new double[]{user, -user}, curve.cash());
+                assertArrayEquals(new double[]{-user, user}, curve.portfolioValue());
+            }
+        }
+    }
+
+    @Test
+    void tornTailTest() throws IOException {
+        Path file = directory.resolve("equity.bin");
+        try (EquityCurveStore store = new EquityCurveStore(file)) {
+            store.append(1000, new double[]{10, 20}, new double[]{1, 2}, 2);
+            store.append(2000, new double[]{11, 21}, new double[]{3, 4}, 2);
+        }
+        long intactSize = Files.size(file);
+
+        // a third block cut short by a crash, its header promises two users but only one cash value follows
+        appendBytes(file, ByteBuffer.allocate(BLOCK_HEADER_BYTES + Double.BYTES)
+                .putInt(0x534E4150).putLong(3000).putInt(2).putDouble(12).flip());
+        try (EquityCurveStore store = new EquityCurveStore(file)) {
+            assertEquals(2, store.getSnapshotCount());
+            assertEquals(intactSize, Files.size(file));
+            // the next snapshot goes where the torn block was
+            store.append(3000, new double[]{12, 22}, new double[]{5, 6}, 2);
+            assertArrayEquals(new double[]{21, 22}, store.getCurve(1, 2000, 3000).cash());
+        }
+
+        // a header cut short, and a block with a wrong magic
+        appendBytes(file, ByteBuffer.allocate(Integer.BYTES + 2).putInt(0x534E4150).flip());
+        try (EquityCurveStore store = new EquityCurveStore(file)) {
+            assertEquals(3, store.getSnapshotCount());
+        }
+        long sizeWithThree = Files.size(file);
+        appendBytes(file, ByteBuffer.allocate(BLOCK_HEADER_BYTES).putInt(0x12345678).putLong(4000).putInt(0).flip());
+        try (EquityCurveStore store = new EquityCurveStore(file)) {
+            assertEquals(3, store.getSnapshotCount());
+            assertEquals(sizeWithThree, Files.size(file));
+            EquityCurve curve = store.getCurve(0, Long.MIN_VALUE, Long.MAX_VALUE);
+            assertArrayEquals(new long[]{1000, 2000, 3000}, curve.timestamps());
+            assertArrayEquals(new double[]{1, 3, 5}, curve.portfolioValue());
+        }
+    }
+
+    @Test
+    void notAnEquityCurveFileTest() throws IOException {
+        Path file = directory.resolve("other.bin");
+        Files.write(file, new byte[]{1, 2, 3, 4, 5});
+        assertThrows(IOException.class, () -> new EquityCurveStore(file));
+    }
+
+    @Test
+    void curveRangeTest() throws IOException {
+        try (EquityCurveStore store = new EquityCurveStore(directory.resolve("equity.bin"))) {
+            // two snapshots at the same time are both kept
+            long[] times = {1000, 2000, 3000, 3000, 4000};
+            for (int i = 0; i < times.length; i++) {
+                store.append(times[i], new double[]{i}, new double[]{10 * i}, 1);
+            }
+
+            // both ends are inclusive
+            assertArrayEquals(new long[]{2000, 3000, 3000}, store.getCurve(0, 2000, 3000).timestamps());
+            assertArrayEquals(new double[]{1, 2, 3}, store.getCurve(0, 2000, 3000).cash());
+            assertArrayEquals(new long[]{2000, 3000, 3000}, store.getCurve(0, 1001, 3999).timestamps());
+            assertArrayEquals(new long[]{4000}, store.getCurve(0, 4000, 4000).timestamps());
+            assertArrayEquals(times, store.getCurve(0, Long.MIN_VALUE, Long.MAX_VALUE).timestamps());
+
+            // ranges between, before and after the snapshots, and an inverted range
+            assertEquals(0, store.getCurve(0, 1001, 1999).size());
+            assertEquals(0, store.getCurve(0, Long.MIN_VALUE, 999).size());
+            assertEquals(0, store.getCurve(0, 4001, Long.MAX_VALUE).size());
+            assertEquals(0, store.getCurve(0, 3000, 2000).size());
+
+            assertThrows(IllegalArgumentException.class,
+                    () -> store.append(3999, new double[]{0}, new double[]{0}, 1));
+        }
+    }
+
+    @Test
+    void usersAddedAfterSnapshotTest() throws IOException {
+        Path file = directory.resolve("equity.bin");
+        try (EquityCurveStore store = new EquityCurveStore(file)) {
+            store.append(1000, new double[]{10, 20}, new double[]{1, 2}, 2);
+            store.append(2000, new double[]{11, 21, 31, 41}, new double[]{3, 4, 5, 6}, 4);
+            store.append(3000, new double[]{12, 22, 32, 42}, new double[]{7, 8, 9, 10}, 4);
+        }
+
+        try (EquityCurveStore store = new EquityCurveStore(file)) {
+            // a user added after the first snapshot is only in the later ones
+            EquityCurve added = store.getCurve(3, Long.MIN_VALUE, Long.MAX_VALUE);
+            assertArrayEquals(new long[]{2000, 3000}, added.timestamps());
+            assertArrayEquals(new double[]{41, 42}, added.cash());
+            assertArrayEquals(new double[]{6, 10}, added.portfolioValue());
+
+            EquityCurve existing = store.getCurve(1, Long.MIN_VALUE, Long.MAX_VALUE);
+            assertArrayEquals(new long[]{1000, 2000, 3000}, existing.timestamps());
+            assertArrayEquals(new double[]{20, 21, 22}, existing.cash());
+
+            // a user in no snapshot yet
+            assertEquals(0, store.getCurve(4, Long.MIN_VALUE, Long.MAX_VALUE).size());
+        }
+    }
+
+    private static void appendBytes(Path file, ByteBuffer bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+        }
+    }
+}
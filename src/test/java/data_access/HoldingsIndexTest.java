@@ -0,0 +1,117 @@
+package data_access;
+
+import entity.Portfolio;
+import entity.Stock;
+import entity.TransactionHistory;
+import entity.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HoldingsIndexTest {
+
+    @Test
+    void updateAndRemoveTest() {
+        HoldingsIndex index = new HoldingsIndex();
+        index.updateHolding(1, "AAPL", 10);
+        index.updateHolding(2, "AAPL", 5);
+        index.updateHolding(1, "MSFT", 3);
+        index.updateHolding(1, "AAPL", 15);
+
+        assertEquals(15, index.getQuantity(1, "AAPL"));
+        assertEquals(2, index.getHolderCount("AAPL"));
+        assertArrayEquals(new int[]{1, 2}, sorted(index.getHolders("AAPL")));
+        assertArrayEquals(new int[]{1}, index.getHolders("MSFT"));
+
+        // a quantity of 0 removes the holder
+        index.updateHolding(2, "AAPL", 0);
+        index.updateHolding(3, "AAPL", 0);
+        assertArrayEquals(new int[]{1}, index.getHolders("AAPL"));
+        assertEquals(0, index.getQuantity(2, "AAPL"));
+    }
+
+    @Test
+    void unknownTickerTest() {
+        HoldingsIndex index = new HoldingsIndex();
+        String ticker = "UNLISTED-" + System.nanoTime();
+        assertArrayEquals(new int[0], index.getHolders(ticker));
+        assertEquals(0, index.getHolderCount(ticker));
+        assertEquals(0, index.getQuantity(1, ticker));
+    }
+
+    @Test
+    void manyHoldersTest() {
+        HoldingsIndex index = new HoldingsIndex();
+        for (int userId = 0; userId < 100_000; userId++) {
+            index.updateHolding(userId, "AAPL", userId + 1);
+        }
+        for (int userId = 0; userId < 100_000; userId += 2) {
+            index.updateHolding(userId, "AAPL", 0);
+        }
+        assertEquals(50_000, index.getHolderCount("AAPL"));
+        for (int userId = 0; userId < 100_000; userId++) {
+            assertEquals(userId % 2 == 0 ? 0 : userId + 1, index.getQuantity(userId, "AAPL"));
+        }
+    }
+
+    @Test
+    void concurrentUpdatesTest() throws Exception {
+        HoldingsIndex index = new HoldingsIndex();
+        String[] tickers = {"AAPL", "MSFT", "GOOGL", "NVDA"};
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            List<Future<?>> updates = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                int first = thread * 10_000;
+                updates.add(executor.submit(() -> {
+                    for (int userId = first; userId < first + 10_000; userId++) {
+                        index.updateHolding(userId, tickers[userId % tickers.length], 1);
+                    }
+                }));
+            }
+            for (Future<?> update : updates) {
+                update.get();
+            }
+        }
+        for (String ticker : tickers) {
+            assertEquals(20_000, index.getHolderCount(ticker));
+        }
+    }
+
+    @Test
+    void revaluesOnlyHoldersTest() {
+        InMemoryUserDataAccessObject dataAccess = new InMemoryUserDataAccessObject(false);
+        Portfolio alicePortfolio = new Portfolio();
+        alicePortfolio.addPosition(new Stock("AAPL", "Apple Inc.", "Technology", 100.0), 100.0, 10);
+        User alice = User.withPasswordHash("alice", "hash", 0, alicePortfolio, new TransactionHistory());
+        User bob = User.withPasswordHash("bob", "hash", 0, new Portfolio(), new TransactionHistory());
+        int aliceId = dataAccess.addUser(alice);
+        int bobId = dataAccess.addUser(bob);
+        HoldingsIndex index = dataAccess.getHoldingsIndex();
+        assertEquals(10, index.getQuantity(aliceId, "AAPL"));
+
+        // later fills reach the index through the portfolio
+        bob.getPortfolio().addPosition(new Stock("MSFT", "Microsoft Corporation", "Technology", 300.0), 300.0, 2);
+        assertArrayEquals(new int[]{bobId}, index.getHolders("MSFT"));
+        alice.getPortfolio().reducePosition("AAPL", 100.0, 10);
+        assertEquals(0, index.getHolderCount("AAPL"));
+
+        List<User> revalued = new ArrayList<>();
+        dataAccess.addAssetUpdateListener(revalued::add);
+        dataAccess.onPricesUpdated(Map.of("MSFT", 310.0, "AAPL", 110.0));
+        assertEquals(List.of(bob), revalued);
+        assertEquals(620.0, bob.getAssets(), 1e-9);
+    }
+
+    private static int[] sorted(int[] values) {
+        Arrays.sort(values);
+        return values;
+    }
+}
@@ -0,0 +1,156 @@
+package data_access;
+
+import entity.Transaction;
+import entity.TransactionFilter;
+import entity.TransactionHistory;
+import entity.TransactionSide;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SegmentedTransactionArchiveTest {
+
+    // more than one segment of 65536 transactions
+    private static final int TRANSACTIONS = 70_000;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void writeAndReopenTest() throws IOException {
+        TransactionHistory history = history(TRANSACTIONS);
+        SegmentedTransactionArchive archive = new SegmentedTransactionArchive(directory);
+        archive.append(history, 0, 1000);
+        archive.append(history, 1000, TRANSACTIONS);
+        assertEquals(3, segments().size());
+        assertTrue(segments().stream().noneMatch(file -> file.toString().endsWith(".tmp")));
+
+        // a reopened archive reads the headers and decodes the bodies on demand
+        SegmentedTransactionArchive reopened = new SegmentedTransactionArchive(directory);
+        assertEquals(TRANSACTIONS, reopened.size());
+        assertTrue(reopened.isTimeOrdered());
+        for (int position : new int[]{0, 999, 1000, 65_535, 66_536, TRANSACTIONS - 1}) {
+            assertEquals(history.get(position), reopened.get(position));
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> reopened.get(TRANSACTIONS));
+    }
+
+    @Test
+    void queriesTest() throws IOException {
+        TransactionHistory history = history(TRANSACTIONS);
+        SegmentedTransactionArchive archive = new SegmentedTransactionArchive(directory);
+        archive.append(history, 0, TRANSACTIONS);
+
+        assertEquals(0, archive.timeLowerBound(Long.MIN_VALUE));
+        assertEquals(50_000, archive.timeLowerBound(history.getTimestampMillis(50_000)));
+        assertEquals(TRANSACTIONS, archive.timeLowerBound(Long.MAX_VALUE));
+
+        int[] msft = archive.find(new TransactionFilter("MSFT", Long.MIN_VALUE, Long.MAX_VALUE), TRANSACTIONS);
+        assertEquals(TRANSACTIONS / 3, msft.length);
+        for (int position : msft) {
+            assertEquals("MSFT", archive.get(position).getTicker());
+        }
+        long from = history.getTimestampMillis(65_000);
+        long to = history.getTimestampMillis(65_999);
+        assertArrayEquals(range(65_000, 66_000), archive.find(new TransactionFilter(null, from, to), TRANSACTIONS));
+        assertArrayEquals(range(65_000, 65_500), archive.find(new TransactionFilter(null, from, to), 65_500));
+        assertEquals(0, archive.find(new TransactionFilter("NVDA", Long.MIN_VALUE, Long.MAX_VALUE),
+                TRANSACTIONS).length);
+    }
+
+    @Test
+    void appendMustContinueArchiveTest() throws IOException {
+        TransactionHistory history = history(100);
+        SegmentedTransactionArchive archive = new SegmentedTransactionArchive(directory);
+        archive.append(history, 0, 50);
+        assertThrows(IllegalArgumentException.class, () -> archive.append(history, 60, 100));
+        assertEquals(50, archive.size());
+    }
+
+    @Test
+    void historyArchiveTest() throws IOException {
+        TransactionHistory history = history(1000);
+        List<Transaction> transactions = history.getAllTransactions();
+        history.attachArchive(SegmentedTransactionArchive.forUser(directory, "alice"));
+        assertEquals(600, history.archiveBefore(history.getTimestampMillis(600)));
+        assertEquals(transactions, history.getAllTransactions());
+
+        // a new history over the same archive starts with the archived transactions
+        TransactionHistory restored = new TransactionHistory();
+        restored.attachArchive(SegmentedTransactionArchive.forUser(directory, "alice"));
+        assertEquals(transactions.subList(0, 600), restored.getAllTransactions());
+    }
+
+    @Test
+    void corruptHeaderTest() throws IOException {
+        SegmentedTransactionArchive archive = new SegmentedTransactionArchive(directory);
+        archive.append(history(100), 0, 100);
+        Path segment = segments().get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0, 0, 0, 0}), 0);
+        }
+        assertThrows(IOException.class, () -> new SegmentedTransactionArchive(directory));
+    }
+
+    @Test
+    void truncatedBodyTest() throws IOException {
+        SegmentedTransactionArchive archive = new SegmentedTransactionArchive(directory);
+        archive.append(history(1000), 0, 1000);
+        Path segment = segments().get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() / 2);
+        }
+        // the header is intact, so the archive opens, and reading the body fails
+        SegmentedTransactionArchive reopened = new SegmentedTransactionArchive(directory);
+        assertEquals(1000, reopened.size());
+        assertThrows(UncheckedIOException.class, () -> reopened.get(999));
+    }
+
+    @Test
+    void missingSegmentTest() throws IOException {
+        TransactionHistory history = history(300);
+        SegmentedTransactionArchive archive = new SegmentedTransactionArchive(directory);
+        archive.append(history, 0, 100);
+        archive.append(history, 100, 200);
+        archive.append(history, 200, 300);
+        Files.delete(segments().get(1));
+        assertThrows(IOException.class, () -> new SegmentedTransactionArchive(directory));
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private static int[] range(int from, int to) {
+        int[] positions = new int[to - from];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = from + i;
+        }
+        return positions;
+    }
+
+    // one transaction a second, cycling through three tickers
+    private static TransactionHistory history(int size) {
+        String[] tickers = {"AAPL", "MSFT", "GOOGL"};
+        List<Transaction> transactions = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            transactions.add(new Transaction(1_700_000_000_000L + 1000L * i, tickers[i % tickers.length],
+                    1 + i % 100, 100 + (i % 500) / 100.0, i % 2 == 0 ? TransactionSide.BUY : TransactionSide.SELL));
+        }
+        return new TransactionHistory(transactions);
+    }
+}
@@ -0,0 +1,255 @@
+package data_access;
+
+import entity.LotReliefMethod;
+import entity.Portfolio;
+import entity.RollupResolution;
+import entity.Stock;
+import entity.Transaction;
+import entity.TransactionHistory;
+import entity.TransactionSide;
+import entity.User;
+import entity.UserFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import utility.PasswordHasher;
+import utility.exceptions.ValidationException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedUserDataAccessObjectTest {
+
+    // room for about one user per shard
+    private static final long ONE_USER_BYTES = 600;
+    private static final long FLUSH_INTERVAL = 60_000;
+
+    @TempDir
+    Path directory;
+
+    private final UserFactory userFactory = new UserFactory(new PasswordHasher(1));
+
+    @Test
+    void evictionAndReloadTest() throws Exception {
+        try (ShardedUserDataAccessObject dataAccess = new ShardedUserDataAccessObject(directory, 1, ONE_USER_BYTES,
+                FLUSH_INTERVAL)) {
+            User alice = userFactory.create("alice", "alice-password");
+            alice.addBalance(1000);
+            dataAccess.addUser(alice);
+            dataAccess.addUser(userFactory.create("bob", "bob-password"));
+            assertEquals(1, dataAccess.getResidentUserCount());
+
+            User reloaded = dataAccess.getUserWithPassword("alice", "alice-password");
+            assertNotSame(alice, reloaded);
+            assertEquals(1000, reloaded.getBalance());
+            assertEquals(1, dataAccess.getResidentUserCount());
+            assertSame(reloaded, dataAccess.getUserWithPassword("alice", "alice-password"));
+            assertEquals(0.5, dataAccess.getCacheHitRate(), 1e-9);
+            assertThrows(ValidationException.class, () -> dataAccess.getUserWithPassword("carol", "password"));
+        }
+    }
+
+    @Test
+    void writeBehindFlushTest() throws Exception {
+        try (ShardedUserDataAccessObject dataAccess = new ShardedUserDataAccessObject(directory, 4, 1 << 20,
+                FLUSH_INTERVAL)) {
+            dataAccess.addUser(userFactory.create("alice", "alice-password"));
+            User alice = dataAccess.getUserWithPassword("alice", "alice-password");
+            buy(dataAccess, alice, 5, 100.0);
+        }
+
+        // closing writes the changed users, so a new instance reads the trade
+        try (ShardedUserDataAccessObject dataAccess = new ShardedUserDataAccessObject(directory, 4, 1 << 20,
+                FLUSH_INTERVAL)) {
+            User alice = dataAccess.getUserWithPassword("alice", "alice-password");
+            assertEquals(-500, alice.getBalance(), 1e-9);
+            assertEquals(1, alice.getTransactionHistory().size());
+            assertEquals(5, alice.getPortfolio().getUserStock("AAPL").orElseThrow().getQuantity());
+        }
+    }
+
+    @Test
+    void evictedSinceLookedUpTest() throws Exception {
+        try (ShardedUserDataAccessObject dataAccess = new ShardedUserDataAccessObject(directory, 1, ONE_USER_BYTES,
+                FLUSH_INTERVAL)) {
+            dataAccess.addUser(userFactory.create("alice", "alice-password"));
+            User alice = dataAccess.getUserWithPassword("alice", "alice-password");
+            dataAccess.addUser(userFactory.create("bob", "bob-password"));
+
+            synchronized (alice) {
+                assertThrows(IOException.class, () -> dataAccess.recordFills(alice, -100.0,
+                        List.of(fill(1, 100.0)), LotReliefMethod.FIFO));
+            }
+            // the rejected order left nothing to write, and alice loads as she was
+            dataAccess.flush();
+            User reloaded = dataAccess.getUserWithPassword("alice", "alice-password");
+            assertNotSame(alice, reloaded);
+            assertEquals(0, reloaded.getTransactionHistory().size());
+            buy(dataAccess, reloaded, 1, 100.0);
+        }
+    }
+
+    @Test
+    void concurrentLoadsShareOneReadTest() throws Exception {
+        try (ShardedUserDataAccessObject dataAccess = new ShardedUserDataAccessObject(directory, 1, ONE_USER_BYTES,
+                FLUSH_INTERVAL)) {
+            dataAccess.addUser(userFactory.create("alice", "alice-password"));
+            dataAccess.addUser(userFactory.create("bob", "bob-password"));
+
+            List<Callable<User>> logins = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                logins.add(() -> dataAccess.getUserWithPassword("alice", "alice-password"));
+            }
+            List<User> users = new ArrayList<>();
+            try (ExecutorService executor = Executors.newFixedThreadPool(16)) {
+                for (Future<User> login : executor.invokeAll(logins)) {
+                    users.add(login.get());
+                }
+            }
+            for (User user : users) {
+                assertSame(users.get(0), user);
+            }
+            assertEquals(1, dataAccess.getLoadLatency().getCount());
+        }
+    }
+
+    @Test
+    void crashReplayTest() throws Exception {
+        Path users = directory.resolve("users");
+        Path crashed = directory.resolve("crashed");
+        Path journalFile = directory.resolve("trades.journal");
+        TradeRecorder recorder = new TradeRecorder();
+        try (TradeJournal journal = new TradeJournal(journalFile, JournalDurability.GROUP, 10);
+             ShardedUserDataAccessObject dataAccess = new ShardedUserDataAccessObject(users, 1, ONE_USER_BYTES,
+                     FLUSH_INTERVAL, recorder)) {
+            recorder.setTradeJournal(journal);
+            dataAccess.addUser(userFactory.create("alice", "alice-password"));
+            dataAccess.addUser(userFactory.create("bob", "bob-password"));
+            // the files as a crash right after the users were added leaves them
+            copyDirectory(users, crashed);
+
+            // with room for one user, every login writes the other user for its eviction
+            buy(dataAccess, dataAccess.getUserWithPassword("alice", "alice-password"), 1, 100.0);
+            buy(dataAccess, dataAccess.getUserWithPassword("bob", "bob-password"), 2, 100.0);
+            buy(dataAccess, dataAccess.getUserWithPassword("alice", "alice-password"), 3, 100.0);
+            buy(dataAccess, dataAccess.getUserWithPassword("bob", "bob-password"), 4, 100.0);
+            assertEquals(4, journal.getPosition().records());
+            recorder.awaitAnalytics();
+            assertEquals(10, dataAccess.getMarketRollups("AAPL", RollupResolution.DAY, 0, Long.MAX_VALUE).get(0)
+                    .volume());
+        } finally {
+            recorder.close();
+        }
+
+        // every order is replayed into the crashed files, while replaying evicts and writes the users in turn
+        deleteDirectory(users);
+        copyDirectory(crashed, users);
+        // and the files written meanwhile include them, so the next start replays none
+        for (int expectedRecords : new int[]{4, 0}) {
+            TradeRecorder restarted = new TradeRecorder();
+            try (TradeJournal journal = new TradeJournal(journalFile, JournalDurability.GROUP, 10);
+                 ShardedUserDataAccessObject dataAccess = new ShardedUserDataAccessObject(users, 1, ONE_USER_BYTES,
+                         FLUSH_INTERVAL, restarted)) {
+                restarted.setTradeJournal(journal);
+                assertEquals(expectedRecords, dataAccess.replayJournal(journal));
+                User alice = dataAccess.getUserWithPassword("alice", "alice-password");
+                assertEquals(-400, alice.getBalance(), 1e-9);
+                assertEquals(2, alice.getTransactionHistory().size());
+                assertEquals(4, alice.getPortfolio().getUserStock("AAPL").orElseThrow().getQuantity());
+                User bob = dataAccess.getUserWithPassword("bob", "bob-password");
+                assertEquals(-600, bob.getBalance(), 1e-9);
+                assertEquals(6, bob.getPortfolio().getUserStock("AAPL").orElseThrow().getQuantity());
+            } finally {
+                restarted.close();
+            }
+        }
+    }
+
+    @Test
+    void importUsersTest() throws Exception {
+        Portfolio portfolio = new Portfolio();
+        portfolio.addPosition(new Stock("AAPL", "Apple Inc.", "Technology", 90.0), 90.0, 10, 60_000);
+        User alice = User.withPasswordHash("alice", userFactory.create("alice", "alice-password").getPasswordHash(),
+                500, portfolio, new TransactionHistory(List.of(fill(10, 90.0))));
+        try (ShardedUserDataAccessObject dataAccess = new ShardedUserDataAccessObject(directory, 4, 1 << 20,
+                FLUSH_INTERVAL)) {
+            dataAccess.addUser(userFactory.create("bob", "bob-password"));
+            User otherBob = userFactory.create("bob", "other-password");
+            assertEquals(1, dataAccess.importUsers(List.of(alice, otherBob)));
+            assertEquals(0, dataAccess.importUsers(List.of(alice)));
+            assertEquals(1, dataAccess.getResidentUserCount());
+
+            // a login reads its own copy of an imported user
+            User loaded = dataAccess.getUserWithPassword("alice", "alice-password");
+            assertNotSame(alice, loaded);
+            assertEquals(500, loaded.getBalance(), 1e-9);
+            assertEquals(alice.getTransactionHistory().getAllTransactions(),
+                    loaded.getTransactionHistory().getAllTransactions());
+            assertEquals(alice.getPortfolio().getLots("AAPL"), loaded.getPortfolio().getLots("AAPL"));
+            assertThrows(ValidationException.class, () -> dataAccess.getUserWithPassword("bob", "other-password"));
+        }
+    }
+
+    @Test
+    void priceUpdateTest() throws Exception {
+        try (ShardedUserDataAccessObject dataAccess = new ShardedUserDataAccessObject(directory, 4, 1 << 20,
+                FLUSH_INTERVAL)) {
+            dataAccess.addUser(userFactory.create("alice", "alice-password"));
+            dataAccess.addUser(userFactory.create("bob", "bob-password"));
+            User alice = dataAccess.getUserWithPassword("alice", "alice-password");
+            buy(dataAccess, alice, 10, 100.0);
+            List<User> revalued = new ArrayList<>();
+            dataAccess.addAssetUpdateListener(revalued::add);
+
+            // only the resident users holding a changed ticker are revalued
+            dataAccess.onPricesUpdated(Map.of("AAPL", 120.0, "MSFT", 300.0));
+            assertEquals(List.of(alice), revalued);
+            assertEquals(1200, alice.getPortfolio().getTotalValue(), 1e-9);
+            dataAccess.onPricesUpdated(Map.of("MSFT", 310.0));
+            assertEquals(1, revalued.size());
+        }
+    }
+
+    // apply a buy the way the interactors do, recording it under the user's lock first
+    private static void buy(ShardedUserDataAccessObject dataAccess, User user, int quantity, double price)
+            throws IOException {
+        Transaction fill = fill(quantity, price);
+        synchronized (user) {
+            dataAccess.recordFills(user, -quantity * price, List.of(fill), LotReliefMethod.FIFO);
+            user.deductBalance(quantity * price);
+            user.getPortfolio().addPosition(new Stock("AAPL", "Apple Inc.", "Technology", price), price, quantity,
+                    fill.getTimestampMillis());
+            user.getTransactionHistory().addTransaction(fill);
+        }
+    }
+
+    private static Transaction fill(int quantity, double price) {
+        return new Transaction(60_000, "AAPL", quantity, price, TransactionSide.BUY);
+    }
+
+    private static void copyDirectory(Path source, Path target) throws IOException {
+        try (Stream<Path> paths = Files.walk(source)) {
+            for (Path path : paths.toList()) {
+                Files.copy(path, target.resolve(source.relativize(path).toString()));
+            }
+        }
+    }
+
+    private static void deleteDirectory(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted((a, b) -> b.compareTo(a)).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+}
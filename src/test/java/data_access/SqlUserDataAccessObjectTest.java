@@ -0,0 +1,241 @@
+package data_access;
+
+import entity.LotReliefMethod;
+import entity.Portfolio;
+import entity.RollupResolution;
+import entity.Stock;
+import entity.TaxLot;
+import entity.TradeRollup;
+import entity.Transaction;
+import entity.TransactionHistory;
+import entity.TransactionSide;
+import entity.User;
+import entity.UserFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import utility.PasswordHasher;
+import utility.exceptions.ValidationException;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlUserDataAccessObjectTest {
+
+    private static final long FLUSH_INTERVAL = 60_000;
+
+    // a fresh in-memory database per test, kept until the JVM exits so a second instance can reopen it
+    private final String jdbcUrl = "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+    private final PasswordHasher passwordHasher = new PasswordHasher(1);
+    private final UserFactory userFactory = new UserFactory(passwordHasher);
+    private final Stock apple = new Stock("AAPL", "Apple Inc.", "Technology", 100.0);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void addAndLoginTest() throws Exception {
+        try (SqlUserDataAccessObject dataAccess = new SqlUserDataAccessObject(jdbcUrl, FLUSH_INTERVAL)) {
+            User alice = userFactory.create("alice", "alice-password");
+            alice.addBalance(1000);
+            dataAccess.addUser(alice);
+
+            assertSame(alice, dataAccess.getUserWithPassword("alice", "alice-password"));
+            assertThrows(ValidationException.class, () -> dataAccess.getUserWithPassword("alice", "wrong"));
+            assertThrows(ValidationException.class, () -> dataAccess.getUserWithPassword("bob", "bob-password"));
+            assertThrows(IllegalArgumentException.class,
+                    () -> dataAccess.addUser(userFactory.create("alice", "other-password")));
+        }
+
+        try (SqlUserDataAccessObject dataAccess = new SqlUserDataAccessObject(jdbcUrl, FLUSH_INTERVAL)) {
+            User alice = dataAccess.getUserWithPassword("alice", "alice-password");
+            assertEquals(1000, alice.getBalance(), 1e-9);
+        }
+    }
+
+    @Test
+    void addUserWithHistoryTest() throws Exception {
+        Portfolio portfolio = new Portfolio();
+        portfolio.addPosition(apple, 90.0, 10, 60_000);
+        User alice = alice(500, portfolio, new TransactionHistory(List.of(
+                new Transaction(60_000, "AAPL", 10, 90.0, TransactionSide.BUY))));
+        try (SqlUserDataAccessObject dataAccess = new SqlUserDataAccessObject(jdbcUrl, FLUSH_INTERVAL)) {
+            dataAccess.addUser(alice);
+        }
+
+        try (SqlUserDataAccessObject dataAccess = new SqlUserDataAccessObject(jdbcUrl, FLUSH_INTERVAL)) {
+            User loaded = reload(dataAccess);
+            assertNotSame(alice, loaded);
+            assertEquals(alice.getTransactionHistory().getAllTransactions(),
+                    loaded.getTransactionHistory().getAllTransactions());
+            assertEquals(alice.getPortfolio().getLots("AAPL"), loaded.getPortfolio().getLots("AAPL"));
+            assertEquals(alice.getPortfolio().getNextLotId(), loaded.getPortfolio().getNextLotId());
+        }
+    }
+
+    @Test
+    void writeBehindTest() throws Exception {
+        try (SqlUserDataAccessObject dataAccess = new SqlUserDataAccessObject(jdbcUrl, FLUSH_INTERVAL)) {
+            User alice = alice(10000, new Portfolio(), new TransactionHistory());
+            dataAccess.addUser(alice);
+            buy(dataAccess, alice, 10, 100.0, 60_000);
+            buy(dataAccess, alice, 5, 110.0, 120_000);
+
+            // the orders are only in memory until the next write
+            try (SqlUserDataAccessObject reader = new SqlUserDataAccessObject(jdbcUrl, FLUSH_INTERVAL)) {
+                assertEquals(0, reload(reader).getTransactionHistory().size());
+            }
+            dataAccess.flush();
+            try (SqlUserDataAccessObject reader = new SqlUserDataAccessObject(jdbcUrl, FLUSH_INTERVAL)) {
+                User loaded = reload(reader);
+                assertEquals(10000 - 1000 - 550, loaded.getBalance(), 1e-9);
+                assertEquals(2, loaded.getTransactionHistory().size());
+                assertEquals(15, loaded.getPortfolio().getUserStock("AAPL").orElseThrow().getQuantity());
+            }
+
+            // a later write only inserts the new transactions and replaces the lots
+            sell(dataAccess, alice, 12, 120.0, 180_000);
+        }
+
+        try (SqlUserDataAccessObject dataAccess = new SqlUserDataAccessObject(jdbcUrl, FLUSH_INTERVAL)) {
+            User loaded = reload(dataAccess);
+            assertEquals(3, loaded.getTransactionHistory().size());
+            List<TaxLot> lots = loaded.getPortfolio().getLots("AAPL");
+            assertEquals(1, lots.size());
+            assertEquals(3, lots.get(0).quantity());
+            assertEquals(110.0, lots.get(0).price(), 1e-9);
+            // FIFO relief: 10 at 100 and 2 at 110 sold at 120
+            assertEquals(10 * 20.0 + 2 * 10.0, loaded.getPortfolio().getRealizedPnl("AAPL"), 1e-9);
+        }
+    }
+
+    @Test
+    void fillsAreJournaledTest() throws Exception {
+        TradeRecorder recorder = new TradeRecorder();
+        try (TradeJournal journal = new TradeJournal(directory.resolve("trades.journal"), JournalDurability.GROUP,
+                10);
+             SqlUserDataAccessObject dataAccess = new SqlUserDataAccessObject(jdbcUrl, FLUSH_INTERVAL, recorder)) {
+            recorder.setTradeJournal(journal);
+            User alice = alice(10000, new Portfolio(), new TransactionHistory());
+            dataAccess.addUser(alice);
+            buy(dataAccess, alice, 10, 100.0, 60_000);
+            sell(dataAccess, alice, 4, 110.0, 120_000);
+
+            // the orders are in the journal and the analytics before the user is written
+            List<JournalRecord> records = new ArrayList<>();
+            journal.replay(records::add);
+            assertEquals(2, records.size());
+            assertEquals("alice", records.get(0).username());
+            assertEquals(-1000, records.get(0).balanceDelta(), 1e-9);
+            assertEquals(TransactionSide.SELL, records.get(1).fills().get(0).getSide());
+            recorder.awaitAnalytics();
+            List<TradeRollup> rollups = dataAccess.getUserRollups(alice, "AAPL", RollupResolution.DAY, 0,
+                    Long.MAX_VALUE);
+            assertEquals(14, rollups.get(0).volume());
+            assertEquals(rollups, dataAccess.getMarketRollups("AAPL", RollupResolution.DAY, 0, Long.MAX_VALUE));
+
+            // an order of a user not loaded from the database is not journaled
+            User stranger = User.withPasswordHash("carol", "hash", 0, new Portfolio(), new TransactionHistory());
+            assertThrows(IllegalArgumentException.class, () -> dataAccess.recordFills(stranger, 0,
+                    List.of(), LotReliefMethod.FIFO));
+            assertEquals(2, journal.getPosition().records());
+        } finally {
+            recorder.close();
+        }
+    }
+
+    @Test
+    void importUsersTest() throws Exception {
+        Portfolio portfolio = new Portfolio();
+        portfolio.addPosition(apple, 90.0, 10, 60_000);
+        User alice = alice(500, portfolio, new TransactionHistory(List.of(
+                new Transaction(60_000, "AAPL", 10, 90.0, TransactionSide.BUY))));
+        User bob = User.withPasswordHash("bob", passwordHasher.hash("bob-password"), 700, new Portfolio(),
+                new TransactionHistory());
+        try (SqlUserDataAccessObject dataAccess = new SqlUserDataAccessObject(jdbcUrl, FLUSH_INTERVAL)) {
+            dataAccess.addUser(bob);
+            // bob is already in the database and keeps his balance there
+            bob.addBalance(100);
+            assertEquals(1, dataAccess.importUsers(List.of(alice, bob)));
+            assertEquals(0, dataAccess.importUsers(List.of(alice)));
+
+            // a login reads its own copy of an imported user
+            User loaded = reload(dataAccess);
+            assertNotSame(alice, loaded);
+            assertEquals(500, loaded.getBalance(), 1e-9);
+            assertEquals(alice.getTransactionHistory().getAllTransactions(),
+                    loaded.getTransactionHistory().getAllTransactions());
+            assertEquals(alice.getPortfolio().getLots("AAPL"), loaded.getPortfolio().getLots("AAPL"));
+        }
+
+        try (SqlUserDataAccessObject dataAccess = new SqlUserDataAccessObject(jdbcUrl, FLUSH_INTERVAL)) {
+            assertEquals(700, dataAccess.getUserWithPassword("bob", "bob-password").getBalance(), 1e-9);
+        }
+    }
+
+    @Test
+    void priceUpdateTest() throws Exception {
+        Portfolio portfolio = new Portfolio();
+        portfolio.addPosition(apple, 90.0, 10, 60_000);
+        try (SqlUserDataAccessObject dataAccess = new SqlUserDataAccessObject(jdbcUrl, FLUSH_INTERVAL)) {
+            dataAccess.addUser(alice(500, portfolio, new TransactionHistory()));
+            dataAccess.addUser(User.withPasswordHash("bob", "hash", 700, new Portfolio(), new TransactionHistory()));
+            List<User> revalued = new ArrayList<>();
+            dataAccess.addAssetUpdateListener(revalued::add);
+
+            // only the users holding a changed ticker are revalued
+            dataAccess.onPricesUpdated(Map.of("AAPL", 120.0, "MSFT", 300.0));
+            User alice = reload(dataAccess);
+            assertEquals(List.of(alice), revalued);
+            assertEquals(1200, alice.getPortfolio().getTotalValue(), 1e-9);
+            dataAccess.onPricesUpdated(Map.of("MSFT", 310.0));
+            assertEquals(1, revalued.size());
+        }
+    }
+
+    @Test
+    void unknownUserFillsTest() throws Exception {
+        try (SqlUserDataAccessObject dataAccess = new SqlUserDataAccessObject(jdbcUrl, FLUSH_INTERVAL)) {
+            User stranger = User.withPasswordHash("carol", "hash", 0, new Portfolio(), new TransactionHistory());
+            assertThrows(IllegalArgumentException.class, () -> dataAccess.recordFills(stranger, 0,
+                    List.of(), LotReliefMethod.FIFO));
+        }
+    }
+
+    private User alice(double balance, Portfolio portfolio, TransactionHistory history) {
+        return User.withPasswordHash("alice", passwordHasher.hash("alice-password"), balance, portfolio, history);
+    }
+
+    // load alice from the database the way a login does
+    private static User reload(SqlUserDataAccessObject dataAccess) throws ValidationException {
+        return dataAccess.getUserWithPassword("alice", "alice-password");
+    }
+
+    // apply a buy the way the interactors do, recording it under the user's lock first
+    private void buy(SqlUserDataAccessObject dataAccess, User user, int quantity, double price, long timestamp)
+            throws IOException {
+        Transaction fill = new Transaction(timestamp, "AAPL", quantity, price, TransactionSide.BUY);
+        synchronized (user) {
+            dataAccess.recordFills(user, -quantity * price, List.of(fill), LotReliefMethod.FIFO);
+            user.deductBalance(quantity * price);
+            user.getPortfolio().addPosition(apple, price, quantity, timestamp);
+            user.getTransactionHistory().addTransaction(fill);
+        }
+    }
+
+    private static void sell(SqlUserDataAccessObject dataAccess, User user, int quantity, double price,
+                             long timestamp) throws IOException {
+        Transaction fill = new Transaction(timestamp, "AAPL", quantity, price, TransactionSide.SELL);
+        synchronized (user) {
+            dataAccess.recordFills(user, quantity * price, List.of(fill), LotReliefMethod.FIFO);
+            user.addBalance(quantity * price);
+            user.getPortfolio().reducePosition("AAPL", price, quantity, LotReliefMethod.FIFO);
+            user.getTransactionHistory().addTransaction(fill);
+        }
+    }
+}
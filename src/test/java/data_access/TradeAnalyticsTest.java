@@ -0,0 +1,255 @@
+package data_access;
+
+import entity.RollupResolution;
+import entity.TradeRollup;
+import entity.Transaction;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TradeAnalyticsTest {
+
+    private static final long MINUTE = RollupResolution.MINUTE.getBucketMillis();
+    private static final long HOUR = RollupResolution.HOUR.getBucketMillis();
+    private static final long DAY = RollupResolution.DAY.getBucketMillis();
+    // a day boundary, so the buckets of every resolution start here
+    private static final long START = 20_000 * DAY;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void bucketingTest() {
+        TradeAnalytics analytics = new TradeAnalytics();
+        // two orders in the first minute, one of them with two fills
+        analytics.recordFills("alice", List.of(fill(START + 1000, "AAPL", 10, 100.0)));
+        analytics.recordFills("bob", List.of(fill(START + 59_999, "AAPL", 30, 104.0),
+                fill(START + 59_999, "MSFT", 5, 300.0)));
+        // the next minute, the next hour and the next day
+        analytics.recordFills("alice", List.of(fill(START + MINUTE, "AAPL", 20, 110.0)));
+        analytics.recordFills("alice", List.of(fill(START + HOUR + 5, "AAPL", 40, 120.0)));
+        analytics.recordFills("bob", List.of(fill(START + DAY + 5, "AAPL", 50, 130.0)));
+
+        List<TradeRollup> minutes = analytics.getMarketRollups("AAPL", RollupResolution.MINUTE,
+                Long.MIN_VALUE, Long.MAX_VALUE);
+        assertEquals(List.of(START, START + MINUTE, START + HOUR, START + DAY), starts(minutes));
+        assertEquals(List.of(40L, 20L, 40L, 50L), volumes(minutes));
+        assertEquals(10 * 100.0 + 30 * 104.0, minutes.get(0).notional(), 1e-9);
+        assertEquals((10 * 100.0 + 30 * 104.0) / 40, minutes.get(0).getVwap(), 1e-9);
+
+        List<TradeRollup> hours = analytics.getMarketRollups("AAPL", RollupResolution.HOUR,
+                Long.MIN_VALUE, Long.MAX_VALUE);
+        assertEquals(List.of(START, START + HOUR, START + DAY), starts(hours));
+        assertEquals(List.of(60L, 40L, 50L), volumes(hours));
+
+        List<TradeRollup> days = analytics.getMarketRollups("AAPL", RollupResolution.DAY,
+                Long.MIN_VALUE, Long.MAX_VALUE);
+        assertEquals(List.of(START, START + DAY), starts(days));
+        assertEquals(List.of(100L, 50L), volumes(days));
+        assertEquals((10 * 100.0 + 30 * 104.0 + 20 * 110.0 + 40 * 120.0) / 100, days.get(0).getVwap(), 1e-9);
+
+        // the series of a user only hold the user's own fills, and tickers are kept apart
+        assertEquals(List.of(10L, 20L, 40L), volumes(analytics.getUserRollups("alice", "AAPL",
+                RollupResolution.MINUTE, Long.MIN_VALUE, Long.MAX_VALUE)));
+        assertEquals(List.of(30L, 50L), volumes(analytics.getUserRollups("bob", "AAPL",
+                RollupResolution.HOUR, Long.MIN_VALUE, Long.MAX_VALUE)));
+        assertEquals(List.of(5L), volumes(analytics.getMarketRollups("MSFT", RollupResolution.DAY,
+                Long.MIN_VALUE, Long.MAX_VALUE)));
+        assertEquals(List.of(), analytics.getUserRollups("alice", "MSFT", RollupResolution.DAY,
+                Long.MIN_VALUE, Long.MAX_VALUE));
+        assertEquals(List.of(), analytics.getMarketRollups("TSLA", RollupResolution.DAY,
+                Long.MIN_VALUE, Long.MAX_VALUE));
+    }
+
+    @Test
+    void rangeTest() {
+        TradeAnalytics analytics = new TradeAnalytics();
+        for (int minute = 0; minute < 10; minute++) {
+            analytics.recordFills("alice", List.of(fill(START + minute * MINUTE + 30_000, "AAPL", minute + 1, 100.0)));
+        }
+        // a range starting inside a bucket includes that bucket, and the end is inclusive
+        assertEquals(List.of(START + 2 * MINUTE, START + 3 * MINUTE, START + 4 * MINUTE),
+                starts(analytics.getMarketRollups("AAPL", RollupResolution.MINUTE,
+                        START + 2 * MINUTE + 59_000, START + 4 * MINUTE)));
+        assertEquals(List.of(), analytics.getMarketRollups("AAPL", RollupResolution.MINUTE,
+                START + 10 * MINUTE, Long.MAX_VALUE));
+        assertEquals(List.of(), analytics.getMarketRollups("AAPL", RollupResolution.MINUTE,
+                Long.MIN_VALUE, START - 1));
+        assertEquals(List.of(55L), volumes(analytics.getMarketRollups("AAPL", RollupResolution.HOUR,
+                START + 5 * MINUTE, START + 5 * MINUTE)));
+    }
+
+    @Test
+    void retentionTest() {
+        TradeAnalytics analytics = new TradeAnalytics();
+        int retained = RollupResolution.MINUTE.getRetainedBuckets();
+        // one fill a minute except in minute 300, so 100 more buckets than the minute ring keeps
+        int minutes = retained + 101;
+        for (int minute = 0; minute < minutes; minute++) {
+            if (minute != 300) {
+                analytics.recordFills("alice", List.of(fill(START + minute * MINUTE, "AAPL", 1, 100.0)));
+            }
+        }
+
+        // the ring keeps the newest buckets of the resolution and drops the oldest
+        List<TradeRollup> kept = analytics.getMarketRollups("AAPL", RollupResolution.MINUTE,
+                Long.MIN_VALUE, Long.MAX_VALUE);
+        assertEquals(retained, kept.size());
+        assertEquals(START + 100 * MINUTE, kept.get(0).bucketStart());
+        assertEquals(START + (minutes - 1) * MINUTE, kept.get(retained - 1).bucketStart());
+        // the hour buckets still hold every fill
+        assertEquals(minutes - 1, volumes(analytics.getMarketRollups("AAPL", RollupResolution.HOUR,
+                Long.MIN_VALUE, Long.MAX_VALUE)).stream().mapToLong(Long::longValue).sum());
+
+        // a late fill older than every retained minute is dropped, one in a retained minute is added to it
+        analytics.recordFills("alice", List.of(fill(START + 50 * MINUTE, "AAPL", 7, 100.0)));
+        analytics.recordFills("bob", List.of(fill(START + 500 * MINUTE + 1, "AAPL", 7, 100.0)));
+        kept = analytics.getMarketRollups("AAPL", RollupResolution.MINUTE, Long.MIN_VALUE, Long.MAX_VALUE);
+        assertEquals(retained, kept.size());
+        assertEquals(START + 100 * MINUTE, kept.get(0).bucketStart());
+        assertEquals(START + 500 * MINUTE, kept.get(399).bucketStart());
+        assertEquals(8, kept.get(399).volume());
+
+        // a new bucket between retained ones in a full ring drops the oldest bucket
+        analytics.recordFills("bob", List.of(fill(START + 300 * MINUTE, "AAPL", 3, 100.0)));
+        kept = analytics.getMarketRollups("AAPL", RollupResolution.MINUTE, Long.MIN_VALUE, Long.MAX_VALUE);
+        assertEquals(retained, kept.size());
+        assertEquals(START + 101 * MINUTE, kept.get(0).bucketStart());
+        assertEquals(START + 300 * MINUTE, kept.get(199).bucketStart());
+        assertEquals(3, kept.get(199).volume());
+        assertEquals(8, kept.get(399).volume());
+        assertTimeOrdered(kept);
+    }
+
+    @Test
+    void outOfOrderFillsTest() {
+        TradeAnalytics analytics = new TradeAnalytics();
+        // more buckets than the initial capacity of a ring, recorded out of time order
+        long[] order = {5, 1, 9, 3, 7, 0, 8, 2, 6, 4};
+        for (long minute : order) {
+            analytics.recordFills("alice", List.of(fill(START + minute * MINUTE, "AAPL", (int) minute + 1, 100.0)));
+        }
+        List<TradeRollup> rollups = analytics.getMarketRollups("AAPL", RollupResolution.MINUTE,
+                Long.MIN_VALUE, Long.MAX_VALUE);
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L), volumes(rollups));
+        assertTimeOrdered(rollups);
+    }
+
+    @Test
+    void checkpointRoundTripTest() throws IOException {
+        TradeAnalytics analytics = new TradeAnalytics();
+        // enough minutes to wrap the minute ring, so its head is not at the start of the arrays
+        int minutes = RollupResolution.MINUTE.getRetainedBuckets() + 10;
+        for (int minute = 0; minute < minutes; minute++) {
+            String ticker = minute % 3 == 0 ? "AAPL" : "MSFT";
+            analytics.recordFills(minute % 2 == 0 ? "alice" : "bob",
+                    List.of(fill(START + minute * MINUTE, ticker, minute + 1, 100.0 + minute)),
+                    new JournalPosition(64L * (minute + 1), minute + 1));
+        }
+        Path file = directory.resolve("trade_analytics.bin");
+        analytics.writeCheckpoint(file, null);
+        assertEquals(new JournalPosition(64L * minutes, minutes), analytics.getCheckpointedPosition());
+        assertFalse(Files.exists(directory.resolve("trade_analytics.bin.tmp")));
+
+        TradeAnalytics restored = new TradeAnalytics();
+        assertTrue(restored.readCheckpoint(file));
+        assertEquals(analytics.getPosition(), restored.getPosition());
+        assertEquals(analytics.getPosition(), restored.getCheckpointedPosition());
+        for (String ticker : List.of("AAPL", "MSFT")) {
+            for (RollupResolution resolution : RollupResolution.values()) {
+                assertEquals(analytics.getMarketRollups(ticker, resolution, Long.MIN_VALUE, Long.MAX_VALUE),
+                        restored.getMarketRollups(ticker, resolution, Long.MIN_VALUE, Long.MAX_VALUE));
+                for (String username : List.of("alice", "bob")) {
+                    assertEquals(analytics.getUserRollups(username, ticker, resolution, Long.MIN_VALUE,
+                                    Long.MAX_VALUE),
+                            restored.getUserRollups(username, ticker, resolution, Long.MIN_VALUE, Long.MAX_VALUE));
+                }
+            }
+        }
+
+        // a restored ring keeps its retention and keeps recording
+        restored.recordFills("alice", List.of(fill(START + minutes * MINUTE, "AAPL", 1, 100.0)));
+        List<TradeRollup> kept = restored.getMarketRollups("AAPL", RollupResolution.MINUTE,
+                Long.MIN_VALUE, Long.MAX_VALUE);
+        assertEquals(START + minutes * MINUTE, kept.get(kept.size() - 1).bucketStart());
+        assertTimeOrdered(kept);
+    }
+
+    @Test
+    void damagedCheckpointTest() throws IOException {
+        TradeAnalytics analytics = new TradeAnalytics();
+        analytics.recordFills("alice", List.of(fill(START, "AAPL", 10, 100.0)), new JournalPosition(64, 1));
+        Path file = directory.resolve("trade_analytics.bin");
+        analytics.writeCheckpoint(file, null);
+        byte[] bytes = Files.readAllBytes(file);
+
+        TradeAnalytics other = new TradeAnalytics();
+        other.recordFills("bob", List.of(fill(START, "MSFT", 3, 300.0)));
+
+        // a flipped bit in a bucket, which still decodes but fails the CRC
+        byte[] flipped = bytes.clone();
+        flipped[bytes.length - Long.BYTES - 1] ^= 1;
+        assertFalse(other.readCheckpoint(write("flipped.bin", flipped)));
+        // a wrong CRC, a cut short file, a wrong magic and a missing file
+        byte[] wrongCrc = bytes.clone();
+        wrongCrc[bytes.length - 1] ^= 1;
+        assertFalse(other.readCheckpoint(write("crc.bin", wrongCrc)));
+        assertFalse(other.readCheckpoint(write("short.bin", Arrays.copyOf(bytes, bytes.length - 3))));
+        byte[] wrongMagic = bytes.clone();
+        ByteBuffer.wrap(wrongMagic).putInt(0, 0x12345678);
+        assertFalse(other.readCheckpoint(write("magic.bin", wrongMagic)));
+        assertFalse(other.readCheckpoint(directory.resolve("missing.bin")));
+
+        // a rejected checkpoint leaves the analytics unchanged
+        assertEquals(TradeJournal.START, other.getPosition());
+        assertEquals(List.of(3L), volumes(other.getMarketRollups("MSFT", RollupResolution.MINUTE,
+                Long.MIN_VALUE, Long.MAX_VALUE)));
+        assertEquals(List.of(), other.getMarketRollups("AAPL", RollupResolution.MINUTE,
+                Long.MIN_VALUE, Long.MAX_VALUE));
+
+        assertTrue(other.readCheckpoint(file));
+        assertEquals(new JournalPosition(64, 1), other.getPosition());
+        assertEquals(List.of(), other.getMarketRollups("MSFT", RollupResolution.MINUTE,
+                Long.MIN_VALUE, Long.MAX_VALUE));
+    }
+
+    private Path write(String name, byte[] bytes) throws IOException {
+        return Files.write(directory.resolve(name), bytes);
+    }
+
+    private static Transaction fill(long timestamp, String ticker, int quantity, double price) {
+        return new Transaction(new Date(timestamp), ticker, quantity, price, "buy");
+    }
+
+    private static List<Long> starts(List<TradeRollup> rollups) {
+        List<Long> starts = new ArrayList<>();
+        for (TradeRollup rollup : rollups) {
+            starts.add(rollup.bucketStart());
+        }
+        return starts;
+    }
+
+    private static List<Long> volumes(List<TradeRollup> rollups) {
+        List<Long> volumes = new ArrayList<>();
+        for (TradeRollup rollup : rollups) {
+            volumes.add(rollup.volume());
+        }
+        return volumes;
+    }
+
+    private static void assertTimeOrdered(List<TradeRollup> rollups) {
+        for (int i = 1; i < rollups.size(); i++) {
+            assertTrue(rollups.get(i - 1).bucketStart() < rollups.get(i).bucketStart());
+        }
+    }
+}
@@ -0,0 +1,388 @@
+package data_access;
+
+import entity.LotReliefMethod;
+import entity.Transaction;
+import entity.TransactionSide;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TradeJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void roundTripTest() throws IOException {
+        Path file = directory.resolve("trades.journal");
+        try (TradeJournal journal = new TradeJournal(file, JournalDurability.SYNC, 10)) {
+            journal.append(record("alice", -1000.0, 10, 100.0, TransactionSide.BUY));
+            journal.append(record("bob", 525.5, 5, 105.1, TransactionSide.SELL));
+        }
+
+        List<JournalRecord> records = replay(file);
+        assertEquals(2, records.size());
+        assertEquals(record("alice", -1000.0, 10, 100.0, TransactionSide.BUY), records.get(0));
+        assertEquals(record("bob", 525.5, 5, 105.1, TransactionSide.SELL), records.get(1));
+    }
+
+    @Test
+    void replayFromPositionTest() throws IOException {
+        Path file = directory.resolve("trades.journal");
+        JournalPosition middle;
+        try (TradeJournal journal = new TradeJournal(file, JournalDurability.GROUP, 10)) {
+            journal.append(record("alice", -100.0, 1, 100.0, TransactionSide.BUY));
+            middle = journal.getPosition();
+            journal.append(record("alice", 100.0, 1, 100.0, TransactionSide.SELL));
+        }
+        assertEquals(1, middle.records());
+
+        List<JournalRecord> records = new ArrayList<>();
+        try (TradeJournal journal = new TradeJournal(file, JournalDurability.GROUP, 10, middle)) {
+            journal.replay(middle, (record, offset) -> records.add(record));
+            assertEquals(2, journal.getPosition().records());
+        }
+        assertEquals(List.of(record("alice", 100.0, 1, 100.0, TransactionSide.SELL)), records);
+    }
+
+    @Test
+    void tornTailTest() throws IOException {
+        Path file = directory.resolve("trades.journal");
+        try (TradeJournal journal = new TradeJournal(file, JournalDurability.SYNC, 10)) {
+            journal.append(record("alice", -100.0, 1, 100.0, TransactionSide.BUY));
+        }
+        Path segment = activeSegment(file);
+        long intact = Files.size(segment);
+        // a record header promising more bytes than a crash left behind
+        Files.write(segment, ByteBuffer.allocate(12).putInt(100).putInt(0).putInt(7).array(),
+                StandardOpenOption.APPEND);
+
+        assertEquals(1, replay(file).size());
+        assertEquals(intact, Files.size(segment), "The torn record should be truncated when the journal is opened.");
+    }
+
+    @Test
+    void checksumMismatchTest() throws IOException {
+        Path file = directory.resolve("trades.journal");
+        JournalPosition intact;
+        try (TradeJournal journal = new TradeJournal(file, JournalDurability.SYNC, 10)) {
+            journal.append(record("alice", -100.0, 1, 100.0, TransactionSide.BUY));
+            intact = journal.getPosition();
+            journal.append(record("bob", -200.0, 2, 100.0, TransactionSide.BUY));
+        }
+        // corrupt the last byte of the second record's payload
+        try (FileChannel channel = FileChannel.open(activeSegment(file), StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            ByteBuffer last = ByteBuffer.allocate(1);
+            channel.read(last, channel.size() - 1);
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) (last.get(0) ^ 0xff)}), channel.size() - 1);
+        }
+
+        List<JournalRecord> records = replay(file);
+        assertEquals(1, records.size());
+        assertEquals("alice", records.get(0).username());
+        try (TradeJournal journal = new TradeJournal(file, JournalDurability.SYNC, 10)) {
+            assertEquals(intact, journal.getPosition());
+        }
+    }
+
+    @Test
+    void groupCommitDurabilityTest() throws Exception {
+        Path file = directory.resolve("trades.journal");
+        int appenders = 32;
+        TestChannels channels = new TestChannels();
+        try (TradeJournal journal = new TradeJournal(file, JournalDurability.GROUP, 10, TradeJournal.START,
+                channels)) {
+            TestChannel channel = channels.active();
+            long headerBytes = channel.size();
+            // a slow force lets the appends arriving meanwhile pile up for the next one
+            channel.forceMillis = 20;
+            int forcesBefore = channel.forces.get();
+            List<Thread> threads = new ArrayList<>();
+            for (int i = 0; i < appenders; i++) {
+                String username = "user-" + i;
+                threads.add(Thread.ofPlatform().start(() -> {
+                    try {
+                        journal.append(record(username, -100.0, 1, 100.0, TransactionSide.BUY));
+                    } catch (IOException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }));
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            int forces = channel.forces.get() - forcesBefore;
+            assertTrue(forces < appenders, "Concurrent appends should share forces, got " + forces + ".");
+
+            // every append returned, so every record is on disk before the journal is closed
+            List<JournalRecord> records = new ArrayList<>();
+            try (FileChannel reader = FileChannel.open(activeSegment(file), StandardOpenOption.READ)) {
+                assertEquals(headerBytes + journal.getPosition().offset(), reader.size());
+            }
+            journal.replay(records::add);
+            assertEquals(appenders, records.size());
+        }
+    }
+
+    @Test
+    void failedWriteIsTruncatedTest() throws IOException {
+        Path file = directory.resolve("trades.journal");
+        TestChannels channels = new TestChannels();
+        long intact;
+        try (TradeJournal journal = new TradeJournal(file, JournalDurability.SYNC, 10, TradeJournal.START,
+                channels)) {
+            TestChannel channel = channels.active();
+            journal.append(record("alice", -100.0, 1, 100.0, TransactionSide.BUY));
+            intact = channel.size();
+
+            // the record is written but the force fails, so the order is rejected
+            channel.failNextForce = true;
+            assertThrows(IOException.class, () -> journal.append(record("bob", -200.0, 2, 100.0,
+                    TransactionSide.BUY)));
+            assertEquals(intact, Files.size(activeSegment(file)), "The rejected record should be truncated away.");
+            assertThrows(IOException.class, () -> journal.append(record("carol", -100.0, 1, 100.0,
+                    TransactionSide.BUY)), "A failed journal should reject every later append.");
+        } catch (IOException e) {
+            // closing flushes and reports the earlier failure
+        }
+
+        List<JournalRecord> records = replay(file);
+        assertEquals(1, records.size());
+        assertEquals("alice", records.get(0).username());
+    }
+
+    @Test
+    void failedTruncateRefusesToOpenTest() throws IOException {
+        Path file = directory.resolve("trades.journal");
+        TestChannels channels = new TestChannels();
+        try (TradeJournal journal = new TradeJournal(file, JournalDurability.SYNC, 10, TradeJournal.START,
+                channels)) {
+            TestChannel channel = channels.active();
+            channel.failNextForce = true;
+            channel.failTruncate = true;
+            assertThrows(IOException.class, () -> journal.append(record("bob", -200.0, 2, 100.0,
+                    TransactionSide.BUY)));
+        } catch (IOException e) {
+            // closing flushes and reports the earlier failure
+        }
+
+        Path marker = directory.resolve("trades.journal.failed");
+        assertTrue(Files.exists(marker));
+        assertThrows(IOException.class, () -> new TradeJournal(file, JournalDurability.SYNC, 10));
+
+        // the operator truncates the segment to the offset in the marker and deletes the marker
+        String[] repair = Files.readString(marker).split(" ");
+        try (FileChannel segment = FileChannel.open(directory.resolve(repair[0]), StandardOpenOption.WRITE)) {
+            segment.truncate(Long.parseLong(repair[1]));
+        }
+        Files.delete(marker);
+        assertTrue(replay(file).isEmpty());
+    }
+
+    @Test
+    void rollAndCompactTest() throws IOException {
+        Path file = directory.resolve("trades.journal");
+        JournalPosition second;
+        try (TradeJournal journal = new TradeJournal(file, JournalDurability.GROUP, 10)) {
+            journal.append(record("alice", -100.0, 1, 100.0, TransactionSide.BUY));
+            journal.roll();
+            second = journal.getPosition();
+            journal.append(record("bob", -200.0, 2, 100.0, TransactionSide.BUY));
+            journal.roll();
+            // an empty active segment is not rolled again
+            journal.roll();
+            journal.append(record("carol", -300.0, 3, 100.0, TransactionSide.BUY));
+            assertEquals(3, TradeJournal.listSegments(file).size());
+
+            assertEquals(1, journal.compact(second));
+            assertEquals(second, journal.getStartPosition());
+            assertThrows(IOException.class, () -> journal.replay(TradeJournal.START, (record, offset) -> {
+            }));
+        }
+
+        List<JournalRecord> records = new ArrayList<>();
+        try (TradeJournal journal = new TradeJournal(file, JournalDurability.GROUP, 10, second)) {
+            assertEquals(3, journal.getPosition().records());
+            journal.replay(second, (record, offset) -> records.add(record));
+            journal.roll();
+            // the active segment is kept even when every record is before the position
+            assertEquals(2, journal.compact(journal.getPosition()));
+            assertEquals(journal.getPosition(), journal.getStartPosition());
+        }
+        assertEquals(List.of("bob", "carol"), records.stream().map(JournalRecord::username).toList());
+        assertTrue(replay(file).isEmpty());
+    }
+
+    private static JournalRecord record(String username, double balanceDelta, int quantity, double price,
+                                        TransactionSide side) {
+        return new JournalRecord(username, balanceDelta, LotReliefMethod.FIFO,
+                List.of(new Transaction(1000L, "XXXX", quantity, price, side)));
+    }
+
+    private static Path activeSegment(Path file) throws IOException {
+        List<Path> segments = TradeJournal.listSegments(file);
+        return segments.get(segments.size() - 1);
+    }
+
+    private static List<JournalRecord> replay(Path file) throws IOException {
+        List<JournalRecord> records = new ArrayList<>();
+        try (TradeJournal journal = new TradeJournal(file, JournalDurability.SYNC, 10)) {
+            journal.replay(records::add);
+        }
+        return records;
+    }
+
+    /**
+     * Opens every segment through a TestChannel
+     */
+    private static class TestChannels implements TradeJournal.SegmentOpener {
+
+        private final List<TestChannel> opened = new ArrayList<>();
+
+        @Override
+        public FileChannel open(Path segment) throws IOException {
+            TestChannel channel = new TestChannel(segment);
+            opened.add(channel);
+            return channel;
+        }
+
+        TestChannel active() {
+            return opened.get(opened.size() - 1);
+        }
+    }
+
+    /**
+     * A channel of a file that counts forces and can fail the next one, delay them or fail truncates
+     */
+    private static class TestChannel extends FileChannel {
+
+        private final FileChannel delegate;
+        private final AtomicInteger forces = new AtomicInteger();
+        private volatile boolean failNextForce;
+        private volatile boolean failTruncate;
+        private volatile long forceMillis;
+
+        TestChannel(Path file) throws IOException {
+            delegate = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            forces.incrementAndGet();
+            if (failNextForce) {
+                failNextForce = false;
+                throw new IOException("Simulated force failure.");
+            }
+            if (forceMillis > 0) {
+                try {
+                    Thread.sleep(forceMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            delegate.force(metaData);
+        }
+
+        @Override
+        public FileChannel truncate(long size) throws IOException {
+            if (failTruncate) {
+                throw new IOException("Simulated truncate failure.");
+            }
+            delegate.truncate(size);
+            return this;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            return delegate.read(dst);
+        }
+
+        @Override
+        public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+            return delegate.read(dsts, offset, length);
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            return delegate.write(src);
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+            return delegate.write(srcs, offset, length);
+        }
+
+        @Override
+        public long position() throws IOException {
+            return delegate.position();
+        }
+
+        @Override
+        public FileChannel position(long newPosition) throws IOException {
+            delegate.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return delegate.size();
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            return delegate.transferTo(position, count, target);
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+            return delegate.transferFrom(src, position, count);
+        }
+
+        @Override
+        public int read(ByteBuffer dst, long position) throws IOException {
+            return delegate.read(dst, position);
+        }
+
+        @Override
+        public int write(ByteBuffer src, long position) throws IOException {
+            return delegate.write(src, position);
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+            return delegate.map(mode, position, size);
+        }
+
+        @Override
+        public FileLock lock(long position, long size, boolean shared) throws IOException {
+            return delegate.lock(position, size, shared);
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+            return delegate.tryLock(position, size, shared);
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package data_access;
+
+import entity.LotReliefMethod;
+import entity.Portfolio;
+import entity.RollupResolution;
+import entity.TradeRollup;
+import entity.Transaction;
+import entity.TransactionHistory;
+import entity.TransactionSide;
+import entity.User;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TradeRecorderTest {
+
+    @TempDir
+    Path directory;
+
+    private final User alice = User.withPasswordHash("alice", "hash", 10000, new Portfolio(), new TransactionHistory());
+
+    @Test
+    void analyticsFollowJournalTest() throws Exception {
+        TradeRecorder recorder = new TradeRecorder();
+        try (TradeJournal journal = new TradeJournal(directory.resolve("trades.journal"), JournalDurability.GROUP,
+                10)) {
+            recorder.setTradeJournal(journal);
+            // concurrent orders reach the analytics thread in any order
+            try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+                List<Future<?>> orders = new ArrayList<>();
+                for (int i = 0; i < 200; i++) {
+                    orders.add(executor.submit(() -> {
+                        recorder.record(alice, -100.0, List.of(fill(60_000, 1, 100.0)), LotReliefMethod.FIFO);
+                        return null;
+                    }));
+                }
+                for (Future<?> order : orders) {
+                    order.get();
+                }
+            }
+            recorder.awaitAnalytics();
+
+            assertEquals(journal.getPosition(), recorder.getTradeAnalytics().getPosition());
+            assertEquals(200, volume(recorder.getTradeAnalytics()));
+        } finally {
+            recorder.close();
+        }
+    }
+
+    @Test
+    void checkpointReplaysOnlyLaterOrdersTest() throws Exception {
+        Path journalFile = directory.resolve("trades.journal");
+        Path checkpoint = directory.resolve("trade_analytics.bin");
+        TradeRecorder recorder = new TradeRecorder();
+        try (TradeJournal journal = new TradeJournal(journalFile, JournalDurability.ASYNC, 1000)) {
+            recorder.setTradeJournal(journal);
+            recorder.record(alice, -100.0, List.of(fill(60_000, 1, 100.0)), LotReliefMethod.FIFO);
+            recorder.record(alice, -200.0, List.of(fill(60_000, 2, 100.0)), LotReliefMethod.FIFO);
+            recorder.awaitAnalytics();
+            recorder.getTradeAnalytics().writeCheckpoint(checkpoint, journal);
+            recorder.record(alice, -400.0, List.of(fill(60_000, 4, 100.0)), LotReliefMethod.FIFO);
+        } finally {
+            recorder.close();
+        }
+
+        TradeRecorder restarted = new TradeRecorder();
+        assertTrue(restarted.getTradeAnalytics().readCheckpoint(checkpoint));
+        assertEquals(2, restarted.getTradeAnalytics().getPosition().records());
+        assertEquals(3, volume(restarted.getTradeAnalytics()));
+        try (TradeJournal journal = new TradeJournal(journalFile, JournalDurability.ASYNC, 1000)) {
+            restarted.replay(journal, null, username -> null);
+            assertEquals(journal.getPosition(), restarted.getTradeAnalytics().getPosition());
+        }
+        assertEquals(7, volume(restarted.getTradeAnalytics()));
+    }
+
+    @Test
+    void withoutJournalTest() throws Exception {
+        TradeRecorder recorder = new TradeRecorder();
+        try {
+            recorder.record(alice, -100.0, List.of(fill(60_000, 3, 100.0)), LotReliefMethod.FIFO);
+            recorder.awaitAnalytics();
+            assertEquals(3, volume(recorder.getTradeAnalytics()));
+            assertEquals(TradeJournal.START, recorder.getTradeAnalytics().getPosition());
+        } finally {
+            recorder.close();
+        }
+        assertThrows(IllegalStateException.class, () ->
+                recorder.record(alice, -100.0, List.of(fill(60_000, 1, 100.0)), LotReliefMethod.FIFO));
+    }
+
+    private static long volume(TradeAnalytics analytics) {
+        return analytics.getMarketRollups("AAPL", RollupResolution.DAY, 0, Long.MAX_VALUE).stream()
+                .mapToLong(TradeRollup::volume)
+                .sum();
+    }
+
+    private static Transaction fill(long timestamp, int quantity, double price) {
+        return new Transaction(timestamp, "AAPL", quantity, price, TransactionSide.BUY);
+    }
+}
@@ -0,0 +1,139 @@
+package data_access;
+
+import entity.Transaction;
+import entity.TransactionHistory;
+import entity.TransactionSide;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionCodecTest {
+
+    @Test
+    void roundTripTest() throws IOException {
+        List<Transaction> transactions = new ArrayList<>();
+        Random random = new Random(42);
+        String[] tickers = {"AAPL", "MSFT", "GOOGL", "BRK.B"};
+        long timestamp = 1_700_000_000_000L;
+        for (int i = 0; i < 5000; i++) {
+            // timestamps go backwards now and then, and quantities and price moves take both signs
+            timestamp += random.nextInt(2000) - 200;
+            transactions.add(new Transaction(timestamp, tickers[random.nextInt(tickers.length)],
+                    random.nextInt(2000) - 1000, random.nextInt(5_000_000) / 10_000.0,
+                    random.nextBoolean() ? TransactionSide.BUY : TransactionSide.SELL));
+        }
+        byte[] stream = TransactionCodec.encode(transactions);
+        assertEquals(transactions, TransactionCodec.decode(stream));
+    }
+
+    @Test
+    void extremeValuesTest() throws IOException {
+        List<Transaction> transactions = List.of(
+                new Transaction(Long.MAX_VALUE, "AAPL", Integer.MAX_VALUE, 0.0, TransactionSide.BUY),
+                new Transaction(Long.MIN_VALUE, "AAPL", Integer.MIN_VALUE, 100_000_000.0, TransactionSide.SELL),
+                new Transaction(0, "AAPL", 0, -12.5, TransactionSide.BUY));
+        assertEquals(transactions, TransactionCodec.decode(TransactionCodec.encode(transactions)));
+    }
+
+    @Test
+    void rawPriceFallbackTest() throws IOException {
+        List<Transaction> transactions = List.of(
+                new Transaction(60_000, "AAPL", 1, 150.25, TransactionSide.BUY),
+                new Transaction(60_001, "AAPL", 1, 150.123456789, TransactionSide.BUY),
+                new Transaction(60_002, "AAPL", 1, Math.PI, TransactionSide.SELL),
+                new Transaction(60_003, "AAPL", 1, Double.NaN, TransactionSide.SELL),
+                new Transaction(60_004, "AAPL", 1, 1e300, TransactionSide.BUY),
+                // a scaled price after raw ones is still a delta from the last scaled price
+                new Transaction(60_005, "AAPL", 1, 150.5, TransactionSide.BUY));
+        assertEquals(transactions, TransactionCodec.decode(TransactionCodec.encode(transactions)));
+
+        // the raw price takes its 8 bytes instead of the 4 byte varint of the scaled one
+        int scaled = TransactionCodec.encode(List.of(transactions.get(0))).length;
+        int raw = TransactionCodec.encode(List.of(transactions.get(1))).length;
+        assertEquals(scaled + 4, raw);
+    }
+
+    @Test
+    void historyColumnsTest() throws IOException {
+        List<Transaction> transactions = List.of(
+                new Transaction(60_000, "AAPL", 10, 150.0, TransactionSide.BUY),
+                new Transaction(120_000, "MSFT", 5, 320.5, TransactionSide.BUY),
+                new Transaction(180_000, "AAPL", 4, 151.0001, TransactionSide.SELL));
+        TransactionHistory history = new TransactionHistory(transactions);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (TransactionCodec.Encoder encoder = new TransactionCodec.Encoder(bytes, 0)) {
+            encoder.write(history, 1, 3);
+        }
+        assertEquals(transactions.subList(1, 3), TransactionCodec.decode(bytes.toByteArray()));
+    }
+
+    @Test
+    void smallBuffersTest() throws IOException {
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            transactions.add(new Transaction(60_000L * i, "TICKER" + (i % 50), i, 10.0 + i / 100.0,
+                    TransactionSide.BUY));
+        }
+        // the buffers are drained and refilled many times, with records across the boundaries
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (TransactionCodec.Encoder encoder = new TransactionCodec.Encoder(bytes, 1)) {
+            for (Transaction transaction : transactions) {
+                encoder.write(transaction);
+            }
+        }
+        List<Transaction> decoded = new ArrayList<>();
+        try (TransactionCodec.Decoder decoder = new TransactionCodec.Decoder(
+                new ByteArrayInputStream(bytes.toByteArray()), 1)) {
+            Transaction transaction;
+            while ((transaction = decoder.read()) != null) {
+                decoded.add(transaction);
+            }
+        }
+        assertEquals(transactions, decoded);
+    }
+
+    @Test
+    void truncatedStreamTest() throws IOException {
+        byte[] stream = TransactionCodec.encode(List.of(
+                new Transaction(60_000, "AAPL", 10, 150.0, TransactionSide.BUY),
+                new Transaction(120_000, "AAPL", 5, 150.123456789, TransactionSide.SELL)));
+        int header = Integer.BYTES;
+        int first = TransactionCodec.encode(List.of(
+                new Transaction(60_000, "AAPL", 10, 150.0, TransactionSide.BUY))).length;
+
+        // cut at a record boundary, the stream is shorter but valid
+        assertEquals(1, TransactionCodec.decode(Arrays.copyOf(stream, first)).size());
+        assertEquals(0, TransactionCodec.decode(Arrays.copyOf(stream, header)).size());
+        // cut within a record, in its varints or in its raw price
+        for (int length = header + 1; length < stream.length; length++) {
+            if (length != first) {
+                byte[] truncated = Arrays.copyOf(stream, length);
+                assertThrows(EOFException.class, () -> TransactionCodec.decode(truncated), "length " + length);
+            }
+        }
+    }
+
+    @Test
+    void notATransactionStreamTest() {
+        assertThrows(IOException.class, () -> TransactionCodec.decode(new byte[0]));
+        assertThrows(IOException.class, () -> TransactionCodec.decode(new byte[]{1, 2, 3, 4, 5}));
+    }
+
+    @Test
+    void corruptTickerIdTest() {
+        byte[] stream = TransactionCodec.encode(List.of(
+                new Transaction(60_000, "AAPL", 10, 150.0, TransactionSide.BUY)));
+        // the tag refers to local ticker 5 without introducing it
+        stream[Integer.BYTES] = (byte) (5 << 3);
+        assertThrows(IOException.class, () -> TransactionCodec.decode(stream));
+    }
+}
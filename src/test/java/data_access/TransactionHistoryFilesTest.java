@@ -0,0 +1,118 @@
+package data_access;
+
+import entity.Transaction;
+import entity.TransactionFileFormat;
+import entity.TransactionHistory;
+import entity.TransactionSide;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionHistoryFilesTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void csvRoundTripTest() throws IOException {
+        roundTrip(TransactionFileFormat.CSV);
+    }
+
+    @Test
+    void binaryRoundTripTest() throws IOException {
+        roundTrip(TransactionFileFormat.BINARY);
+    }
+
+    @Test
+    void extremeValuesTest() throws IOException {
+        TransactionHistory history = new TransactionHistory(List.of(
+                new Transaction(Long.MIN_VALUE, "AAPL", Integer.MIN_VALUE, -0.0001, TransactionSide.SELL),
+                new Transaction(Long.MAX_VALUE, "BRK.B", Integer.MAX_VALUE, 123456789.1234, TransactionSide.BUY),
+                new Transaction(0, "AAPL", 0, 0.0, TransactionSide.BUY),
+                // more decimals than the fixed-point columns hold are kept in full
+                new Transaction(1, "MSFT", 1, Math.PI, TransactionSide.SELL)));
+        for (TransactionFileFormat format : TransactionFileFormat.values()) {
+            Path file = directory.resolve("extreme." + format.name().toLowerCase());
+            TransactionHistoryFiles.export(history, file, format);
+            assertEquals(history.getAllTransactions(), TransactionHistoryFiles.read(file).getAllTransactions(),
+                    format.name());
+        }
+    }
+
+    @Test
+    void readAllTest() throws IOException {
+        List<Path> files = new ArrayList<>();
+        List<List<Transaction>> expected = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            TransactionHistory history = randomHistory(1000 + i, i);
+            TransactionFileFormat format = i % 2 == 0 ? TransactionFileFormat.CSV : TransactionFileFormat.BINARY;
+            Path file = directory.resolve("history" + i);
+            TransactionHistoryFiles.export(history, file, format);
+            files.add(file);
+            expected.add(history.getAllTransactions());
+        }
+        List<TransactionHistory> histories = TransactionHistoryFiles.readAll(files);
+        for (int i = 0; i < files.size(); i++) {
+            assertEquals(expected.get(i), histories.get(i).getAllTransactions());
+        }
+    }
+
+    @Test
+    void handWrittenCsvTest() throws IOException {
+        Path file = directory.resolve("history.csv");
+        Files.writeString(file, "timestamp,ticker,side,quantity,price\r\n"
+                + "60000,AAPL,buy,10,150.5\r\n"
+                + "\r\n"
+                + "120000,MSFT,sell,-3,320");
+        assertEquals(List.of(
+                new Transaction(60_000, "AAPL", 10, 150.5, TransactionSide.BUY),
+                new Transaction(120_000, "MSFT", -3, 320.0, TransactionSide.SELL)),
+                TransactionHistoryFiles.read(file).getAllTransactions());
+    }
+
+    @Test
+    void malformedCsvTest() throws IOException {
+        String header = "timestamp,ticker,side,quantity,price\n";
+        for (String row : List.of("60000,AAPL,buy,10", "x,AAPL,buy,10,150", "60000,,buy,10,150",
+                "60000,AAPL,hold,10,150", "60000,AAPL,buy,99999999999,150", "60000,AAPL,buy,10,")) {
+            Path file = directory.resolve("malformed.csv");
+            Files.writeString(file, header + row + "\n");
+            assertThrows(IOException.class, () -> TransactionHistoryFiles.read(file), row);
+        }
+    }
+
+    // export and import a history larger than the buffers, so rows and records cross buffer boundaries
+    private void roundTrip(TransactionFileFormat format) throws IOException {
+        TransactionHistory history = randomHistory(20_000, 7);
+        Path file = directory.resolve("history");
+        assertEquals(history.size(), TransactionHistoryFiles.export(history, file, format));
+        assertEquals(history.getAllTransactions(), TransactionHistoryFiles.read(file).getAllTransactions());
+
+        // exporting again replaces the file
+        TransactionHistory shorter = randomHistory(10, 8);
+        TransactionHistoryFiles.export(shorter, file, format);
+        assertEquals(shorter.getAllTransactions(), TransactionHistoryFiles.read(file).getAllTransactions());
+    }
+
+    private static TransactionHistory randomHistory(int size, long seed) {
+        Random random = new Random(seed);
+        String[] tickers = {"AAPL", "MSFT", "GOOGL", "NVDA", "BRK.B"};
+        List<Transaction> transactions = new ArrayList<>(size);
+        long timestamp = 1_700_000_000_000L;
+        for (int i = 0; i < size; i++) {
+            timestamp += random.nextInt(5000);
+            transactions.add(new Transaction(timestamp, tickers[random.nextInt(tickers.length)],
+                    1 + random.nextInt(1000), random.nextInt(10_000_000) / 10_000.0,
+                    random.nextBoolean() ? TransactionSide.BUY : TransactionSide.SELL));
+        }
+        return new TransactionHistory(transactions);
+    }
+}
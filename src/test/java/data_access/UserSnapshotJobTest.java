@@ -0,0 +1,56 @@
+package data_access;
+
+import entity.LotReliefMethod;
+import entity.Portfolio;
+import entity.Transaction;
+import entity.TransactionHistory;
+import entity.TransactionSide;
+import entity.User;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserSnapshotJobTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void snapshotCompactsJournalTest() throws Exception {
+        InMemoryUserDataAccessObject userDataAccess = new InMemoryUserDataAccessObject(false);
+        User alice = User.withPasswordHash("alice", "hash", 10000, new Portfolio(), new TransactionHistory());
+        userDataAccess.addUser(alice);
+        Path file = directory.resolve("trades.journal");
+        TradeRecorder recorder = userDataAccess.getTradeRecorder();
+        try (TradeJournal journal = new TradeJournal(file, JournalDurability.GROUP, 10)) {
+            recorder.setTradeJournal(journal);
+            UserSnapshotStore store = new UserSnapshotStore(directory.resolve("snapshots"));
+            UserSnapshotJob job = new UserSnapshotJob(userDataAccess, store, journal, 60_000);
+
+            userDataAccess.recordFills(alice, -100.0, List.of(fill()), LotReliefMethod.FIFO);
+            job.snapshot();
+            // the analytics have no checkpoint yet and still need the first segment
+            assertEquals(2, TradeJournal.listSegments(file).size());
+
+            recorder.awaitAnalytics();
+            recorder.getTradeAnalytics().writeCheckpoint(directory.resolve("trade_analytics.bin"), journal);
+            JournalPosition firstSnapshot = journal.getPosition();
+            userDataAccess.recordFills(alice, -100.0, List.of(fill()), LotReliefMethod.FIFO);
+            job.snapshot();
+
+            // the first snapshot is kept as a fallback, so its segment stays
+            assertEquals(firstSnapshot, journal.getStartPosition());
+            assertEquals(2, TradeJournal.listSegments(file).size());
+        } finally {
+            recorder.close();
+        }
+    }
+
+    private static Transaction fill() {
+        return new Transaction(60_000, "AAPL", 1, 100.0, TransactionSide.BUY);
+    }
+}
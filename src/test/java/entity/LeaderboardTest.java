@@ -0,0 +1,129 @@
+package entity;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LeaderboardTest {
+
+    @Test
+    void rankOrderTest() {
+        Leaderboard leaderboard = new Leaderboard();
+        leaderboard.update(3, 500);
+        leaderboard.update(1, 1000);
+        leaderboard.update(7, 500);
+        leaderboard.update(2, 250);
+
+        // ties are broken by the lower user id
+        assertArrayEquals(new int[]{1, 3, 7, 2}, leaderboard.getTop(10));
+        assertEquals(1, leaderboard.getRank(1));
+        assertEquals(2, leaderboard.getRank(3));
+        assertEquals(3, leaderboard.getRank(7));
+        assertEquals(4, leaderboard.getRank(2));
+        assertEquals(7, leaderboard.getUserAt(3));
+        assertArrayEquals(new int[]{3, 7}, leaderboard.getRange(2, 2));
+        assertEquals(500, leaderboard.getAssets(7));
+    }
+
+    @Test
+    void updateMovesUserTest() {
+        Leaderboard leaderboard = new Leaderboard();
+        for (int userId = 0; userId < 5; userId++) {
+            leaderboard.update(userId, 100 * userId);
+        }
+        assertArrayEquals(new int[]{4, 3, 2, 1, 0}, leaderboard.getTop(5));
+
+        leaderboard.update(0, 1000);
+        leaderboard.update(4, 150);
+        assertArrayEquals(new int[]{0, 3, 2, 4, 1}, leaderboard.getTop(5));
+        assertEquals(5, leaderboard.size());
+
+        // the same assets again change nothing
+        leaderboard.update(2, 200);
+        assertArrayEquals(new int[]{0, 3, 2, 4, 1}, leaderboard.getTop(5));
+    }
+
+    @Test
+    void removeTest() {
+        Leaderboard leaderboard = new Leaderboard();
+        for (int userId = 0; userId < 5; userId++) {
+            leaderboard.update(userId, 100 * userId);
+        }
+        leaderboard.remove(3);
+        leaderboard.remove(3);
+        leaderboard.remove(42);
+
+        assertEquals(4, leaderboard.size());
+        assertArrayEquals(new int[]{4, 2, 1, 0}, leaderboard.getTop(10));
+        assertEquals(-1, leaderboard.getRank(3));
+        assertTrue(Double.isNaN(leaderboard.getAssets(3)));
+
+        // a removed user can be ranked again
+        leaderboard.update(3, 50);
+        assertEquals(4, leaderboard.getRank(3));
+    }
+
+    @Test
+    void outOfRangeTest() {
+        Leaderboard leaderboard = new Leaderboard();
+        assertEquals(-1, leaderboard.getUserAt(1));
+        assertArrayEquals(new int[0], leaderboard.getTop(3));
+        leaderboard.update(0, 100);
+        assertEquals(-1, leaderboard.getUserAt(0));
+        assertEquals(-1, leaderboard.getUserAt(2));
+        assertEquals(-1, leaderboard.getRank(-5));
+        assertArrayEquals(new int[0], leaderboard.getRange(2, 5));
+        assertArrayEquals(new int[0], leaderboard.getRange(1, 0));
+        assertArrayEquals(new int[]{0}, leaderboard.getRange(-3, 5));
+        assertThrows(IllegalArgumentException.class, () -> leaderboard.update(-1, 100));
+    }
+
+    @Test
+    void matchesSortedListTest() {
+        Leaderboard leaderboard = new Leaderboard();
+        Map<Integer, Double> assets = new HashMap<>();
+        Random random = new Random(7);
+        for (int step = 0; step < 20_000; step++) {
+            // ids beyond the initial capacity make the arrays grow, and few distinct assets make many ties
+            int userId = random.nextInt(2000);
+            if (random.nextInt(4) == 0) {
+                leaderboard.remove(userId);
+                assets.remove(userId);
+            } else {
+                double value = random.nextInt(100) * 10.0;
+                leaderboard.update(userId, value);
+                assets.put(userId, value);
+            }
+            if (step % 1000 == 999) {
+                assertMatches(leaderboard, assets);
+            }
+        }
+    }
+
+    private static void assertMatches(Leaderboard leaderboard, Map<Integer, Double> assets) {
+        List<Integer> expected = new ArrayList<>(assets.keySet());
+        expected.sort(Comparator.<Integer>comparingDouble(assets::get).reversed()
+                .thenComparing(Comparator.naturalOrder()));
+        assertEquals(expected.size(), leaderboard.size());
+        int[] top = leaderboard.getTop(expected.size());
+        for (int rank = 1; rank <= expected.size(); rank++) {
+            int userId = expected.get(rank - 1);
+            assertEquals(userId, top[rank - 1]);
+            assertEquals(rank, leaderboard.getRank(userId));
+            assertEquals(userId, leaderboard.getUserAt(rank));
+            assertEquals(assets.get(userId), leaderboard.getAssets(userId));
+        }
+        int from = expected.size() / 3;
+        int[] range = leaderboard.getRange(from, 25);
+        for (int i = 0; i < range.length; i++) {
+            assertEquals(expected.get(from - 1 + i), range[i]);
+        }
+    }
+}
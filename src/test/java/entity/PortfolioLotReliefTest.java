@@ -0,0 +1,94 @@
+package entity;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PortfolioLotReliefTest {
+
+    private final Stock apple = new Stock("AAPL", "Apple Inc.", "Technology", 100.0);
+
+    @Test
+    void fifoTest() {
+        Portfolio portfolio = new Portfolio();
+        portfolio.addPosition(apple, 100.0, 10, 1000);
+        portfolio.addPosition(apple, 110.0, 10, 2000);
+        portfolio.addPosition(apple, 120.0, 10, 3000);
+
+        // the oldest lot first, then part of the next
+        assertEquals(10 * 30.0 + 5 * 20.0, portfolio.reducePosition("AAPL", 130.0, 15, LotReliefMethod.FIFO),
+                1e-9);
+        assertEquals(List.of(5, 10), quantities(portfolio));
+        assertEquals(List.of(110.0, 120.0), prices(portfolio));
+    }
+
+    @Test
+    void lifoTest() {
+        Portfolio portfolio = new Portfolio();
+        portfolio.addPosition(apple, 100.0, 10, 1000);
+        portfolio.addPosition(apple, 110.0, 10, 2000);
+        portfolio.addPosition(apple, 120.0, 10, 3000);
+
+        // the newest lot first, then part of the one before
+        assertEquals(10 * 10.0 + 5 * 20.0, portfolio.reducePosition("AAPL", 130.0, 15, LotReliefMethod.LIFO),
+                1e-9);
+        assertEquals(List.of(10, 5), quantities(portfolio));
+        assertEquals(List.of(100.0, 110.0), prices(portfolio));
+    }
+
+    @Test
+    void reliefAcrossWrapAroundTest() {
+        Portfolio portfolio = new Portfolio();
+        // buying and selling FIFO moves the oldest lot through the deque's slots, so the lots wrap around
+        for (int i = 0; i < 10; i++) {
+            portfolio.addPosition(apple, 100.0 + i, 1, i);
+            if (i >= 3) {
+                portfolio.reducePosition("AAPL", 200.0, 1, LotReliefMethod.FIFO);
+            }
+        }
+        assertEquals(List.of(107.0, 108.0, 109.0), prices(portfolio));
+
+        // LIFO takes the newest wrapped lots, FIFO the oldest
+        assertEquals(200.0 - 109.0, portfolio.reducePosition("AAPL", 200.0, 1, LotReliefMethod.LIFO), 1e-9);
+        assertEquals(200.0 - 107.0, portfolio.reducePosition("AAPL", 200.0, 1, LotReliefMethod.FIFO), 1e-9);
+        assertEquals(List.of(108.0), prices(portfolio));
+
+        // a lot sold by id from the middle of a wrapped deque
+        for (int i = 0; i < 6; i++) {
+            portfolio.addPosition(apple, 120.0 + i, 2, 100 + i);
+        }
+        long middleLot = portfolio.getLots("AAPL").get(3).lotId();
+        assertEquals(2 * (200.0 - 122.0), portfolio.reduceLot("AAPL", middleLot, 200.0, 2), 1e-9);
+        assertEquals(List.of(108.0, 120.0, 121.0, 123.0, 124.0, 125.0), prices(portfolio));
+        assertEquals(11, portfolio.getUserStock("AAPL").orElseThrow().getQuantity());
+    }
+
+    @Test
+    void overSellingTest() {
+        Portfolio portfolio = new Portfolio();
+        long lotId = portfolio.addPosition(apple, 100.0, 10, 1000);
+        portfolio.addPosition(apple, 110.0, 5, 2000);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> portfolio.reducePosition("AAPL", 120.0, 16, LotReliefMethod.LIFO));
+        assertThrows(IllegalArgumentException.class, () -> portfolio.reduceLot("AAPL", lotId, 120.0, 11));
+        assertThrows(IllegalArgumentException.class, () -> portfolio.reduceLot("AAPL", 999, 120.0, 1));
+        // a rejected sale changes nothing
+        assertEquals(List.of(10, 5), quantities(portfolio));
+
+        portfolio.reducePosition("AAPL", 120.0, 15, LotReliefMethod.FIFO);
+        assertTrue(portfolio.getLots("AAPL").isEmpty());
+        assertTrue(portfolio.getUserStock("AAPL").isEmpty());
+        assertEquals(10 * 20.0 + 5 * 10.0, portfolio.getRealizedPnl("AAPL"), 1e-9);
+    }
+
+    private static List<Integer> quantities(Portfolio portfolio) {
+        return portfolio.getLots("AAPL").stream().map(TaxLot::quantity).toList();
+    }
+
+    private static List<Double> prices(Portfolio portfolio) {
+        return portfolio.getLots("AAPL").stream().map(TaxLot::price).toList();
+    }
+}
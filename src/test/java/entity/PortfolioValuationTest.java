@@ -0,0 +1,128 @@
+package entity;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PortfolioValuationTest {
+
+    private final List<Stock> stocks = List.of(
+            new Stock("AAPL", "Apple Inc.", "Technology", 100.0),
+            new Stock("MSFT", "Microsoft Corp.", "Technology", 300.0),
+            new Stock("XOM", "Exxon Mobil Corp.", "Energy", 80.0),
+            new Stock("JPM", "JPMorgan Chase & Co.", "Financials", 150.0));
+
+    @Test
+    void mixedBuysAndSellsTest() {
+        Portfolio portfolio = new Portfolio();
+        portfolio.addPosition(stocks.get(0), 100.0, 10);
+        portfolio.addPosition(stocks.get(0), 120.0, 10);
+        portfolio.addPosition(stocks.get(1), 300.0, 5);
+        assertTotalsMatch(portfolio);
+        assertEquals(20 * 120.0 + 5 * 300.0, portfolio.getTotalValue(), 1e-9);
+        assertEquals(10 * 100.0 + 10 * 120.0 + 5 * 300.0, portfolio.getTotalCost(), 1e-9);
+
+        // a partial FIFO sale leaves the newer lot, so the cost basis drops by the oldest lot's cost
+        portfolio.reducePosition("AAPL", 130.0, 12);
+        assertTotalsMatch(portfolio);
+        assertEquals(8 * 120.0 + 5 * 300.0, portfolio.getTotalCost(), 1e-9);
+        assertEquals(8 * 130.0 + 5 * 300.0, portfolio.getTotalValue(), 1e-9);
+
+        // selling a position completely removes it from both totals
+        portfolio.reducePosition("MSFT", 310.0, 5);
+        assertTotalsMatch(portfolio);
+        assertEquals(8 * 120.0, portfolio.getTotalCost(), 1e-9);
+    }
+
+    @Test
+    void priceUpdatesTest() {
+        Portfolio portfolio = new Portfolio();
+        portfolio.addPosition(stocks.get(0), 100.0, 10);
+        portfolio.addPosition(stocks.get(2), 80.0, 4);
+
+        // prices of tickers not held are ignored, whichever side of the update is iterated
+        portfolio.applyPriceUpdates(Map.of("AAPL", 105.0, "MSFT", 999.0, "JPM", 1.0, "TSLA", 5.0));
+        assertTotalsMatch(portfolio);
+        assertEquals(10 * 105.0 + 4 * 80.0, portfolio.getTotalValue(), 1e-9);
+        portfolio.applyPriceUpdates(Map.of("NVDA", 500.0));
+        assertTotalsMatch(portfolio);
+        assertEquals(10 * 105.0 + 4 * 80.0, portfolio.getTotalValue(), 1e-9);
+        portfolio.applyPriceUpdates(Map.of("XOM", 70.0));
+        assertTotalsMatch(portfolio);
+        assertEquals(10 * 105.0 + 4 * 70.0, portfolio.getTotalValue(), 1e-9);
+
+        // price updates move the value but never the cost basis
+        assertEquals(10 * 100.0 + 4 * 80.0, portfolio.getTotalCost(), 1e-9);
+        assertEquals(portfolio.getTotalValue() - portfolio.getTotalCost(), portfolio.getUnrealizedPnl(), 1e-9);
+    }
+
+    @Test
+    void randomSequenceTest() {
+        Random random = new Random(42);
+        Portfolio portfolio = new Portfolio();
+        for (int i = 0; i < 5000; i++) {
+            Stock stock = stocks.get(random.nextInt(stocks.size()));
+            String ticker = stock.getTicker();
+            double price = 10.0 + random.nextInt(10000) / 100.0;
+            int held = portfolio.getUserStock(ticker).map(UserStock::getQuantity).orElse(0);
+            switch (random.nextInt(4)) {
+                case 0 -> portfolio.addPosition(stock, price, 1 + random.nextInt(50), i);
+                case 1 -> {
+                    if (held > 0) {
+                        LotReliefMethod method = random.nextBoolean() ? LotReliefMethod.FIFO : LotReliefMethod.LIFO;
+                        portfolio.reducePosition(ticker, price, 1 + random.nextInt(held), method);
+                    }
+                }
+                default -> {
+                    Map<String, Double> prices = new HashMap<>();
+                    for (Stock updated : stocks) {
+                        if (random.nextBoolean()) {
+                            prices.put(updated.getTicker(), 10.0 + random.nextInt(10000) / 100.0);
+                        }
+                    }
+                    // tickers the portfolio never holds
+                    prices.put("TSLA", price);
+                    if (random.nextBoolean()) {
+                        prices.put("NVDA", price);
+                    }
+                    portfolio.applyPriceUpdates(prices);
+                }
+            }
+            assertTotalsMatch(portfolio);
+        }
+    }
+
+    @Test
+    void sellingEverythingResetsTotalsTest() {
+        Random random = new Random(7);
+        Portfolio portfolio = new Portfolio();
+        for (int i = 0; i < 200; i++) {
+            portfolio.addPosition(stocks.get(i % stocks.size()), 1.0 + random.nextInt(100000) / 1000.0,
+                    1 + random.nextInt(7), i);
+        }
+        for (Stock stock : stocks) {
+            int held = portfolio.getUserStock(stock.getTicker()).orElseThrow().getQuantity();
+            portfolio.reducePosition(stock.getTicker(), 1.0 + random.nextInt(100000) / 1000.0, held);
+        }
+        // an empty portfolio is exactly zero, without the rounding error of the running totals
+        assertEquals(0.0, portfolio.getTotalValue());
+        assertEquals(0.0, portfolio.getTotalCost());
+    }
+
+    // compares the running totals with a full recomputation from the positions
+    private static void assertTotalsMatch(Portfolio portfolio) {
+        double value = 0;
+        double cost = 0;
+        for (UserStock userStock : portfolio.getAllStocks()) {
+            value += userStock.getQuantity() * userStock.getMarketPrice();
+            cost += userStock.getQuantity() * userStock.getCost();
+        }
+        assertEquals(value, portfolio.getTotalValue(), 1e-6 * Math.max(1, value));
+        assertEquals(cost, portfolio.getTotalCost(), 1e-6 * Math.max(1, cost));
+    }
+}
@@ -0,0 +1,221 @@
+package interface_adapter.binary;
+
+import data_access.InMemoryUserDataAccessObject;
+import entity.User;
+import entity.UserFactory;
+import interface_adapter.market_update.PriceFanOut;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import use_case.login.LoginInputBoundary;
+import use_case.login.LoginInputData;
+import use_case.login.LoginOutputBoundary;
+import use_case.login.LoginPipeline;
+import utility.PasswordHasher;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+// a connection the server fails to answer or close would block a read forever
+@Timeout(10)
+class BinaryConnectionTest {
+
+    private LoginPipeline loginPipeline;
+    private BinaryOrderServer server;
+    private SocketChannel client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        InMemoryUserDataAccessObject userDataAccess = new InMemoryUserDataAccessObject(false);
+        User alice = new UserFactory(new PasswordHasher(1)).create("alice", "alice-password");
+        alice.addBalance(1000);
+        userDataAccess.addUser(alice);
+        loginPipeline = new LoginPipeline(mock(LoginInputBoundary.class),
+                mock(LoginOutputBoundary.class), 2, 16);
+        server = new BinaryOrderServer(new InetSocketAddress("localhost", 0), loginPipeline, userDataAccess,
+                userDataAccess, new PriceFanOut());
+        server.start();
+        client = SocketChannel.open(new InetSocketAddress("localhost", server.getPort()));
+        // every split write goes out as its own segment
+        client.setOption(StandardSocketOptions.TCP_NODELAY, true);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        client.close();
+        server.stop();
+    }
+
+    @Test
+    void framesSplitAcrossReadsTest() throws Exception {
+        ByteBuffer frames = ByteBuffer.allocate(256);
+        order(frames, 1, BinaryProtocol.SIDE_BUY);
+        new LoginMessage().encode(frames, "alice", "alice-password");
+        order(frames, 2, (byte) 9);
+        frames.flip();
+
+        // the first frame one byte at a time, then the rest cut inside the login's header and body
+        sendInChunks(frames, 1, OrderMessage.FRAME_LENGTH);
+        assertAck(1, BinaryProtocol.ORDER_NOT_LOGGED_IN);
+        sendInChunks(frames, 3, 7);
+        sendInChunks(frames, frames.remaining(), frames.remaining());
+
+        ByteBuffer loginResult = receive(LoginResultMessage.FRAME_LENGTH, LoginResultMessage.TYPE);
+        LoginResultMessage result = new LoginResultMessage();
+        result.wrap(loginResult, BinaryProtocol.HEADER_BYTES);
+        assertEquals(BinaryProtocol.LOGIN_ACCEPTED, result.status());
+        assertEquals(1000, result.balance(), 1e-9);
+        assertAck(2, BinaryProtocol.ORDER_INVALID);
+    }
+
+    @Test
+    void manyFramesInOneWriteTest() throws Exception {
+        ByteBuffer frames = ByteBuffer.allocate(OrderMessage.FRAME_LENGTH * 100);
+        for (int i = 0; i < 100; i++) {
+            order(frames, i, BinaryProtocol.SIDE_SELL);
+        }
+        frames.flip();
+        while (frames.hasRemaining()) {
+            client.write(frames);
+        }
+        for (int i = 0; i < 100; i++) {
+            assertAck(i, BinaryProtocol.ORDER_NOT_LOGGED_IN);
+        }
+    }
+
+    @Test
+    void loginTimeoutTest() throws Exception {
+        // both login threads are taken, so the connection's login waits in the queue
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch running = new CountDownLatch(2);
+        LoginInputBoundary blocked = data -> {
+            running.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        loginPipeline.execute(new LoginInputData("bob", "password"), blocked, mock(LoginOutputBoundary.class));
+        loginPipeline.execute(new LoginInputData("carol", "password"), blocked, mock(LoginOutputBoundary.class));
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        server.setLoginTimeoutMillis(100);
+        try {
+            ByteBuffer frames = ByteBuffer.allocate(64);
+            new LoginMessage().encode(frames, "alice", "alice-password");
+            order(frames, 1, BinaryProtocol.SIDE_BUY);
+            frames.flip();
+            while (frames.hasRemaining()) {
+                client.write(frames);
+            }
+
+            LoginResultMessage result = new LoginResultMessage();
+            result.wrap(receive(LoginResultMessage.FRAME_LENGTH, LoginResultMessage.TYPE), BinaryProtocol.HEADER_BYTES);
+            assertEquals(BinaryProtocol.LOGIN_BUSY, result.status());
+            // the connection goes on without a session
+            assertAck(1, BinaryProtocol.ORDER_NOT_LOGGED_IN);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void zeroLengthTest() throws Exception {
+        assertClosedAfter(frame(0, OrderMessage.TYPE));
+    }
+
+    @Test
+    void tooLongFrameTest() throws Exception {
+        assertClosedAfter(frame(BinaryProtocol.MAX_FRAME_BYTES + 1, OrderMessage.TYPE));
+    }
+
+    @Test
+    void negativeLengthTest() throws Exception {
+        assertClosedAfter(frame(-1, OrderMessage.TYPE));
+    }
+
+    @Test
+    void wrongOrderLengthTest() throws Exception {
+        ByteBuffer frame = ByteBuffer.allocate(BinaryProtocol.HEADER_BYTES + OrderMessage.BODY_LENGTH - 1);
+        frame.putInt(OrderMessage.BODY_LENGTH).put(OrderMessage.TYPE).position(frame.capacity()).flip();
+        assertClosedAfter(frame);
+    }
+
+    @Test
+    void unknownTypeTest() throws Exception {
+        assertClosedAfter(frame(1, (byte) 99));
+    }
+
+    // a frame header with a length and a type, and the body the length claims if it is small and positive
+    private static ByteBuffer frame(int length, byte type) {
+        int body = length > 1 && length <= BinaryProtocol.MAX_FRAME_BYTES ? length - 1 : 0;
+        ByteBuffer frame = ByteBuffer.allocate(BinaryProtocol.HEADER_BYTES + body);
+        frame.putInt(length).put(type).position(frame.capacity()).flip();
+        return frame;
+    }
+
+    private static void order(ByteBuffer buffer, long clientOrderId, byte side) {
+        new OrderMessage().encode(buffer)
+                .clientOrderId(clientOrderId)
+                .side(side)
+                .quantity(1)
+                .ticker(BinaryProtocol.packTicker("AAPL"));
+    }
+
+    // send the frames in a number of chunks of a given size, pausing so the server reads them separately
+    private void sendInChunks(ByteBuffer frames, int chunkBytes, int totalBytes) throws Exception {
+        int end = frames.position() + totalBytes;
+        while (frames.position() < end) {
+            ByteBuffer chunk = frames.slice(frames.position(), Math.min(chunkBytes, end - frames.position()));
+            while (chunk.hasRemaining()) {
+                client.write(chunk);
+            }
+            frames.position(frames.position() + chunk.capacity());
+            Thread.sleep(5);
+        }
+    }
+
+    private void assertAck(long clientOrderId, byte status) throws IOException {
+        OrderAckMessage ack = new OrderAckMessage();
+        ack.wrap(receive(OrderAckMessage.FRAME_LENGTH, OrderAckMessage.TYPE), BinaryProtocol.HEADER_BYTES);
+        assertEquals(clientOrderId, ack.clientOrderId());
+        assertEquals(status, ack.status());
+    }
+
+    private ByteBuffer receive(int frameLength, byte type) throws IOException {
+        ByteBuffer frame = ByteBuffer.allocate(frameLength);
+        while (frame.hasRemaining()) {
+            if (client.read(frame) < 0) {
+                fail("The server closed the connection.");
+            }
+        }
+        assertEquals(frameLength - BinaryProtocol.LENGTH_BYTES, frame.getInt(0));
+        assertEquals(type, frame.get(BinaryProtocol.LENGTH_BYTES));
+        return frame;
+    }
+
+    // the server drops the connection instead of answering or waiting for more bytes
+    private void assertClosedAfter(ByteBuffer frame) throws IOException {
+        while (frame.hasRemaining()) {
+            client.write(frame);
+        }
+        ByteBuffer answer = ByteBuffer.allocate(64);
+        int read;
+        try {
+            read = client.read(answer);
+        } catch (IOException e) {
+            // reset by the server
+            return;
+        }
+        assertEquals(-1, read);
+    }
+}
@@ -0,0 +1,178 @@
+package interface_adapter.http;
+
+import data_access.InMemoryStockDataAccessObject;
+import data_access.InMemoryUserDataAccessObject;
+import entity.StockMarket;
+import entity.User;
+import entity.UserFactory;
+import interface_adapter.market_update.PriceFanOut;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import use_case.execute_buy.ExecuteBuyDataAccessInterface;
+import use_case.login.LoginDataAccessInterface;
+import use_case.login.LoginInputBoundary;
+import use_case.login.LoginOutputBoundary;
+import use_case.login.LoginPipeline;
+import use_case.view_history.ViewHistoryDataAccessInterface;
+import utility.PasswordHasher;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class HttpApiServerTest {
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private HttpApiServer server;
+
+    @BeforeAll
+    static void setUpMarket() {
+        // the requests run on the server's threads, so they see the real market rather than a static mock
+        try {
+            StockMarket.Instance().initialize(new InMemoryStockDataAccessObject());
+        } catch (IllegalStateException e) {
+            // initialized by an earlier test in this JVM
+        }
+        StockMarket.Instance().updateStocks();
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        InMemoryUserDataAccessObject userDataAccess = new InMemoryUserDataAccessObject(false);
+        User alice = new UserFactory(new PasswordHasher(1)).create("alice", "alice-password");
+        alice.addBalance(10000);
+        userDataAccess.addUser(alice);
+        LoginPipeline loginPipeline = new LoginPipeline(mock(LoginInputBoundary.class),
+                mock(LoginOutputBoundary.class), 2, 16);
+        server = new HttpApiServer(new InetSocketAddress("localhost", 0), loginPipeline, userDataAccess,
+                userDataAccess, userDataAccess, new PriceFanOut());
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void loginBuyHistoryTest() throws Exception {
+        HttpResponse<String> login = post("/api/login", null,
+                new JSONObject().put("username", "alice").put("password", "alice-password"));
+        assertEquals(200, login.statusCode());
+        String credential = new JSONObject(login.body()).getString("credential");
+
+        HttpResponse<String> buy = post("/api/buy", credential,
+                new JSONObject().put("ticker", "AAPL").put("quantity", 10));
+        assertEquals(200, buy.statusCode());
+        JSONObject bought = new JSONObject(buy.body());
+        assertEquals(10000 - 10 * 150.0, bought.getDouble("balance"), 1e-9);
+        assertEquals(10, bought.getJSONArray("positions").getJSONObject(0).getInt("quantity"));
+
+        HttpResponse<String> history = send(HttpRequest.newBuilder(uri("/api/history?pageSize=10"))
+                .header("Authorization", "Bearer " + credential)
+                .GET());
+        assertEquals(200, history.statusCode());
+        JSONArray transactions = new JSONObject(history.body()).getJSONArray("transactions");
+        assertEquals(1, transactions.length());
+        assertEquals("AAPL", transactions.getJSONObject(0).getString("ticker"));
+        assertEquals("BUY", transactions.getJSONObject(0).getString("side"));
+    }
+
+    @Test
+    void wrongPasswordTest() throws Exception {
+        HttpResponse<String> login = post("/api/login", null,
+                new JSONObject().put("username", "alice").put("password", "wrong-password"));
+        assertEquals(401, login.statusCode());
+    }
+
+    @Test
+    void malformedRequestTest() throws Exception {
+        HttpResponse<String> missingField = post("/api/login", null, new JSONObject().put("username", "alice"));
+        assertEquals(400, missingField.statusCode());
+        assertTrue(new JSONObject(missingField.body()).has("error"));
+
+        HttpResponse<String> notJson = send(HttpRequest.newBuilder(uri("/api/login"))
+                .POST(HttpRequest.BodyPublishers.ofString("username=alice")));
+        assertEquals(400, notJson.statusCode());
+
+        HttpResponse<String> badNumber = send(HttpRequest.newBuilder(uri("/api/history?pageSize=ten"))
+                .header("Authorization", "Bearer unknown")
+                .GET());
+        assertEquals(400, badNumber.statusCode());
+    }
+
+    @Test
+    void wrongMethodTest() throws Exception {
+        HttpResponse<String> getLogin = send(HttpRequest.newBuilder(uri("/api/login")).GET());
+        assertEquals(405, getLogin.statusCode());
+
+        HttpResponse<String> postHistory = post("/api/history", null, new JSONObject());
+        assertEquals(405, postHistory.statusCode());
+
+        HttpResponse<String> postPrices = post("/api/prices?tickers=AAPL", null, new JSONObject());
+        assertEquals(405, postPrices.statusCode());
+    }
+
+    @Test
+    void failingDataAccessTest() throws Exception {
+        server.stop(0);
+        // data access failing like a user shard that cannot be read
+        Answer<Object> failure = invocation -> {
+            throw new UncheckedIOException(new IOException("unreadable shard"));
+        };
+        LoginPipeline loginPipeline = new LoginPipeline(mock(LoginInputBoundary.class),
+                mock(LoginOutputBoundary.class), 2, 16);
+        server = new HttpApiServer(new InetSocketAddress("localhost", 0), loginPipeline,
+                mock(LoginDataAccessInterface.class, failure), mock(ExecuteBuyDataAccessInterface.class, failure),
+                mock(ViewHistoryDataAccessInterface.class, failure), new PriceFanOut());
+        server.start();
+
+        // the login fails on the pipeline's thread and the buy on the request's, both are answered
+        HttpResponse<String> login = post("/api/login", null,
+                new JSONObject().put("username", "alice").put("password", "alice-password"));
+        assertEquals(500, login.statusCode());
+        assertTrue(new JSONObject(login.body()).has("error"));
+        HttpResponse<String> buy = post("/api/buy", "credential",
+                new JSONObject().put("ticker", "AAPL").put("quantity", 10));
+        assertEquals(500, buy.statusCode());
+        assertTrue(new JSONObject(buy.body()).has("error"));
+        loginPipeline.shutdown();
+    }
+
+    @Test
+    void responseTimeoutTest() {
+        // a writer no interactor ever writes to
+        JsonResponseWriter writer = new JsonResponseWriter() {
+        };
+        assertEquals(503, writer.await(50).status());
+    }
+
+    private HttpResponse<String> post(String path, String credential, JSONObject body) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri(path))
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()));
+        if (credential != null) {
+            request.header("Authorization", "Bearer " + credential);
+        }
+        return send(request);
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws Exception {
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + server.getPort() + path);
+    }
+}
@@ -0,0 +1,100 @@
+package interface_adapter.market_update;
+
+import entity.Stock;
+import entity.StockMarket;
+import entity.StockQuote;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+class PriceFanOutTest {
+
+    private MockedStatic<StockMarket> mockedStatic;
+    private final PriceFanOut priceFanOut = new PriceFanOut();
+
+    @BeforeEach
+    void setUp() {
+        StockMarket stockMarketMock = Mockito.mock(StockMarket.class);
+        when(stockMarketMock.getQuotes(any())).thenReturn(Map.of(
+                "AAPL", new StockQuote(new Stock("AAPL", "Apple Inc.", "Technology", 150.0), 150.0)));
+        mockedStatic = Mockito.mockStatic(StockMarket.class);
+        mockedStatic.when(StockMarket::Instance).thenReturn(stockMarketMock);
+    }
+
+    @AfterEach
+    void tearDown() {
+        mockedStatic.close();
+    }
+
+    @Test
+    void subscribeStartsWithCurrentPricesTest() {
+        PriceSubscription subscription = priceFanOut.subscribe(List.of("AAPL", "MSFT", "AAPL"), 1000);
+        assertEquals(List.of("AAPL", "MSFT"), List.copyOf(subscription.getTickers()));
+        assertEquals(Map.of("AAPL", 150.0), subscription.drain());
+        assertEquals(Map.of(), subscription.drain());
+    }
+
+    @Test
+    void offersBetweenDrainsAreConflatedTest() {
+        PriceSubscription subscription = priceFanOut.subscribe(List.of("AAPL", "MSFT"), 1000);
+        subscription.drain();
+
+        priceFanOut.onPricesUpdated(Map.of("AAPL", 151.0, "MSFT", 320.0));
+        priceFanOut.onPricesUpdated(Map.of("AAPL", 152.0, "GOOGL", 2800.0));
+        // two offers of AAPL between drains leave one, the latest
+        assertEquals(Map.of("AAPL", 152.0, "MSFT", 320.0), subscription.drain());
+        // of the 4 prices offered, the first AAPL price was replaced before it was drained
+        assertEquals(0.25, subscription.getConflationRate(), 1e-9);
+
+        priceFanOut.onPricesUpdated(Map.of("MSFT", 321.0));
+        assertEquals(Map.of("MSFT", 321.0), subscription.drain());
+    }
+
+    @Test
+    void updateBeforeSnapshotIsKeptTest() {
+        // an update the market delivered after indexing but before the snapshot is newer than the snapshot price
+        PriceSubscription subscription = new PriceSubscription(List.of("AAPL"), 1000);
+        subscription.offer(0, 155.0);
+        subscription.offerIfAbsent(0, 150.0);
+        assertEquals(Map.of("AAPL", 155.0), subscription.drain());
+    }
+
+    @Test
+    void subscriptionsAreIndependentTest() {
+        PriceSubscription fast = priceFanOut.subscribe(List.of("AAPL"), 0);
+        PriceSubscription slow = priceFanOut.subscribe(List.of("AAPL"), 5000);
+        assertEquals(PriceFanOut.MIN_FLUSH_INTERVAL_MILLIS, fast.getFlushIntervalMillis());
+        assertEquals(2, priceFanOut.getSubscriptionCount("AAPL"));
+        fast.drain();
+        slow.drain();
+
+        for (int i = 1; i <= 10; i++) {
+            priceFanOut.onPricesUpdated(Map.of("AAPL", 150.0 + i));
+            assertEquals(Map.of("AAPL", 150.0 + i), fast.drain());
+        }
+        // the slow client gets only the latest of the ten prices
+        assertEquals(Map.of("AAPL", 160.0), slow.drain());
+    }
+
+    @Test
+    void unsubscribeTest() {
+        PriceSubscription subscription = priceFanOut.subscribe(List.of("AAPL", "MSFT"), 1000);
+        subscription.drain();
+        priceFanOut.unsubscribe(subscription);
+
+        assertFalse(subscription.isOpen());
+        assertEquals(0, priceFanOut.getSubscriptionCount("AAPL"));
+        assertEquals(0, priceFanOut.getSubscriptionCount("MSFT"));
+        priceFanOut.onPricesUpdated(Map.of("AAPL", 151.0));
+        assertEquals(Map.of(), subscription.drain());
+    }
+}
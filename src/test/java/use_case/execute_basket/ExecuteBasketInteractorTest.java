@@ -0,0 +1,212 @@
+package use_case.execute_basket;
+
+import entity.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+import utility.PasswordHasher;
+import utility.exceptions.ValidationException;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+class ExecuteBasketInteractorTest {
+
+    private ExecuteBasketDataAccessInterface dataAccess;
+    private ExecuteBasketOutputBoundary outputPresenter;
+    private UserFactory userFactory;
+    private Stock stockX;
+    private Stock stockY;
+
+    @BeforeEach
+    void setUp() {
+        userFactory = new UserFactory(new PasswordHasher(1));
+        dataAccess = mock(ExecuteBasketDataAccessInterface.class);
+        outputPresenter = mock(ExecuteBasketOutputBoundary.class);
+        stockX = new Stock("XXXX", "X Company", "Technology", 100.0);
+        stockY = new Stock("YYYY", "Y Company", "Technology", 50.0);
+    }
+
+    @Test
+    void successTest() throws ValidationException {
+        User mockUser = createMockUserWithBalance(10000.0);
+        mockUser.getPortfolio().addStock(new UserStock(stockY, 40.0, 20));
+
+        try (MockedStatic<StockMarket> mockedStatic = mockMarket()) {
+            ExecuteBasketInputData inputData = new ExecuteBasketInputData("dummy", List.of(
+                    new BasketOrderLeg("XXXX", 50, TransactionSide.BUY),
+                    new BasketOrderLeg("YYYY", 20, TransactionSide.SELL)
+            ));
+            new ExecuteBasketInteractor(dataAccess, outputPresenter).execute(inputData);
+
+            verify(outputPresenter, times(1)).prepareSuccessView(any());
+            assertEquals(10000.0 - 5000.0 + 1000.0, mockUser.getBalance(), 1e-9);
+            assertEquals(50, mockUser.getPortfolio().getUserStock("XXXX").orElseThrow().getQuantity());
+            assertFalse(mockUser.getPortfolio().getUserStock("YYYY").isPresent(),
+                    "Fully sold stock should be removed from portfolio.");
+            assertEquals(2, mockUser.getTransactionHistory().getAllTransactions().size());
+            assertEquals(5000.0, mockUser.getPortfolio().getTotalValue(), 1e-9,
+                    "Portfolio value should only contain the bought position.");
+        }
+    }
+
+    @Test
+    void fifoReliefTest() throws ValidationException {
+        ExecuteBasketOutputData outputData = sellFromTwoLots(LotReliefMethod.FIFO);
+
+        // the lot bought at 80 is sold at 100
+        assertEquals(200.0, outputData.realizedPnl(), 1e-9);
+        UserStock remaining = outputData.newPortfolio().getUserStock("XXXX").orElseThrow();
+        assertEquals(120.0, remaining.getCost(), 1e-9, "Only the lot bought at 120 should be left.");
+        assertEquals(200.0, outputData.newPortfolio().getRealizedPnl(), 1e-9);
+    }
+
+    @Test
+    void lifoReliefTest() throws ValidationException {
+        ExecuteBasketOutputData outputData = sellFromTwoLots(LotReliefMethod.LIFO);
+
+        // the lot bought at 120 is sold at 100
+        assertEquals(-200.0, outputData.realizedPnl(), 1e-9);
+        UserStock remaining = outputData.newPortfolio().getUserStock("XXXX").orElseThrow();
+        assertEquals(80.0, remaining.getCost(), 1e-9, "Only the lot bought at 80 should be left.");
+        assertEquals(1, outputData.newPortfolio().getLots("XXXX").size());
+    }
+
+    @Test
+    void insufficientBalanceTest() throws ValidationException {
+        User mockUser = createMockUserWithBalance(6000.0);
+
+        try (MockedStatic<StockMarket> mockedStatic = mockMarket()) {
+            // the first leg alone is affordable, the basket as a whole is not
+            ExecuteBasketInputData inputData = new ExecuteBasketInputData("dummy", List.of(
+                    new BasketOrderLeg("XXXX", 50, TransactionSide.BUY),
+                    new BasketOrderLeg("YYYY", 50, TransactionSide.BUY)
+            ));
+            new ExecuteBasketInteractor(dataAccess, outputPresenter).execute(inputData);
+
+            verify(outputPresenter).prepareInsufficientBalanceExceptionView();
+            assertEquals(6000.0, mockUser.getBalance(), 1e-9);
+            assertTrue(mockUser.getPortfolio().getAllStocks().isEmpty(), "No leg should be filled.");
+            assertTrue(mockUser.getTransactionHistory().getAllTransactions().isEmpty());
+        }
+    }
+
+    @Test
+    void storageFailureTest() throws Exception {
+        User mockUser = createMockUserWithBalance(10000.0);
+        doThrow(new IOException()).when(dataAccess).recordFills(any(), anyDouble(), any(), any());
+
+        try (MockedStatic<StockMarket> mockedStatic = mockMarket()) {
+            ExecuteBasketInputData inputData = new ExecuteBasketInputData("dummy", List.of(
+                    new BasketOrderLeg("XXXX", 10, TransactionSide.BUY),
+                    new BasketOrderLeg("YYYY", 10, TransactionSide.BUY)
+            ));
+            new ExecuteBasketInteractor(dataAccess, outputPresenter).execute(inputData);
+
+            // a basket that cannot be recorded is not filled
+            verify(outputPresenter).prepareStorageExceptionView();
+            assertEquals(10000.0, mockUser.getBalance(), 1e-9);
+            assertTrue(mockUser.getPortfolio().getAllStocks().isEmpty(), "No leg should be filled.");
+            assertTrue(mockUser.getTransactionHistory().getAllTransactions().isEmpty());
+        }
+    }
+
+    @Test
+    void insufficientQuantityTest() throws ValidationException {
+        User mockUser = createMockUserWithBalance(10000.0);
+        mockUser.getPortfolio().addStock(new UserStock(stockY, 40.0, 10));
+
+        try (MockedStatic<StockMarket> mockedStatic = mockMarket()) {
+            ExecuteBasketInputData inputData = new ExecuteBasketInputData("dummy", List.of(
+                    new BasketOrderLeg("XXXX", 10, TransactionSide.BUY),
+                    new BasketOrderLeg("YYYY", 6, TransactionSide.SELL),
+                    new BasketOrderLeg("YYYY", 6, TransactionSide.SELL)
+            ));
+            new ExecuteBasketInteractor(dataAccess, outputPresenter).execute(inputData);
+
+            verify(outputPresenter).prepareInsufficientQuantityExceptionView();
+            assertEquals(10, mockUser.getPortfolio().getUserStock("YYYY").orElseThrow().getQuantity());
+            assertFalse(mockUser.getPortfolio().getUserStock("XXXX").isPresent());
+        }
+    }
+
+    @Test
+    void stockNotFoundTest() throws ValidationException {
+        createMockUserWithBalance(10000.0);
+
+        try (MockedStatic<StockMarket> mockedStatic = mockMarket()) {
+            ExecuteBasketInputData inputData = new ExecuteBasketInputData("dummy", List.of(
+                    new BasketOrderLeg("XXXX", 10, TransactionSide.BUY),
+                    new BasketOrderLeg("ZZZZ", 10, TransactionSide.BUY)
+            ));
+            new ExecuteBasketInteractor(dataAccess, outputPresenter).execute(inputData);
+
+            verify(outputPresenter).prepareStockNotFoundExceptionView();
+        }
+    }
+
+    @Test
+    void invalidBasketTest() throws ValidationException {
+        createMockUserWithBalance(10000.0);
+
+        new ExecuteBasketInteractor(dataAccess, outputPresenter)
+                .execute(new ExecuteBasketInputData("dummy", List.of()));
+
+        verify(outputPresenter).prepareInvalidBasketExceptionView();
+    }
+
+    private ExecuteBasketOutputData sellFromTwoLots(LotReliefMethod reliefMethod) throws ValidationException {
+        User mockUser = createMockUserWithBalance(0.0);
+        mockUser.getPortfolio().addPosition(stockX, 80.0, 10, 1000L);
+        mockUser.getPortfolio().addPosition(stockX, 120.0, 10, 2000L);
+
+        try (MockedStatic<StockMarket> mockedStatic = mockMarket()) {
+            ExecuteBasketInputData inputData = new ExecuteBasketInputData("dummy", List.of(
+                    new BasketOrderLeg("XXXX", 10, TransactionSide.SELL)
+            ), reliefMethod);
+            new ExecuteBasketInteractor(dataAccess, outputPresenter).execute(inputData);
+        }
+
+        ArgumentCaptor<ExecuteBasketOutputData> captor = ArgumentCaptor.forClass(ExecuteBasketOutputData.class);
+        verify(outputPresenter).prepareSuccessView(captor.capture());
+        assertEquals(1000.0, captor.getValue().newBalance(), 1e-9);
+        return captor.getValue();
+    }
+
+    private MockedStatic<StockMarket> mockMarket() {
+        MockedStatic<StockMarket> mockedStatic = Mockito.mockStatic(StockMarket.class);
+        StockMarket stockMarketMock = Mockito.mock(StockMarket.class);
+        mockedStatic.when(StockMarket::Instance).thenReturn(stockMarketMock);
+        when(stockMarketMock.getQuotes(anyCollection())).thenAnswer(invocation -> {
+            Map<String, StockQuote> all = Map.of(
+                    "XXXX", new StockQuote(stockX, stockX.getPrice()),
+                    "YYYY", new StockQuote(stockY, stockY.getPrice()));
+            Map<String, StockQuote> quotes = new HashMap<>();
+            for (Object ticker : (Collection<?>) invocation.getArgument(0)) {
+                if (all.containsKey(ticker)) {
+                    quotes.put((String) ticker, all.get(ticker));
+                }
+            }
+            return quotes;
+        });
+        return mockedStatic;
+    }
+
+    private User createMockUserWithBalance(double balance) throws ValidationException {
+        User user = userFactory.create("testUser", "password");
+        user.addBalance(balance);
+        when(dataAccess.getUserWithCredential("dummy")).thenReturn(user);
+        return user;
+    }
+}
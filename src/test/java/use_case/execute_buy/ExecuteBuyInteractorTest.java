@@ -5,8 +5,10 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
+import utility.PasswordHasher;
 import utility.exceptions.ValidationException;
 
+import java.io.IOException;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -20,7 +22,7 @@ class ExecuteBuyInteractorTest {
 
     @BeforeEach
     void setUp() {
-        userFactory = new UserFactory();
+        userFactory = new UserFactory(new PasswordHasher(1));
         dataAccess = mock(ExecuteBuyDataAccessInterface.class);
         outputPresenter = mock(ExecuteBuyOutputBoundary.class);
     }
@@ -69,6 +71,28 @@ class ExecuteBuyInteractorTest {
         }
     }
 
+    @Test
+    void storageFailureTest() throws Exception {
+        User mockUser = createMockUserWithBalance(10000.0);
+        Stock stock = new Stock("XXXX", "X Company", "Technology", 100.0);
+        doThrow(new IOException()).when(dataAccess).recordFills(any(), anyDouble(), any(), any());
+
+        try (MockedStatic<StockMarket> mockedStatic = Mockito.mockStatic(StockMarket.class)) {
+            StockMarket stockMarketMock = Mockito.mock(StockMarket.class);
+            mockedStatic.when(StockMarket::Instance).thenReturn(stockMarketMock);
+            when(stockMarketMock.getStock("XXXX")).thenReturn(Optional.of(stock));
+
+            ExecuteBuyInputData inputData = new ExecuteBuyInputData("dummy", "XXXX", 10);
+            new ExecuteBuyInteractor(dataAccess, outputPresenter).execute(inputData);
+
+            // an order that cannot be recorded is not filled
+            verify(outputPresenter).prepareStorageExceptionView();
+            assertEquals(10000.0, mockUser.getBalance(), 1e-9);
+            assertFalse(mockUser.getPortfolio().getUserStock("XXXX").isPresent());
+            assertEquals(0, mockUser.getTransactionHistory().size());
+        }
+    }
+
     private User createMockUserWithBalance(double balance) throws ValidationException {
         User user = userFactory.create("testUser", "password");
         user.addBalance(balance);
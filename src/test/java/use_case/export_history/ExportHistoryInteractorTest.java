@@ -0,0 +1,68 @@
+package use_case.export_history;
+
+import entity.TransactionFileFormat;
+import entity.User;
+import entity.UserFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import utility.PasswordHasher;
+import utility.exceptions.ValidationException;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ExportHistoryInteractorTest {
+
+    private ExportHistoryDataAccessInterface dataAccess;
+    private ExportHistoryOutputBoundary outputPresenter;
+    private User mockUser;
+    private final Path file = Path.of("history.csv");
+
+    @BeforeEach
+    void setUp() throws ValidationException {
+        dataAccess = Mockito.mock(ExportHistoryDataAccessInterface.class);
+        outputPresenter = Mockito.mock(ExportHistoryOutputBoundary.class);
+        mockUser = new UserFactory(new PasswordHasher(1)).create("testUser", "password");
+        when(dataAccess.getUserWithCredential("dummy")).thenReturn(mockUser);
+    }
+
+    @Test
+    void successTest() throws IOException {
+        when(dataAccess.exportTransactionHistory(mockUser, file, TransactionFileFormat.CSV)).thenReturn(42);
+
+        new ExportHistoryInteractor(dataAccess, outputPresenter)
+                .execute(new ExportHistoryInputData("dummy", file, TransactionFileFormat.CSV));
+
+        ArgumentCaptor<ExportHistoryOutputData> captor = ArgumentCaptor.forClass(ExportHistoryOutputData.class);
+        verify(outputPresenter).prepareSuccessView(captor.capture());
+        assertEquals(file, captor.getValue().file());
+        assertEquals(42, captor.getValue().transactionCount());
+    }
+
+    @Test
+    void storageFailureTest() throws IOException {
+        when(dataAccess.exportTransactionHistory(any(), any(), any())).thenThrow(new IOException());
+
+        new ExportHistoryInteractor(dataAccess, outputPresenter)
+                .execute(new ExportHistoryInputData("dummy", file, TransactionFileFormat.BINARY));
+
+        verify(outputPresenter).prepareStorageExceptionView();
+    }
+
+    @Test
+    void validationFailureTest() throws ValidationException, IOException {
+        when(dataAccess.getUserWithCredential("dummy")).thenThrow(new ValidationException());
+
+        new ExportHistoryInteractor(dataAccess, outputPresenter)
+                .execute(new ExportHistoryInputData("dummy", file, TransactionFileFormat.CSV));
+
+        verify(outputPresenter).prepareValidationExceptionView();
+        verify(dataAccess, never()).exportTransactionHistory(any(), any(), any());
+    }
+}
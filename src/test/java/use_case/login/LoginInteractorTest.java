@@ -3,11 +3,13 @@ package use_case.login;
 import entity.Stock;
 import entity.StockMarket;
 import entity.User;
+import entity.UserFactory;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
 import utility.ClientSessionManager;
+import utility.PasswordHasher;
 import utility.SessionManager;
 import utility.exceptions.ValidationException;
 
@@ -31,7 +33,7 @@ class LoginInteractorTest {
 
     @Test
     void successfulLoginTest() throws ValidationException {
-        User mockUser = new User("testUser", "password");
+        User mockUser = new UserFactory(new PasswordHasher(1)).create("testUser", "password");
         String credential = "session123";
         List<Stock> stocks = Collections.singletonList(new Stock("AAPL", "Apple Inc.", "Technology", 150.0));
 
@@ -55,8 +57,9 @@ class LoginInteractorTest {
             LoginInputData inputData = new LoginInputData("testUser", "password");
             interactor.execute(inputData);
 
-            verify(outputPresenter).prepareSuccessView(new LoginOutputData(mockUser, stocks));
-            verify(clientSessionManagerMock).setCredential(credential);
+            verify(outputPresenter).prepareSuccessView(new LoginOutputData(mockUser, credential, stocks));
+            // the presenter keeps the credential of its client, the interactor serves many clients
+            verify(clientSessionManagerMock, never()).setCredential(any());
         }
     }
 
@@ -0,0 +1,90 @@
+package use_case.login;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+class LoginPipelineTest {
+
+    private LoginInputBoundary interactor;
+    private LoginOutputBoundary outputPresenter;
+    private LoginPipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        interactor = mock(LoginInputBoundary.class);
+        outputPresenter = mock(LoginOutputBoundary.class);
+        pipeline = new LoginPipeline(interactor, outputPresenter, 1, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pipeline.shutdown();
+    }
+
+    @Test
+    void loginRunsOnPipelineTest() {
+        LoginInputData inputData = new LoginInputData("testUser", "password");
+        pipeline.execute(inputData);
+        pipeline.shutdown();
+
+        verify(interactor).execute(inputData);
+        verify(outputPresenter, never()).prepareBusyExceptionView();
+        assertEquals(1, pipeline.getLatency().getCount());
+    }
+
+    @Test
+    void loginWithOwnPresenterTest() {
+        LoginInputBoundary requestInteractor = mock(LoginInputBoundary.class);
+        LoginOutputBoundary requestPresenter = mock(LoginOutputBoundary.class);
+        LoginInputData inputData = new LoginInputData("testUser", "password");
+        pipeline.execute(inputData, requestInteractor, requestPresenter);
+        pipeline.shutdown();
+
+        verify(requestInteractor).execute(inputData);
+        verify(interactor, never()).execute(any());
+    }
+
+    @Test
+    void failingLoginTest() {
+        LoginOutputBoundary requestPresenter = mock(LoginOutputBoundary.class);
+        LoginInputBoundary failing = data -> {
+            throw new IllegalStateException("the account cannot be read");
+        };
+        pipeline.execute(new LoginInputData("testUser", "password"), failing, requestPresenter);
+        pipeline.shutdown();
+
+        // the failure is presented, so a caller waiting for the presenter is answered
+        verify(requestPresenter).prepareErrorView();
+        assertEquals(1, pipeline.getLatency().getCount());
+    }
+
+    @Test
+    void busyErrorTest() throws InterruptedException {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            running.countDown();
+            release.await();
+            return null;
+        }).when(interactor).execute(any());
+
+        // one login runs, one waits and the third finds the queue full
+        pipeline.execute(new LoginInputData("user1", "password"));
+        assertTrue(running.await(10, TimeUnit.SECONDS));
+        pipeline.execute(new LoginInputData("user2", "password"));
+        pipeline.execute(new LoginInputData("user3", "password"));
+
+        verify(outputPresenter).prepareBusyExceptionView();
+        release.countDown();
+        pipeline.shutdown();
+        verify(interactor, times(2)).execute(any());
+    }
+}
@@ -0,0 +1,72 @@
+package use_case.view_equity_curve;
+
+import entity.EquityCurve;
+import entity.User;
+import entity.UserFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import utility.PasswordHasher;
+import utility.exceptions.ValidationException;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class ViewEquityCurveInteractorTest {
+
+    private ViewEquityCurveDataAccessInterface dataAccess;
+    private ViewEquityCurveOutputBoundary outputPresenter;
+    private User mockUser;
+
+    @BeforeEach
+    void setUp() throws ValidationException {
+        dataAccess = Mockito.mock(ViewEquityCurveDataAccessInterface.class);
+        outputPresenter = Mockito.mock(ViewEquityCurveOutputBoundary.class);
+        mockUser = new UserFactory(new PasswordHasher(1)).create("testUser", "password");
+        when(dataAccess.getUserWithCredential("dummy")).thenReturn(mockUser);
+    }
+
+    @Test
+    void successTest() throws IOException {
+        // total assets 1000, 1200, 900, 1100
+        EquityCurve curve = new EquityCurve(
+                new long[]{1000, 2000, 3000, 4000},
+                new double[]{1000, 200, 300, 100},
+                new double[]{0, 1000, 600, 1000});
+        when(dataAccess.getEquityCurve(mockUser, 1000, 4000)).thenReturn(curve);
+
+        new ViewEquityCurveInteractor(dataAccess, outputPresenter)
+                .execute(new ViewEquityCurveInputData("dummy", 1000, 4000));
+
+        ArgumentCaptor<ViewEquityCurveOutputData> captor = ArgumentCaptor.forClass(ViewEquityCurveOutputData.class);
+        verify(outputPresenter).prepareSuccessView(captor.capture());
+        assertSame(curve, captor.getValue().equityCurve());
+        assertEquals(0.1, captor.getValue().totalReturn(), 1e-9);
+        assertEquals(0.25, captor.getValue().maxDrawdown(), 1e-9);
+    }
+
+    @Test
+    void invalidRangeTest() throws IOException {
+        new ViewEquityCurveInteractor(dataAccess, outputPresenter)
+                .execute(new ViewEquityCurveInputData("dummy", 4000, 1000));
+
+        verify(outputPresenter).prepareInvalidRangeExceptionView();
+        verify(dataAccess, never()).getEquityCurve(any(), anyLong(), anyLong());
+    }
+
+    @Test
+    void storageFailureTest() throws IOException {
+        when(dataAccess.getEquityCurve(any(), anyLong(), anyLong())).thenThrow(new IOException());
+
+        new ViewEquityCurveInteractor(dataAccess, outputPresenter)
+                .execute(new ViewEquityCurveInputData("dummy", 1000, 4000));
+
+        verify(outputPresenter).prepareStorageExceptionView();
+    }
+}
@@ -1,19 +1,32 @@
 package use_case.view_history;
 
 import entity.Transaction;
+import entity.TransactionArchive;
+import entity.TransactionFilter;
 import entity.TransactionHistory;
+import entity.TransactionPage;
 import entity.User;
 import entity.UserFactory;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
+import utility.PasswordHasher;
 import utility.exceptions.ValidationException;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -25,7 +38,7 @@ class ViewHistoryInteractorTest {
 
     @BeforeEach
     void setUp() {
-        userFactory = new UserFactory();
+        userFactory = new UserFactory(new PasswordHasher(1));
         dataAccess = Mockito.mock(ViewHistoryDataAccessInterface.class);
         outputPresenter = Mockito.mock(ViewHistoryOutputBoundary.class);
     }
@@ -73,4 +86,154 @@ class ViewHistoryInteractorTest {
         assertEquals(userTransactions, mockUserTransactionHistory.getAllTransactions(), "Transaction History should be contain the mockSellTransaction");
 
     }
+
+    @Test
+    void newestFirstPagingTest() throws ValidationException {
+        User mockUser = userFactory.create("testUser", "password");
+        List<Transaction> transactions = addTransactions(mockUser.getTransactionHistory(), 5);
+        when(dataAccess.getUserWithCredential("dummy")).thenReturn(mockUser);
+        ViewHistoryInteractor interactor = new ViewHistoryInteractor(dataAccess, outputPresenter);
+
+        // first page holds the two newest transactions
+        interactor.execute(new ViewHistoryInputData("dummy", 2, TransactionPage.NO_CURSOR,
+                TransactionPage.NO_CURSOR, true));
+        TransactionPage first = capturePage();
+        assertEquals(List.of(transactions.get(4), transactions.get(3)), first.transactions());
+        assertTrue(first.hasOlder());
+        assertFalse(first.hasNewer());
+
+        // the older pages follow the before cursor down to the oldest transaction
+        interactor.execute(new ViewHistoryInputData("dummy", 2, first.olderCursor(),
+                TransactionPage.NO_CURSOR, true));
+        TransactionPage second = capturePage();
+        assertEquals(List.of(transactions.get(2), transactions.get(1)), second.transactions());
+
+        interactor.execute(new ViewHistoryInputData("dummy", 2, second.olderCursor(),
+                TransactionPage.NO_CURSOR, true));
+        TransactionPage last = capturePage();
+        assertEquals(List.of(transactions.get(0)), last.transactions());
+        assertFalse(last.hasOlder());
+
+        // the after cursor goes back to the newer page
+        interactor.execute(new ViewHistoryInputData("dummy", 2, TransactionPage.NO_CURSOR,
+                last.newerCursor(), true));
+        assertEquals(second.transactions(), capturePage().transactions());
+    }
+
+    @Test
+    void oldestFirstPagingTest() throws ValidationException {
+        User mockUser = userFactory.create("testUser", "password");
+        TransactionHistory history = mockUser.getTransactionHistory();
+        List<Transaction> transactions = addTransactions(history, 3);
+        when(dataAccess.getUserWithCredential("dummy")).thenReturn(mockUser);
+        ViewHistoryInteractor interactor = new ViewHistoryInteractor(dataAccess, outputPresenter);
+
+        interactor.execute(new ViewHistoryInputData("dummy", 2, TransactionPage.NO_CURSOR,
+                TransactionPage.NO_CURSOR, false));
+        TransactionPage page = capturePage();
+        assertEquals(List.of(transactions.get(0), transactions.get(1)), page.transactions());
+        assertTrue(page.hasNewer());
+
+        // a page stays valid while new transactions are appended
+        addTransactions(history, 1);
+        assertEquals(List.of(transactions.get(0), transactions.get(1)), page.transactions());
+    }
+
+    @Test
+    void tickerAndTimeFilterTest() throws ValidationException {
+        User mockUser = userFactory.create("testUser", "password");
+        TransactionHistory history = mockUser.getTransactionHistory();
+        String[] tickers = {"AAAA", "BBBB"};
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Transaction transaction = new Transaction(new Date(i * 1000L), tickers[i % 2], i + 1, 100.0, "buy");
+            history.addTransaction(transaction);
+            transactions.add(transaction);
+        }
+        when(dataAccess.getUserWithCredential("dummy")).thenReturn(mockUser);
+        ViewHistoryInteractor interactor = new ViewHistoryInteractor(dataAccess, outputPresenter);
+
+        // AAAA trades from the 3rd to the 8th second, newest first, two per page
+        interactor.execute(new ViewHistoryInputData("dummy", 2, TransactionPage.NO_CURSOR,
+                TransactionPage.NO_CURSOR, true, "AAAA", 3000, 8000));
+        TransactionPage first = capturePage();
+        assertEquals(List.of(transactions.get(8), transactions.get(6)), first.transactions());
+        assertEquals(3, first.matchCount());
+        assertTrue(first.hasOlder());
+
+        interactor.execute(new ViewHistoryInputData("dummy", 2, first.olderCursor(),
+                TransactionPage.NO_CURSOR, true, "AAAA", 3000, 8000));
+        TransactionPage second = capturePage();
+        assertEquals(List.of(transactions.get(4)), second.transactions());
+        assertFalse(second.hasOlder());
+        assertTrue(second.hasNewer());
+    }
+
+    @Test
+    void invalidRangeTest() throws ValidationException {
+        User mockUser = userFactory.create("testUser", "password");
+        when(dataAccess.getUserWithCredential("dummy")).thenReturn(mockUser);
+
+        new ViewHistoryInteractor(dataAccess, outputPresenter).execute(new ViewHistoryInputData("dummy", 10,
+                TransactionPage.NO_CURSOR, TransactionPage.NO_CURSOR, true, null, 2000, 1000));
+
+        verify(outputPresenter).prepareInvalidRangeExceptionView();
+    }
+
+    @Test
+    void storageFailureTest() throws ValidationException, IOException {
+        User mockUser = userFactory.create("testUser", "password");
+        TransactionHistory history = mockUser.getTransactionHistory();
+        addTransactions(history, 3);
+        TransactionArchive archive = Mockito.mock(TransactionArchive.class);
+        UncheckedIOException failure = new UncheckedIOException(new IOException("unreadable segment"));
+        when(archive.get(anyInt())).thenThrow(failure);
+        when(archive.find(any(TransactionFilter.class), anyInt())).thenThrow(failure);
+        when(archive.timeLowerBound(anyLong())).thenThrow(failure);
+        history.attachArchive(archive);
+        history.archiveBefore(2000);
+        when(dataAccess.getUserWithCredential("dummy")).thenReturn(mockUser);
+
+        new ViewHistoryInteractor(dataAccess, outputPresenter).execute(new ViewHistoryInputData("dummy", 10,
+                TransactionPage.NO_CURSOR, TransactionPage.NO_CURSOR, true, "XXXX", 0, 5000));
+
+        verify(outputPresenter).prepareStorageExceptionView();
+    }
+
+    @Test
+    void archivedPageReadBeforePresentingTest() throws ValidationException, IOException {
+        User mockUser = userFactory.create("testUser", "password");
+        TransactionHistory history = mockUser.getTransactionHistory();
+        // a history reloaded from an archive of three transactions, of which only the newest can be read
+        TransactionArchive archive = Mockito.mock(TransactionArchive.class);
+        when(archive.size()).thenReturn(3);
+        when(archive.isTimeOrdered()).thenReturn(true);
+        when(archive.get(anyInt())).thenThrow(new UncheckedIOException(new IOException("unreadable segment")));
+        doReturn(new Transaction(new Date(2000), "XXXX", 3, 100.0, "buy")).when(archive).get(2);
+        history.attachArchive(archive);
+        when(dataAccess.getUserWithCredential("dummy")).thenReturn(mockUser);
+
+        // an unfiltered page is only read when its rows are, so the failure must surface in the interactor
+        new ViewHistoryInteractor(dataAccess, outputPresenter).execute(new ViewHistoryInputData("dummy", 10,
+                TransactionPage.NO_CURSOR, TransactionPage.NO_CURSOR, true, null, Long.MIN_VALUE, Long.MAX_VALUE));
+
+        verify(outputPresenter).prepareStorageExceptionView();
+        verify(outputPresenter, Mockito.never()).prepareSuccessView(any());
+    }
+
+    private List<Transaction> addTransactions(TransactionHistory history, int count) {
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Transaction transaction = new Transaction(new Date(i * 1000L), "XXXX", i + 1, 100.0, "buy");
+            history.addTransaction(transaction);
+            transactions.add(transaction);
+        }
+        return transactions;
+    }
+
+    private TransactionPage capturePage() {
+        ArgumentCaptor<ViewHistoryOutputData> captor = ArgumentCaptor.forClass(ViewHistoryOutputData.class);
+        verify(outputPresenter, Mockito.atLeastOnce()).prepareSuccessView(captor.capture());
+        return captor.getValue().page();
+    }
 }
@@ -0,0 +1,77 @@
+package use_case.view_leaderboard;
+
+import entity.User;
+import entity.UserFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import utility.PasswordHasher;
+import utility.exceptions.ValidationException;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ViewLeaderboardInteractorTest {
+
+    private ViewLeaderboardDataAccessInterface dataAccess;
+    private ViewLeaderboardOutputBoundary outputPresenter;
+    private UserFactory userFactory;
+
+    @BeforeEach
+    void setUp() {
+        userFactory = new UserFactory(new PasswordHasher(1));
+        dataAccess = Mockito.mock(ViewLeaderboardDataAccessInterface.class);
+        outputPresenter = Mockito.mock(ViewLeaderboardOutputBoundary.class);
+    }
+
+    @Test
+    void successTest() throws ValidationException {
+        User mockUser = userFactory.create("testUser", "password");
+        List<LeaderboardEntry> top = List.of(
+                new LeaderboardEntry(1, "first", 3000.0),
+                new LeaderboardEntry(2, "second", 2000.0));
+        List<LeaderboardEntry> neighbours = List.of(
+                new LeaderboardEntry(4, "fourth", 1200.0),
+                new LeaderboardEntry(5, "testUser", 1000.0),
+                new LeaderboardEntry(6, "sixth", 900.0));
+
+        when(dataAccess.getUserWithCredential("dummy")).thenReturn(mockUser);
+        when(dataAccess.getRank(mockUser)).thenReturn(5);
+        when(dataAccess.getEntries(1, 2)).thenReturn(top);
+        when(dataAccess.getEntries(4, 3)).thenReturn(neighbours);
+        when(dataAccess.getRankedUserCount()).thenReturn(10);
+
+        new ViewLeaderboardInteractor(dataAccess, outputPresenter)
+                .execute(new ViewLeaderboardInputData("dummy", 2, 1));
+
+        verify(outputPresenter).prepareSuccessView(new ViewLeaderboardOutputData(top, 5, neighbours, 10));
+    }
+
+    @Test
+    void neighboursClampedAtTopTest() throws ValidationException {
+        User mockUser = userFactory.create("testUser", "password");
+        when(dataAccess.getUserWithCredential("dummy")).thenReturn(mockUser);
+        when(dataAccess.getRank(mockUser)).thenReturn(1);
+
+        new ViewLeaderboardInteractor(dataAccess, outputPresenter)
+                .execute(new ViewLeaderboardInputData("dummy", 5, 2));
+
+        // the window starts at rank 1 and still reaches two ranks below the user
+        verify(dataAccess).getEntries(1, 5);
+        verify(dataAccess).getEntries(1, 3);
+        verify(outputPresenter).prepareSuccessView(any());
+    }
+
+    @Test
+    void validationFailureTest() throws ValidationException {
+        when(dataAccess.getUserWithCredential("dummy")).thenThrow(new ValidationException());
+
+        new ViewLeaderboardInteractor(dataAccess, outputPresenter)
+                .execute(new ViewLeaderboardInputData("dummy", 10, 2));
+
+        verify(outputPresenter).prepareValidationExceptionView();
+        verify(outputPresenter, never()).prepareSuccessView(any());
+    }
+}
@@ -0,0 +1,97 @@
+package use_case.view_risk;
+
+import entity.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import utility.PasswordHasher;
+import utility.exceptions.ValidationException;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ViewRiskInteractorTest {
+
+    private ViewRiskDataAccessInterface dataAccess;
+    private ViewRiskOutputBoundary outputPresenter;
+    private UserFactory userFactory;
+    private PriceHistory priceHistory;
+    private Stock stockX;
+    private Stock stockY;
+
+    @BeforeEach
+    void setUp() {
+        userFactory = new UserFactory(new PasswordHasher(1));
+        dataAccess = Mockito.mock(ViewRiskDataAccessInterface.class);
+        outputPresenter = Mockito.mock(ViewRiskOutputBoundary.class);
+        priceHistory = new PriceHistory(250);
+        stockX = new Stock("XXXX", "X Company", "Technology", 100.0);
+        stockY = new Stock("YYYY", "Y Company", "Technology", 50.0);
+    }
+
+    @Test
+    void successTest() throws ValidationException {
+        User mockUser = userFactory.create("testUser", "password");
+        mockUser.getPortfolio().addStock(new UserStock(stockX, 100.0, 10));
+        mockUser.getPortfolio().addStock(new UserStock(stockY, 50.0, 20));
+        when(dataAccess.getUserWithCredential("dummy")).thenReturn(mockUser);
+
+        // both stocks move +10%, -10%, +10%
+        recordRound(100.0, 50.0);
+        recordRound(110.0, 55.0);
+        recordRound(99.0, 49.5);
+        recordRound(108.9, 54.45);
+
+        new ViewRiskInteractor(dataAccess, outputPresenter, new RiskEngine(priceHistory))
+                .execute(new ViewRiskInputData("dummy", 0.95, 10000));
+
+        ArgumentCaptor<ViewRiskOutputData> captor = ArgumentCaptor.forClass(ViewRiskOutputData.class);
+        verify(outputPresenter).prepareSuccessView(captor.capture());
+        PortfolioRisk risk = captor.getValue().portfolioRisk();
+
+        assertEquals(3, risk.observations());
+        // each position is worth 1000, the worst historical round loses 10% of 2000
+        assertEquals(200.0, risk.historicalVaR(), 1e-6);
+        assertTrue(risk.monteCarloVaR() > 0, "Monte Carlo VaR should be a loss for a volatile portfolio.");
+        assertArrayEquals(new double[]{1.0, 1.0}, risk.betas(), 1e-9);
+        assertEquals(1.0, risk.correlations()[0][1], 1e-9);
+        assertEquals(1.0, risk.correlations()[1][0], 1e-9);
+    }
+
+    @Test
+    void insufficientHistoryTest() throws ValidationException {
+        User mockUser = userFactory.create("testUser", "password");
+        mockUser.getPortfolio().addStock(new UserStock(stockX, 100.0, 10));
+        when(dataAccess.getUserWithCredential("dummy")).thenReturn(mockUser);
+        recordRound(100.0, 50.0);
+        RiskEngine riskEngine = new RiskEngine(priceHistory);
+        assertFalse(riskEngine.hasEnoughHistory());
+
+        new ViewRiskInteractor(dataAccess, outputPresenter, riskEngine)
+                .execute(new ViewRiskInputData("dummy", 0.95, 1000));
+
+        verify(outputPresenter).prepareInsufficientHistoryExceptionView();
+        verify(outputPresenter, never()).prepareSuccessView(any());
+    }
+
+    @Test
+    void invalidParametersTest() throws ValidationException {
+        User mockUser = userFactory.create("testUser", "password");
+        when(dataAccess.getUserWithCredential("dummy")).thenReturn(mockUser);
+
+        new ViewRiskInteractor(dataAccess, outputPresenter, new RiskEngine(priceHistory))
+                .execute(new ViewRiskInputData("dummy", 1.5, 1000));
+
+        verify(outputPresenter).prepareInvalidParametersExceptionView();
+    }
+
+    private void recordRound(double priceX, double priceY) {
+        priceHistory.record(List.of(
+                new Stock("XXXX", "X Company", "Technology", priceX),
+                new Stock("YYYY", "Y Company", "Technology", priceY)));
+    }
+}
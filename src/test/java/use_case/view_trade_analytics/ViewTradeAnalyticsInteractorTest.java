@@ -0,0 +1,73 @@
+package use_case.view_trade_analytics;
+
+import entity.RollupResolution;
+import entity.TradeRollup;
+import entity.User;
+import entity.UserFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import utility.PasswordHasher;
+import utility.exceptions.ValidationException;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class ViewTradeAnalyticsInteractorTest {
+
+    private ViewTradeAnalyticsDataAccessInterface dataAccess;
+    private ViewTradeAnalyticsOutputBoundary outputPresenter;
+    private User mockUser;
+
+    @BeforeEach
+    void setUp() throws ValidationException {
+        dataAccess = Mockito.mock(ViewTradeAnalyticsDataAccessInterface.class);
+        outputPresenter = Mockito.mock(ViewTradeAnalyticsOutputBoundary.class);
+        mockUser = new UserFactory(new PasswordHasher(1)).create("testUser", "password");
+        when(dataAccess.getUserWithCredential("dummy")).thenReturn(mockUser);
+    }
+
+    @Test
+    void successTest() {
+        // 10 @ 100 and 30 @ 120 across all users, 10 @ 100 by the user
+        List<TradeRollup> market = List.of(new TradeRollup(0, 10, 1000), new TradeRollup(60000, 30, 3600));
+        List<TradeRollup> user = List.of(new TradeRollup(0, 10, 1000));
+        when(dataAccess.getMarketRollups("AAPL", RollupResolution.MINUTE, 0, 120000)).thenReturn(market);
+        when(dataAccess.getUserRollups(mockUser, "AAPL", RollupResolution.MINUTE, 0, 120000)).thenReturn(user);
+
+        new ViewTradeAnalyticsInteractor(dataAccess, outputPresenter)
+                .execute(new ViewTradeAnalyticsInputData("dummy", "AAPL", RollupResolution.MINUTE, 0, 120000));
+
+        ArgumentCaptor<ViewTradeAnalyticsOutputData> captor =
+                ArgumentCaptor.forClass(ViewTradeAnalyticsOutputData.class);
+        verify(outputPresenter).prepareSuccessView(captor.capture());
+        assertEquals(market, captor.getValue().marketRollups());
+        assertEquals(40, captor.getValue().marketTotal().volume());
+        assertEquals(115, captor.getValue().marketTotal().getVwap(), 1e-9);
+        assertEquals(100, captor.getValue().userTotal().getVwap(), 1e-9);
+    }
+
+    @Test
+    void invalidParametersTest() {
+        new ViewTradeAnalyticsInteractor(dataAccess, outputPresenter)
+                .execute(new ViewTradeAnalyticsInputData("dummy", "AAPL", RollupResolution.HOUR, 5000, 1000));
+
+        verify(outputPresenter).prepareInvalidParametersExceptionView();
+        verify(dataAccess, never()).getMarketRollups(any(), any(), anyLong(), anyLong());
+    }
+
+    @Test
+    void validationFailureTest() throws ValidationException {
+        when(dataAccess.getUserWithCredential("dummy")).thenThrow(new ValidationException());
+
+        new ViewTradeAnalyticsInteractor(dataAccess, outputPresenter)
+                .execute(new ViewTradeAnalyticsInputData("dummy", "AAPL", RollupResolution.DAY, 0, 1000));
+
+        verify(outputPresenter).prepareValidationExceptionView();
+    }
+}
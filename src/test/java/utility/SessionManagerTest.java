@@ -0,0 +1,134 @@
+package utility;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionManagerTest {
+
+    private static final long MINUTE = TimeUnit.MINUTES.toMillis(1);
+
+    private final AtomicLong now = new AtomicLong(TimeUnit.DAYS.toMillis(1));
+    private final SessionManager sessionManager = new SessionManager(now::get);
+
+    @Test
+    void idleSessionExpiresTest() {
+        String credential = sessionManager.createSession("alice");
+        assertEquals("alice", sessionManager.getUsername(credential).orElseThrow());
+
+        advance(31 * MINUTE);
+        assertFalse(sessionManager.isValidSession(credential));
+        assertTrue(sessionManager.getUsername(credential).isEmpty());
+        assertEquals(0, sessionManager.getSessionCount());
+    }
+
+    @Test
+    void wheelRemovesExpiredSessionsTest() {
+        sessionManager.createSession("alice");
+        sessionManager.createSession("bob");
+
+        advance(29 * MINUTE);
+        assertEquals(2, sessionManager.getSessionCount());
+        advance(2 * MINUTE);
+        assertEquals(0, sessionManager.getSessionCount());
+    }
+
+    @Test
+    void usedSessionIsRescheduledTest() {
+        String credential = sessionManager.createSession("alice");
+        advance(20 * MINUTE);
+        assertTrue(sessionManager.isValidSession(credential));
+
+        // the slot of the first deadline comes up, and the session moves to the slot of its new one
+        advance(20 * MINUTE);
+        assertEquals(1, sessionManager.getSessionCount());
+        advance(11 * MINUTE);
+        assertEquals(0, sessionManager.getSessionCount());
+        assertFalse(sessionManager.isValidSession(credential));
+    }
+
+    @Test
+    void absoluteTtlTest() {
+        String credential = sessionManager.createSession("alice");
+        // used every 20 minutes, the session still ends 12 hours after it was created
+        for (int i = 0; i < 35; i++) {
+            advance(20 * MINUTE);
+            assertTrue(sessionManager.isValidSession(credential));
+        }
+        advance(20 * MINUTE);
+        assertFalse(sessionManager.isValidSession(credential));
+        assertEquals(0, sessionManager.getSessionCount());
+    }
+
+    @Test
+    void endSessionTest() {
+        String credential = sessionManager.createSession("alice");
+        sessionManager.endSession(credential);
+        assertFalse(sessionManager.isValidSession(credential));
+        assertEquals(0, sessionManager.getSessionCount());
+
+        // ending an unknown or expired session does nothing
+        sessionManager.endSession(credential);
+        String expired = sessionManager.createSession("bob");
+        now.addAndGet(31 * MINUTE);
+        sessionManager.endSession(expired);
+        assertEquals(0, sessionManager.getSessionCount());
+    }
+
+    @Test
+    void principalIsCachedTest() {
+        String credential = sessionManager.createSession("alice");
+        AtomicInteger resolved = new AtomicInteger();
+        Object alice = new Object();
+
+        assertSame(alice, sessionManager.getPrincipal(credential, Object.class, username -> {
+            resolved.incrementAndGet();
+            return alice;
+        }));
+        assertSame(alice, sessionManager.getPrincipal(credential, Object.class, username -> {
+            resolved.incrementAndGet();
+            return new Object();
+        }));
+        assertEquals(1, resolved.get());
+
+        // a principal of another type is resolved again
+        assertEquals("alice", sessionManager.getPrincipal(credential, String.class, username -> username));
+    }
+
+    @Test
+    void principalGoesWithSessionTest() {
+        AtomicInteger resolved = new AtomicInteger();
+        String credential = sessionManager.createSession("alice");
+        sessionManager.getPrincipal(credential, Object.class, username -> {
+            resolved.incrementAndGet();
+            return new Object();
+        });
+
+        sessionManager.endSession(credential);
+        assertNull(sessionManager.getPrincipal(credential, Object.class, username -> {
+            resolved.incrementAndGet();
+            return new Object();
+        }));
+
+        String expired = sessionManager.createSession("alice");
+        advance(31 * MINUTE);
+        assertNull(sessionManager.getPrincipal(expired, Object.class, username -> {
+            resolved.incrementAndGet();
+            return new Object();
+        }));
+        assertEquals(1, resolved.get());
+
+        // an unknown principal is not kept
+        String credentialWithoutUser = sessionManager.createSession("carol");
+        assertNull(sessionManager.getPrincipal(credentialWithoutUser, Object.class, username -> null));
+    }
+
+    // move the clock forward and let the wheel catch up
+    private void advance(long millis) {
+        sessionManager.expireUntil(now.addAndGet(millis));
+    }
+}
@@ -0,0 +1,106 @@
+package utility.collections;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntIntHashMapTest {
+
+    private static final int MISSING = -1;
+
+    @Test
+    void putGetRemoveTest() {
+        IntIntHashMap map = new IntIntHashMap();
+        assertTrue(map.isEmpty());
+        assertEquals(MISSING, map.put(7, 70, MISSING));
+        assertEquals(70, map.put(7, 71, MISSING));
+        assertEquals(71, map.get(7, MISSING));
+        assertEquals(MISSING, map.get(8, MISSING));
+        assertEquals(MISSING, map.get(-3, MISSING));
+        assertEquals(1, map.size());
+
+        assertEquals(71, map.remove(7, MISSING));
+        assertEquals(MISSING, map.remove(7, MISSING));
+        assertEquals(MISSING, map.remove(-3, MISSING));
+        assertTrue(map.isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> map.put(-1, 0, MISSING));
+    }
+
+    @Test
+    void growthTest() {
+        // from the minimum table through many doublings
+        IntIntHashMap map = new IntIntHashMap(1);
+        for (int key = 0; key < 100_000; key++) {
+            map.put(key, key * 3, MISSING);
+        }
+        assertEquals(100_000, map.size());
+        for (int key = 0; key < 100_000; key++) {
+            assertEquals(key * 3, map.get(key, MISSING));
+        }
+        int[] keys = map.keys();
+        Arrays.sort(keys);
+        for (int i = 0; i < keys.length; i++) {
+            assertEquals(i, keys[i]);
+        }
+    }
+
+    @Test
+    void removalKeepsProbeChainsTest() {
+        // a table that never grows, so most keys collide and removals shift entries back across the wrap
+        IntIntHashMap map = new IntIntHashMap(48);
+        Map<Integer, Integer> expected = new HashMap<>();
+        Random random = new Random(11);
+        for (int step = 0; step < 200_000; step++) {
+            int key = random.nextInt(64);
+            if (expected.size() < 48 && random.nextBoolean()) {
+                assertEquals(expected.getOrDefault(key, MISSING), map.put(key, step, MISSING));
+                expected.put(key, step);
+            } else {
+                Integer removed = expected.remove(key);
+                assertEquals(removed == null ? MISSING : removed, map.remove(key, MISSING));
+            }
+            if (step % 1000 == 0) {
+                assertSameEntries(expected, map);
+            }
+        }
+        assertSameEntries(expected, map);
+    }
+
+    @Test
+    void largeKeysTest() {
+        IntIntHashMap map = new IntIntHashMap();
+        int[] keys = {0, 1, 1 << 16, 1 << 24, Integer.MAX_VALUE, Integer.MAX_VALUE - 1};
+        for (int key : keys) {
+            map.put(key, key ^ 0x5555, MISSING);
+        }
+        for (int key : keys) {
+            assertEquals(key ^ 0x5555, map.get(key, MISSING));
+        }
+    }
+
+    @Test
+    void forEachTest() {
+        IntIntHashMap map = new IntIntHashMap();
+        for (int key = 0; key < 100; key++) {
+            map.put(key, key + 1, MISSING);
+        }
+        map.remove(50, MISSING);
+        Map<Integer, Integer> entries = new HashMap<>();
+        map.forEach(entries::put);
+        assertEquals(99, entries.size());
+        assertFalse(entries.containsKey(50));
+        assertEquals(100, entries.get(99));
+    }
+
+    private static void assertSameEntries(Map<Integer, Integer> expected, IntIntHashMap map) {
+        assertEquals(expected.size(), map.size());
+        for (int key = 0; key < 64; key++) {
+            assertEquals(expected.getOrDefault(key, MISSING), map.get(key, MISSING), "key " + key);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package utility.collections;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LotDequeTest {
+
+    @Test
+    void addAndRemoveEndsTest() {
+        LotDeque lots = new LotDeque();
+        lots.addLast(1, 1000, 10, 100.0);
+        lots.addLast(2, 2000, 20, 110.0);
+        lots.addLast(5, 3000, 30, 120.0);
+
+        assertEquals(3, lots.size());
+        assertEquals(2, lots.getId(1));
+        assertEquals(2000, lots.getTimestamp(1));
+        assertEquals(20, lots.getQuantity(1));
+        assertEquals(110.0, lots.getPrice(1));
+
+        lots.removeFirst();
+        lots.removeLast();
+        assertEquals(1, lots.size());
+        assertEquals(2, lots.getId(0));
+        lots.setQuantity(0, 7);
+        assertEquals(7, lots.getQuantity(0));
+
+        lots.clear();
+        assertTrue(lots.isEmpty());
+        assertThrows(NoSuchElementException.class, lots::removeFirst);
+        assertThrows(NoSuchElementException.class, () -> lots.getId(0));
+    }
+
+    @Test
+    void idsMustIncreaseTest() {
+        LotDeque lots = new LotDeque();
+        lots.addLast(5, 0, 1, 1.0);
+        assertThrows(IllegalArgumentException.class, () -> lots.addLast(5, 0, 1, 1.0));
+        assertThrows(IllegalArgumentException.class, () -> lots.addLast(4, 0, 1, 1.0));
+        assertEquals(1, lots.size());
+    }
+
+    @Test
+    void wrapAroundTest() {
+        LotDeque lots = new LotDeque();
+        long nextId = 0;
+        // the head moves through the 4 slots many times
+        for (int i = 0; i < 3; i++) {
+            lots.addLast(nextId++, 0, 1, 1.0);
+        }
+        for (int round = 0; round < 20; round++) {
+            lots.removeFirst();
+            lots.addLast(nextId++, round, round, round);
+            assertEquals(3, lots.size());
+            assertEquals(nextId - 3, lots.getId(0));
+            assertEquals(nextId - 1, lots.getId(2));
+            assertEquals(2, lots.indexOf(nextId - 1));
+        }
+        // growing while the lots wrap keeps them in order
+        for (int i = 0; i < 10; i++) {
+            lots.addLast(nextId++, 0, i, 0);
+        }
+        for (int i = 0; i < lots.size(); i++) {
+            assertEquals(nextId - lots.size() + i, lots.getId(i));
+        }
+    }
+
+    @Test
+    void removeAtIndexTest() {
+        LotDeque lots = new LotDeque();
+        for (long id = 0; id < 8; id++) {
+            lots.addLast(id * 10, id, (int) id, id);
+        }
+        // near the front shifts the older lots, near the back the newer ones
+        lots.remove(1);
+        lots.remove(5);
+        assertArrayEquals(new long[]{0, 20, 30, 40, 50, 70}, ids(lots));
+        assertEquals(4, lots.indexOf(50));
+        assertEquals(-1, lots.indexOf(10));
+        assertEquals(-1, lots.indexOf(60));
+        assertEquals(5, lots.getQuantity(4));
+        assertThrows(NoSuchElementException.class, () -> lots.remove(6));
+    }
+
+    @Test
+    void matchesListTest() {
+        LotDeque lots = new LotDeque();
+        List<long[]> expected = new ArrayList<>();
+        Random random = new Random(3);
+        long nextId = 0;
+        for (int step = 0; step < 50_000; step++) {
+            int operation = random.nextInt(4);
+            if (operation <= 1 || expected.isEmpty()) {
+                long id = nextId;
+                nextId += 1 + random.nextInt(3);
+                lots.addLast(id, step, step % 100, step / 10.0);
+                expected.add(new long[]{id, step});
+            } else if (operation == 2) {
+                int index = random.nextInt(expected.size());
+                lots.remove(index);
+                expected.remove(index);
+            } else if (random.nextBoolean()) {
+                lots.removeFirst();
+                expected.remove(0);
+            } else {
+                lots.removeLast();
+                expected.remove(expected.size() - 1);
+            }
+            assertEquals(expected.size(), lots.size());
+            if (step % 500 == 0) {
+                for (int i = 0; i < expected.size(); i++) {
+                    assertEquals(expected.get(i)[0], lots.getId(i));
+                    assertEquals(expected.get(i)[1], lots.getTimestamp(i));
+                    assertEquals(i, lots.indexOf(expected.get(i)[0]));
+                }
+            }
+        }
+    }
+
+    private static long[] ids(LotDeque lots) {
+        long[] ids = new long[lots.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = lots.getId(i);
+        }
+        return ids;
+    }
+}